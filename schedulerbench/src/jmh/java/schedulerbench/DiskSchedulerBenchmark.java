@@ -0,0 +1,138 @@
+/*
+ * File:   DiskSchedulerBenchmark.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Throughput of every policy of DiskScheduler, on uniform or clustered
+ * requests from a hundred up to a hundred million.
+ *
+ */
+
+package schedulerbench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import schedulerdisk.CylinderStreamGenerator;
+import schedulerdisk.DiskScheduleResult;
+import schedulerdisk.DiskScheduler;
+import schedulerdisk.DiskTimingModel;
+
+/**
+ * Disk scheduler benchmark
+ *
+ * The requests are drawn once per trial by a CylinderStreamGenerator with a
+ * fixed seed, so every run and every policy sees the same input. Every
+ * operation schedules all of them on a new scheduler with the head in the
+ * middle of the disk, and returns the result so that nothing is optimized
+ * away.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DiskSchedulerBenchmark {
+
+    private static final long SEED = 0x5EEDL;
+
+    @Param({"100", "10000", "1000000", "100000000"})
+    public int size;
+
+    @Param({"5000"})
+    public int cylinders;
+
+    @Param({"UNIFORM", "CLUSTERED"})
+    public CylinderStreamGenerator.Pattern pattern;
+
+    private int[] requests;
+    private int[] sectors;
+    private DiskTimingModel timingModel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.requests = new CylinderStreamGenerator(SEED, this.pattern, this.cylinders).generate(this.size);
+
+        // The sectors are uniform over a track of 100 sectors
+        this.sectors = new CylinderStreamGenerator(SEED + 1, CylinderStreamGenerator.Pattern.UNIFORM, 100)
+                .generate(this.size);
+        this.timingModel = new DiskTimingModel(this.cylinders, 100, 7200, 0.5, 12, 8);
+    }
+
+    private DiskScheduler newScheduler() {
+        return new DiskScheduler(this.cylinders, this.cylinders / 2, this.cylinders / 2 - 1);
+    }
+
+    @Benchmark
+    public DiskScheduleResult useFCFS(ElementCounter counter) {
+        counter.elements += this.size;
+        return newScheduler().useFCFS(this.requests);
+    }
+
+    @Benchmark
+    public DiskScheduleResult useSSTF(ElementCounter counter) {
+        counter.elements += this.size;
+        return newScheduler().useSSTF(this.requests);
+    }
+
+    @Benchmark
+    public DiskScheduleResult useLOOK(ElementCounter counter) {
+        counter.elements += this.size;
+        return newScheduler().useLOOK(this.requests);
+    }
+
+    @Benchmark
+    public DiskScheduleResult useCLOOK(ElementCounter counter) {
+        counter.elements += this.size;
+        return newScheduler().useCLOOK(this.requests);
+    }
+
+    @Benchmark
+    public DiskScheduleResult useSCAN(ElementCounter counter) {
+        counter.elements += this.size;
+        return newScheduler().useSCAN(this.requests);
+    }
+
+    @Benchmark
+    public DiskScheduleResult useCSCAN(ElementCounter counter) {
+        counter.elements += this.size;
+        return newScheduler().useCSCAN(this.requests);
+    }
+
+    @Benchmark
+    public DiskScheduleResult useNStepSCAN(ElementCounter counter) {
+        counter.elements += this.size;
+        return newScheduler().useNStepSCAN(this.requests, 16, 0);
+    }
+
+    @Benchmark
+    public DiskScheduleResult useFSCAN(ElementCounter counter) {
+        counter.elements += this.size;
+        return newScheduler().useFSCAN(this.requests, 0);
+    }
+
+    @Benchmark
+    public DiskScheduleResult useSPTF(ElementCounter counter) {
+        counter.elements += this.size;
+        DiskScheduler scheduler = newScheduler();
+        scheduler.setTimingModel(this.timingModel, this.sectors);
+        return scheduler.useSPTF(this.requests);
+    }
+
+    @Benchmark
+    public long countMoves(ElementCounter counter) {
+        counter.elements += this.size;
+        return newScheduler().countMoves(this.requests);
+    }
+
+}
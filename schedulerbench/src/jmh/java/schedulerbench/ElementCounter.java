@@ -0,0 +1,42 @@
+/*
+ * File:   ElementCounter.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A secondary JMH result counting the elements (processes, references or
+ * requests) scheduled, so that runs of different sizes compare directly.
+ *
+ */
+
+package schedulerbench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Element counter
+ *
+ * JMH reports the elements field as a rate next to the operations of every
+ * benchmark which takes the counter as a parameter. An operation schedules
+ * a whole input, so the operations per second fall as the input grows, and
+ * it is the elements per second which stay flat for a linear algorithm,
+ * fall slowly for an n log n one and collapse for a quadratic one.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ElementCounter {
+
+    public long elements;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        this.elements = 0;
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * File:   MemorySchedulerBenchmark.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Throughput of every policy of MemoryScheduler, on Zipf, looping,
+ * scanning and phase-changing page references from a hundred up to a
+ * hundred million.
+ *
+ */
+
+package schedulerbench;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import schedulermem.MemoryScheduler;
+import schedulermem.PageStreamGenerator;
+import schedulermem.ReferenceTrace;
+
+/**
+ * Memory scheduler benchmark
+ *
+ * The references are drawn once per trial by a PageStreamGenerator with a
+ * fixed seed. With a writePercent above 0 they carry write bits, and the
+ * benchmarks run the ReferenceTrace versions of the policies, which also
+ * count the write-backs. Every operation runs on a new scheduler and
+ * returns its number of page faults.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemorySchedulerBenchmark {
+
+    private static final long SEED = 0x5EEDL;
+
+    @Param({"100", "10000", "1000000", "100000000"})
+    public int size;
+
+    @Param({"4096"})
+    public int pages;
+
+    @Param({"ZIPF", "LOOP", "SCAN", "PHASE_CHANGE"})
+    public PageStreamGenerator.Pattern pattern;
+
+    @Param({"256"})
+    public int frames;
+
+    @Param({"1000"})
+    public int delta;
+
+    @Param({"0", "25"})
+    public int writePercent;
+
+    private int[] references;
+    private ReferenceTrace trace;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.references = new PageStreamGenerator(SEED, this.pattern, this.pages).generate(this.size);
+
+        if (this.writePercent == 0) {
+            this.trace = null;
+        } else {
+            SplittableRandom random = new SplittableRandom(SEED + 1);
+            BitSet writes = new BitSet(this.size);
+            for (int i = 0; i < this.size; i++)
+                if (random.nextInt(100) < this.writePercent)
+                    writes.set(i);
+            this.trace = new ReferenceTrace(this.references, writes);
+        }
+    }
+
+    @Benchmark
+    public int useFIFO(ElementCounter counter) {
+        counter.elements += this.size;
+        MemoryScheduler scheduler = new MemoryScheduler(this.frames);
+        if (this.trace == null)
+            scheduler.useFIFO(this.references);
+        else
+            scheduler.useFIFO(this.trace);
+        return scheduler.getPageFaultCount();
+    }
+
+    @Benchmark
+    public int useOPT(ElementCounter counter) {
+        counter.elements += this.size;
+        MemoryScheduler scheduler = new MemoryScheduler(this.frames);
+        if (this.trace == null)
+            scheduler.useOPT(this.references);
+        else
+            scheduler.useOPT(this.trace);
+        return scheduler.getPageFaultCount();
+    }
+
+    @Benchmark
+    public int useLRU(ElementCounter counter) {
+        counter.elements += this.size;
+        MemoryScheduler scheduler = new MemoryScheduler(this.frames);
+        if (this.trace == null)
+            scheduler.useLRU(this.references);
+        else
+            scheduler.useLRU(this.trace);
+        return scheduler.getPageFaultCount();
+    }
+
+    @Benchmark
+    public int useWorkingSet(ElementCounter counter) {
+        counter.elements += this.size;
+        MemoryScheduler scheduler = new MemoryScheduler(this.frames);
+        if (this.trace == null)
+            scheduler.useWorkingSet(this.references, this.delta);
+        else
+            scheduler.useWorkingSet(this.trace, this.delta);
+        return scheduler.getPageFaultCount();
+    }
+
+    @Benchmark
+    public int usePFF(ElementCounter counter) {
+        counter.elements += this.size;
+        MemoryScheduler scheduler = new MemoryScheduler(this.frames);
+        if (this.trace == null)
+            scheduler.usePFF(this.references, this.delta);
+        else
+            scheduler.usePFF(this.trace, this.delta);
+        return scheduler.getPageFaultCount();
+    }
+
+}
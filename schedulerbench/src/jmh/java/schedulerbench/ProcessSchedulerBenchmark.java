@@ -0,0 +1,97 @@
+/*
+ * File:   ProcessSchedulerBenchmark.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Throughput of every policy of ProcessScheduler, on ready queues from a
+ * hundred up to a hundred million processes.
+ *
+ */
+
+package schedulerbench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import schedulerproc.ProcessScheduler;
+import schedulerproc.ProcessWorkloadGenerator;
+import schedulerproc.SimpleProcess;
+
+/**
+ * Process scheduler benchmark
+ *
+ * The processes are drawn once per trial by a ProcessWorkloadGenerator
+ * with a fixed seed, with a mean burst of 20 and priorities of 0 to 127,
+ * and added to one scheduler. useRoundRobin goes over the whole queue
+ * once per quantum of the longest burst, and the longest of a hundred
+ * million Pareto bursts is long enough to keep it busy for hours, so
+ * PARETO is only run on request (-p distribution=PARETO).
+ * usePriorityScheduling sorts the ready queue in place, so its benchmark
+ * refills the queue in the original order first; the refill is linear,
+ * which keeps it below the sort it is measured with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProcessSchedulerBenchmark {
+
+    private static final long SEED = 0x5EEDL;
+
+    @Param({"100", "10000", "1000000", "100000000"})
+    public int size;
+
+    @Param({"EXPONENTIAL"})
+    public ProcessWorkloadGenerator.Distribution distribution;
+
+    private SimpleProcess[] processes;
+    private ProcessScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.processes = new ProcessWorkloadGenerator(SEED, this.distribution, 20, 10).generateProcesses(this.size);
+        this.scheduler = new ProcessScheduler();
+
+        for (SimpleProcess process : this.processes)
+            this.scheduler.add(process);
+    }
+
+    @Benchmark
+    public double useFirstComeFirstServe(ElementCounter counter) {
+        counter.elements += this.size;
+        return this.scheduler.useFirstComeFirstServe();
+    }
+
+    @Benchmark
+    public double useShortestJobFirst(ElementCounter counter) {
+        counter.elements += this.size;
+        return this.scheduler.useShortestJobFirst();
+    }
+
+    @Benchmark
+    public double usePriorityScheduling(ElementCounter counter) {
+        counter.elements += this.size;
+        this.scheduler.clear();
+        for (SimpleProcess process : this.processes)
+            this.scheduler.add(process);
+        return this.scheduler.usePriorityScheduling();
+    }
+
+    @Benchmark
+    public double useRoundRobin(ElementCounter counter) {
+        counter.elements += this.size;
+        return this.scheduler.useRoundRobin();
+    }
+
+}
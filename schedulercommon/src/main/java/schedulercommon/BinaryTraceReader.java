@@ -0,0 +1,189 @@
+/*
+ * File:   BinaryTraceReader.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A memory-mapped reader of the compact binary trace format written by
+ * BinaryTraceWriter.
+ *
+ */
+
+package schedulercommon;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary trace reader
+ *
+ * The file is mapped a window at a time, so traces larger than 2 GB (the
+ * limit of a single mapping) can be read as well. Blocks are decoded one
+ * at a time straight into the caller's int[] chunk.
+ */
+public class BinaryTraceReader implements Closeable {
+
+    private static final long DEFAULT_WINDOW_BYTES = 1L << 28;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long windowBytes;
+    private final int blockSize;
+    private final long count;
+    private final int min;
+    private final int max;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long read;
+
+    public BinaryTraceReader(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_BYTES);
+    }
+
+    BinaryTraceReader(Path path, long windowBytes) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            this.fileSize = this.channel.size();
+            if (this.fileSize < BinaryTraceWriter.HEADER_BYTES)
+                throw new IOException("not a binary trace, too short: " + path);
+
+            MappedByteBuffer header = this.channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    BinaryTraceWriter.HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (header.getInt() != BinaryTraceWriter.MAGIC)
+                throw new IOException("not a binary trace, bad magic: " + path);
+            int version = header.getInt();
+            if (version != BinaryTraceWriter.VERSION)
+                throw new IOException("unsupported binary trace version " + version + ": " + path);
+
+            this.blockSize = header.getInt();
+            header.getInt();
+            this.count = header.getLong();
+            this.min = header.getInt();
+            this.max = header.getInt();
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+
+        // A window always holds at least one whole block
+        this.windowBytes = Math.max(windowBytes, BinaryTraceWriter.BLOCK_HEADER_BYTES
+                                                 + (long) BinaryTraceWriter.MAX_VARINT_BYTES * this.blockSize);
+        this.read = 0;
+        map(BinaryTraceWriter.HEADER_BYTES);
+    }
+
+    public int getBlockSize() {
+        return this.blockSize;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    public int getMin() {
+        return this.min;
+    }
+
+    public int getMax() {
+        return this.max;
+    }
+
+    /**
+     * Decode the next block
+     *
+     * @param chunk the array to decode into, at least getBlockSize() long
+     * @return the number of values decoded, or -1 at the end of the trace
+     */
+    public int read(int[] chunk) throws IOException {
+        if (chunk.length < this.blockSize)
+            throw new IllegalArgumentException("chunk shorter than the block size " + this.blockSize);
+
+        if (this.read == this.count)
+            return -1;
+
+        long position = this.windowStart + this.window.position();
+
+        // Move the window if the block header is not in it
+        if (this.window.remaining() < BinaryTraceWriter.BLOCK_HEADER_BYTES)
+            map(position);
+
+        int n = this.window.getInt();
+        int value = this.window.getInt();
+        int payload = this.window.getInt();
+
+        if (n < 1 || n > this.blockSize || payload < 0)
+            throw new IOException("corrupt block at offset " + position);
+
+        // Move the window if the payload is not in it
+        if (this.window.remaining() < payload) {
+            map(position);
+            this.window.position(BinaryTraceWriter.BLOCK_HEADER_BYTES);
+        }
+
+        chunk[0] = value;
+
+        for (int i = 1; i < n; i++) {
+            int zigzag = 0;
+            int shift = 0;
+            byte b;
+
+            do {
+                b = this.window.get();
+                zigzag |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            value += (zigzag >>> 1) ^ -(zigzag & 1);
+            chunk[i] = value;
+        }
+
+        this.read += n;
+        return n;
+    }
+
+    /**
+     * Decode the whole trace into one array
+     *
+     * @return all the values of the trace
+     */
+    public int[] readAll() throws IOException {
+        if (this.count - this.read > Integer.MAX_VALUE - 8)
+            throw new IOException("trace too large for one array: " + this.count + " values");
+
+        int[] values = new int[(int) (this.count - this.read)];
+        int[] chunk = new int[this.blockSize];
+        int filled = 0;
+
+        for (int n = read(chunk); n >= 0; n = read(chunk)) {
+            System.arraycopy(chunk, 0, values, filled, n);
+            filled += n;
+        }
+
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.window = null;
+        this.channel.close();
+    }
+
+    private void map(long position) throws IOException {
+        this.windowStart = position;
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                       Math.min(this.windowBytes, this.fileSize - position));
+        this.window.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * File:   BinaryTraceWriter.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A streaming writer of the compact binary trace format.
+ *
+ * The format is block-structured. A 32-byte header is followed by blocks
+ * of up to blockSize values each:
+ *
+ *   header: magic "OSTR" (int), version (int), blockSize (int),
+ *           reserved (int), count (long), min (int), max (int)
+ *   block:  count (int), first value (int), payload length (int),
+ *           payload - the differences between consecutive values,
+ *           zigzag-encoded as unsigned LEB128 varints
+ *
+ * All the fixed-size fields are little-endian.
+ *
+ */
+
+package schedulercommon;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary trace writer
+ *
+ * Values are collected into a block and every full block is delta-encoded
+ * and written out, so the writer never holds more than one block. The
+ * header, which holds the total count and the value range, is written
+ * last, by close().
+ */
+public class BinaryTraceWriter implements Closeable {
+
+    static final int MAGIC = 0x5254534F;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int BLOCK_HEADER_BYTES = 12;
+    static final int MAX_VARINT_BYTES = 5;
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private final FileChannel channel;
+    private final int[] block;
+    private final ByteBuffer buffer;
+    private int blockCount;
+    private long count;
+    private int min;
+    private int max;
+    private boolean closed;
+
+    public BinaryTraceWriter(Path path) throws IOException {
+        this(path, DEFAULT_BLOCK_SIZE);
+    }
+
+    public BinaryTraceWriter(Path path, int blockSize) throws IOException {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+        this.block = new int[blockSize];
+        this.buffer = ByteBuffer.allocate(BLOCK_HEADER_BYTES + MAX_VARINT_BYTES * blockSize)
+                                .order(ByteOrder.LITTLE_ENDIAN);
+        this.blockCount = 0;
+        this.count = 0;
+        this.min = Integer.MAX_VALUE;
+        this.max = Integer.MIN_VALUE;
+        this.closed = false;
+
+        // Reserve the room for the header
+        this.channel.position(HEADER_BYTES);
+    }
+
+    public void write(int value) throws IOException {
+        this.block[this.blockCount++] = value;
+        this.count++;
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+
+        if (this.blockCount == this.block.length)
+            writeBlock();
+    }
+
+    public void write(int[] values, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off + len > values.length)
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + values.length);
+
+        for (int i = off; i < off + len; i++)
+            write(values[i]);
+    }
+
+    /**
+     * @return the number of values written so far
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed)
+            return;
+
+        this.closed = true;
+
+        try {
+            if (this.blockCount > 0)
+                writeBlock();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(this.block.length).putInt(0);
+            header.putLong(this.count);
+            header.putInt(this.count == 0 ? 0 : this.min).putInt(this.count == 0 ? 0 : this.max);
+            header.flip();
+
+            this.channel.position(0);
+            while (header.hasRemaining())
+                this.channel.write(header);
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        this.buffer.clear();
+        this.buffer.putInt(this.blockCount).putInt(this.block[0]).putInt(0);
+
+        for (int i = 1; i < this.blockCount; i++) {
+            // Zigzag maps small negative and positive differences alike
+            // to small unsigned numbers. The difference wraps around in
+            // 32 bits, which the reader undoes the same way.
+            int delta = this.block[i] - this.block[i - 1];
+            int zigzag = (delta << 1) ^ (delta >> 31);
+
+            while ((zigzag & ~0x7F) != 0) {
+                this.buffer.put((byte) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+            this.buffer.put((byte) zigzag);
+        }
+
+        // Fill in the payload length
+        this.buffer.putInt(8, this.buffer.position() - BLOCK_HEADER_BYTES);
+        this.buffer.flip();
+
+        while (this.buffer.hasRemaining())
+            this.channel.write(this.buffer);
+
+        this.blockCount = 0;
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * File:   ChunkedRandom.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Seeded random streams cut into chunks, each chunk drawing from its own
+ * SplittableRandom, so the workload generators can fill any part of a
+ * stream, and fill it in parallel, with the same numbers.
+ *
+ */
+
+package schedulercommon;
+
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Chunked random
+ *
+ * A stream is cut into chunks of CHUNK_SIZE values. Every chunk draws from
+ * its own SplittableRandom, seeded from the seed, the stream and the index
+ * of the chunk alone, so any part of a stream is the same however it is
+ * generated: in one go, in pieces, or by many threads at once. A generator
+ * only supplies how one value is drawn, through a Source.
+ */
+public final class ChunkedRandom {
+
+    /**
+     * The number of values drawn from one SplittableRandom
+     */
+    public static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The odd constant SplittableRandom steps its state by
+     */
+    public static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * How the values of a stream are drawn
+     */
+    @FunctionalInterface
+    public interface Source {
+
+        /**
+         * @param random the random of the chunk
+         * @param index the index of the value in the stream
+         * @return the value
+         */
+        int next(SplittableRandom random, long index);
+
+    }
+
+    private ChunkedRandom() {
+    }
+
+    /**
+     * The 64-bit finalizer SplittableRandom mixes its state with, which
+     * turns neighbouring inputs into unrelated outputs
+     *
+     * @param z the value to mix
+     * @return the mixed value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param seed the seed of the generator
+     * @param stream the stream, for generators drawing several of them
+     * @param chunk the index of the chunk in the stream
+     * @return the seed of the SplittableRandom of the chunk
+     */
+    public static long chunkSeed(long seed, int stream, long chunk) {
+        return mix(mix(seed + stream) + (chunk + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * @param n the number of values
+     * @return the number of chunks holding them
+     */
+    public static int chunks(int n) {
+        return (int) (((long) n + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    }
+
+    /**
+     * Run a task for every chunk of n values, one chunk per task on the
+     * common ForkJoin pool
+     *
+     * @param n the number of values
+     * @param task the task, given the index of the chunk
+     */
+    public static void forEachChunk(int n, IntConsumer task) {
+        IntStream.range(0, chunks(n)).parallel().forEach(task);
+    }
+
+    /**
+     * Generate a part of a stream
+     *
+     * @param seed the seed of the generator
+     * @param stream the stream
+     * @param source how the values are drawn
+     * @param start the index of the first value in the stream
+     * @param out where to put the values
+     * @param off the index in out of the first one
+     * @param len the number of values
+     */
+    public static void fill(long seed, int stream, Source source, long start, int[] out, int off, int len) {
+        if (start < 0)
+            throw new IllegalArgumentException("start must not be negative: " + start);
+        if (off < 0 || len < 0 || off + len > out.length)
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + out.length);
+
+        long end = start + len;
+        while (start < end) {
+            long chunk = start / CHUNK_SIZE;
+            long chunkEnd = Math.min(end, (chunk + 1) * CHUNK_SIZE);
+            fillChunk(seed, stream, source, chunk, start, out, off, (int) (chunkEnd - start));
+            off += chunkEnd - start;
+            start = chunkEnd;
+        }
+    }
+
+    /**
+     * Fill out[0..len) with the values of a stream from start on, which
+     * must be at the start of a chunk, one chunk per task
+     *
+     * @param seed the seed of the generator
+     * @param stream the stream
+     * @param source how the values are drawn
+     * @param start the index of the first value in the stream
+     * @param out where to put the values
+     * @param len the number of values
+     */
+    public static void fillParallel(long seed, int stream, Source source, long start, int[] out, int len) {
+        if (start % CHUNK_SIZE != 0)
+            throw new IllegalArgumentException("start must be at the start of a chunk: " + start);
+
+        forEachChunk(len, k -> {
+            int off = k * CHUNK_SIZE;
+            fill(seed, stream, source, start + off, out, off, Math.min(CHUNK_SIZE, len - off));
+        });
+    }
+
+    // Fill the values start..start+len of one chunk. The values of the
+    // chunk before start are drawn and dropped, so that the random numbers
+    // line up with those of a whole chunk.
+    private static void fillChunk(long seed, int stream, Source source, long chunk, long start,
+            int[] out, int off, int len) {
+        SplittableRandom random = new SplittableRandom(chunkSeed(seed, stream, chunk));
+
+        for (long i = chunk * CHUNK_SIZE; i < start; i++)
+            source.next(random, i);
+        for (int j = 0; j < len; j++)
+            out[off + j] = source.next(random, start + j);
+    }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * File:   ColumnarReader.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A reader of the columnar table format written by ColumnarWriter.
+ *
+ */
+
+package schedulercommon;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Columnar reader
+ *
+ * The footer is read when the file is opened. A column is then read by
+ * going straight to its chunk in every row group, without touching the
+ * other columns.
+ */
+public class ColumnarReader implements Closeable {
+
+    private final FileChannel channel;
+    private final String[] names;
+    private final ColumnarWriter.Type[] types;
+    private final int[] groupRows;
+    private final long[][] groupChunks;
+    private final long rowCount;
+
+    public ColumnarReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            long size = this.channel.size();
+            if (size < ColumnarWriter.HEADER_BYTES + ColumnarWriter.TRAILER_BYTES)
+                throw new IOException("not a columnar table, too short: " + path);
+
+            ByteBuffer header = read(0, ColumnarWriter.HEADER_BYTES);
+            if (header.getInt() != ColumnarWriter.MAGIC)
+                throw new IOException("not a columnar table, bad magic: " + path);
+            int version = header.getInt();
+            if (version != ColumnarWriter.VERSION)
+                throw new IOException("unsupported columnar table version " + version + ": " + path);
+
+            // A file without its trailer was not closed
+            ByteBuffer trailer = read(size - ColumnarWriter.TRAILER_BYTES, ColumnarWriter.TRAILER_BYTES);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != ColumnarWriter.MAGIC || footerOffset < ColumnarWriter.HEADER_BYTES
+                || footerOffset > size - ColumnarWriter.TRAILER_BYTES)
+                throw new IOException("columnar table without a footer, it was not closed: " + path);
+
+            ByteBuffer footer = read(footerOffset, (int) (size - ColumnarWriter.TRAILER_BYTES - footerOffset));
+
+            int columns = footer.getInt();
+            this.names = new String[columns];
+            this.types = new ColumnarWriter.Type[columns];
+            for (int column = 0; column < columns; column++) {
+                int type = footer.get();
+                if (type < 0 || type >= ColumnarWriter.Type.values().length)
+                    throw new IOException("unknown column type " + type + ": " + path);
+                this.types[column] = ColumnarWriter.Type.values()[type];
+                byte[] name = new byte[footer.getInt()];
+                footer.get(name);
+                this.names[column] = new String(name, StandardCharsets.UTF_8);
+            }
+
+            int groups = footer.getInt();
+            this.groupRows = new int[groups];
+            this.groupChunks = new long[groups][2 * columns];
+            long rows = 0;
+            for (int group = 0; group < groups; group++) {
+                this.groupRows[group] = footer.getInt();
+                rows += this.groupRows[group];
+                for (int i = 0; i < 2 * columns; i++)
+                    this.groupChunks[group][i] = footer.getLong();
+            }
+            this.rowCount = rows;
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    public int getColumnCount() {
+        return this.names.length;
+    }
+
+    public String[] getColumnNames() {
+        return this.names.clone();
+    }
+
+    public ColumnarWriter.Type[] getColumnTypes() {
+        return this.types.clone();
+    }
+
+    /**
+     * @param name the name of a column
+     * @return its index, or -1 if there is no such column
+     */
+    public int getColumnIndex(String name) {
+        for (int column = 0; column < this.names.length; column++)
+            if (this.names[column].equals(name))
+                return column;
+
+        return -1;
+    }
+
+    public long getRowCount() {
+        return this.rowCount;
+    }
+
+    public int getRowGroupCount() {
+        return this.groupRows.length;
+    }
+
+    /**
+     * @param column the index of a LONG column
+     * @return its values, in the order of the rows
+     * @throws IOException if the file cannot be read
+     */
+    public long[] readLongs(int column) throws IOException {
+        checkColumn(column, ColumnarWriter.Type.LONG);
+
+        long[] values = new long[rows()];
+        int row = 0;
+        for (int group = 0; group < this.groupRows.length; group++) {
+            ByteBuffer chunk = chunk(group, column);
+            for (int i = 0; i < this.groupRows[group]; i++)
+                values[row++] = chunk.getLong();
+        }
+
+        return values;
+    }
+
+    /**
+     * @param column the index of a DOUBLE column
+     * @return its values, in the order of the rows
+     * @throws IOException if the file cannot be read
+     */
+    public double[] readDoubles(int column) throws IOException {
+        checkColumn(column, ColumnarWriter.Type.DOUBLE);
+
+        double[] values = new double[rows()];
+        int row = 0;
+        for (int group = 0; group < this.groupRows.length; group++) {
+            ByteBuffer chunk = chunk(group, column);
+            for (int i = 0; i < this.groupRows[group]; i++)
+                values[row++] = chunk.getDouble();
+        }
+
+        return values;
+    }
+
+    /**
+     * @param column the index of a STRING column
+     * @return its values, in the order of the rows
+     * @throws IOException if the file cannot be read
+     */
+    public String[] readStrings(int column) throws IOException {
+        checkColumn(column, ColumnarWriter.Type.STRING);
+
+        String[] values = new String[rows()];
+        int row = 0;
+        for (int group = 0; group < this.groupRows.length; group++) {
+            ByteBuffer chunk = chunk(group, column);
+            for (int i = 0; i < this.groupRows[group]; i++) {
+                byte[] value = new byte[chunk.getInt()];
+                chunk.get(value);
+                values[row++] = new String(value, StandardCharsets.UTF_8);
+            }
+        }
+
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private void checkColumn(int column, ColumnarWriter.Type type) {
+        if (column < 0 || column >= this.names.length)
+            throw new IndexOutOfBoundsException("column=" + column + ", columns=" + this.names.length);
+        if (this.types[column] != type)
+            throw new IllegalArgumentException("column " + this.names[column] + " is " + this.types[column]
+                                               + ", not " + type);
+    }
+
+    private int rows() throws IOException {
+        if (this.rowCount > Integer.MAX_VALUE)
+            throw new IOException("too many rows to read into an array: " + this.rowCount);
+
+        return (int) this.rowCount;
+    }
+
+    private ByteBuffer chunk(int group, int column) throws IOException {
+        return read(this.groupChunks[group][2 * column], (int) this.groupChunks[group][2 * column + 1]);
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+        while (buffer.hasRemaining())
+            if (this.channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("columnar table truncated at " + (position + buffer.position()));
+
+        buffer.flip();
+        return buffer;
+    }
+
+}
@@ -0,0 +1,319 @@
+/*
+ * File:   ColumnarWriter.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A streaming writer of a small columnar table format, in the spirit of
+ * Parquet: rows are cut into row groups, and every row group stores each
+ * column contiguously.
+ *
+ *   header:    magic "OSCL" (int), version (int)
+ *   row group: one chunk per column - 8 bytes per value for LONG and
+ *              DOUBLE, a length (int) and the UTF-8 bytes per value for
+ *              STRING
+ *   footer:    column count (int), then per column its type (byte), the
+ *              length of its name (int) and the UTF-8 name; row group
+ *              count (int), then per row group its rows (int) and per
+ *              column the offset (long) and length (long) of its chunk
+ *   trailer:   footer offset (long), magic (int)
+ *
+ * All the fixed-size fields are little-endian.
+ *
+ */
+
+package schedulercommon;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columnar writer
+ *
+ * Rows are collected into a row group, and every full row group is written
+ * out column by column, so the writer never holds more than one row group
+ * and a reader of one column skips the chunks of all the others. The
+ * footer, which says where every chunk is, is written last, by close().
+ */
+public class ColumnarWriter implements Closeable {
+
+    public enum Type {
+        LONG, DOUBLE, STRING
+    }
+
+    static final int MAGIC = 0x4C43534F;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int TRAILER_BYTES = 12;
+    public static final int DEFAULT_ROW_GROUP_SIZE = 4096;
+
+    private final FileChannel channel;
+    private final String[] names;
+    private final Type[] types;
+    private final int rowGroupSize;
+
+    // The values of the current row group, by column. Only the array of
+    // the type of a column is there.
+    private final long[][] longs;
+    private final double[][] doubles;
+    private final String[][] strings;
+    private int rows;
+
+    // The rows of every row group written so far, and the offset and
+    // length of each of its chunks
+    private final List<Integer> groupRows;
+    private final List<long[]> groupChunks;
+    private long rowCount;
+    private boolean closed;
+
+    public ColumnarWriter(Path path, String[] names, Type[] types) throws IOException {
+        this(path, names, types, DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    public ColumnarWriter(Path path, String[] names, Type[] types, int rowGroupSize) throws IOException {
+        if (names.length != types.length)
+            throw new IllegalArgumentException("names and types differ in length: "
+                                               + names.length + " != " + types.length);
+        if (names.length == 0)
+            throw new IllegalArgumentException("there must be at least one column");
+        if (rowGroupSize < 1)
+            throw new IllegalArgumentException("rowGroupSize must be positive: " + rowGroupSize);
+
+        this.names = names.clone();
+        this.types = types.clone();
+        this.rowGroupSize = rowGroupSize;
+        this.longs = new long[names.length][];
+        this.doubles = new double[names.length][];
+        this.strings = new String[names.length][];
+
+        for (int column = 0; column < names.length; column++) {
+            switch (this.types[column]) {
+                case LONG:
+                    this.longs[column] = new long[rowGroupSize];
+                    break;
+                case DOUBLE:
+                    this.doubles[column] = new double[rowGroupSize];
+                    break;
+                default:
+                    this.strings[column] = new String[rowGroupSize];
+            }
+        }
+
+        this.rows = 0;
+        this.groupRows = new ArrayList<>();
+        this.groupChunks = new ArrayList<>();
+        this.rowCount = 0;
+        this.closed = false;
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        writeFully(header);
+    }
+
+    /**
+     * Add a row. LONG columns take any integral Number, DOUBLE columns any
+     * Number, and STRING columns any object but null, by its toString (so
+     * enum constants go in by name).
+     *
+     * @param values the values of the row, one per column
+     * @throws IOException if a full row group cannot be written
+     */
+    public void writeRow(Object... values) throws IOException {
+        if (this.closed)
+            throw new IllegalStateException("the writer is closed");
+        if (values.length != this.names.length)
+            throw new IllegalArgumentException("expected " + this.names.length + " values, got " + values.length);
+
+        // Check the whole row before storing any of it
+        for (int column = 0; column < values.length; column++)
+            check(column, values[column]);
+
+        for (int column = 0; column < values.length; column++) {
+            switch (this.types[column]) {
+                case LONG:
+                    this.longs[column][this.rows] = ((Number) values[column]).longValue();
+                    break;
+                case DOUBLE:
+                    this.doubles[column][this.rows] = ((Number) values[column]).doubleValue();
+                    break;
+                default:
+                    this.strings[column][this.rows] = values[column].toString();
+            }
+        }
+
+        this.rows++;
+        this.rowCount++;
+
+        if (this.rows == this.rowGroupSize)
+            writeRowGroup();
+    }
+
+    /**
+     * Write out the rows collected so far as a row group of their own,
+     * even if it is not full
+     *
+     * @throws IOException if the row group cannot be written
+     */
+    public void flush() throws IOException {
+        if (this.closed)
+            throw new IllegalStateException("the writer is closed");
+
+        if (this.rows > 0)
+            writeRowGroup();
+        this.channel.force(false);
+    }
+
+    public String[] getColumnNames() {
+        return this.names.clone();
+    }
+
+    public Type[] getColumnTypes() {
+        return this.types.clone();
+    }
+
+    /**
+     * @return the number of rows written so far
+     */
+    public long getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * @return the number of row groups written out so far
+     */
+    public int getRowGroupCount() {
+        return this.groupRows.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed)
+            return;
+
+        this.closed = true;
+
+        try {
+            if (this.rows > 0)
+                writeRowGroup();
+
+            long footerOffset = this.channel.position();
+
+            // The schema
+            byte[][] encoded = new byte[this.names.length][];
+            // (the column count and the row group count)
+            int bytes = 4 + 4;
+            for (int column = 0; column < this.names.length; column++) {
+                encoded[column] = this.names[column].getBytes(StandardCharsets.UTF_8);
+                bytes += 1 + 4 + encoded[column].length;
+            }
+            bytes += this.groupRows.size() * (4 + 16 * this.names.length) + TRAILER_BYTES;
+
+            ByteBuffer footer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            footer.putInt(this.names.length);
+            for (int column = 0; column < this.names.length; column++) {
+                footer.put((byte) this.types[column].ordinal());
+                footer.putInt(encoded[column].length).put(encoded[column]);
+            }
+
+            // Where the chunks of every row group are
+            footer.putInt(this.groupRows.size());
+            for (int group = 0; group < this.groupRows.size(); group++) {
+                footer.putInt(this.groupRows.get(group));
+                for (long value : this.groupChunks.get(group))
+                    footer.putLong(value);
+            }
+
+            footer.putLong(footerOffset).putInt(MAGIC);
+            footer.flip();
+            writeFully(footer);
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private void check(int column, Object value) {
+        if (value == null)
+            throw new IllegalArgumentException("null value for column " + this.names[column]);
+
+        boolean integral = value instanceof Long || value instanceof Integer
+                           || value instanceof Short || value instanceof Byte;
+        boolean ok;
+        switch (this.types[column]) {
+            case LONG:
+                ok = integral;
+                break;
+            case DOUBLE:
+                ok = value instanceof Number;
+                break;
+            default:
+                ok = true;
+        }
+
+        if (!ok)
+            throw new IllegalArgumentException("column " + this.names[column] + " is " + this.types[column]
+                                               + ", got " + value.getClass().getSimpleName());
+    }
+
+    private void writeRowGroup() throws IOException {
+        long[] chunks = new long[2 * this.names.length];
+
+        for (int column = 0; column < this.names.length; column++) {
+            ByteBuffer chunk;
+
+            switch (this.types[column]) {
+                case LONG:
+                    chunk = ByteBuffer.allocate(8 * this.rows).order(ByteOrder.LITTLE_ENDIAN);
+                    for (int i = 0; i < this.rows; i++)
+                        chunk.putLong(this.longs[column][i]);
+                    break;
+                case DOUBLE:
+                    chunk = ByteBuffer.allocate(8 * this.rows).order(ByteOrder.LITTLE_ENDIAN);
+                    for (int i = 0; i < this.rows; i++)
+                        chunk.putDouble(this.doubles[column][i]);
+                    break;
+                default:
+                    byte[][] encoded = new byte[this.rows][];
+                    int bytes = 0;
+                    for (int i = 0; i < this.rows; i++) {
+                        encoded[i] = this.strings[column][i].getBytes(StandardCharsets.UTF_8);
+                        bytes += 4 + encoded[i].length;
+                        // Let go of the string once it is encoded
+                        this.strings[column][i] = null;
+                    }
+
+                    chunk = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+                    for (int i = 0; i < this.rows; i++)
+                        chunk.putInt(encoded[i].length).put(encoded[i]);
+            }
+
+            chunks[2 * column] = this.channel.position();
+            chunks[2 * column + 1] = chunk.capacity();
+            chunk.flip();
+            writeFully(chunk);
+        }
+
+        this.groupRows.add(this.rows);
+        this.groupChunks.add(chunks);
+        this.rows = 0;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            this.channel.write(buffer);
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * File:   CounterRegistry.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A metrics registry of striped counters.
+ *
+ */
+
+package schedulercommon;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter registry
+ *
+ * Every counter is a LongAdder, which spreads the increments of different
+ * threads over different cells instead of making them fight over one
+ * word, so the simulations of a parallel sweep can all count at once. A
+ * value read while they run is the sum of the cells at that moment, and
+ * is exact once they are done.
+ */
+public class CounterRegistry implements MetricsRegistry {
+
+    private final Map<String, LongAdder> counters;
+
+    public CounterRegistry() {
+        this.counters = new LinkedHashMap<>();
+    }
+
+    /**
+     * Add a counter, or find the one which is already there
+     *
+     * @param name the name of the counter
+     * @return the counter, for the code that updates it
+     */
+    public synchronized LongAdder counter(String name) {
+        return this.counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    @Override
+    public synchronized Set<String> getNames() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(this.counters.keySet()));
+    }
+
+    @Override
+    public long getCount(String name) {
+        LongAdder counter;
+        synchronized (this) {
+            counter = this.counters.get(name);
+        }
+
+        if (counter == null)
+            throw new IllegalArgumentException("no such counter: " + name);
+
+        return counter.sum();
+    }
+
+    @Override
+    public synchronized Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> entry : this.counters.entrySet())
+            snapshot.put(entry.getKey(), entry.getValue().sum());
+
+        return snapshot;
+    }
+
+    @Override
+    public synchronized void reset() {
+        for (LongAdder counter : this.counters.values())
+            counter.reset();
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * File:   EventSampler.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Decides which of the events of an instrumented simulation are committed
+ * to Flight Recorder.
+ *
+ */
+
+package schedulercommon;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Event sampler
+ *
+ * Commits one event out of every period on average, at random, so that
+ * the events which are committed do not line up with a pattern of the
+ * simulation. ThreadLocalRandom keeps the threads of a sweep out of each
+ * other's way. The period can be changed while the simulations run.
+ */
+public class EventSampler {
+
+    /**
+     * The period of a sampler whose system property is not set
+     */
+    public static final int DEFAULT_PERIOD = 1000;
+
+    private volatile int period;
+
+    /**
+     * @param property the system property with the initial period, which
+     *                 defaults to DEFAULT_PERIOD
+     */
+    public EventSampler(String property) {
+        this.period = Math.max(1, Integer.getInteger(property, DEFAULT_PERIOD));
+    }
+
+    public int getPeriod() {
+        return this.period;
+    }
+
+    /**
+     * @param period commit one event out of every period, 1 for all of them
+     */
+    public void setPeriod(int period) {
+        if (period < 1)
+            throw new IllegalArgumentException("period must be positive: " + period);
+
+        this.period = period;
+    }
+
+    /**
+     * @return whether to commit the event at hand, with a chance of 1 in
+     *         the period
+     */
+    public boolean isSampled() {
+        int period = this.period;
+
+        return period == 1 || ThreadLocalRandom.current().nextInt(period) == 0;
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * File:   LongIntHashMap.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A primitive long-to-int hash map with open addressing, so that page
+ * tables and sector indices with millions of entries can be simulated
+ * without boxing.
+ *
+ */
+
+package schedulercommon;
+
+import java.util.Arrays;
+
+/**
+ * Long-to-int hash map
+ *
+ * Linear probing over power-of-two tables. Removal shifts the following
+ * entries of the probe sequence back, so no tombstones are needed and the
+ * lookup cost does not degrade over long simulations.
+ */
+public class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final int missingValue;
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    /**
+     * @param expectedSize the number of entries to make room for
+     * @param missingValue the value returned for absent keys
+     */
+    public LongIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int get(long key) {
+        for (int i = slot(key); this.used[i]; i = (i + 1) & this.mask) {
+            if (this.keys[i] == key)
+                return this.values[i];
+        }
+
+        return this.missingValue;
+    }
+
+    public boolean containsKey(long key) {
+        for (int i = slot(key); this.used[i]; i = (i + 1) & this.mask) {
+            if (this.keys[i] == key)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the previous value of the key, or the missing value
+     */
+    public int put(long key, int value) {
+        int i = slot(key);
+
+        for (; this.used[i]; i = (i + 1) & this.mask) {
+            if (this.keys[i] == key) {
+                int previous = this.values[i];
+                this.values[i] = value;
+                return previous;
+            }
+        }
+
+        this.used[i] = true;
+        this.keys[i] = key;
+        this.values[i] = value;
+
+        if (++this.size > LOAD_FACTOR * this.keys.length)
+            rehash(this.keys.length << 1);
+
+        return this.missingValue;
+    }
+
+    /**
+     * @return the removed value, or the missing value
+     */
+    public int remove(long key) {
+        int i = slot(key);
+
+        for (; this.used[i]; i = (i + 1) & this.mask) {
+            if (this.keys[i] == key)
+                break;
+        }
+
+        if (!this.used[i])
+            return this.missingValue;
+
+        int removed = this.values[i];
+
+        // Shift back every following entry whose home slot is not
+        // between the hole and its current position
+        int hole = i;
+        for (int j = (i + 1) & this.mask; this.used[j]; j = (j + 1) & this.mask) {
+            int home = slot(this.keys[j]);
+
+            if (((j - home) & this.mask) >= ((j - hole) & this.mask)) {
+                this.keys[hole] = this.keys[j];
+                this.values[hole] = this.values[j];
+                hole = j;
+            }
+        }
+
+        this.used[hole] = false;
+        this.size--;
+
+        return removed;
+    }
+
+    public void clear() {
+        Arrays.fill(this.used, false);
+        this.size = 0;
+    }
+
+    private int slot(long key) {
+        // The MurmurHash3 finalizer spreads sequential keys
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & this.mask;
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.used = new boolean[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        boolean[] oldUsed = this.used;
+
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int j = slot(oldKeys[i]);
+                while (this.used[j])
+                    j = (j + 1) & this.mask;
+
+                this.used[j] = true;
+                this.keys[j] = oldKeys[i];
+                this.values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long capacity = Math.max(4, (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR));
+        return (int) Math.min(1 << 30, Long.highestOneBit(capacity - 1) << 1);
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * File:   MetricsRegistry.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The counters the instrumented simulations keep, by name.
+ *
+ */
+
+package schedulercommon;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Metrics registry
+ *
+ * A read-only view of a set of named counters, which can be asked for while
+ * the simulations that update them are still running. See the
+ * Instrumentation class of every module for its counters.
+ */
+public interface MetricsRegistry {
+
+    /**
+     * @return the names of the counters, in the order they were registered
+     */
+    Set<String> getNames();
+
+    /**
+     * @param name the name of a counter
+     * @return its current value
+     * @throws IllegalArgumentException if there is no such counter
+     */
+    long getCount(String name);
+
+    /**
+     * @return the current value of every counter, in the order they were
+     *         registered
+     */
+    Map<String, Long> snapshot();
+
+    /**
+     * Set every counter back to 0
+     */
+    void reset();
+
+}
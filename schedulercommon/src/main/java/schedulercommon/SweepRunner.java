@@ -0,0 +1,280 @@
+/*
+ * File:   SweepRunner.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Runs the cells of a parameter sweep in parallel and streams their rows
+ * to a columnar table and a CSV file while it goes.
+ *
+ */
+
+package schedulercommon;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sweep runner
+ *
+ * A sweep is a list of cells, every one of which computes one row of a
+ * table with fixed columns. The cells run as ForkJoin tasks, one per cell,
+ * on the common pool or a given one. They share their inputs, which they
+ * only read, so an input is decoded once for the whole sweep (see the
+ * FrameSweep, QuantumSweep and HeadSweep grids of the modules). Every row
+ * goes to the outputs as soon as its cell is done, in the order the cells
+ * finish, which is why every row carries the parameters of its cell. The
+ * progress and the rows so far can be asked for at any time while the sweep
+ * runs.
+ *
+ * The outputs belong to the caller, who closes them after await().
+ */
+public class SweepRunner {
+
+    private final String[] columns;
+    private final ColumnarWriter.Type[] types;
+    private final List<Supplier<Object[]>> cells;
+
+    // The rows done so far, in the order they were done, and the outputs
+    // they are streamed to. Both are guarded by the list.
+    private final List<Object[]> rows;
+    private ColumnarWriter output;
+    private Writer csvOutput;
+
+    private final AtomicInteger completed;
+    private ForkJoinTask<?> sweep;
+
+    /**
+     * @param columns the names of the columns
+     * @param types the types of the columns
+     */
+    public SweepRunner(String[] columns, ColumnarWriter.Type[] types) {
+        if (columns.length != types.length)
+            throw new IllegalArgumentException("columns and types differ in length: "
+                                               + columns.length + " != " + types.length);
+
+        this.columns = columns.clone();
+        this.types = types.clone();
+        this.cells = new ArrayList<>();
+        this.rows = new ArrayList<>();
+        this.completed = new AtomicInteger();
+    }
+
+    /**
+     * @param cell computes the row of a cell, one value per column
+     */
+    public void add(Supplier<Object[]> cell) {
+        checkNotStarted();
+        this.cells.add(cell);
+    }
+
+    /**
+     * @param output the table the rows are streamed to, with the same
+     *               columns, or null for none
+     */
+    public void setOutput(ColumnarWriter output) {
+        checkNotStarted();
+        if (output != null && output.getColumnNames().length != this.columns.length)
+            throw new IllegalArgumentException("the output has " + output.getColumnNames().length
+                                               + " columns, not " + this.columns.length);
+
+        this.output = output;
+    }
+
+    /**
+     * @param csvOutput where the rows are streamed to as CSV, after a
+     *                  header line, or null for nowhere
+     */
+    public void setCsvOutput(Writer csvOutput) {
+        checkNotStarted();
+        this.csvOutput = csvOutput;
+    }
+
+    public String[] getColumns() {
+        return this.columns.clone();
+    }
+
+    public ColumnarWriter.Type[] getTypes() {
+        return this.types.clone();
+    }
+
+    /**
+     * Start the sweep on the common ForkJoin pool
+     *
+     * @throws IOException if the CSV header cannot be written
+     */
+    public void start() throws IOException {
+        start(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Start the sweep on the given pool, and return at once
+     *
+     * @param pool the pool the cells run on
+     * @throws IOException if the CSV header cannot be written
+     */
+    public void start(ForkJoinPool pool) throws IOException {
+        checkNotStarted();
+
+        if (this.csvOutput != null) {
+            writeCsvLine(this.csvOutput, this.columns);
+            this.csvOutput.flush();
+        }
+
+        List<RecursiveAction> tasks = new ArrayList<>();
+        for (Supplier<Object[]> cell : this.cells) {
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    record(cell.get());
+                }
+            });
+        }
+
+        this.sweep = pool.submit(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * Wait for all the cells to be done
+     *
+     * @return all the rows, in the order they were done
+     * @throws IOException if a row could not be written
+     */
+    public List<Object[]> await() throws IOException {
+        if (this.sweep == null)
+            throw new IllegalStateException("the sweep was not started");
+
+        try {
+            this.sweep.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        synchronized (this.rows) {
+            if (this.output != null)
+                this.output.flush();
+            if (this.csvOutput != null)
+                this.csvOutput.flush();
+        }
+
+        return getSnapshot();
+    }
+
+    /**
+     * Start the sweep on the common ForkJoin pool and wait for it
+     *
+     * @return all the rows, in the order they were done
+     * @throws IOException if a row could not be written
+     */
+    public List<Object[]> run() throws IOException {
+        start();
+        return await();
+    }
+
+    public int getCellCount() {
+        return this.cells.size();
+    }
+
+    public int getCompletedCount() {
+        return this.completed.get();
+    }
+
+    /**
+     * @return the share of the cells which are done, within 0..1
+     */
+    public double getProgress() {
+        return this.cells.isEmpty() ? 1 : (double) this.completed.get() / this.cells.size();
+    }
+
+    public boolean isDone() {
+        return this.sweep != null && this.sweep.isDone();
+    }
+
+    /**
+     * @return the rows done so far, in the order they were done
+     */
+    public List<Object[]> getSnapshot() {
+        synchronized (this.rows) {
+            List<Object[]> snapshot = new ArrayList<>(this.rows.size());
+            for (Object[] row : this.rows)
+                snapshot.add(row.clone());
+
+            return snapshot;
+        }
+    }
+
+    /**
+     * Write the rows done so far as CSV, after a header line
+     *
+     * @param out where to write them
+     * @throws IOException if they cannot be written
+     */
+    public void writeCsv(Writer out) throws IOException {
+        writeCsvLine(out, this.columns);
+        for (Object[] row : getSnapshot())
+            writeCsvLine(out, row);
+        out.flush();
+    }
+
+    private void record(Object[] row) {
+        if (row.length != this.columns.length)
+            throw new IllegalStateException("a cell gave " + row.length + " values for "
+                                            + this.columns.length + " columns");
+
+        synchronized (this.rows) {
+            try {
+                if (this.output != null)
+                    this.output.writeRow(row);
+                if (this.csvOutput != null) {
+                    writeCsvLine(this.csvOutput, row);
+                    this.csvOutput.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            this.rows.add(row);
+        }
+
+        this.completed.incrementAndGet();
+    }
+
+    private static void writeCsvLine(Writer out, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                out.write(',');
+            out.write(escape(String.valueOf(values[i])));
+        }
+        out.write('\n');
+    }
+
+    // Quote a field with a comma, a quote or a line break in it, doubling
+    // its quotes
+    private static String escape(String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0)
+            return field;
+
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    private void checkNotStarted() {
+        if (this.sweep != null)
+            throw new IllegalStateException("the sweep has already started");
+    }
+
+}
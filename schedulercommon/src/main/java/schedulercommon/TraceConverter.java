@@ -0,0 +1,131 @@
+/*
+ * File:   TraceConverter.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Conversions between the comma-separated text traces used by the
+ * schedulers and the compact binary trace format.
+ *
+ */
+
+package schedulercommon;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Path;
+
+/**
+ * Trace converter
+ *
+ * The text is parsed character by character, so a trace of any size can
+ * be converted without splitting it into strings first. Whitespace and
+ * line breaks around the values are ignored.
+ */
+public final class TraceConverter {
+
+    private TraceConverter() {
+    }
+
+    /**
+     * Convert a comma-separated trace such as "7,0,1,2" to the binary format
+     *
+     * @param csv the comma-separated trace
+     * @param out the binary trace file to write
+     * @return the number of values written
+     */
+    public static long csvToBinary(String csv, Path out) throws IOException {
+        return csvToBinary(new StringReader(csv), out, BinaryTraceWriter.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Convert a comma-separated trace to the binary format
+     *
+     * @param in the comma-separated trace, read to the end but not closed
+     * @param out the binary trace file to write
+     * @param blockSize the number of values per block
+     * @return the number of values written
+     */
+    public static long csvToBinary(Reader in, Path out, int blockSize) throws IOException {
+        char[] buffer = new char[1 << 16];
+
+        try (BinaryTraceWriter writer = new BinaryTraceWriter(out, blockSize)) {
+            long value = 0;
+            boolean negative = false;
+            boolean digits = false;
+            boolean ended = false;
+            long position = 0;
+
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                for (int i = 0; i < n; i++, position++) {
+                    char c = buffer[i];
+
+                    // Whitespace may surround a value but not split it
+                    if (ended && (c == '-' || (c >= '0' && c <= '9'))) {
+                        throw new NumberFormatException("unexpected '" + c + "' after whitespace at offset "
+                                + position);
+                    } else if (c >= '0' && c <= '9') {
+                        value = value * 10 + (c - '0');
+                        digits = true;
+                        if (value > Integer.MAX_VALUE + 1L)
+                            throw new NumberFormatException("value too large at offset " + position);
+                    } else if (c == '-' && !digits && !negative) {
+                        negative = true;
+                    } else if (c == ',') {
+                        writer.write(toInt(value, negative, digits, position));
+                        value = 0;
+                        negative = false;
+                        digits = false;
+                        ended = false;
+                    } else if (Character.isWhitespace(c)) {
+                        ended = digits || negative;
+                    } else {
+                        throw new NumberFormatException("unexpected '" + c + "' at offset " + position);
+                    }
+                }
+            }
+
+            // The last value is not followed by a comma
+            if (digits || negative)
+                writer.write(toInt(value, negative, digits, position));
+
+            return writer.getCount();
+        }
+    }
+
+    /**
+     * Convert a binary trace back to a comma-separated trace
+     *
+     * @param in the binary trace file
+     * @return the comma-separated trace
+     */
+    public static String binaryToCsv(Path in) throws IOException {
+        try (BinaryTraceReader reader = new BinaryTraceReader(in)) {
+            StringBuilder csv = new StringBuilder();
+            int[] chunk = new int[reader.getBlockSize()];
+
+            for (int n = reader.read(chunk); n >= 0; n = reader.read(chunk)) {
+                for (int i = 0; i < n; i++) {
+                    if (csv.length() > 0)
+                        csv.append(',');
+                    csv.append(chunk[i]);
+                }
+            }
+
+            return csv.toString();
+        }
+    }
+
+    private static int toInt(long value, boolean negative, boolean digits, long position) {
+        if (!digits)
+            throw new NumberFormatException("missing value at offset " + position);
+        if (!negative && value > Integer.MAX_VALUE)
+            throw new NumberFormatException("value too large at offset " + position);
+
+        return (int) (negative ? -value : value);
+    }
+
+}
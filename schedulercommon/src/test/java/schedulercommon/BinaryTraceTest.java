@@ -0,0 +1,153 @@
+package schedulercommon;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+public class BinaryTraceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path path;
+
+    public BinaryTraceTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        path = folder.newFile("trace.bin").toPath();
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of writing and reading a trace, of classes BinaryTraceWriter and BinaryTraceReader.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        System.out.println("BinaryTraceWriter and BinaryTraceReader");
+        int[] values = new int[100000];
+        Random random = new Random(2019);
+        for (int i = 0; i < values.length; i++)
+            values[i] = random.nextInt(10) == 0 ? random.nextInt()
+                    : (i > 0 ? values[i - 1] : 0) + random.nextInt(33) - 16;
+
+        try (BinaryTraceWriter writer = new BinaryTraceWriter(path, 1000)) {
+            writer.write(values, 0, 500);
+            for (int i = 500; i < values.length; i++)
+                writer.write(values[i]);
+        }
+
+        // A tiny window makes the reader move it over and over again
+        try (BinaryTraceReader reader = new BinaryTraceReader(path, 64)) {
+            assertEquals(values.length, reader.getCount());
+            assertEquals(1000, reader.getBlockSize());
+            assertEquals(Arrays.stream(values).min().getAsInt(), reader.getMin());
+            assertEquals(Arrays.stream(values).max().getAsInt(), reader.getMax());
+            assertArrayEquals(values, reader.readAll());
+        }
+    }
+
+    /**
+     * Test of the size of the binary format compared to the text.
+     */
+    @Test
+    public void testCompact() throws IOException {
+        System.out.println("binary trace size");
+        StringBuilder csv = new StringBuilder();
+        Random random = new Random(2019);
+        int value = 5000;
+        for (int i = 0; i < 100000; i++) {
+            value += random.nextInt(9) - 4;
+            csv.append(i == 0 ? "" : ",").append(value);
+        }
+
+        assertEquals(100000, TraceConverter.csvToBinary(csv.toString(), path));
+        assertTrue(Files.size(path) * 3 < csv.length());
+        assertEquals(csv.toString(), TraceConverter.binaryToCsv(path));
+    }
+
+    /**
+     * Test of read method, of class BinaryTraceReader, a block at a time.
+     */
+    @Test
+    public void testReadChunks() throws IOException {
+        System.out.println("read");
+        String referenceString = "7,0,1,2,0,3,0,4,2,3,0,3,0,3,2,1,2,0,1,7,0,1";
+        TraceConverter.csvToBinary(new StringReader(referenceString), path, 5);
+
+        StringBuilder chunks = new StringBuilder();
+        try (BinaryTraceReader reader = new BinaryTraceReader(path)) {
+            int[] chunk = new int[reader.getBlockSize()];
+            for (int n = reader.read(chunk); n >= 0; n = reader.read(chunk)) {
+                assertTrue(n <= 5);
+                for (int i = 0; i < n; i++)
+                    chunks.append(chunks.length() == 0 ? "" : ",").append(chunk[i]);
+            }
+        }
+
+        assertEquals(referenceString, chunks.toString());
+    }
+
+    /**
+     * Test of csvToBinary method, of class TraceConverter, with negative values and whitespace.
+     */
+    @Test
+    public void testConvert() throws IOException {
+        System.out.println("csvToBinary");
+        assertEquals(4, TraceConverter.csvToBinary(" 3, -2147483648,\n2147483647 ,0", path));
+        assertEquals("3,-2147483648,2147483647,0", TraceConverter.binaryToCsv(path));
+    }
+
+    /**
+     * Test of csvToBinary method, of class TraceConverter, with a malformed trace.
+     */
+    @Test(expected = NumberFormatException.class)
+    public void testConvertMalformed() throws IOException {
+        System.out.println("csvToBinary with a malformed trace");
+        TraceConverter.csvToBinary("1,,2", path);
+    }
+
+    /**
+     * Test of csvToBinary method, of class TraceConverter, with whitespace inside a value.
+     */
+    @Test
+    public void testConvertSplitValue() throws IOException {
+        System.out.println("csvToBinary with whitespace inside a value");
+        for (String csv : new String[] {"1 2,3", "1,2\t3", "- 5,1", "7,-\n8"}) {
+            try {
+                TraceConverter.csvToBinary(csv, path);
+                fail("accepted " + csv);
+            } catch (NumberFormatException expected) {
+            }
+        }
+
+        // Around a value, whitespace is still fine
+        assertEquals(3, TraceConverter.csvToBinary("\t-5 ,  12\n,3 ", path));
+        assertEquals("-5,12,3", TraceConverter.binaryToCsv(path));
+    }
+
+}
@@ -0,0 +1,86 @@
+package schedulercommon;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ChunkedRandomTest {
+
+    private ChunkedRandom.Source source;
+
+    public ChunkedRandomTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        source = (random, i) -> random.nextInt(1000);
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of fill method, of class ChunkedRandom, in pieces and in parallel.
+     */
+    @Test
+    public void testFill() {
+        System.out.println("fill");
+        int n = 3 * ChunkedRandom.CHUNK_SIZE + 17;
+        int[] expected = new int[n];
+        ChunkedRandom.fillParallel(7, 0, source, 0, expected, n);
+
+        // Pieces which start and end in the middle of chunks
+        int[] pieces = new int[n];
+        for (int start = 0; start < n; start += 10007)
+            ChunkedRandom.fill(7, 0, source, start, pieces, start, Math.min(10007, n - start));
+        assertArrayEquals(expected, pieces);
+
+        // The first value of the second chunk comes from a random of its own
+        SplittableRandom random = new SplittableRandom(ChunkedRandom.chunkSeed(7, 0, 1));
+        assertEquals(random.nextInt(1000), expected[ChunkedRandom.CHUNK_SIZE]);
+
+        int[] other = new int[1000];
+        ChunkedRandom.fill(7, 1, source, 0, other, 0, other.length);
+        assertFalse(Arrays.equals(Arrays.copyOf(expected, other.length), other));
+    }
+
+    /**
+     * Test of forEachChunk method, of class ChunkedRandom.
+     */
+    @Test
+    public void testForEachChunk() {
+        System.out.println("forEachChunk");
+        AtomicInteger chunks = new AtomicInteger();
+        ChunkedRandom.forEachChunk(2 * ChunkedRandom.CHUNK_SIZE + 1, k -> chunks.incrementAndGet());
+
+        assertEquals(3, chunks.get());
+        assertEquals(0, ChunkedRandom.chunks(0));
+        assertEquals(1, ChunkedRandom.chunks(ChunkedRandom.CHUNK_SIZE));
+    }
+
+    /**
+     * Test of fillParallel method, of class ChunkedRandom, in the middle of a chunk.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testFillParallelUnaligned() {
+        System.out.println("fillParallel in the middle of a chunk");
+        ChunkedRandom.fillParallel(7, 0, source, 5, new int[10], 10);
+    }
+
+}
@@ -0,0 +1,197 @@
+package schedulercommon;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ */
+public class ColumnarTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String[] NAMES = {"policy", "cells", "mean"};
+    private static final ColumnarWriter.Type[] TYPES = {
+        ColumnarWriter.Type.STRING, ColumnarWriter.Type.LONG, ColumnarWriter.Type.DOUBLE
+    };
+
+    private Path path;
+
+    public ColumnarTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        path = folder.newFile("table.col").toPath();
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of writing and reading a table, of classes ColumnarWriter and ColumnarReader.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        System.out.println("ColumnarWriter and ColumnarReader");
+        Random random = new Random(49);
+        int rows = 1000;
+        String[] policies = new String[rows];
+        long[] cells = new long[rows];
+        double[] means = new double[rows];
+
+        for (int i = 0; i < rows; i++) {
+            policies[i] = i % 7 == 0 ? "" : "p\u00e9,\"" + random.nextInt(100);
+            cells[i] = random.nextLong();
+            means[i] = random.nextGaussian();
+        }
+
+        try (ColumnarWriter writer = new ColumnarWriter(path, NAMES, TYPES, 64)) {
+            for (int i = 0; i < rows; i++)
+                writer.writeRow(policies[i], cells[i], means[i]);
+            assertEquals(rows, writer.getRowCount());
+            assertEquals(rows / 64, writer.getRowGroupCount());
+        }
+
+        try (ColumnarReader reader = new ColumnarReader(path)) {
+            assertEquals(3, reader.getColumnCount());
+            assertArrayEquals(NAMES, reader.getColumnNames());
+            assertArrayEquals(TYPES, reader.getColumnTypes());
+            assertEquals(rows, reader.getRowCount());
+            assertEquals((rows + 63) / 64, reader.getRowGroupCount());
+            assertEquals(1, reader.getColumnIndex("cells"));
+            assertEquals(-1, reader.getColumnIndex("nothing"));
+
+            // The columns in any order
+            assertArrayEquals(means, reader.readDoubles(2), 0);
+            assertArrayEquals(policies, reader.readStrings(0));
+            assertArrayEquals(cells, reader.readLongs(1));
+        }
+    }
+
+    /**
+     * Test of the values a row takes, of class ColumnarWriter.
+     */
+    @Test
+    public void testValues() throws IOException {
+        System.out.println("writeRow");
+        try (ColumnarWriter writer = new ColumnarWriter(path, NAMES, TYPES)) {
+            // Integers go into LONG and DOUBLE columns, enums by name
+            writer.writeRow(TimeUnit.SECONDS, 3, 4);
+            writer.writeRow("x", (short) 5, 2.5f);
+
+            try {
+                writer.writeRow("x", 1.5, 2.0);
+                fail("a double in a LONG column");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+            try {
+                writer.writeRow(null, 1L, 2.0);
+                fail("a null value");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+            try {
+                writer.writeRow("x", 1L);
+                fail("a missing value");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+
+            // A rejected row leaves nothing behind
+            assertEquals(2, writer.getRowCount());
+        }
+
+        try (ColumnarReader reader = new ColumnarReader(path)) {
+            assertArrayEquals(new String[] {"SECONDS", "x"}, reader.readStrings(0));
+            assertArrayEquals(new long[] {3, 5}, reader.readLongs(1));
+            assertArrayEquals(new double[] {4, 2.5}, reader.readDoubles(2), 0);
+
+            try {
+                reader.readLongs(2);
+                fail("a DOUBLE column read as LONG");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    /**
+     * Test of flush and of empty tables, of class ColumnarWriter.
+     */
+    @Test
+    public void testFlush() throws IOException {
+        System.out.println("flush");
+        try (ColumnarWriter writer = new ColumnarWriter(path, NAMES, TYPES, 100)) {
+            writer.writeRow("a", 1, 1.0);
+            writer.flush();
+            writer.flush();
+            writer.writeRow("b", 2, 2.0);
+            assertEquals(1, writer.getRowGroupCount());
+        }
+
+        try (ColumnarReader reader = new ColumnarReader(path)) {
+            assertEquals(2, reader.getRowGroupCount());
+            assertArrayEquals(new long[] {1, 2}, reader.readLongs(1));
+        }
+
+        try (ColumnarWriter writer = new ColumnarWriter(path, NAMES, TYPES)) {
+            assertEquals(0, writer.getRowCount());
+        }
+
+        try (ColumnarReader reader = new ColumnarReader(path)) {
+            assertEquals(0, reader.getRowCount());
+            assertEquals(0, reader.readStrings(0).length);
+        }
+    }
+
+    /**
+     * Test of reading a table which was not closed, of class ColumnarReader.
+     */
+    @Test
+    public void testNotClosed() throws IOException {
+        System.out.println("not closed");
+        ColumnarWriter writer = new ColumnarWriter(path, NAMES, TYPES, 1);
+        writer.writeRow("a", 1, 1.0);
+
+        try {
+            new ColumnarReader(path).close();
+            fail("a table without a footer");
+        } catch (IOException e) {
+            // Expected
+        }
+
+        writer.close();
+        Files.write(path, new byte[] {1, 2, 3});
+
+        try {
+            new ColumnarReader(path).close();
+            fail("not a table");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package schedulercommon;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CounterRegistryTest {
+
+    public CounterRegistryTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of the counters, of class CounterRegistry.
+     */
+    @Test
+    public void testCounterRegistry() {
+        System.out.println("CounterRegistry");
+        CounterRegistry registry = new CounterRegistry();
+        registry.counter("b").add(5);
+        registry.counter("a").increment();
+        registry.counter("b").increment();
+
+        assertEquals(6, registry.getCount("b"));
+        assertEquals(1, registry.getCount("a"));
+        assertArrayEquals(new String[] {"b", "a"}, registry.getNames().toArray());
+
+        Map<String, Long> snapshot = registry.snapshot();
+        registry.reset();
+        assertEquals(0, registry.getCount("b"));
+        assertEquals(Long.valueOf(6), snapshot.get("b"));
+
+        try {
+            registry.getCount("c");
+            fail("no such counter");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test of the sample period, of class EventSampler.
+     */
+    @Test
+    public void testEventSampler() {
+        System.out.println("EventSampler");
+        System.setProperty("schedulercommon.test.samplePeriod", "0");
+        EventSampler sampler = new EventSampler("schedulercommon.test.samplePeriod");
+        System.clearProperty("schedulercommon.test.samplePeriod");
+
+        // A period below 1 in the property samples every event
+        assertEquals(1, sampler.getPeriod());
+        for (int i = 0; i < 100; i++)
+            assertTrue(sampler.isSampled());
+
+        assertEquals(EventSampler.DEFAULT_PERIOD, new EventSampler("schedulercommon.test.none").getPeriod());
+
+        // About one event in ten
+        sampler.setPeriod(10);
+        int sampled = 0;
+        for (int i = 0; i < 100000; i++)
+            if (sampler.isSampled())
+                sampled++;
+        assertTrue(sampled > 9000 && sampled < 11000);
+
+        try {
+            sampler.setPeriod(0);
+            fail("a period of 0");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package schedulercommon;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LongIntHashMapTest {
+
+    private LongIntHashMap instance;
+
+    public LongIntHashMapTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        instance = new LongIntHashMap(4, -1);
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of put and get methods, of class LongIntHashMap.
+     */
+    @Test
+    public void testPutGet() {
+        System.out.println("put");
+        assertEquals(-1, instance.put(42L, 1));
+        assertEquals(1, instance.put(42L, 2));
+        assertEquals(-1, instance.put(Long.MIN_VALUE, 3));
+        assertEquals(-1, instance.put(0L, 4));
+
+        assertEquals(2, instance.get(42L));
+        assertEquals(3, instance.get(Long.MIN_VALUE));
+        assertEquals(4, instance.get(0L));
+        assertEquals(-1, instance.get(7L));
+        assertEquals(3, instance.size());
+    }
+
+    /**
+     * Test of remove method, of class LongIntHashMap, against a HashMap.
+     */
+    @Test
+    public void testRemove() {
+        System.out.println("remove");
+        HashMap<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(2019);
+
+        // A small key space makes for long probe sequences and many removals
+        for (int i = 0; i < 200000; i++) {
+            long key = ((long) random.nextInt(64) << 32) | random.nextInt(512);
+
+            if (random.nextBoolean()) {
+                Integer previous = expected.put(key, i);
+                assertEquals(previous == null ? -1 : previous, instance.put(key, i));
+            } else {
+                Integer previous = expected.remove(key);
+                assertEquals(previous == null ? -1 : previous, instance.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), instance.size());
+        for (Long key : expected.keySet())
+            assertEquals((int) expected.get(key), instance.get(key));
+    }
+
+    /**
+     * Test of clear method, of class LongIntHashMap.
+     */
+    @Test
+    public void testClear() {
+        System.out.println("clear");
+        for (long key = 0; key < 1000; key++)
+            instance.put(key, (int) key);
+
+        instance.clear();
+
+        assertEquals(0, instance.size());
+        assertFalse(instance.containsKey(10L));
+    }
+
+}
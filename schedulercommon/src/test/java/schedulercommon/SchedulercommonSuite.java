@@ -0,0 +1,32 @@
+package schedulercommon;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({schedulercommon.LongIntHashMapTest.class, schedulercommon.ColumnarTest.class,
+    schedulercommon.SweepRunnerTest.class, schedulercommon.CounterRegistryTest.class,
+    schedulercommon.BinaryTraceTest.class, schedulercommon.ChunkedRandomTest.class})
+public class SchedulercommonSuite {
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+    }
+
+}
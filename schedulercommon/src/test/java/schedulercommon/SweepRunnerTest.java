@@ -0,0 +1,179 @@
+package schedulercommon;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ */
+public class SweepRunnerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String[] COLUMNS = {"name", "n", "square"};
+    private static final ColumnarWriter.Type[] TYPES = {
+        ColumnarWriter.Type.STRING, ColumnarWriter.Type.LONG, ColumnarWriter.Type.DOUBLE
+    };
+
+    public SweepRunnerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of run, of class SweepRunner.
+     */
+    @Test
+    public void testRun() throws IOException {
+        System.out.println("run");
+        Path path = folder.newFile("sweep.col").toPath();
+        SweepRunner sweep = new SweepRunner(COLUMNS, TYPES);
+        for (int i = 0; i < 100; i++) {
+            int n = i;
+            sweep.add(() -> new Object[] {"cell, " + n, n, (double) n * n});
+        }
+
+        StringWriter csv = new StringWriter();
+        try (ColumnarWriter output = new ColumnarWriter(path, COLUMNS, TYPES, 16)) {
+            sweep.setOutput(output);
+            sweep.setCsvOutput(csv);
+            assertEquals(0, sweep.getProgress(), 0);
+
+            List<Object[]> rows = sweep.run();
+            assertEquals(100, rows.size());
+            assertEquals(100, sweep.getCompletedCount());
+            assertEquals(1, sweep.getProgress(), 0);
+            assertTrue(sweep.isDone());
+        }
+
+        // Every cell once, in whatever order they were done
+        try (ColumnarReader reader = new ColumnarReader(path)) {
+            long[] n = reader.readLongs(1);
+            double[] squares = reader.readDoubles(2);
+            Set<Long> seen = new HashSet<>();
+            for (int i = 0; i < n.length; i++) {
+                assertTrue(seen.add(n[i]));
+                assertEquals((double) n[i] * n[i], squares[i], 0);
+            }
+            assertEquals(100, seen.size());
+        }
+
+        String[] lines = csv.toString().split("\n");
+        assertEquals(101, lines.length);
+        assertEquals("name,n,square", lines[0]);
+        assertTrue(lines[1].startsWith("\"cell, "));
+
+        // The same rows again, from the snapshot
+        StringWriter again = new StringWriter();
+        sweep.writeCsv(again);
+        assertEquals(csv.toString(), again.toString());
+    }
+
+    /**
+     * Test of getSnapshot while a sweep runs, of class SweepRunner.
+     */
+    @Test
+    public void testSnapshot() throws Exception {
+        System.out.println("getSnapshot");
+        CountDownLatch gate = new CountDownLatch(1);
+        SweepRunner sweep = new SweepRunner(COLUMNS, TYPES);
+        sweep.add(() -> new Object[] {"first", 1, 1.0});
+        sweep.add(() -> {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Object[] {"last", 2, 4.0};
+        });
+
+        // Two workers, so the first cell is done while the second waits
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            sweep.start(pool);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (sweep.getCompletedCount() < 1 && System.nanoTime() < deadline)
+                Thread.sleep(1);
+
+            List<Object[]> partial = sweep.getSnapshot();
+            assertEquals(1, partial.size());
+            assertEquals("first", partial.get(0)[0]);
+            assertEquals(0.5, sweep.getProgress(), 0);
+            assertFalse(sweep.isDone());
+
+            gate.countDown();
+            assertEquals(2, sweep.await().size());
+        } finally {
+            gate.countDown();
+            pool.shutdown();
+        }
+
+        try {
+            sweep.add(() -> new Object[] {"late", 3, 9.0});
+            fail("a cell added after the start");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test of a failing cell, of class SweepRunner.
+     */
+    @Test
+    public void testFailure() throws IOException {
+        System.out.println("failure");
+        SweepRunner sweep = new SweepRunner(COLUMNS, TYPES);
+        sweep.add(() -> new Object[] {"short", 1});
+
+        try {
+            sweep.run();
+            fail("a row with a missing value");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        // No cells at all
+        SweepRunner empty = new SweepRunner(COLUMNS, TYPES);
+        assertEquals(1, empty.getProgress(), 0);
+        assertTrue(empty.run().isEmpty());
+
+        try {
+            new SweepRunner(COLUMNS, TYPES).await();
+            fail("a sweep which was not started");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+}
@@ -0,0 +1,446 @@
+/*
+ * File:   BlockTraceReader.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A streaming reader of real block I/O traces, the text output of
+ * blkparse and the CSV traces of the SPC and UMass repositories, with the
+ * replay of a trace through the schedulers.
+ *
+ */
+
+package schedulerdisk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Block trace reader
+ *
+ * The file is mapped a window at a time, like BinaryTraceReader does, and
+ * the lines are parsed straight from the mapped bytes into the caller's
+ * arrays, a chunk at a time, so no String is made for any line and a trace
+ * of any size is read in bounded memory. A line running over the end of
+ * the window moves the window to the start of the line.
+ *
+ * A blkparse line looks like
+ *
+ *   8,0    3     1     0.000000000   697  Q   W 223490 + 8 [kjournald]
+ *
+ * (device, CPU, sequence number, time in seconds, process id, action,
+ * RWBS flags, first sector, number of sectors, process name), and only
+ * the lines of one action (Q, the requests being queued, by default)
+ * count. An SPC line looks like
+ *
+ *   0,20941264,8192,W,0.551706
+ *
+ * (application storage unit, first sector, size in bytes, opcode, time in
+ * seconds). Lines which do not parse, such as headers and the summaries
+ * of blkparse, are skipped. Times are returned in milliseconds.
+ */
+public class BlockTraceReader implements Closeable {
+
+    /**
+     * The format of a trace
+     */
+    public enum Format {
+        BLKTRACE, SPC
+    }
+
+    private static final long DEFAULT_WINDOW_BYTES = 1L << 28;
+    private static final int SECTOR_BYTES = 512;
+    private static final byte[] PLUS = {'+'};
+
+    private final FileChannel channel;
+    private final Format format;
+    private final long fileSize;
+    private final long windowBytes;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int position;
+    private byte[] action;
+
+    private long lineCount;
+    private long skippedCount;
+
+    // The fields of the line being parsed: start and end in the window
+    private final int[] fieldStarts;
+    private final int[] fieldEnds;
+
+    public BlockTraceReader(Path path, Format format) throws IOException {
+        this(path, format, DEFAULT_WINDOW_BYTES);
+    }
+
+    BlockTraceReader(Path path, Format format, long windowBytes) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.format = format;
+
+        try {
+            this.fileSize = this.channel.size();
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+
+        this.windowBytes = Math.max(windowBytes, 64);
+        this.action = new byte[] {'Q'};
+        this.lineCount = 0;
+        this.skippedCount = 0;
+        this.fieldStarts = new int[11];
+        this.fieldEnds = new int[11];
+        map(0);
+    }
+
+    /**
+     * @param action the blkparse action whose lines count, such as Q
+     *               (queued), D (issued) or C (completed)
+     */
+    public void setAction(String action) {
+        if (action.isEmpty())
+            throw new IllegalArgumentException("action must not be empty");
+
+        this.action = action.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return the number of lines read so far
+     */
+    public long getLineCount() {
+        return this.lineCount;
+    }
+
+    /**
+     * @return the number of lines read so far which were not requests
+     */
+    public long getSkippedCount() {
+        return this.skippedCount;
+    }
+
+    /**
+     * Read the next chunk of requests
+     *
+     * @param times the arrival times, in milliseconds
+     * @param sectors the first sectors
+     * @param lengths the numbers of sectors
+     * @param writes whether the requests are writes
+     * @return the number of requests read, at most times.length, or -1 at
+     *         the end of the trace
+     */
+    public int read(double[] times, long[] sectors, int[] lengths, boolean[] writes) throws IOException {
+        int len = times.length;
+        if (sectors.length < len || lengths.length < len || writes.length < len)
+            throw new IllegalArgumentException("arrays shorter than times: " + len);
+
+        int n = 0;
+
+        while (n < len) {
+            // The end of the next line, moving the window if it is cut off
+            int end = findLineEnd();
+            if (end < 0)
+                break;
+
+            int start = this.position;
+            this.position = Math.min(end + 1, this.window.limit());
+            this.lineCount++;
+
+            boolean parsed = this.format == Format.BLKTRACE
+                    ? parseBlktrace(start, end, times, sectors, lengths, writes, n)
+                    : parseSpc(start, end, times, sectors, lengths, writes, n);
+            if (parsed)
+                n++;
+            else
+                this.skippedCount++;
+        }
+
+        return n == 0 && len > 0 ? -1 : n;
+    }
+
+    /**
+     * Replay the trace through a scheduler, a batch of requests at a time.
+     * The head stays where a batch leaves it, and the total moves add up
+     * over the batches (see DiskScheduler.getTotalMovesLong, as they soon
+     * go above Integer.MAX_VALUE on a large trace).
+     *
+     * @param scheduler the scheduler
+     * @param policy the policy serving every batch
+     * @param geometry the disk the sectors are mapped to
+     * @param batch the number of requests of a batch
+     * @return the number of requests replayed
+     */
+    public long replay(DiskScheduler scheduler, DiskPolicy policy, DiskTimingModel geometry, int batch)
+            throws IOException {
+        if (batch < 1)
+            throw new IllegalArgumentException("batch must be positive: " + batch);
+
+        double[] times = new double[batch];
+        long[] sectors = new long[batch];
+        int[] lengths = new int[batch];
+        boolean[] writes = new boolean[batch];
+        int[] cylinders = new int[batch];
+        int[] trackSectors = new int[batch];
+        long count = 0;
+
+        for (int n = read(times, sectors, lengths, writes); n >= 0; n = read(times, sectors, lengths, writes)) {
+            for (int i = 0; i < n; i++) {
+                cylinders[i] = getCylinder(sectors[i], geometry);
+                trackSectors[i] = getTrackSector(sectors[i], geometry);
+            }
+
+            int[] requests = n == batch ? cylinders : Arrays.copyOf(cylinders, n);
+            scheduler.setTimingModel(geometry, trackSectors);
+            policy.run(scheduler, requests);
+            count += n;
+        }
+
+        return count;
+    }
+
+    /**
+     * Replay the trace through an online simulator, with the arrival times
+     * of the trace counted from its first request. Arrival times which go
+     * back (blkparse merges the CPUs only roughly) are moved up to the
+     * previous one.
+     *
+     * @param simulator the simulator
+     * @param geometry the disk the sectors are mapped to, the one of the
+     *                 simulator
+     * @return the number of requests replayed
+     */
+    public long replay(OnlineDiskSimulator simulator, DiskTimingModel geometry) throws IOException {
+        double[] times = new double[4096];
+        long[] sectors = new long[4096];
+        int[] lengths = new int[4096];
+        boolean[] writes = new boolean[4096];
+        double first = Double.NaN;
+        double last = 0;
+        long count = 0;
+
+        for (int n = read(times, sectors, lengths, writes); n >= 0; n = read(times, sectors, lengths, writes)) {
+            for (int i = 0; i < n; i++) {
+                if (count++ == 0)
+                    first = times[i];
+
+                last = Math.max(last, times[i] - first);
+                simulator.accept(last, getCylinder(sectors[i], geometry), getTrackSector(sectors[i], geometry),
+                                 writes[i], 0);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @param sector a sector
+     * @param geometry a disk
+     * @return the cylinder of the sector, wrapping around the disk if the
+     *         trace addresses more sectors than the disk has
+     */
+    public static int getCylinder(long sector, DiskTimingModel geometry) {
+        return (int) ((sector / geometry.getSectorsPerTrack()) % geometry.getCylinders());
+    }
+
+    /**
+     * @param sector a sector
+     * @param geometry a disk
+     * @return the position of the sector on its track
+     */
+    public static int getTrackSector(long sector, DiskTimingModel geometry) {
+        return (int) (sector % geometry.getSectorsPerTrack());
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.window = null;
+        this.channel.close();
+    }
+
+    // The position of the newline ending the line at the current position
+    // (or the end of the file), or -1 at the end of the trace
+    private int findLineEnd() throws IOException {
+        while (true) {
+            int limit = this.window.limit();
+
+            for (int i = this.position; i < limit; i++) {
+                if (this.window.get(i) == '\n')
+                    return i;
+            }
+
+            long lineStart = this.windowStart + this.position;
+
+            if (this.windowStart + limit == this.fileSize)
+                return this.position < limit ? limit : -1;
+            if (this.position == 0)
+                throw new IOException("line longer than the window at offset " + lineStart);
+
+            map(lineStart);
+        }
+    }
+
+    private boolean parseBlktrace(int start, int end, double[] times, long[] sectors, int[] lengths,
+            boolean[] writes, int n) {
+        int fields = split(start, end, (byte) 0, 10);
+        if (fields < 10 || !equals(5, this.action) || !equals(8, PLUS))
+            return false;
+
+        boolean read = false;
+        boolean write = false;
+        for (int i = this.fieldStarts[6]; i < this.fieldEnds[6]; i++) {
+            byte b = this.window.get(i);
+            read |= b == 'R';
+            write |= b == 'W';
+        }
+
+        double seconds = parseSeconds(3);
+        long sector = parseLong(7);
+        long count = parseLong(9);
+        if ((!read && !write) || Double.isNaN(seconds) || sector < 0 || count < 1 || count > Integer.MAX_VALUE)
+            return false;
+
+        times[n] = seconds * 1000;
+        sectors[n] = sector;
+        lengths[n] = (int) count;
+        writes[n] = write;
+        return true;
+    }
+
+    private boolean parseSpc(int start, int end, double[] times, long[] sectors, int[] lengths, boolean[] writes,
+            int n) {
+        int fields = split(start, end, (byte) ',', 5);
+        if (fields < 5 || this.fieldEnds[3] - this.fieldStarts[3] != 1)
+            return false;
+
+        byte opcode = this.window.get(this.fieldStarts[3]);
+        boolean write = opcode == 'W' || opcode == 'w';
+        if (!write && opcode != 'R' && opcode != 'r')
+            return false;
+
+        long sector = parseLong(1);
+        long bytes = parseLong(2);
+        double seconds = parseSeconds(4);
+        if (parseLong(0) < 0 || sector < 0 || bytes < 0 || Double.isNaN(seconds))
+            return false;
+
+        times[n] = seconds * 1000;
+        sectors[n] = sector;
+        lengths[n] = (int) Math.max(1, Math.min(Integer.MAX_VALUE, (bytes + SECTOR_BYTES - 1) / SECTOR_BYTES));
+        writes[n] = write;
+        return true;
+    }
+
+    // Find the fields of a line, separated by whitespace (separator 0) or
+    // by a character with optional whitespace around it. Returns the
+    // number of fields found, at most max.
+    private int split(int start, int end, byte separator, int max) {
+        int fields = 0;
+        int i = start;
+
+        while (fields < max) {
+            while (i < end && isSpace(this.window.get(i)))
+                i++;
+            if (i == end && (separator == 0 || fields == 0))
+                break;
+
+            int fieldStart = i;
+            while (i < end && !isSpace(this.window.get(i)) && this.window.get(i) != separator)
+                i++;
+            this.fieldStarts[fields] = fieldStart;
+            this.fieldEnds[fields] = i;
+            fields++;
+
+            if (separator != 0) {
+                while (i < end && isSpace(this.window.get(i)))
+                    i++;
+                if (i == end)
+                    break;
+                if (this.window.get(i) != separator)
+                    return 0;
+                i++;
+            }
+        }
+
+        return fields;
+    }
+
+    private boolean equals(int field, byte[] value) {
+        if (this.fieldEnds[field] - this.fieldStarts[field] != value.length)
+            return false;
+
+        for (int i = 0; i < value.length; i++) {
+            if (this.window.get(this.fieldStarts[field] + i) != value[i])
+                return false;
+        }
+
+        return true;
+    }
+
+    // A non-negative integer, or -1 if the field is not one
+    private long parseLong(int field) {
+        int start = this.fieldStarts[field];
+        int end = this.fieldEnds[field];
+        if (start == end || end - start > 18)
+            return -1;
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = this.window.get(i);
+            if (b < '0' || b > '9')
+                return -1;
+            value = value * 10 + (b - '0');
+        }
+
+        return value;
+    }
+
+    // A non-negative decimal number such as 12.000345, or NaN
+    private double parseSeconds(int field) {
+        int start = this.fieldStarts[field];
+        int end = this.fieldEnds[field];
+        long whole = 0;
+        long fraction = 0;
+        long scale = 1;
+        boolean dot = false;
+        boolean digits = false;
+
+        for (int i = start; i < end; i++) {
+            byte b = this.window.get(i);
+
+            if (b == '.' && !dot) {
+                dot = true;
+            } else if (b >= '0' && b <= '9') {
+                digits = true;
+                if (!dot) {
+                    whole = whole * 10 + (b - '0');
+                } else if (scale < 1_000_000_000_000L) {
+                    fraction = fraction * 10 + (b - '0');
+                    scale *= 10;
+                }
+            } else {
+                return Double.NaN;
+            }
+        }
+
+        return digits ? whole + (double) fraction / scale : Double.NaN;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private void map(long position) throws IOException {
+        this.windowStart = position;
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                       Math.min(this.windowBytes, this.fileSize - position));
+        this.position = 0;
+    }
+
+}
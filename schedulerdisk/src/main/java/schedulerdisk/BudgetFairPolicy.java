@@ -0,0 +1,283 @@
+/*
+ * File:   BudgetFairPolicy.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A budget fair queueing dispatch policy in the spirit of the Linux BFQ
+ * I/O scheduler, sharing the disk among the owners of the requests.
+ *
+ */
+
+package schedulerdisk;
+
+import java.util.Arrays;
+
+import schedulercommon.ChunkedRandom;
+
+/**
+ * Budget fair policy
+ *
+ * Every owner has its own queue and a weight. A queue is a treap of the
+ * requests of its owner, keyed by cylinder and, on the same cylinder, by
+ * the order of arrival. Like the lists of PendingRequestIndex, the treaps
+ * are threaded through arrays indexed by request id, which all the owners
+ * share, so an owner costs a few words whatever the number of cylinders and
+ * however deep its backlog. Adding a request, finding the next one and
+ * removing it take O(log n) expected time. The owners take turns: the owner
+ * in service may dispatch up to a budget of requests, in C-LOOK order
+ * within its own queue, before the next owner is picked. The next owner is
+ * the backlogged one with the earliest virtual finish time, where a turn of
+ * b requests advances the virtual time of an owner by b / weight (as in
+ * WF2Q+). Over time every backlogged owner gets a share of the requests
+ * proportional to its weight, while the requests of one turn still enjoy
+ * short seeks.
+ *
+ * Unlike BFQ, the disk is never kept idle waiting for the owner in service
+ * to send its next request, and the budget is counted in requests rather
+ * than sectors.
+ */
+public class BudgetFairPolicy implements DispatchPolicy {
+
+    private final int cylinders;
+    private final int budget;
+
+    // For every owner: the root of its treap (-1 if empty), the number of
+    // its pending requests, its weight and its virtual finish time
+    private int[] roots;
+    private int[] sizes;
+    private double[] weights;
+    private double[] finishTimes;
+
+    // For every request id: its cylinder, the order it arrived in, and
+    // its children in the treap of its owner (-1 where there is none). The
+    // priority of a node is a mix of its arrival order.
+    private int[] cylinderOf;
+    private long[] sequenceOf;
+    private int[] left;
+    private int[] right;
+    private long sequence;
+
+    // The owner in service (-1 if none), what is left of its budget, and
+    // the virtual time of the system
+    private int active;
+    private int remaining;
+    private double virtualTime;
+
+    public BudgetFairPolicy(int cylinders) {
+        this(cylinders, 16);
+    }
+
+    /**
+     * @param cylinders the number of cylinders
+     * @param budget the largest number of requests of one turn
+     */
+    public BudgetFairPolicy(int cylinders, int budget) {
+        if (cylinders < 1)
+            throw new IllegalArgumentException("cylinders must be positive: " + cylinders);
+        if (budget < 1)
+            throw new IllegalArgumentException("budget must be positive: " + budget);
+
+        this.cylinders = cylinders;
+        this.budget = budget;
+        this.roots = new int[] {-1};
+        this.sizes = new int[1];
+        this.weights = new double[] {1};
+        this.finishTimes = new double[1];
+        this.cylinderOf = new int[16];
+        this.sequenceOf = new long[16];
+        this.left = new int[16];
+        this.right = new int[16];
+        this.sequence = 0;
+        this.active = -1;
+        this.remaining = 0;
+        this.virtualTime = 0;
+    }
+
+    /**
+     * @param owner an owner
+     * @param weight its share of the disk relative to the others (1 by default)
+     */
+    public void setWeight(int owner, double weight) {
+        if (!(weight > 0))
+            throw new IllegalArgumentException("weight must be positive: " + weight);
+
+        ensureOwner(owner);
+        this.weights[owner] = weight;
+    }
+
+    @Override
+    public void arrived(int id, int cylinder, boolean write, int owner, double time) {
+        if (cylinder < 0 || cylinder >= this.cylinders)
+            throw new IllegalArgumentException("cylinder out of range: " + cylinder);
+        if (id < 0)
+            throw new IllegalArgumentException("id must not be negative: " + id);
+
+        ensureOwner(owner);
+        if (id >= this.cylinderOf.length)
+            grow(id);
+
+        // An owner which was idle does not get credit for the time it
+        // did not use the disk
+        if (this.sizes[owner] == 0 && owner != this.active)
+            this.finishTimes[owner] = Math.max(this.finishTimes[owner], this.virtualTime);
+
+        this.cylinderOf[id] = cylinder;
+        this.sequenceOf[id] = this.sequence++;
+        this.left[id] = -1;
+        this.right[id] = -1;
+        this.roots[owner] = insert(this.roots[owner], id);
+        this.sizes[owner]++;
+    }
+
+    @Override
+    public String getName() {
+        return "BFQ";
+    }
+
+    @Override
+    public int select(PendingRequestIndex pending, int head, double time) {
+        // The turn is over once the budget is spent or the queue is empty
+        if (this.active < 0 || this.remaining == 0 || this.sizes[this.active] == 0) {
+            if (this.active >= 0) {
+                // Charge the owner for the requests it actually dispatched
+                this.finishTimes[this.active] += (this.budget - this.remaining) / this.weights[this.active];
+            }
+
+            // Pick the backlogged owner which is furthest behind
+            this.active = -1;
+            for (int owner = 0; owner < this.sizes.length; owner++) {
+                if (this.sizes[owner] > 0
+                        && (this.active < 0 || this.finishTimes[owner] < this.finishTimes[this.active]))
+                    this.active = owner;
+            }
+
+            this.virtualTime = Math.max(this.virtualTime, this.finishTimes[this.active]);
+            this.remaining = this.budget;
+        }
+
+        // C-LOOK within the queue of the owner
+        int root = this.roots[this.active];
+        int id = ceiling(root, head);
+        if (id < 0)
+            id = ceiling(root, 0);
+
+        this.roots[this.active] = remove(root, id);
+        this.sizes[this.active]--;
+        this.remaining--;
+
+        return id;
+    }
+
+    private void ensureOwner(int owner) {
+        if (owner < 0)
+            throw new IllegalArgumentException("owner must not be negative: " + owner);
+
+        if (owner >= this.roots.length) {
+            int length = Math.max(owner + 1, 2 * this.roots.length);
+            int oldLength = this.roots.length;
+
+            this.roots = Arrays.copyOf(this.roots, length);
+            this.sizes = Arrays.copyOf(this.sizes, length);
+            this.weights = Arrays.copyOf(this.weights, length);
+            this.finishTimes = Arrays.copyOf(this.finishTimes, length);
+            Arrays.fill(this.roots, oldLength, length, -1);
+            Arrays.fill(this.weights, oldLength, length, 1);
+        }
+    }
+
+    private void grow(int id) {
+        int length = Math.max(id + 1, this.cylinderOf.length + (this.cylinderOf.length >> 1));
+
+        this.cylinderOf = Arrays.copyOf(this.cylinderOf, length);
+        this.sequenceOf = Arrays.copyOf(this.sequenceOf, length);
+        this.left = Arrays.copyOf(this.left, length);
+        this.right = Arrays.copyOf(this.right, length);
+    }
+
+    // Whether request a comes before request b: the lower cylinder, or
+    // the older request on the same cylinder
+    private boolean before(int a, int b) {
+        return this.cylinderOf[a] < this.cylinderOf[b]
+                || (this.cylinderOf[a] == this.cylinderOf[b] && this.sequenceOf[a] < this.sequenceOf[b]);
+    }
+
+    private long priority(int id) {
+        return ChunkedRandom.mix(this.sequenceOf[id]);
+    }
+
+    // Insert a request into the treap under node, and return its new root
+    private int insert(int node, int id) {
+        if (node < 0)
+            return id;
+
+        if (before(id, node)) {
+            this.left[node] = insert(this.left[node], id);
+            if (priority(this.left[node]) > priority(node)) {
+                int child = this.left[node];
+                this.left[node] = this.right[child];
+                this.right[child] = node;
+                return child;
+            }
+        } else {
+            this.right[node] = insert(this.right[node], id);
+            if (priority(this.right[node]) > priority(node)) {
+                int child = this.right[node];
+                this.right[node] = this.left[child];
+                this.left[child] = node;
+                return child;
+            }
+        }
+
+        return node;
+    }
+
+    // Remove a request from the treap under node, and return its new root
+    private int remove(int node, int id) {
+        if (node == id)
+            return merge(this.left[id], this.right[id]);
+
+        if (before(id, node))
+            this.left[node] = remove(this.left[node], id);
+        else
+            this.right[node] = remove(this.right[node], id);
+
+        return node;
+    }
+
+    // Join two treaps, all the requests of a coming before those of b
+    private int merge(int a, int b) {
+        if (a < 0)
+            return b;
+        if (b < 0)
+            return a;
+
+        if (priority(a) > priority(b)) {
+            this.right[a] = merge(this.right[a], b);
+            return a;
+        }
+
+        this.left[b] = merge(a, this.left[b]);
+        return b;
+    }
+
+    // The oldest request to the lowest cylinder at or above the given one
+    // in the treap under node, or -1 if there is none
+    private int ceiling(int node, int cylinder) {
+        int found = -1;
+
+        while (node >= 0) {
+            if (this.cylinderOf[node] >= cylinder) {
+                found = node;
+                node = this.left[node];
+            } else {
+                node = this.right[node];
+            }
+        }
+
+        return found;
+    }
+
+}
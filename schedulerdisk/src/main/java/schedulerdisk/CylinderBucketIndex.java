@@ -0,0 +1,405 @@
+/*
+ * File:   CylinderBucketIndex.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The requests to a bounded range of cylinders, counted per cylinder, with
+ * a bitmap of the cylinders that have any. It replaces sorting by a
+ * counting pass when the cylinders are few compared to the requests.
+ *
+ */
+
+package schedulerdisk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Cylinder bucket index
+ *
+ * Every cylinder is a bucket holding the number of requests to it. Above
+ * the buckets sits a hierarchy of bitmaps: bit c of the first level is set
+ * when cylinder c has a request, bit w of the next level when word w of the
+ * level below is not zero, and so on up to a single word. Adding or removing
+ * a request touches one bucket and at most one word per level, and the
+ * nearest cylinder with a request on either side of any cylinder is found
+ * by climbing the levels until a word has a bit on that side and descending
+ * again, which is O(log64 C).
+ *
+ * A batch of requests is added with one counting pass, split into chunks
+ * counted in parallel when it is large and the cylinders are few enough
+ * for every chunk to have a histogram of its own. The same counting pass gives
+ * sortByCylinder, a stable counting sort which the sweep engines use in
+ * place of a comparison sort when the cylinders span less than a few times
+ * the number of requests.
+ */
+public class CylinderBucketIndex {
+
+    // The smallest batch which is split into chunks counted in parallel
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // The largest range of cylinders sortByCylinder accepts
+    static final int MAX_BUCKETS = 1 << 24;
+
+    // The histograms of all the chunks together hold at most this many
+    // counts per request, so a wide range is counted in fewer chunks
+    static final int HISTOGRAM_BUDGET = 2;
+
+    private final int cylinders;
+    private final int[] counts;
+
+    // levels[0] has a bit per cylinder, every other level a bit per word
+    // of the level below, and the last level is a single word
+    private final long[][] levels;
+
+    private int size;
+
+    /**
+     * @param cylinders the number of cylinders
+     */
+    public CylinderBucketIndex(int cylinders) {
+        if (cylinders < 1)
+            throw new IllegalArgumentException("cylinders must be positive: " + cylinders);
+
+        this.cylinders = cylinders;
+        this.counts = new int[cylinders];
+
+        List<long[]> bitmaps = new ArrayList<>();
+        int bits = cylinders;
+        do {
+            bits = (bits + 63) >>> 6;
+            bitmaps.add(new long[bits]);
+        } while (bits > 1);
+        this.levels = bitmaps.toArray(new long[0][]);
+
+        this.size = 0;
+    }
+
+    /**
+     * @param cylinder the requested cylinder
+     */
+    public void add(int cylinder) {
+        checkCylinder(cylinder);
+
+        this.size++;
+        if (this.counts[cylinder]++ > 0)
+            return;
+
+        // Set the bit of the cylinder, and those of the words above it
+        // which were empty until now
+        int position = cylinder;
+        for (long[] bitmap : this.levels) {
+            int word = position >>> 6;
+            boolean wasEmpty = bitmap[word] == 0;
+            bitmap[word] |= 1L << position;
+            if (!wasEmpty)
+                break;
+            position = word;
+        }
+    }
+
+    /**
+     * @param cylinder a cylinder with a request
+     */
+    public void remove(int cylinder) {
+        checkCylinder(cylinder);
+        if (this.counts[cylinder] == 0)
+            throw new IllegalArgumentException("no request to cylinder " + cylinder);
+
+        this.size--;
+        if (--this.counts[cylinder] > 0)
+            return;
+
+        // Clear the bit of the cylinder, and those of the words above it
+        // which are empty now
+        int position = cylinder;
+        for (long[] bitmap : this.levels) {
+            int word = position >>> 6;
+            bitmap[word] &= ~(1L << position);
+            if (bitmap[word] != 0)
+                break;
+            position = word;
+        }
+    }
+
+    /**
+     * Add a batch of requests with one counting pass (in parallel chunks
+     * for large batches) and one pass over the cylinders.
+     *
+     * @param requests the requested cylinders
+     * @param from the index of the first request to add
+     * @param to the index after the last request to add
+     */
+    public void addAll(int[] requests, int from, int to) {
+        if (from < 0 || to > requests.length || from > to)
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + requests.length);
+
+        for (int i = from; i < to; i++)
+            checkCylinder(requests[i]);
+
+        int[][] histograms = count(requests, from, to, 0, this.cylinders, chunks(to - from, this.cylinders));
+        for (int[] histogram : histograms)
+            for (int c = 0; c < this.cylinders; c++)
+                this.counts[c] += histogram[c];
+        this.size += to - from;
+
+        // Rebuild the bitmaps bottom up
+        long[] bitmap = this.levels[0];
+        Arrays.fill(bitmap, 0);
+        for (int c = 0; c < this.cylinders; c++)
+            if (this.counts[c] > 0)
+                bitmap[c >>> 6] |= 1L << c;
+
+        for (int level = 1; level < this.levels.length; level++) {
+            long[] below = this.levels[level - 1];
+            bitmap = this.levels[level];
+            Arrays.fill(bitmap, 0);
+            for (int w = 0; w < below.length; w++)
+                if (below[w] != 0)
+                    bitmap[w >>> 6] |= 1L << w;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(this.counts, 0);
+        for (long[] bitmap : this.levels)
+            Arrays.fill(bitmap, 0);
+        this.size = 0;
+    }
+
+    /**
+     * @param cylinder a cylinder (it may be off the disk)
+     * @return the lowest cylinder at or above it with a request, or -1 if
+     *         there is none
+     */
+    public int ceiling(int cylinder) {
+        if (cylinder >= this.cylinders)
+            return -1;
+
+        int position = Math.max(cylinder, 0);
+        int level = 0;
+
+        // Climb until a word has a bit at or after the position
+        while (true) {
+            long[] bitmap = this.levels[level];
+            int word = position >>> 6;
+            if (word >= bitmap.length)
+                return -1;
+
+            long bits = bitmap[word] & (-1L << position);
+            if (bits != 0) {
+                position = (word << 6) + Long.numberOfTrailingZeros(bits);
+                break;
+            }
+
+            if (++level == this.levels.length)
+                return -1;
+            position = word + 1;
+        }
+
+        // Descend to the lowest bit under it
+        while (level > 0) {
+            level--;
+            position = (position << 6) + Long.numberOfTrailingZeros(this.levels[level][position]);
+        }
+
+        return position;
+    }
+
+    /**
+     * @param cylinder a cylinder (it may be off the disk)
+     * @return the highest cylinder at or below it with a request, or -1 if
+     *         there is none
+     */
+    public int floor(int cylinder) {
+        if (cylinder < 0)
+            return -1;
+
+        int position = Math.min(cylinder, this.cylinders - 1);
+        int level = 0;
+
+        // Climb until a word has a bit at or before the position
+        while (true) {
+            long[] bitmap = this.levels[level];
+            int word = position >>> 6;
+
+            long bits = bitmap[word] & (-1L >>> (63 - (position & 63)));
+            if (bits != 0) {
+                position = (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+                break;
+            }
+
+            if (word == 0 || ++level == this.levels.length)
+                return -1;
+            position = word - 1;
+        }
+
+        // Descend to the highest bit under it
+        while (level > 0) {
+            level--;
+            position = (position << 6) + 63 - Long.numberOfLeadingZeros(this.levels[level][position]);
+        }
+
+        return position;
+    }
+
+    /**
+     * @param cylinder a cylinder
+     * @return the number of requests to the cylinder
+     */
+    public int count(int cylinder) {
+        checkCylinder(cylinder);
+
+        return this.counts[cylinder];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int getCylinders() {
+        return this.cylinders;
+    }
+
+    /**
+     * Whether sortByCylinder beats a comparison sort of the requests: the
+     * counting pass costs O(n + C) against O(n log n), so it pays as long
+     * as the range is not much wider than the batch.
+     *
+     * @param n the number of requests
+     * @param low the lowest requested cylinder
+     * @param high the highest requested cylinder
+     * @return whether to sort the requests by counting
+     */
+    public static boolean isWorthCounting(int n, int low, int high) {
+        long range = (long) high - low + 1;
+
+        return n >= 64 && range <= MAX_BUCKETS && range <= 8L * n;
+    }
+
+    /**
+     * A stable counting sort of requests by cylinder. Every request is
+     * packed as its cylinder in the high half of a long and its index in
+     * the low half, so the result is exactly what sorting the packed
+     * values would give. Large batches are counted and scattered in
+     * parallel chunks, each chunk writing to its own offsets.
+     *
+     * @param requests the requested cylinders, within low..high
+     * @param from the index of the first request to sort
+     * @param to the index after the last request to sort
+     * @param low the lowest requested cylinder
+     * @param high the highest requested cylinder
+     * @return the packed requests in the order of their cylinders
+     */
+    public static long[] sortByCylinder(int[] requests, int from, int to, int low, int high) {
+        return sortByCylinder(requests, from, to, low, high, chunks(to - from, (long) high - low + 1));
+    }
+
+    // The same, with the number of chunks to split the batch into
+    static long[] sortByCylinder(int[] requests, int from, int to, int low, int high, int chunks) {
+        if (from < 0 || to > requests.length || from > to)
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + requests.length);
+        if ((long) high - low + 1 > MAX_BUCKETS || high < low)
+            throw new IllegalArgumentException("cylinder range out of bounds: " + low + ".." + high);
+
+        int range = high - low + 1;
+        int[][] histograms = count(requests, from, to, low, range, chunks);
+
+        // Turn the counts into the offset of every cylinder in every chunk:
+        // all the chunks' requests to lower cylinders come first, then
+        // those of the earlier chunks to the same cylinder
+        int offset = 0;
+        for (int c = 0; c < range; c++)
+            for (int[] histogram : histograms) {
+                int count = histogram[c];
+                histogram[c] = offset;
+                offset += count;
+            }
+
+        long[] sorted = new long[to - from];
+        forEachChunk(from, to, histograms.length, (chunk, start, end) -> {
+            int[] offsets = histograms[chunk];
+            for (int i = start; i < end; i++) {
+                int cylinder = requests[i];
+                sorted[offsets[cylinder - low]++] = ((long) cylinder << 32) | i;
+            }
+        });
+
+        return sorted;
+    }
+
+    private void checkCylinder(int cylinder) {
+        if (cylinder < 0 || cylinder >= this.cylinders)
+            throw new IllegalArgumentException("cylinder out of range: " + cylinder);
+    }
+
+    // One chunk per worker, as long as every chunk is large enough and the
+    // histograms of all the chunks, one count per cylinder each, stay within
+    // HISTOGRAM_BUDGET counts per request. Otherwise a few large chunks, or
+    // a single pass, cost less than clearing and summing the histograms.
+    static int chunks(int n, long range) {
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+        long fitting = (long) HISTOGRAM_BUDGET * n / Math.max(1, range);
+
+        return (int) Math.max(1, Math.min(Math.min(parallelism, n / PARALLEL_THRESHOLD), fitting));
+    }
+
+    // Count the requests to every cylinder from low on, one histogram per
+    // chunk of the batch
+    private static int[][] count(int[] requests, int from, int to, int low, int range, int chunks) {
+        int[][] histograms = new int[chunks][range];
+        forEachChunk(from, to, chunks, (chunk, start, end) -> {
+            int[] histogram = histograms[chunk];
+            for (int i = start; i < end; i++)
+                histogram[requests[i] - low]++;
+        });
+
+        return histograms;
+    }
+
+    private interface ChunkAction {
+        void run(int chunk, int start, int end);
+    }
+
+    // Split from..to into the given number of chunks, and run the action on
+    // every one of them, in parallel if there are several
+    private static void forEachChunk(int from, int to, int chunks, ChunkAction action) {
+        long n = to - from;
+
+        if (chunks == 1) {
+            action.run(0, from, to);
+            return;
+        }
+
+        List<RecursiveAction> tasks = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int k = chunk;
+            int start = from + (int) (n * chunk / chunks);
+            int end = from + (int) (n * (chunk + 1) / chunks);
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    action.run(k, start, end);
+                }
+            });
+        }
+
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * File:   CylinderStreamGenerator.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Synthetic streams of requested cylinders, uniform or clustered around a
+ * few hot spots, reproducible from a seed and generated in parallel
+ * chunks.
+ *
+ */
+
+package schedulerdisk;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import schedulercommon.BinaryTraceWriter;
+import schedulercommon.ChunkedRandom;
+
+/**
+ * Cylinder stream generator
+ *
+ * The stream is drawn in chunks of CHUNK_SIZE requests by ChunkedRandom,
+ * so any part of it is the same however it is generated: in one go, in
+ * pieces, or by many threads at once.
+ *
+ * - UNIFORM requests every cylinder equally often.
+ * - CLUSTERED picks one of a few hot spots (placed at random once, from the
+ *   seed) with equal probability, and requests a cylinder around it with a
+ *   normal spread, drawing again whenever it falls off the disk. This is
+ *   what files laid out in a few regions of the disk look like.
+ */
+public class CylinderStreamGenerator {
+
+    public enum Pattern {
+        UNIFORM, CLUSTERED
+    }
+
+    /**
+     * The number of requests drawn from one SplittableRandom
+     */
+    public static final int CHUNK_SIZE = ChunkedRandom.CHUNK_SIZE;
+
+    // The chunks written to a trace at a time
+    private static final int CHUNKS_PER_BATCH = 64;
+
+    private final long seed;
+    private final Pattern pattern;
+    private final int cylinders;
+
+    private int[] centers;
+    private double spread;
+
+    /**
+     * @param seed the seed of the stream
+     * @param pattern the pattern of the requests
+     * @param cylinders the number of cylinders
+     */
+    public CylinderStreamGenerator(long seed, Pattern pattern, int cylinders) {
+        if (cylinders < 1)
+            throw new IllegalArgumentException("cylinders must be positive: " + cylinders);
+
+        this.seed = seed;
+        this.pattern = pattern;
+        this.cylinders = cylinders;
+        setClusters(8, cylinders / 100.0);
+    }
+
+    /**
+     * @param clusters the number of hot spots, 8 by default
+     * @param spread the standard deviation of the distance from the hot
+     *               spot, a hundredth of the cylinders by default
+     */
+    public void setClusters(int clusters, double spread) {
+        if (clusters < 1)
+            throw new IllegalArgumentException("clusters must be positive: " + clusters);
+        if (!(spread >= 0))
+            throw new IllegalArgumentException("spread must not be negative: " + spread);
+
+        // The hot spots come from a random of their own, so they do not
+        // depend on the chunks
+        SplittableRandom random = new SplittableRandom(ChunkedRandom.mix(~this.seed));
+        this.centers = new int[clusters];
+        for (int i = 0; i < clusters; i++)
+            this.centers[i] = random.nextInt(this.cylinders);
+        this.spread = spread;
+    }
+
+    public Pattern getPattern() {
+        return this.pattern;
+    }
+
+    public int getCylinders() {
+        return this.cylinders;
+    }
+
+    /**
+     * @return the hot spots of CLUSTERED
+     */
+    public int[] getCenters() {
+        return this.centers.clone();
+    }
+
+    /**
+     * Generate a part of the stream
+     *
+     * @param start the index of the first request in the stream
+     * @param out where to put the requested cylinders
+     * @param off the index in out of the first one
+     * @param len the number of requests
+     */
+    public void fill(long start, int[] out, int off, int len) {
+        ChunkedRandom.fill(this.seed, 0, this::next, start, out, off, len);
+    }
+
+    /**
+     * Generate the first n requests, one chunk per task on the common
+     * ForkJoin pool
+     *
+     * @param n the number of requests
+     * @return the requested cylinders
+     */
+    public int[] generate(int n) {
+        if (n < 0)
+            throw new IllegalArgumentException("n must not be negative: " + n);
+
+        int[] requests = new int[n];
+        ChunkedRandom.fillParallel(this.seed, 0, this::next, 0, requests, n);
+
+        return requests;
+    }
+
+    /**
+     * Write the first n requests to a trace, in batches of chunks which are
+     * generated in parallel and written in order
+     *
+     * @param writer the trace to write to
+     * @param n the number of requests
+     * @throws IOException if the trace cannot be written
+     */
+    public void write(BinaryTraceWriter writer, long n) throws IOException {
+        if (n < 0)
+            throw new IllegalArgumentException("n must not be negative: " + n);
+
+        int[] batch = new int[(int) Math.min(n, (long) CHUNK_SIZE * CHUNKS_PER_BATCH)];
+
+        for (long start = 0; start < n; start += batch.length) {
+            int len = (int) Math.min(batch.length, n - start);
+            ChunkedRandom.fillParallel(this.seed, 0, this::next, start, batch, len);
+            writer.write(batch, 0, len);
+        }
+    }
+
+    // The requested cylinder at index i of the stream
+    private int next(SplittableRandom random, long i) {
+        if (this.pattern == Pattern.UNIFORM)
+            return random.nextInt(this.cylinders);
+
+        int center = this.centers[random.nextInt(this.centers.length)];
+        while (true) {
+            // Box-Muller, keeping one of the two normal values
+            double radius = Math.sqrt(-2 * Math.log(1 - random.nextDouble()));
+            double normal = radius * Math.cos(2 * Math.PI * random.nextDouble());
+            long cylinder = center + Math.round(normal * this.spread);
+
+            if (cylinder >= 0 && cylinder < this.cylinders)
+                return (int) cylinder;
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * File:   DeadlinePolicy.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A dispatch policy modelled after the Linux deadline and mq-deadline
+ * I/O schedulers.
+ *
+ */
+
+package schedulerdisk;
+
+import java.util.Arrays;
+
+/**
+ * Deadline policy
+ *
+ * Reads and writes are queued separately, each both in cylinder order and
+ * in arrival order (two PendingRequestIndex instances give both). Requests
+ * are dispatched in batches of up to fifoBatch, going up in cylinder order
+ * from the head. A new batch serves reads unless writes have been passed
+ * over writesStarved times already, and it starts at the oldest request of
+ * its direction if that one has expired (or if there is nothing above the
+ * head), and at the next request above the head otherwise. Reads expire
+ * after readExpire and writes after writeExpire milliseconds.
+ */
+public class DeadlinePolicy implements DispatchPolicy {
+
+    private final double readExpire;
+    private final double writeExpire;
+    private final int fifoBatch;
+    private final int writesStarved;
+
+    private final PendingRequestIndex reads;
+    private final PendingRequestIndex writes;
+    private double[] arrivalTimes;
+
+    // The direction of the current batch, its size so far, and the number
+    // of times the writes were passed over for the reads
+    private boolean batchWrites;
+    private int batchCount;
+    private int starved;
+
+    /**
+     * A policy with the Linux defaults: reads expire after 500 ms, writes
+     * after 5 s, batches of 16 and writes passed over at most twice
+     *
+     * @param cylinders the number of cylinders
+     */
+    public DeadlinePolicy(int cylinders) {
+        this(cylinders, 500, 5000, 16, 2);
+    }
+
+    /**
+     * @param cylinders the number of cylinders
+     * @param readExpire the deadline of a read, in milliseconds
+     * @param writeExpire the deadline of a write, in milliseconds
+     * @param fifoBatch the largest number of requests in a batch
+     * @param writesStarved how many read batches writes may be passed over for
+     */
+    public DeadlinePolicy(int cylinders, double readExpire, double writeExpire, int fifoBatch, int writesStarved) {
+        if (!(readExpire >= 0) || !(writeExpire >= 0))
+            throw new IllegalArgumentException("deadlines must not be negative: " + readExpire + ", " + writeExpire);
+        if (fifoBatch < 1)
+            throw new IllegalArgumentException("fifoBatch must be positive: " + fifoBatch);
+        if (writesStarved < 0)
+            throw new IllegalArgumentException("writesStarved must not be negative: " + writesStarved);
+
+        this.readExpire = readExpire;
+        this.writeExpire = writeExpire;
+        this.fifoBatch = fifoBatch;
+        this.writesStarved = writesStarved;
+
+        this.reads = new PendingRequestIndex(cylinders);
+        this.writes = new PendingRequestIndex(cylinders);
+        this.arrivalTimes = new double[16];
+
+        this.batchWrites = false;
+        this.batchCount = 0;
+        this.starved = 0;
+    }
+
+    @Override
+    public void arrived(int id, int cylinder, boolean write, int owner, double time) {
+        if (id >= this.arrivalTimes.length)
+            this.arrivalTimes = Arrays.copyOf(this.arrivalTimes, Math.max(id + 1, 2 * this.arrivalTimes.length));
+
+        this.arrivalTimes[id] = time;
+        (write ? this.writes : this.reads).add(id, cylinder);
+    }
+
+    @Override
+    public String getName() {
+        return "Deadline";
+    }
+
+    @Override
+    public int select(PendingRequestIndex pending, int head, double time) {
+        // Keep going with the current batch while it has room and there
+        // is a request of its direction further up
+        PendingRequestIndex queue = this.batchWrites ? this.writes : this.reads;
+        int cylinder = queue.ceiling(head);
+
+        if (this.batchCount == 0 || this.batchCount >= this.fifoBatch || cylinder < 0) {
+            // Pick the direction of a new batch. Reads come first, unless
+            // the writes have waited for too many batches already.
+            if (!this.reads.isEmpty() && (this.writes.isEmpty() || this.starved < this.writesStarved)) {
+                this.batchWrites = false;
+                if (!this.writes.isEmpty())
+                    this.starved++;
+            } else {
+                this.batchWrites = true;
+                this.starved = 0;
+            }
+
+            queue = this.batchWrites ? this.writes : this.reads;
+            double expire = this.batchWrites ? this.writeExpire : this.readExpire;
+            int oldest = queue.oldest();
+            cylinder = queue.ceiling(head);
+
+            // An expired request (or the lack of one further up) sends the
+            // batch back to the oldest request
+            if (cylinder < 0 || this.arrivalTimes[oldest] + expire <= time)
+                cylinder = queue.getCylinder(oldest);
+
+            this.batchCount = 0;
+        }
+
+        int id = queue.first(cylinder);
+        queue.remove(id);
+        this.batchCount++;
+
+        return id;
+    }
+
+}
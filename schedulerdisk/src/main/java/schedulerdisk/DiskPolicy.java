@@ -0,0 +1,106 @@
+/*
+ * File:   DiskPolicy.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The policies of DiskScheduler as values, so that they can all be run
+ * on the same requests and compared.
+ *
+ */
+
+package schedulerdisk;
+
+/**
+ * Disk policy
+ *
+ * Every constant runs the matching use method of DiskScheduler. N-step
+ * SCAN and FSCAN run with every request there from the start (an arrival
+ * interval of 0), N-step SCAN in steps of DEFAULT_STEP requests.
+ */
+public enum DiskPolicy {
+
+    FCFS {
+        @Override
+        public DiskScheduleResult run(DiskScheduler scheduler, int[] requests) {
+            return scheduler.useFCFS(requests);
+        }
+    },
+    SSTF {
+        @Override
+        public DiskScheduleResult run(DiskScheduler scheduler, int[] requests) {
+            return scheduler.useSSTF(requests);
+        }
+    },
+    LOOK {
+        @Override
+        public DiskScheduleResult run(DiskScheduler scheduler, int[] requests) {
+            return scheduler.useLOOK(requests);
+        }
+    },
+    CLOOK {
+        @Override
+        public DiskScheduleResult run(DiskScheduler scheduler, int[] requests) {
+            return scheduler.useCLOOK(requests);
+        }
+    },
+    SCAN {
+        @Override
+        public DiskScheduleResult run(DiskScheduler scheduler, int[] requests) {
+            return scheduler.useSCAN(requests);
+        }
+    },
+    CSCAN {
+        @Override
+        public DiskScheduleResult run(DiskScheduler scheduler, int[] requests) {
+            return scheduler.useCSCAN(requests);
+        }
+    },
+    NSTEP_SCAN {
+        @Override
+        public DiskScheduleResult run(DiskScheduler scheduler, int[] requests) {
+            return scheduler.useNStepSCAN(requests, DEFAULT_STEP, 0);
+        }
+    },
+    FSCAN {
+        @Override
+        public DiskScheduleResult run(DiskScheduler scheduler, int[] requests) {
+            return scheduler.useFSCAN(requests, 0);
+        }
+    },
+    SPTF {
+        @Override
+        public DiskScheduleResult run(DiskScheduler scheduler, int[] requests) {
+            return scheduler.useSPTF(requests);
+        }
+
+        @Override
+        public boolean needsTimingModel() {
+            return true;
+        }
+    };
+
+    /**
+     * The number of requests of a step of N-step SCAN
+     */
+    public static final int DEFAULT_STEP = 16;
+
+    /**
+     * Serve the requests with the policy
+     *
+     * @param scheduler the scheduler to run on
+     * @param requests the requested cylinders
+     * @return the report of the run
+     */
+    public abstract DiskScheduleResult run(DiskScheduler scheduler, int[] requests);
+
+    /**
+     * @return whether the scheduler needs a timing model for the policy
+     */
+    public boolean needsTimingModel() {
+        return false;
+    }
+
+}
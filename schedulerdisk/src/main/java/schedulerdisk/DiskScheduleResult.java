@@ -0,0 +1,188 @@
+/*
+ * File:   DiskScheduleResult.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * What one run of a disk scheduling policy did: how far the head moved,
+ * in which order the requests were served and how long each one waited.
+ *
+ */
+
+package schedulerdisk;
+
+/**
+ * Disk schedule result
+ *
+ * The report of a single run of DiskScheduler, which no later run changes.
+ * The moves are those of the run alone (DiskScheduler.getTotalMovesLong
+ * adds up all the runs), and the head positions say where the run started
+ * and ended. Every request's wait is kept in moves, and with a timing model
+ * its response time in milliseconds. Both also go into logarithmic
+ * histograms, which answer the percentile queries. The service order may be
+ * left out of huge runs (see DiskScheduler.setRecordOrder), the rest is
+ * always there.
+ */
+public class DiskScheduleResult {
+
+    private final long moves;
+    private final int startCylinder;
+    private final int endCylinder;
+    private final int[] serviceOrder;
+    private final long[] waits;
+    private final double[] responseTimes;
+    private final double totalServiceTime;
+
+    // Waits in moves, response times in nanoseconds
+    private final LatencyHistogram waitHistogram;
+    private final LatencyHistogram responseHistogram;
+
+    // The arrays and histograms are handed over by the scheduler, which
+    // never touches them again
+    DiskScheduleResult(long moves, int startCylinder, int endCylinder, int[] serviceOrder, long[] waits,
+            double[] responseTimes, double totalServiceTime, LatencyHistogram waitHistogram,
+            LatencyHistogram responseHistogram) {
+        this.moves = moves;
+        this.startCylinder = startCylinder;
+        this.endCylinder = endCylinder;
+        this.serviceOrder = serviceOrder;
+        this.waits = waits;
+        this.responseTimes = responseTimes;
+        this.totalServiceTime = totalServiceTime;
+        this.waitHistogram = waitHistogram;
+        this.responseHistogram = responseHistogram;
+    }
+
+    /**
+     * @return the number of cylinders the head moved over during the run
+     */
+    public long getMoves() {
+        return this.moves;
+    }
+
+    public int getStartCylinder() {
+        return this.startCylinder;
+    }
+
+    public int getEndCylinder() {
+        return this.endCylinder;
+    }
+
+    public int getRequestCount() {
+        return this.waits.length;
+    }
+
+    /**
+     * @return whether the service order was recorded
+     */
+    public boolean hasServiceOrder() {
+        return this.serviceOrder != null;
+    }
+
+    /**
+     * @return the indices of the requests, in the order they were served
+     */
+    public int[] getServiceOrder() {
+        if (this.serviceOrder == null)
+            throw new IllegalStateException("the service order was not recorded");
+
+        return this.serviceOrder.clone();
+    }
+
+    /**
+     * @return the wait of every request in moves, in the order of the
+     *         requests
+     */
+    public long[] getWaits() {
+        return this.waits.clone();
+    }
+
+    /**
+     * @param index the index of a request
+     * @return its wait in moves
+     */
+    public long getWait(int index) {
+        return this.waits[index];
+    }
+
+    public long getMaxWait() {
+        return this.waitHistogram.getMax();
+    }
+
+    public double getMeanWait() {
+        return this.waitHistogram.getMean();
+    }
+
+    /**
+     * @param percentile the percentile, within 0..100
+     * @return the wait at the percentile in moves, within the precision of
+     *         the histogram
+     */
+    public long getWaitAtPercentile(double percentile) {
+        return this.waitHistogram.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * @return the 99th percentile of the waits, which is where the starved
+     *         requests of SSTF and LOOK show up
+     */
+    public long getP99Wait() {
+        return getWaitAtPercentile(99);
+    }
+
+    /**
+     * @return the time the run took in milliseconds, or 0 without a timing
+     *         model
+     */
+    public double getTotalServiceTime() {
+        return this.totalServiceTime;
+    }
+
+    /**
+     * @return the response time of every request in milliseconds, in the
+     *         order of the requests, all 0 without a timing model
+     */
+    public double[] getResponseTimes() {
+        return this.responseTimes.clone();
+    }
+
+    /**
+     * @return the longest response time in milliseconds
+     */
+    public double getMaxResponseTime() {
+        return this.responseHistogram.getMax() / 1e6;
+    }
+
+    /**
+     * @param percentile the percentile, within 0..100
+     * @return the response time at the percentile in milliseconds, within
+     *         the precision of the histogram
+     */
+    public double getResponseTimeAtPercentile(double percentile) {
+        return this.responseHistogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    /**
+     * @return a copy of the histogram of the waits, in moves
+     */
+    public LatencyHistogram getWaitHistogram() {
+        return copyOf(this.waitHistogram);
+    }
+
+    /**
+     * @return a copy of the histogram of the response times, in nanoseconds
+     */
+    public LatencyHistogram getResponseHistogram() {
+        return copyOf(this.responseHistogram);
+    }
+
+    private static LatencyHistogram copyOf(LatencyHistogram histogram) {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(histogram);
+
+        return copy;
+    }
+
+}
@@ -9,11 +9,22 @@
  * this distribution for details regarding the licensing of this code.
  * 
  * Description:
- * The package simulates four disk scheduling algorithms.
- * These algorithms include FCFS, SSTF, LOOK, and CLOOK.
- * Note that the current implementations could be heavily
- * optimized, but they are intentionally kept this way for
- * the sake of making them "true" simulations.
+ * The package simulates eight disk scheduling algorithms.
+ * These algorithms include FCFS, SSTF, LOOK, CLOOK, SCAN,
+ * C-SCAN, N-step SCAN and FSCAN. The sweeping algorithms
+ * share one core, which sorts the requests once and serves
+ * them in one or two sweeps. SSTF sorts the requests once
+ * as well, so that it can handle batches of millions of
+ * requests. Besides the total number of moves, every run
+ * reports how long each request waited and the order in
+ * which the requests were served. With a timing model,
+ * the runs also report the service time in milliseconds,
+ * and SPTF picks the request which is the quickest to reach.
+ * Every run also returns its report as an immutable
+ * DiskScheduleResult. The seeks can be reported to
+ * counters and Flight Recorder events (see
+ * Instrumentation). The moves of a given service order
+ * are counted by the vectorized kernels of SeekKernels.
  * 
  */
 
@@ -30,189 +41,738 @@ public class DiskScheduler {
     private final int cylinders;
     private int currentCylinder;
     private final int previousCylinder;
-    private int totalMoves;
+    // The moves of all the runs so far, which no run reads: the head
+    // position is the only state one run leaves to the next
+    private long totalMoves;
+
+    // The state of the last run: the time (head moves, plus idle time
+    // while waiting for requests to arrive) since it started, the time
+    // between two arrivals, and the wait and service order of every request
+    private long clock;
+    private int arrivalInterval;
+    private long[] waits;
+    private int[] serviceOrder;
+    private int served;
+
+    // The optional timing model, the sectors of the requests (null if
+    // they are unknown), the time since the start of the last run and the
+    // time every request of the last run completed
+    private DiskTimingModel timingModel;
+    private int[] sectors;
+    private double time;
+    private double[] responseTimes;
+
+    // The moves of the last run alone, where its head started, the
+    // histograms of its waits (in moves) and response times (in
+    // nanoseconds), and its report once it is done. The service order is
+    // left out if recordOrder is false.
+    private long runMoves;
+    private int startCylinder;
+    private LatencyHistogram waitHistogram;
+    private LatencyHistogram responseHistogram;
+    private DiskScheduleResult lastResult;
+    private boolean recordOrder;
+
+    // The policy of the last run, for the instrumentation
+    private String policy;
 
     public DiskScheduler(int cylinders, int currentCylinder, int previousCylinder) {
         this.cylinders = cylinders;
         this.currentCylinder = currentCylinder;
         this.previousCylinder = previousCylinder;
         this.totalMoves = 0;
+        this.recordOrder = true;
+        startRun(null, 0, 0);
+        finishRun();
     }
 
+    /**
+     * Every run starts where the one before it left the head, which is all
+     * that carries over between runs. The moves only add up for reporting.
+     *
+     * @return the moves of all the runs so far (see DiskScheduleResult
+     *         for those of a single run)
+     * @throws ArithmeticException if they do not fit into an int, see
+     *         getTotalMovesLong
+     */
     public int getTotalMoves() {
+        return Math.toIntExact(this.totalMoves);
+    }
+
+    /**
+     * @return the moves of all the runs so far, which may go above
+     *         Integer.MAX_VALUE over huge runs or many batches
+     */
+    public long getTotalMovesLong() {
         return this.totalMoves;
     }
 
-    public void useFCFS(String requestQueue) {
+    /**
+     * Whether the following runs record the order the requests are served
+     * in. Leaving it out saves four bytes per request on huge runs.
+     *
+     * @param recordOrder false to leave the service order out
+     */
+    public void setRecordOrder(boolean recordOrder) {
+        this.recordOrder = recordOrder;
+    }
+
+    /**
+     * @return the report of the last run
+     */
+    public DiskScheduleResult getLastResult() {
+        return this.lastResult;
+    }
+
+    /**
+     * Time the runs with a disk model. The sectors are those of the
+     * requests of the following runs, which therefore must not have more
+     * requests than there are sectors. Without sectors, every request
+     * waits half a rotation on average.
+     *
+     * @param timingModel the timing model, or null for none
+     * @param sectors the sector of every request, or null if unknown
+     */
+    public void setTimingModel(DiskTimingModel timingModel, int[] sectors) {
+        this.timingModel = timingModel;
+        this.sectors = sectors == null ? null : sectors.clone();
+    }
+
+    /**
+     * @return the time the last run took, in milliseconds, or 0 without
+     *         a timing model
+     */
+    public double getTotalServiceTime() {
+        return this.time;
+    }
+
+    /**
+     * How long every request of the last run took to complete, counted
+     * from the start of the run (where N-step SCAN and FSCAN let the
+     * requests arrive over time, their arrivals still follow the moves).
+     *
+     * @return the response times in milliseconds, in the order of the
+     *         requests, all 0 without a timing model
+     */
+    public double[] getResponseTimes() {
+        return this.responseTimes.clone();
+    }
+
+    /**
+     * How long every request of the last run waited, from its arrival until
+     * the head reached its cylinder. The time is measured in head moves.
+     * In all but N-step SCAN and FSCAN every request arrives at the start.
+     *
+     * @return the waits, in the order of the requests
+     */
+    public long[] getWaits() {
+        return this.waits.clone();
+    }
+
+    /**
+     * @return the indices of the requests of the last run, in the order
+     *         they were served
+     */
+    public int[] getServiceOrder() {
+        if (this.serviceOrder == null)
+            throw new IllegalStateException("the service order was not recorded");
+
+        return this.serviceOrder.clone();
+    }
+
+    /**
+     * @return the longest wait of the last run
+     */
+    public long getMaxWait() {
+        return Arrays.stream(this.waits).max().orElse(0);
+    }
+
+    /**
+     * @return the average wait of the last run
+     */
+    public double getAverageWait() {
+        return Arrays.stream(this.waits).average().orElse(0);
+    }
+
+    /**
+     * The moves of serving the given cylinders in order from the cylinder
+     * under the head, without running a policy or moving the head. This is
+     * what an FCFS run reports, and checks the moves of any run against the
+     * cylinders of its service order, on batches of any size (see
+     * SeekKernels).
+     *
+     * @param cylinders the cylinders in the order they are served
+     * @return the number of cylinders the head would move over
+     */
+    public long countMoves(int[] cylinders) {
+        return SeekKernels.sumDistances(this.currentCylinder, cylinders, 0, cylinders.length);
+    }
+
+    public DiskScheduleResult useFCFS(String requestQueue) {
         // Convert a reference string to the array of integers
-        int[] intRequestList = Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray();
+        return useFCFS(Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray());
+    }
 
+    /**
+     * Same as the String version, for requests which are already decoded
+     * (for example by BinaryTraceReader).
+     *
+     * @param intRequestList the requested cylinders
+     */
+    public DiskScheduleResult useFCFS(int[] intRequestList) {
         /* * * * * * * * * * * * * * * *
          *           F C F S           *
          * * * * * * * * * * * * * * * */
 
-        for (int intRequest : intRequestList) {
+        startRun("FCFS", intRequestList.length, 0);
+
+        for (int i = 0; i < intRequestList.length; i++) {
             // Update the total number of moves
-            this.totalMoves += Math.abs(this.currentCylinder - intRequest);
-            this.currentCylinder = intRequest;
+            serve(i, intRequestList[i]);
         }
+
+        return finishRun();
     }
 
-    public void useSSTF(String requestQueue) {
+    public DiskScheduleResult useSSTF(String requestQueue) {
         // Convert a reference string to the array of integers
-        int[] intRequestList = Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray();
+        return useSSTF(Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray());
+    }
 
-        // Array of arrays
-        int[][] lookupMatrix = new int[intRequestList.length][2];
+    /**
+     * Same as the String version, for requests which are already decoded
+     * (for example by BinaryTraceReader).
+     *
+     * @param intRequestList the requested cylinders
+     */
+    public DiskScheduleResult useSSTF(int[] intRequestList) {
+        int n = intRequestList.length;
+
+        // Sort the requests once by cylinder, remembering where they came
+        // from. The original index goes into the low bits, so the requests
+        // to the same cylinder are sorted by it as well.
+        long[] sorted = new long[n];
+        for (int i = 0; i < n; i++)
+            sorted[i] = ((long) intRequestList[i] << 32) | i;
+        Arrays.sort(sorted);
+
+        // Requests to the same cylinder are served one right after the
+        // other, so they form a single group. Every group remembers the
+        // smallest original index of its requests.
+        int[] groupCylinder = new int[n];
+        int[] groupIndex = new int[n];
+        int[] groupStart = new int[n + 1];
+        int groups = 0;
+
+        for (int i = 0; i < n; i++) {
+            int cylinder = (int) (sorted[i] >> 32);
+            if (groups == 0 || groupCylinder[groups - 1] != cylinder) {
+                groupCylinder[groups] = cylinder;
+                groupIndex[groups] = (int) sorted[i];
+                groupStart[groups] = i;
+                groups++;
+            }
+        }
+        groupStart[groups] = n;
+
+        // The unserved groups form a doubly linked list in cylinder order
+        int[] previous = new int[groups];
+        int[] next = new int[groups];
+        for (int g = 0; g < groups; g++) {
+            previous[g] = g - 1;
+            next[g] = g + 1 < groups ? g + 1 : -1;
+        }
 
-        // Populate the array of arrays
-        // Not-visited = 0, visited = 1
-        for (int i = 0; i < intRequestList.length; i++)
-            for (int j = 0; j < 2; j++)
-                lookupMatrix[i][j] = 0;
+        // The nearest unserved groups on either side of the head
+        int right = 0;
+        while (right < groups && groupCylinder[right] < this.currentCylinder)
+            right++;
+        int left = right - 1;
+        if (right == groups)
+            right = -1;
 
         /* * * * * * * * * * * * * * * *
          *           S S T F           *
          * * * * * * * * * * * * * * * */
 
-        for (int i = 0; i < intRequestList.length; i++) {
-            // Add the first values in the list of lists
-            for (int j = 0; j < lookupMatrix.length; j++)
-                lookupMatrix[j][0] = Math.abs(intRequestList[j] - this.currentCylinder);
-
-            // Find the minimum distance in the matrix
-            // We use a simple guess-and-check pattern here
-            int index = -1;
-            int minimumDistance = Integer.MAX_VALUE;
-
-            for (int k = 0; k < lookupMatrix.length; k++) {
-                if (lookupMatrix[k][1] != 1 && lookupMatrix[k][0] < minimumDistance) {
-                    minimumDistance = lookupMatrix[k][0];
-                    index = k;
-                }
-            }
+        startRun("SSTF", n, 0);
+
+        while (left >= 0 || right >= 0) {
+            int leftDistance = left < 0 ? Integer.MAX_VALUE : this.currentCylinder - groupCylinder[left];
+            int rightDistance = right < 0 ? Integer.MAX_VALUE : groupCylinder[right] - this.currentCylinder;
+
+            // On a tie, serve the side with the request that came first
+            int served;
+            if (leftDistance < rightDistance || (leftDistance == rightDistance && groupIndex[left] < groupIndex[right]))
+                served = left;
+            else
+                served = right;
+
+            // Update the total number of moves, all the requests of the
+            // group are served once the head gets there
+            for (int i = groupStart[served]; i < groupStart[served + 1]; i++)
+                serve((int) sorted[i], groupCylinder[served]);
+
+            // Unlink the served group, its neighbours are the new candidates
+            left = previous[served];
+            right = next[served];
+            if (left >= 0)
+                next[left] = right;
+            if (right >= 0)
+                previous[right] = left;
+        }
 
-            // Mark as visited
-            lookupMatrix[index][1] = 1;
+        return finishRun();
+    }
 
-            // Update the total number of moves
-            this.totalMoves += lookupMatrix[index][0];
+    public DiskScheduleResult useLOOK(String requestQueue) {
+        // Convert a reference string to the array of integers
+        return useLOOK(Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray());
+    }
 
-            // Make the value at the current index a new currentCylinder (or head)
-            this.currentCylinder = intRequestList[index];
-        }
+    /**
+     * Same as the String version, for requests which are already decoded
+     * (for example by BinaryTraceReader).
+     *
+     * @param intRequestList the requested cylinders
+     */
+    public DiskScheduleResult useLOOK(int[] intRequestList) {
+        /* * * * * * * * * * * * * * * *
+         *           L O O K           *
+         * * * * * * * * * * * * * * * */
+
+        startRun("LOOK", intRequestList.length, 0);
+        sweep(intRequestList, 0, intRequestList.length, isMovingUp(), false, false);
+
+        return finishRun();
     }
 
-    public void useLOOK(String requestQueue) {
+    public DiskScheduleResult useCLOOK(String requestQueue) {
         // Convert a reference string to the array of integers
-        int[] intRequestList = Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray();
+        return useCLOOK(Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray());
+    }
 
-        // Sort the integer array of requests
-        Arrays.sort(intRequestList);
+    /**
+     * Same as the String version, for requests which are already decoded
+     * (for example by BinaryTraceReader).
+     *
+     * @param intRequestList the requested cylinders
+     */
+    public DiskScheduleResult useCLOOK(int[] intRequestList) {
+        /* * * * * * * * * * * * * * * * *
+         *           C L O O K           *
+         * * * * * * * * * * * * * * * * */
 
-        // Current index
-        int index = -1;
+        startRun("CLOOK", intRequestList.length, 0);
+        sweep(intRequestList, 0, intRequestList.length, true, false, true);
 
+        return finishRun();
+    }
+
+    public DiskScheduleResult useSCAN(String requestQueue) {
+        // Convert a reference string to the array of integers
+        return useSCAN(Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray());
+    }
+
+    /**
+     * SCAN (the elevator algorithm)
+     *
+     * Like LOOK, but once the head turns around it first travels all the
+     * way to the edge of the disk. It does so only if there are requests
+     * left behind the head.
+     *
+     * @param intRequestList the requested cylinders, within 0..cylinders-1
+     */
+    public DiskScheduleResult useSCAN(int[] intRequestList) {
         /* * * * * * * * * * * * * * * *
-         *           L O O K           *
+         *           S C A N           *
          * * * * * * * * * * * * * * * */
 
-        // Find the right index
-        for (int i = 0; i < intRequestList.length; i++) {
-    	    if (intRequestList[i] > this.currentCylinder) {
-	            index = i - 1;
-		        break;
-	        }
-	    }
-
-        // Do we go left?
-        if (this.currentCylinder - this.previousCylinder < 0) {
-            // Note that since the intRequestList is sorted, the two loops
-            // below could be rewritten as two simple statements (or could be
-            // taken to extreme and be written as one bigger statement), but that
-            // way, the purpose of the project (simulations) will be disregarded.
-            // Therefore, we keep the code below as is, without optimization of any kind.
-
-            // First loop (go to the left)
-            for (int i = index; i >= 0; i--) {
-                // Update the total number of moves
-                this.totalMoves += Math.abs(this.currentCylinder - intRequestList[i]);
-                this.currentCylinder = intRequestList[i];
-            }
+        startRun("SCAN", intRequestList.length, 0);
+        sweep(intRequestList, 0, intRequestList.length, isMovingUp(), true, false);
 
-            // Second loop (go to the right)
-            for (int i = index + 1; i < intRequestList.length; i++) {
-                // Update the total number of moves
-                this.totalMoves += Math.abs(this.currentCylinder - intRequestList[i]);
-                this.currentCylinder = intRequestList[i];
-            }
+        return finishRun();
+    }
+
+    public DiskScheduleResult useCSCAN(String requestQueue) {
+        // Convert a reference string to the array of integers
+        return useCSCAN(Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray());
+    }
+
+    /**
+     * Circular SCAN
+     *
+     * The head only serves requests on its way up. After the last request
+     * above it, it travels to the last cylinder and returns to cylinder 0,
+     * both seeks being counted as moves, before it serves the rest.
+     *
+     * @param intRequestList the requested cylinders, within 0..cylinders-1
+     */
+    public DiskScheduleResult useCSCAN(int[] intRequestList) {
+        /* * * * * * * * * * * * * * * * *
+         *           C - S C A N         *
+         * * * * * * * * * * * * * * * * */
+
+        startRun("CSCAN", intRequestList.length, 0);
+        sweep(intRequestList, 0, intRequestList.length, true, true, true);
+
+        return finishRun();
+    }
+
+    public DiskScheduleResult useNStepSCAN(String requestQueue, int step, int arrivalInterval) {
+        // Convert a reference string to the array of integers
+        return useNStepSCAN(Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray(), step,
+                arrivalInterval);
+    }
+
+    /**
+     * N-step SCAN
+     *
+     * The requests arrive one by one, one every arrivalInterval moves of
+     * the head (0 meaning that they are all there from the start). The
+     * oldest step requests which have arrived form a batch, which is served
+     * by a single SCAN. Requests arriving meanwhile wait for a later batch,
+     * so no request can be passed over by more than step - 1 others
+     * arriving after it.
+     *
+     * @param intRequestList the requested cylinders, within 0..cylinders-1
+     * @param step the largest number of requests in a batch
+     * @param arrivalInterval the time between two arrivals, in moves
+     */
+    public DiskScheduleResult useNStepSCAN(int[] intRequestList, int step, int arrivalInterval) {
+        if (step < 1)
+            throw new IllegalArgumentException("step must be positive: " + step);
+
+        /* * * * * * * * * * * * * * * * * * * * *
+         *           N - S T E P   S C A N       *
+         * * * * * * * * * * * * * * * * * * * * */
+
+        startRun("NStepSCAN", intRequestList.length, arrivalInterval);
+        boolean up = isMovingUp();
+
+        for (int from = 0; from < intRequestList.length; ) {
+            int to = (int) Math.min(from + (long) step, waitForArrivals(from, intRequestList.length));
+            up = sweep(intRequestList, from, to, up, true, false);
+            from = to;
         }
 
-        // Or do we go right?
-        else {
-            // Note that since the intRequestList is sorted, the two loops
-            // below could be rewritten as two simple statements (or could be
-            // taken to extreme and be written as one bigger statement), but that
-            // way, the purpose of the project (simulations) will be disregarded.
-            // Therefore, we keep the code below as is, without optimization of any kind.
+        return finishRun();
+    }
 
-            // First loop (go to the right)
-            for (int i = index + 1; i < intRequestList.length; i++) {
-                // Update the total number of moves
-                this.totalMoves += Math.abs(this.currentCylinder - intRequestList[i]);
-                this.currentCylinder = intRequestList[i];
+    public DiskScheduleResult useFSCAN(String requestQueue, int arrivalInterval) {
+        // Convert a reference string to the array of integers
+        return useFSCAN(Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray(), arrivalInterval);
+    }
+
+    /**
+     * FSCAN
+     *
+     * The requests arrive one by one, one every arrivalInterval moves of
+     * the head (0 meaning that they are all there from the start). Every
+     * request that has arrived when a sweep starts is served by it, the
+     * requests arriving during the sweep are frozen out until the next one.
+     *
+     * @param intRequestList the requested cylinders, within 0..cylinders-1
+     * @param arrivalInterval the time between two arrivals, in moves
+     */
+    public DiskScheduleResult useFSCAN(int[] intRequestList, int arrivalInterval) {
+        /* * * * * * * * * * * * * * * *
+         *          F S C A N          *
+         * * * * * * * * * * * * * * * */
+
+        startRun("FSCAN", intRequestList.length, arrivalInterval);
+        boolean up = isMovingUp();
+
+        for (int from = 0; from < intRequestList.length; ) {
+            int to = waitForArrivals(from, intRequestList.length);
+            up = sweep(intRequestList, from, to, up, true, false);
+            from = to;
+        }
+
+        return finishRun();
+    }
+
+    public DiskScheduleResult useSPTF(String requestQueue) {
+        // Convert a reference string to the array of integers
+        return useSPTF(Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray());
+    }
+
+    /**
+     * Shortest positioning time first
+     *
+     * Like SSTF, but the next request is the one the timing model can
+     * reach the quickest, counting the rotational latency as well as the
+     * seek. The candidates are visited outwards from the head on both sides,
+     * and a side is given up as soon as the seek alone takes longer than
+     * the best candidate so far. Ties go to the request that came first.
+     *
+     * @param intRequestList the requested cylinders
+     */
+    public DiskScheduleResult useSPTF(int[] intRequestList) {
+        if (this.timingModel == null)
+            throw new IllegalStateException("SPTF needs a timing model");
+
+        int n = intRequestList.length;
+
+        // Sort the requests once by cylinder, remembering where they came from
+        long[] sorted = new long[n];
+        for (int i = 0; i < n; i++)
+            sorted[i] = ((long) intRequestList[i] << 32) | i;
+        Arrays.sort(sorted);
+
+        // The unserved requests form a doubly linked list in cylinder order
+        int[] previous = new int[n];
+        int[] next = new int[n];
+        for (int k = 0; k < n; k++) {
+            previous[k] = k - 1;
+            next[k] = k + 1 < n ? k + 1 : -1;
+        }
+
+        // The nearest unserved requests on either side of the head
+        int right = 0;
+        while (right < n && (int) (sorted[right] >> 32) < this.currentCylinder)
+            right++;
+        int left = right - 1;
+        if (right == n)
+            right = -1;
+
+        /* * * * * * * * * * * * * * * *
+         *           S P T F           *
+         * * * * * * * * * * * * * * * */
+
+        startRun("SPTF", n, 0);
+
+        for (int step = 0; step < n; step++) {
+            int best = -1;
+            double bestTime = Double.POSITIVE_INFINITY;
+
+            // Go outwards on both sides until the seek alone is too long
+            for (int k = left; k >= 0; k = previous[k]) {
+                int distance = this.currentCylinder - (int) (sorted[k] >> 32);
+                if (this.timingModel.getSeekTime(distance) > bestTime)
+                    break;
+
+                double positioningTime = this.timingModel.getPositioningTime(this.time, distance,
+                        sectorOf((int) sorted[k]));
+                if (positioningTime < bestTime
+                        || (positioningTime == bestTime && (int) sorted[k] < (int) sorted[best])) {
+                    best = k;
+                    bestTime = positioningTime;
+                }
             }
 
-            // Second loop (go to the left)
-            for (int i = index; i >= 0; i--) {
-                // Update the total number of moves
-                this.totalMoves += Math.abs(this.currentCylinder - intRequestList[i]);
-                this.currentCylinder = intRequestList[i];
+            for (int k = right; k >= 0; k = next[k]) {
+                int distance = (int) (sorted[k] >> 32) - this.currentCylinder;
+                if (this.timingModel.getSeekTime(distance) > bestTime)
+                    break;
+
+                double positioningTime = this.timingModel.getPositioningTime(this.time, distance,
+                        sectorOf((int) sorted[k]));
+                if (positioningTime < bestTime
+                        || (positioningTime == bestTime && (int) sorted[k] < (int) sorted[best])) {
+                    best = k;
+                    bestTime = positioningTime;
+                }
             }
+
+            serve((int) sorted[best], (int) (sorted[best] >> 32));
+
+            // Unlink the served request, its neighbours are the new candidates
+            left = previous[best];
+            right = next[best];
+            if (left >= 0)
+                next[left] = right;
+            if (right >= 0)
+                previous[right] = left;
         }
+
+        return finishRun();
     }
 
-    public void useCLOOK(String requestQueue) {
-        // Convert a reference string to the array of integers
-        int[] intRequestList = Arrays.stream(requestQueue.split(",")).mapToInt(Integer::parseInt).toArray();
+    /**
+     * The sweep core shared by LOOK, C-LOOK, SCAN, C-SCAN, N-step SCAN and
+     * FSCAN. The requests are sorted once (by counting them per cylinder
+     * when the cylinders they span are few compared to them, see
+     * CylinderBucketIndex), and split into the ones above the head and the
+     * rest. The head serves one part in one direction, possibly travels to
+     * the edge, and serves the other part.
+     *
+     * @param intRequestList all the requested cylinders
+     * @param from the index of the first request to serve
+     * @param to the index after the last request to serve
+     * @param up whether the head moves towards the last cylinder
+     * @param edges whether the head travels to the edge before turning
+     * @param circular whether the head serves requests on its way up only
+     * @return whether the head moves towards the last cylinder afterwards
+     */
+    private boolean sweep(int[] intRequestList, int from, int to, boolean up, boolean edges, boolean circular) {
+        int n = to - from;
+
+        // The range the requests span
+        int low = Integer.MAX_VALUE;
+        int high = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            int cylinder = intRequestList[i];
+            if (edges && (cylinder < 0 || cylinder >= this.cylinders))
+                throw new IllegalArgumentException("request out of range: " + cylinder);
+
+            low = Math.min(low, cylinder);
+            high = Math.max(high, cylinder);
+        }
 
-        // Sort the integer array of requests
-        Arrays.sort(intRequestList);
+        // Sort the requests by cylinder, remembering where they came from,
+        // by counting if the range is narrow enough
+        long[] sorted;
+        if (CylinderBucketIndex.isWorthCounting(n, low, high)) {
+            sorted = CylinderBucketIndex.sortByCylinder(intRequestList, from, to, low, high);
+        } else {
+            sorted = new long[n];
+            for (int i = 0; i < n; i++)
+                sorted[i] = ((long) intRequestList[from + i] << 32) | (from + i);
+            Arrays.sort(sorted);
+        }
 
-        // Current index
-        int index = -1;
+        // The requests above the head start at the split (which is n if
+        // there are none)
+        int split = 0;
+        while (split < n && (int) (sorted[split] >> 32) <= this.currentCylinder)
+            split++;
 
-        /* * * * * * * * * * * * * * * * *
-         *           C L O O K           *
-         * * * * * * * * * * * * * * * * */
+        if (circular) {
+            // First loop (go to the right)
+            for (int i = split; i < n; i++)
+                serve((int) sorted[i], (int) (sorted[i] >> 32));
 
-        // Find the right index
-        for (int i = 0; i < intRequestList.length; i++) {
-            if (intRequestList[i] > this.currentCylinder) {
-                index = i;
-                break;
+            // Return to the start and go to the right again
+            if (split > 0 && edges) {
+                seek(this.cylinders - 1);
+                seek(0);
             }
+            for (int i = 0; i < split; i++)
+                serve((int) sorted[i], (int) (sorted[i] >> 32));
+
+            return true;
         }
 
-        // Note that since the intRequestList is sorted, the two loops
-        // below could be rewritten as three simple statements (or could be
-        // taken to extreme and be written as one bigger statement), but that
-        // way, the purpose of the project (simulations) will be disregarded.
-        // Therefore, we keep the code below as is, without optimization of any kind.
+        if (up) {
+            // First loop (go to the right)
+            for (int i = split; i < n; i++)
+                serve((int) sorted[i], (int) (sorted[i] >> 32));
 
-        // First loop (go to the right)
-        for (int i = index; i < intRequestList.length; i++) {
-            // Update the total number of moves
-            this.totalMoves += Math.abs(this.currentCylinder - intRequestList[i]);
-            this.currentCylinder = intRequestList[i];
+            if (split == 0)
+                return true;
+
+            // Second loop (go to the left)
+            if (edges)
+                seek(this.cylinders - 1);
+            for (int i = split - 1; i >= 0; i--)
+                serve((int) sorted[i], (int) (sorted[i] >> 32));
+
+            return false;
         }
 
+        // First loop (go to the left)
+        for (int i = split - 1; i >= 0; i--)
+            serve((int) sorted[i], (int) (sorted[i] >> 32));
+
+        if (split == n)
+            return false;
+
         // Second loop (go to the right)
-        for (int i = 0; i < index; i++) {
-            // Update the total number of moves
-            this.totalMoves += Math.abs(this.currentCylinder - intRequestList[i]);
-            this.currentCylinder = intRequestList[i];
+        if (edges)
+            seek(0);
+        for (int i = split; i < n; i++)
+            serve((int) sorted[i], (int) (sorted[i] >> 32));
+
+        return true;
+    }
+
+    // Whether the head was last moving towards the last cylinder
+    private boolean isMovingUp() {
+        return this.currentCylinder - this.previousCylinder >= 0;
+    }
+
+    // Reset the report of the last run
+    private void startRun(String policy, int requests, int arrivalInterval) {
+        if (arrivalInterval < 0)
+            throw new IllegalArgumentException("arrivalInterval must not be negative: " + arrivalInterval);
+
+        this.policy = policy;
+        this.clock = 0;
+        this.arrivalInterval = arrivalInterval;
+        this.waits = new long[requests];
+        this.serviceOrder = this.recordOrder ? new int[requests] : null;
+        this.served = 0;
+        this.time = 0;
+        this.responseTimes = new double[requests];
+        this.runMoves = 0;
+        this.startCylinder = this.currentCylinder;
+        this.waitHistogram = new LatencyHistogram();
+        this.responseHistogram = new LatencyHistogram();
+
+        if (this.timingModel != null && this.sectors != null && this.sectors.length < requests)
+            throw new IllegalArgumentException("no sector for request " + this.sectors.length);
+    }
+
+    // Hand the report of the run over to an immutable result. The arrays
+    // are not changed after the run, the next one allocates new ones.
+    private DiskScheduleResult finishRun() {
+        this.lastResult = new DiskScheduleResult(this.runMoves, this.startCylinder, this.currentCylinder,
+                this.serviceOrder, this.waits, this.responseTimes, this.time, this.waitHistogram,
+                this.responseHistogram);
+
+        return this.lastResult;
+    }
+
+    // The sector of a request, or -1 if it is unknown
+    private int sectorOf(int index) {
+        return this.sectors == null ? -1 : this.sectors[index];
+    }
+
+    // The number of requests which have arrived by now. If all of them
+    // have been served already, the head waits for the next one.
+    private int waitForArrivals(int from, int requests) {
+        if (this.arrivalInterval == 0)
+            return requests;
+
+        this.clock = Math.max(this.clock, (long) from * this.arrivalInterval);
+        return (int) Math.min(requests, this.clock / this.arrivalInterval + 1);
+    }
+
+    // Move the head to a request and serve it
+    private void serve(int index, int cylinder) {
+        seek(cylinder);
+
+        this.waits[index] = this.clock - (long) index * this.arrivalInterval;
+        this.waitHistogram.record(this.waits[index]);
+        if (this.serviceOrder != null)
+            this.serviceOrder[this.served] = index;
+        this.served++;
+
+        // Wait for the sector and transfer the data
+        if (this.timingModel != null) {
+            this.time += this.timingModel.getRotationalLatency(this.time, sectorOf(index));
+            this.time += this.timingModel.getTransferTime();
+            this.responseTimes[index] = this.time;
+            this.responseHistogram.record(Math.round(this.time * 1e6));
         }
     }
 
+    // Move the head without serving anything
+    private void seek(int cylinder) {
+        // Update the total number of moves
+        int distance = Math.abs(this.currentCylinder - cylinder);
+        this.totalMoves += distance;
+        this.runMoves += distance;
+        this.clock += distance;
+
+        if (Instrumentation.ENABLED)
+            Instrumentation.seek(this.policy, this.currentCylinder, cylinder);
+
+        this.currentCylinder = cylinder;
+
+        if (this.timingModel != null)
+            this.time += this.timingModel.getSeekTime(distance);
+    }
+
 }
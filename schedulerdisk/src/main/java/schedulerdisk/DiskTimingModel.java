@@ -0,0 +1,148 @@
+/*
+ * File:   DiskTimingModel.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The geometry and timing of a disk: how long it takes to seek over a
+ * number of cylinders, to wait for a sector to come under the head, and
+ * to transfer a request.
+ *
+ */
+
+package schedulerdisk;
+
+/**
+ * Disk timing model
+ *
+ * The seek time grows with the square root of the distance, which is how
+ * the arm accelerates and decelerates over short seeks: a seek over one
+ * cylinder takes the settle time and a seek over the whole disk takes the
+ * full-stroke time. The platters turn at a constant speed, so the sector
+ * under the head at any time follows from the time alone. All times are
+ * in milliseconds, starting at 0 with sector 0 under the head.
+ */
+public class DiskTimingModel {
+
+    // Tolerance of the sector positions, in sectors
+    private static final double EPSILON = 1e-6;
+
+    private final int cylinders;
+    private final int sectorsPerTrack;
+    private final double rotationTime;
+    private final double settleTime;
+    private final double fullStrokeTime;
+    private final int requestSectors;
+
+    /**
+     * @param cylinders the number of cylinders
+     * @param sectorsPerTrack the number of sectors on a track
+     * @param rpm the number of rotations per minute
+     * @param settleTime the time of a seek to the next cylinder
+     * @param fullStrokeTime the time of a seek over the whole disk
+     * @param requestSectors the number of sectors transferred by a request
+     */
+    public DiskTimingModel(int cylinders, int sectorsPerTrack, double rpm, double settleTime, double fullStrokeTime,
+            int requestSectors) {
+        if (cylinders < 2)
+            throw new IllegalArgumentException("cylinders must be at least 2: " + cylinders);
+        if (sectorsPerTrack < 1)
+            throw new IllegalArgumentException("sectorsPerTrack must be positive: " + sectorsPerTrack);
+        if (!(rpm > 0))
+            throw new IllegalArgumentException("rpm must be positive: " + rpm);
+        if (!(settleTime >= 0) || fullStrokeTime < settleTime)
+            throw new IllegalArgumentException("need 0 <= settleTime <= fullStrokeTime: " + settleTime + ", "
+                    + fullStrokeTime);
+        if (requestSectors < 0)
+            throw new IllegalArgumentException("requestSectors must not be negative: " + requestSectors);
+
+        this.cylinders = cylinders;
+        this.sectorsPerTrack = sectorsPerTrack;
+        this.rotationTime = 60000 / rpm;
+        this.settleTime = settleTime;
+        this.fullStrokeTime = fullStrokeTime;
+        this.requestSectors = requestSectors;
+    }
+
+    public int getCylinders() {
+        return this.cylinders;
+    }
+
+    public int getSectorsPerTrack() {
+        return this.sectorsPerTrack;
+    }
+
+    /**
+     * @return the time of one rotation
+     */
+    public double getRotationTime() {
+        return this.rotationTime;
+    }
+
+    /**
+     * @return the time it takes one sector to pass under the head
+     */
+    public double getSectorTime() {
+        return this.rotationTime / this.sectorsPerTrack;
+    }
+
+    /**
+     * @param distance the number of cylinders to cross
+     * @return the time of the seek
+     */
+    public double getSeekTime(int distance) {
+        if (distance == 0)
+            return 0;
+
+        distance = Math.abs(distance);
+        return this.settleTime
+                + (this.fullStrokeTime - this.settleTime) * Math.sqrt((double) distance / (this.cylinders - 1));
+    }
+
+    /**
+     * @param time the time the head arrives at the track
+     * @param sector the sector to wait for, or -1 if it is unknown
+     * @return the time until the sector is under the head, or half a
+     *         rotation (the average) if the sector is unknown
+     */
+    public double getRotationalLatency(double time, int sector) {
+        if (sector < 0)
+            return this.rotationTime / 2;
+        if (sector >= this.sectorsPerTrack)
+            throw new IllegalArgumentException("sector out of range: " + sector);
+
+        // The sector under the head, with the fraction already passed
+        double position = (time / getSectorTime()) % this.sectorsPerTrack;
+        double sectors = sector - position;
+        if (sectors < 0)
+            sectors += this.sectorsPerTrack;
+
+        // A sector which is just arriving should not cost a whole
+        // rotation because of a rounding error
+        if (sectors > this.sectorsPerTrack - EPSILON)
+            sectors = 0;
+
+        return sectors * getSectorTime();
+    }
+
+    /**
+     * @return the time a request spends transferring its sectors
+     */
+    public double getTransferTime() {
+        return this.requestSectors * getSectorTime();
+    }
+
+    /**
+     * @param time the time the seek starts
+     * @param distance the number of cylinders to cross
+     * @param sector the sector to wait for, or -1 if it is unknown
+     * @return the seek time plus the rotational latency
+     */
+    public double getPositioningTime(double time, int distance, int sector) {
+        double seekTime = getSeekTime(distance);
+        return seekTime + getRotationalLatency(time + seekTime, sector);
+    }
+
+}
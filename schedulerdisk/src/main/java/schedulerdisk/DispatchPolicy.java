@@ -0,0 +1,147 @@
+/*
+ * File:   DispatchPolicy.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The choice of the next request to serve in the online disk simulator,
+ * with the classic policies as factories.
+ *
+ */
+
+package schedulerdisk;
+
+/**
+ * Dispatch policy
+ *
+ * The simulator asks the policy for the next request whenever the disk
+ * becomes idle and there is a pending request. Policies may keep state
+ * between the calls (such as the direction of the head), so every
+ * simulator needs its own instance. The name of a policy labels its seeks
+ * in the instrumentation, so a policy written as a lambda, whose class name
+ * changes from run to run, should be given one (see named).
+ */
+public interface DispatchPolicy {
+
+    /**
+     * @param pending the pending requests, never empty
+     * @param head the cylinder under the head
+     * @param time the current time, in milliseconds
+     * @return the id of the pending request to serve next
+     */
+    int select(PendingRequestIndex pending, int head, double time);
+
+    /**
+     * Tell the policy about a request that was just added to the pending
+     * index. Policies which keep their own queues (by direction or by
+     * owner) use it, the others ignore it.
+     *
+     * @param id the id of the request
+     * @param cylinder the requested cylinder
+     * @param write whether the request is a write
+     * @param owner the owner of the request (a process or a cgroup)
+     * @param time the arrival time, in milliseconds
+     */
+    default void arrived(int id, int cylinder, boolean write, int owner, double time) {
+    }
+
+    /**
+     * @return the name of the policy, its simple class name by default
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * @param name the name of the policy
+     * @param select how the policy picks the next request
+     * @return a policy without queues of its own, with the given name
+     */
+    static DispatchPolicy named(String name, DispatchPolicy select) {
+        return new DispatchPolicy() {
+            @Override
+            public int select(PendingRequestIndex pending, int head, double time) {
+                return select.select(pending, head, time);
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    /**
+     * @return a policy serving the requests in the order they arrived
+     */
+    static DispatchPolicy fcfs() {
+        return named("FCFS", (pending, head, time) -> pending.oldest());
+    }
+
+    /**
+     * @return a policy serving the nearest request, the older one on a tie
+     */
+    static DispatchPolicy sstf() {
+        return named("SSTF", (pending, head, time) -> {
+            int below = pending.floor(head);
+            int above = pending.ceiling(head);
+
+            if (below < 0)
+                return pending.first(above);
+            if (above < 0)
+                return pending.first(below);
+
+            int belowDistance = head - below;
+            int aboveDistance = above - head;
+            int belowId = pending.first(below);
+            int aboveId = pending.first(above);
+
+            if (belowDistance < aboveDistance
+                    || (belowDistance == aboveDistance && pending.getSequence(belowId) < pending.getSequence(aboveId)))
+                return belowId;
+            return aboveId;
+        });
+    }
+
+    /**
+     * @param up whether the head starts by moving towards the last cylinder
+     * @return a policy sweeping back and forth over the pending requests
+     */
+    static DispatchPolicy look(boolean up) {
+        return new DispatchPolicy() {
+            private boolean movingUp = up;
+
+            @Override
+            public int select(PendingRequestIndex pending, int head, double time) {
+                int cylinder = this.movingUp ? pending.ceiling(head) : pending.floor(head);
+
+                // Nothing left in this direction, turn around
+                if (cylinder < 0) {
+                    this.movingUp = !this.movingUp;
+                    cylinder = this.movingUp ? pending.ceiling(head) : pending.floor(head);
+                }
+
+                return pending.first(cylinder);
+            }
+
+            @Override
+            public String getName() {
+                return "LOOK";
+            }
+        };
+    }
+
+    /**
+     * @return a policy sweeping up over the pending requests, and jumping
+     *         back to the lowest one at the end of every sweep
+     */
+    static DispatchPolicy clook() {
+        return named("CLOOK", (pending, head, time) -> {
+            int cylinder = pending.ceiling(head);
+            return pending.first(cylinder < 0 ? pending.ceiling(0) : cylinder);
+        });
+    }
+
+}
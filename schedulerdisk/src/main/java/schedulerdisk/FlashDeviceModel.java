@@ -0,0 +1,112 @@
+/*
+ * File:   FlashDeviceModel.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The layout and timing of a flash device (an SSD or an NVMe drive): how
+ * its pages are spread over the channels, and how long a read or a write
+ * keeps a channel busy.
+ *
+ */
+
+package schedulerdisk;
+
+/**
+ * Flash device model
+ *
+ * There is no head to move. The pages of the device are striped over the
+ * channels (page p lives on channel p mod channels), and every channel
+ * serves one request at a time: the controller takes the command, the die
+ * reads or programs the page, and the data crosses the channel. Requests
+ * on different channels run in parallel, so the latency a request sees
+ * depends on how many others are queued on its channel, which grows with
+ * the queue depth. All times are in milliseconds.
+ */
+public class FlashDeviceModel {
+
+    private final long sectors;
+    private final int pageSectors;
+    private final int channels;
+    private final double commandTime;
+    private final double readTime;
+    private final double programTime;
+    private final double transferTime;
+
+    /**
+     * A device with typical TLC NAND timings: 25 us to read a page, 200 us
+     * to program one, 10 us to move it over the channel and 5 us of
+     * command overhead
+     *
+     * @param sectors the capacity in sectors
+     * @param pageSectors the number of sectors of a flash page
+     * @param channels the number of channels
+     */
+    public FlashDeviceModel(long sectors, int pageSectors, int channels) {
+        this(sectors, pageSectors, channels, 0.005, 0.025, 0.2, 0.01);
+    }
+
+    /**
+     * @param sectors the capacity in sectors
+     * @param pageSectors the number of sectors of a flash page
+     * @param channels the number of channels
+     * @param commandTime the controller overhead of a command
+     * @param readTime the time to read a page from the die
+     * @param programTime the time to program a page
+     * @param transferTime the time to move a page over the channel
+     */
+    public FlashDeviceModel(long sectors, int pageSectors, int channels, double commandTime, double readTime,
+            double programTime, double transferTime) {
+        if (pageSectors < 1)
+            throw new IllegalArgumentException("pageSectors must be positive: " + pageSectors);
+        if (sectors < pageSectors)
+            throw new IllegalArgumentException("sectors must be at least pageSectors: " + sectors);
+        if (channels < 1)
+            throw new IllegalArgumentException("channels must be positive: " + channels);
+        if (!(commandTime >= 0) || !(readTime >= 0) || !(programTime >= 0) || !(transferTime >= 0))
+            throw new IllegalArgumentException("times must not be negative: " + commandTime + ", " + readTime + ", "
+                    + programTime + ", " + transferTime);
+
+        this.sectors = sectors;
+        this.pageSectors = pageSectors;
+        this.channels = channels;
+        this.commandTime = commandTime;
+        this.readTime = readTime;
+        this.programTime = programTime;
+        this.transferTime = transferTime;
+    }
+
+    public long getSectors() {
+        return this.sectors;
+    }
+
+    public int getPageSectors() {
+        return this.pageSectors;
+    }
+
+    public int getChannels() {
+        return this.channels;
+    }
+
+    /**
+     * @param sector a sector of the device
+     * @return the channel its page lives on
+     */
+    public int getChannel(long sector) {
+        if (sector < 0 || sector >= this.sectors)
+            throw new IllegalArgumentException("sector out of range: " + sector);
+
+        return (int) ((sector / this.pageSectors) % this.channels);
+    }
+
+    /**
+     * @param write whether the request is a write
+     * @return how long the request keeps its channel busy
+     */
+    public double getServiceTime(boolean write) {
+        return this.commandTime + (write ? this.programTime : this.readTime) + this.transferTime;
+    }
+
+}
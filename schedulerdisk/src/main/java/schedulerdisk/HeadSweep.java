@@ -0,0 +1,114 @@
+/*
+ * File:   HeadSweep.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The sweep of the disk scheduling policies over the cylinder the head
+ * starts at and the direction it starts in.
+ *
+ */
+
+package schedulerdisk;
+
+import schedulercommon.ColumnarWriter;
+import schedulercommon.SweepRunner;
+
+/**
+ * Head sweep
+ *
+ * One cell per policy, start cylinder and direction, every one of them
+ * running on a DiskScheduler of its own over the same requests. The
+ * direction is given to the scheduler as the cylinder the head was at
+ * before, one below the start when moving up and one above it when moving
+ * down. FCFS, SSTF and C-LOOK do not look at it, so their two rows only
+ * differ in the direction column. The service order is not recorded, the
+ * rows only keep the moves and the waits.
+ */
+public final class HeadSweep {
+
+    public enum Policy {
+        FCFS, SSTF, LOOK, CLOOK, SCAN, CSCAN
+    }
+
+    public enum Direction {
+        UP, DOWN
+    }
+
+    public static final String[] COLUMNS = {
+        "policy", "start_cylinder", "direction", "requests", "moves",
+        "mean_wait", "p99_wait", "max_wait", "nanos"
+    };
+
+    public static final ColumnarWriter.Type[] TYPES = {
+        ColumnarWriter.Type.STRING, ColumnarWriter.Type.LONG, ColumnarWriter.Type.STRING,
+        ColumnarWriter.Type.LONG, ColumnarWriter.Type.LONG, ColumnarWriter.Type.DOUBLE,
+        ColumnarWriter.Type.LONG, ColumnarWriter.Type.LONG, ColumnarWriter.Type.LONG
+    };
+
+    private HeadSweep() {
+    }
+
+    /**
+     * @param cylinders the number of cylinders
+     * @param requests the requested cylinders, shared by all the cells
+     * @param policies the policies to run
+     * @param startCylinders the cylinders the head starts at
+     * @param directions the directions the head starts in
+     * @return the sweep, not started yet
+     */
+    public static SweepRunner create(int cylinders, int[] requests, Policy[] policies, int[] startCylinders,
+            Direction[] directions) {
+        if (cylinders < 1)
+            throw new IllegalArgumentException("cylinders must be positive: " + cylinders);
+        for (int start : startCylinders)
+            if (start < 0 || start >= cylinders)
+                throw new IllegalArgumentException("start cylinder out of range: " + start);
+
+        SweepRunner sweep = new SweepRunner(COLUMNS, TYPES);
+
+        for (Policy policy : policies)
+            for (int start : startCylinders)
+                for (Direction direction : directions)
+                    sweep.add(() -> run(cylinders, requests, policy, start, direction));
+
+        return sweep;
+    }
+
+    private static Object[] run(int cylinders, int[] requests, Policy policy, int start, Direction direction) {
+        int previous = direction == Direction.UP ? start - 1 : start + 1;
+        DiskScheduler scheduler = new DiskScheduler(cylinders, start, previous);
+        scheduler.setRecordOrder(false);
+
+        long begin = System.nanoTime();
+        DiskScheduleResult result;
+        switch (policy) {
+            case FCFS:
+                result = scheduler.useFCFS(requests);
+                break;
+            case SSTF:
+                result = scheduler.useSSTF(requests);
+                break;
+            case LOOK:
+                result = scheduler.useLOOK(requests);
+                break;
+            case CLOOK:
+                result = scheduler.useCLOOK(requests);
+                break;
+            case SCAN:
+                result = scheduler.useSCAN(requests);
+                break;
+            default:
+                result = scheduler.useCSCAN(requests);
+        }
+        long nanos = System.nanoTime() - begin;
+
+        return new Object[] {
+            policy, start, direction, result.getRequestCount(), result.getMoves(),
+            result.getMeanWait(), result.getP99Wait(), result.getMaxWait(), nanos
+        };
+    }
+
+}
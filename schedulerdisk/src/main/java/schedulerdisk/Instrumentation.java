@@ -0,0 +1,97 @@
+/*
+ * File:   Instrumentation.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Optional instrumentation of the disk scheduling policies: counters of
+ * the seeks and head moves, and sampled Flight Recorder events of the
+ * seeks.
+ *
+ */
+
+package schedulerdisk;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import schedulercommon.CounterRegistry;
+import schedulercommon.EventSampler;
+import schedulercommon.MetricsRegistry;
+
+/**
+ * Instrumentation
+ *
+ * Off unless the JVM is started with -Dschedulerdisk.instrumentation=true.
+ * ENABLED is a static final constant, and every call from a simulation is
+ * guarded by it, so when it is false the JIT compiler drops the calls
+ * altogether and the simulations run exactly as without them.
+ *
+ * When it is on, every seek of DiskScheduler and OnlineDiskSimulator goes
+ * to the counters of getRegistry(): "seeks" counts the times the head was
+ * positioned (over no cylinders at all for a request under it) and
+ * "head_moves" the cylinders it moved over. One seek out of every
+ * samplePeriod (1000 by default, or
+ * -Dschedulerdisk.instrumentation.samplePeriod) is committed as a
+ * SeekEvent, which a Flight Recorder recording picks up if it has the event
+ * enabled.
+ */
+public final class Instrumentation {
+
+    public static final String PROPERTY = "schedulerdisk.instrumentation";
+    public static final String SAMPLE_PERIOD_PROPERTY = "schedulerdisk.instrumentation.samplePeriod";
+
+    /**
+     * Whether the simulations report to the instrumentation, fixed when
+     * the class is loaded
+     */
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final CounterRegistry REGISTRY = new CounterRegistry();
+    private static final LongAdder SEEKS = REGISTRY.counter("seeks");
+    private static final LongAdder HEAD_MOVES = REGISTRY.counter("head_moves");
+
+    private static final EventSampler SAMPLER = new EventSampler(SAMPLE_PERIOD_PROPERTY);
+
+    private Instrumentation() {
+    }
+
+    /**
+     * @return the counters "seeks" and "head_moves"
+     */
+    public static MetricsRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    public static int getSamplePeriod() {
+        return SAMPLER.getPeriod();
+    }
+
+    /**
+     * @param period commit one seek event out of every period, 1 for all
+     *               of them
+     */
+    public static void setSamplePeriod(int period) {
+        SAMPLER.setPeriod(period);
+    }
+
+    // The call below is made by the simulations behind ENABLED, and
+    // counts whether it is set or not
+
+    static void seek(String policy, int from, int to) {
+        int distance = Math.abs(to - from);
+        SEEKS.increment();
+        HEAD_MOVES.add(distance);
+
+        if (SAMPLER.isSampled()) {
+            SeekEvent event = new SeekEvent();
+            event.policy = policy;
+            event.from = from;
+            event.to = to;
+            event.distance = distance;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * File:   LatencyHistogram.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A histogram of latencies with logarithmic buckets, which answers
+ * percentile queries over any number of values in constant memory.
+ *
+ */
+
+package schedulerdisk;
+
+import java.util.Arrays;
+
+/**
+ * Latency histogram
+ *
+ * Small values get a bucket each. Above that, every power of two is split
+ * into the same number of buckets, so a value is off by at most one part
+ * in 2^(precisionBits-1) of itself. Recording a value is a few shifts and
+ * an array increment.
+ */
+public class LatencyHistogram {
+
+    private final int precisionBits;
+    private final long[] counts;
+    private long count;
+    private long min;
+    private long max;
+    private double sum;
+
+    public LatencyHistogram() {
+        this(8);
+    }
+
+    /**
+     * @param precisionBits the number of significant bits kept, 2..20
+     */
+    public LatencyHistogram(int precisionBits) {
+        if (precisionBits < 2 || precisionBits > 20)
+            throw new IllegalArgumentException("precisionBits must be within 2..20: " + precisionBits);
+
+        this.precisionBits = precisionBits;
+        this.counts = new long[(65 - precisionBits) << (precisionBits - 1)];
+        reset();
+    }
+
+    /**
+     * @param value a latency, negative ones being recorded as 0
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+
+        this.counts[bucketOf(value)]++;
+        this.count++;
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+        this.sum += value;
+    }
+
+    /**
+     * Add all the values of another histogram with the same precision
+     *
+     * @param other the other histogram
+     */
+    public void add(LatencyHistogram other) {
+        if (other.precisionBits != this.precisionBits)
+            throw new IllegalArgumentException("precisions differ: " + other.precisionBits + " and "
+                    + this.precisionBits);
+
+        for (int i = 0; i < this.counts.length; i++)
+            this.counts[i] += other.counts[i];
+
+        this.count += other.count;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+        this.sum += other.sum;
+    }
+
+    public void reset() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.min = Long.MAX_VALUE;
+        this.max = 0;
+        this.sum = 0;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return the smallest value, or 0 if there is none
+     */
+    public long getMin() {
+        return this.count == 0 ? 0 : this.min;
+    }
+
+    public long getMax() {
+        return this.max;
+    }
+
+    public double getMean() {
+        return this.count == 0 ? 0 : this.sum / this.count;
+    }
+
+    /**
+     * @param percentile the percentile, within 0..100
+     * @return the highest value of the bucket holding the percentile (but
+     *         never more than the largest value), or 0 if there is none
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100))
+            throw new IllegalArgumentException("percentile must be within 0..100: " + percentile);
+        if (this.count == 0)
+            return 0;
+
+        // The rank of the value, counted from 1
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+        long seen = 0;
+
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= rank)
+                return Math.max(this.min, Math.min(this.max, highestValueOf(i)));
+        }
+
+        return this.max;
+    }
+
+    // Values below 2^precisionBits get a bucket each, the larger ones
+    // keep their precisionBits most significant bits
+    private int bucketOf(long value) {
+        int exponent = 64 - Long.numberOfLeadingZeros(value) - this.precisionBits;
+
+        if (exponent <= 0)
+            return (int) value;
+
+        return (exponent << (this.precisionBits - 1)) + (int) (value >>> exponent);
+    }
+
+    private long highestValueOf(int bucket) {
+        int half = 1 << (this.precisionBits - 1);
+
+        if (bucket < 2 * half)
+            return bucket;
+
+        int exponent = bucket / half - 1;
+        long mantissa = bucket - (long) exponent * half;
+        return ((mantissa + 1) << exponent) - 1;
+    }
+
+}
@@ -0,0 +1,417 @@
+/*
+ * File:   MultiQueueSimulator.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * An event-driven model of the Linux multi-queue block layer (blk-mq) in
+ * front of a flash device: per-CPU submission queues, hardware queues
+ * with a fixed depth, an I/O scheduler per hardware queue, and channels
+ * working in parallel.
+ *
+ */
+
+package schedulerdisk;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Multi-queue simulator
+ *
+ * Requests are submitted to the SubmissionQueue of a CPU, from any number
+ * of threads. CPU c feeds hardware queue c mod hardwareQueues, which holds
+ * the requests in a PendingRequestIndex (over buckets of sectors, so that
+ * the elevators can sort them) and lets its DispatchPolicy pick the next
+ * one whenever it has fewer than queueDepth requests on the device. The
+ * "none" scheduler of blk-mq is DispatchPolicy.fcfs(), mq-deadline is
+ * DeadlinePolicy, and the other policies work as they do on a disk.
+ * On the device, every request waits for its channel and keeps it busy
+ * for the service time of the FlashDeviceModel.
+ *
+ * The simulation itself runs in the thread calling advanceTo or flush.
+ * It takes the submitted requests in the order of their arrival times,
+ * so every CPU must submit in that order, and every request arriving
+ * before the time passed to advanceTo must have been submitted by then.
+ * Latencies (from arrival to completion) are kept in a histogram in
+ * nanoseconds. Device latencies (from dispatch to completion) are kept by
+ * the number of requests on the device at dispatch, which shows how the
+ * device slows down as the queue depth grows. All the other times are in
+ * milliseconds.
+ */
+public class MultiQueueSimulator {
+
+    // The number of sector buckets the hardware queues sort requests by
+    private static final int BUCKETS = 1 << 16;
+
+    private final FlashDeviceModel device;
+    private final int queueDepth;
+    private final long sectorsPerBucket;
+
+    private final SubmissionQueue[] submissionQueues;
+    private final PendingRequestIndex[] pending;
+    private final DispatchPolicy[] policies;
+    private final int[] inFlight;
+    private final int[] lastBucket;
+    private final double[] channelFreeTimes;
+    private final double[] channelBusyTimes;
+
+    // The request table, indexed by request id, with a stack of free ids
+    private double[] arrivalTimes;
+    private long[] sectors;
+    private boolean[] writes;
+    private int[] hardwareQueueOf;
+    private int[] depthOf;
+    private double[] dispatchTimes;
+    private double[] completionTimes;
+    private int[] free;
+    private int freeCount;
+    private int capacity;
+
+    // The requests on the device, in a binary heap by completion time
+    private int[] completions;
+    private int completionCount;
+
+    // The time up to which the simulation has run, and the time of the
+    // last arrival or completion
+    private double now;
+    private double lastEventTime;
+    private long submittedCount;
+    private long completedCount;
+    private int deviceDepth;
+    private int maxPendingCount;
+    private int pendingCount;
+
+    private final LatencyHistogram latencies;
+    private final double[] deviceLatencySumsByDepth;
+    private final long[] countsByDepth;
+
+    /**
+     * @param device the flash device
+     * @param cpus the number of CPUs, each with its submission queue
+     * @param submissionQueueCapacity the capacity of every submission queue
+     * @param hardwareQueues the number of hardware queues
+     * @param queueDepth the number of requests a hardware queue may have
+     *                   on the device at once
+     * @param policyFactory makes the policy of a hardware queue, given the
+     *                      number of buckets it sorts the requests into
+     */
+    public MultiQueueSimulator(FlashDeviceModel device, int cpus, int submissionQueueCapacity, int hardwareQueues,
+            int queueDepth, IntFunction<DispatchPolicy> policyFactory) {
+        if (cpus < 1)
+            throw new IllegalArgumentException("cpus must be positive: " + cpus);
+        if (hardwareQueues < 1)
+            throw new IllegalArgumentException("hardwareQueues must be positive: " + hardwareQueues);
+        if (queueDepth < 1)
+            throw new IllegalArgumentException("queueDepth must be positive: " + queueDepth);
+
+        this.device = device;
+        this.queueDepth = queueDepth;
+        this.sectorsPerBucket = Math.max(1, (device.getSectors() + BUCKETS - 1) / BUCKETS);
+        int buckets = (int) ((device.getSectors() + this.sectorsPerBucket - 1) / this.sectorsPerBucket);
+
+        this.submissionQueues = new SubmissionQueue[cpus];
+        for (int cpu = 0; cpu < cpus; cpu++)
+            this.submissionQueues[cpu] = new SubmissionQueue(submissionQueueCapacity);
+
+        this.pending = new PendingRequestIndex[hardwareQueues];
+        this.policies = new DispatchPolicy[hardwareQueues];
+        for (int queue = 0; queue < hardwareQueues; queue++) {
+            this.pending[queue] = new PendingRequestIndex(buckets);
+            this.policies[queue] = policyFactory.apply(buckets);
+        }
+        this.inFlight = new int[hardwareQueues];
+        this.lastBucket = new int[hardwareQueues];
+        this.channelFreeTimes = new double[device.getChannels()];
+        this.channelBusyTimes = new double[device.getChannels()];
+
+        this.arrivalTimes = new double[16];
+        this.sectors = new long[16];
+        this.writes = new boolean[16];
+        this.hardwareQueueOf = new int[16];
+        this.depthOf = new int[16];
+        this.dispatchTimes = new double[16];
+        this.completionTimes = new double[16];
+        this.free = new int[16];
+        this.freeCount = 0;
+        this.capacity = 0;
+
+        this.completions = new int[16];
+        this.completionCount = 0;
+
+        this.now = 0;
+        this.lastEventTime = 0;
+        this.submittedCount = 0;
+        this.completedCount = 0;
+        this.deviceDepth = 0;
+        this.maxPendingCount = 0;
+        this.pendingCount = 0;
+
+        int maxDepth = hardwareQueues * queueDepth;
+        this.latencies = new LatencyHistogram();
+        this.deviceLatencySumsByDepth = new double[maxDepth + 1];
+        this.countsByDepth = new long[maxDepth + 1];
+    }
+
+    /**
+     * Submit a request, from any thread. The requests of a CPU must be
+     * submitted in the order of their arrival times.
+     *
+     * @param cpu the CPU submitting it
+     * @param arrivalTime the arrival time
+     * @param sector the first sector
+     * @param write whether the request is a write
+     * @return false if the submission queue of the CPU is full, in which
+     *         case the simulation has to catch up first
+     */
+    public boolean submit(int cpu, double arrivalTime, long sector, boolean write) {
+        if (sector < 0 || sector >= this.device.getSectors())
+            throw new IllegalArgumentException("sector out of range: " + sector);
+
+        return this.submissionQueues[cpu].offer(arrivalTime, sector, write);
+    }
+
+    /**
+     * Run the simulation until the given time, taking in every submitted
+     * request which arrives by then
+     *
+     * @param time the time to advance to
+     */
+    public void advanceTo(double time) {
+        while (true) {
+            // The CPU whose next request arrives first
+            int cpu = -1;
+            double arrivalTime = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < this.submissionQueues.length; i++) {
+                SubmissionQueue queue = this.submissionQueues[i];
+                if (queue.isReady() && queue.peekTime() < arrivalTime) {
+                    cpu = i;
+                    arrivalTime = queue.peekTime();
+                }
+            }
+
+            // Completions go first on a tie, freeing tags for the arrivals
+            if (this.completionCount > 0 && this.completionTimes[this.completions[0]] <= Math.min(time, arrivalTime)) {
+                complete(this.completionTimes[this.completions[0]]);
+            } else if (cpu >= 0 && arrivalTime <= time) {
+                arrive(cpu, arrivalTime);
+            } else {
+                break;
+            }
+        }
+
+        this.now = Math.max(this.now, time);
+    }
+
+    /**
+     * Take in every submitted request and serve it
+     */
+    public void flush() {
+        advanceTo(Double.POSITIVE_INFINITY);
+        this.now = this.lastEventTime;
+    }
+
+    public double getTime() {
+        return this.now;
+    }
+
+    public long getSubmittedCount() {
+        return this.submittedCount;
+    }
+
+    public long getCompletedCount() {
+        return this.completedCount;
+    }
+
+    /**
+     * @return the largest number of requests waiting in the hardware
+     *         queues (not on the device) at once
+     */
+    public int getMaxPendingCount() {
+        return this.maxPendingCount;
+    }
+
+    public LatencyHistogram getLatencyHistogram() {
+        return this.latencies;
+    }
+
+    /**
+     * @return the mean latency, in milliseconds
+     */
+    public double getMeanLatency() {
+        return this.latencies.getMean() / 1e6;
+    }
+
+    /**
+     * @param percentile a percentile between 0 and 100
+     * @return the latency at the percentile, in milliseconds
+     */
+    public double getLatencyPercentile(double percentile) {
+        return this.latencies.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    /**
+     * @param depth a number of requests on the device, counting the
+     *              request itself
+     * @return the mean device latency of the requests dispatched at that
+     *         depth, in milliseconds, or 0 if there were none
+     */
+    public double getMeanDeviceLatencyAtDepth(int depth) {
+        if (depth < 1 || depth >= this.countsByDepth.length || this.countsByDepth[depth] == 0)
+            return 0;
+
+        return this.deviceLatencySumsByDepth[depth] / this.countsByDepth[depth];
+    }
+
+    /**
+     * @return the completed requests per second, from time 0 to the last
+     *         completion
+     */
+    public double getThroughput() {
+        return this.lastEventTime == 0 ? 0 : this.completedCount / this.lastEventTime * 1000;
+    }
+
+    /**
+     * @param channel a channel
+     * @return the fraction of the time the channel was busy
+     */
+    public double getChannelUtilization(int channel) {
+        return this.lastEventTime == 0 ? 0 : this.channelBusyTimes[channel] / this.lastEventTime;
+    }
+
+    // Move the next request of a CPU into its hardware queue
+    private void arrive(int cpu, double time) {
+        SubmissionQueue queue = this.submissionQueues[cpu];
+        int hardwareQueue = cpu % this.pending.length;
+        long sector = queue.peekSector();
+        boolean write = queue.peekWrite();
+        queue.remove();
+
+        int id = allocate();
+        int bucket = (int) (sector / this.sectorsPerBucket);
+        this.arrivalTimes[id] = time;
+        this.sectors[id] = sector;
+        this.writes[id] = write;
+        this.hardwareQueueOf[id] = hardwareQueue;
+        this.pending[hardwareQueue].add(id, bucket);
+        this.policies[hardwareQueue].arrived(id, bucket, write, cpu, time);
+
+        this.submittedCount++;
+        this.pendingCount++;
+        this.maxPendingCount = Math.max(this.maxPendingCount, this.pendingCount);
+        this.lastEventTime = Math.max(this.lastEventTime, time);
+
+        dispatch(hardwareQueue, time);
+    }
+
+    // Send requests of the hardware queue to the device while it has free tags
+    private void dispatch(int hardwareQueue, double time) {
+        PendingRequestIndex queue = this.pending[hardwareQueue];
+
+        while (this.inFlight[hardwareQueue] < this.queueDepth && !queue.isEmpty()) {
+            int id = this.policies[hardwareQueue].select(queue, this.lastBucket[hardwareQueue], time);
+            this.lastBucket[hardwareQueue] = queue.getCylinder(id);
+            queue.remove(id);
+
+            // The request waits for its channel, then keeps it busy
+            int channel = this.device.getChannel(this.sectors[id]);
+            double serviceTime = this.device.getServiceTime(this.writes[id]);
+            double start = Math.max(time, this.channelFreeTimes[channel]);
+            this.channelFreeTimes[channel] = start + serviceTime;
+            this.channelBusyTimes[channel] += serviceTime;
+
+            this.dispatchTimes[id] = time;
+            this.completionTimes[id] = start + serviceTime;
+            this.depthOf[id] = ++this.deviceDepth;
+            this.inFlight[hardwareQueue]++;
+            this.pendingCount--;
+            push(id);
+        }
+    }
+
+    // Finish the request on the device which completes first
+    private void complete(double time) {
+        int id = pop();
+        int hardwareQueue = this.hardwareQueueOf[id];
+        double latency = time - this.arrivalTimes[id];
+
+        this.latencies.record(Math.round(latency * 1e6));
+        this.deviceLatencySumsByDepth[this.depthOf[id]] += time - this.dispatchTimes[id];
+        this.countsByDepth[this.depthOf[id]]++;
+
+        this.completedCount++;
+        this.deviceDepth--;
+        this.inFlight[hardwareQueue]--;
+        this.lastEventTime = Math.max(this.lastEventTime, time);
+        this.free[this.freeCount++] = id;
+
+        dispatch(hardwareQueue, time);
+    }
+
+    private void push(int id) {
+        if (this.completionCount == this.completions.length)
+            this.completions = Arrays.copyOf(this.completions, this.completionCount << 1);
+
+        // Sift up, the earlier completion (or the smaller id) on top
+        int i = this.completionCount++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(id, this.completions[parent]))
+                break;
+            this.completions[i] = this.completions[parent];
+            i = parent;
+        }
+        this.completions[i] = id;
+    }
+
+    private int pop() {
+        int top = this.completions[0];
+        int last = this.completions[--this.completionCount];
+
+        // Sift the last one down from the top
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= this.completionCount)
+                break;
+            if (child + 1 < this.completionCount && before(this.completions[child + 1], this.completions[child]))
+                child++;
+            if (!before(this.completions[child], last))
+                break;
+            this.completions[i] = this.completions[child];
+            i = child;
+        }
+        if (this.completionCount > 0)
+            this.completions[i] = last;
+
+        return top;
+    }
+
+    private boolean before(int a, int b) {
+        return this.completionTimes[a] < this.completionTimes[b]
+                || (this.completionTimes[a] == this.completionTimes[b] && a < b);
+    }
+
+    // Take a free slot of the request table, growing it if needed
+    private int allocate() {
+        if (this.freeCount > 0)
+            return this.free[--this.freeCount];
+
+        if (this.capacity == this.arrivalTimes.length) {
+            int length = this.capacity + (this.capacity >> 1);
+            this.arrivalTimes = Arrays.copyOf(this.arrivalTimes, length);
+            this.sectors = Arrays.copyOf(this.sectors, length);
+            this.writes = Arrays.copyOf(this.writes, length);
+            this.hardwareQueueOf = Arrays.copyOf(this.hardwareQueueOf, length);
+            this.depthOf = Arrays.copyOf(this.depthOf, length);
+            this.dispatchTimes = Arrays.copyOf(this.dispatchTimes, length);
+            this.completionTimes = Arrays.copyOf(this.completionTimes, length);
+            this.free = Arrays.copyOf(this.free, length);
+        }
+
+        return this.capacity++;
+    }
+
+}
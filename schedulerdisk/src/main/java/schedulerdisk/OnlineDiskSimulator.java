@@ -0,0 +1,468 @@
+/*
+ * File:   OnlineDiskSimulator.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * An event-driven disk simulation in which the requests arrive over time,
+ * while the head is moving, instead of being known up front.
+ *
+ */
+
+package schedulerdisk;
+
+import java.util.Arrays;
+
+/**
+ * Online disk simulator
+ *
+ * The requests are fed in the order of their arrival times. There are only
+ * two kinds of events, arrivals and completions, and the disk serves one
+ * request at a time: whenever it becomes idle with requests pending, the
+ * dispatch policy picks the next one, and the timing model says how long
+ * it takes. The pending requests live in a PendingRequestIndex, and their
+ * arrival times and sectors in a table whose slots are reused, so a
+ * sustained stream does not allocate anything per request.
+ *
+ * Response times (from arrival to completion) are kept in a histogram in
+ * nanoseconds. All the other times are in milliseconds. Requests may be
+ * reads or writes and belong to owners (processes or cgroups), which the
+ * fairness and starvation metrics are reported for.
+ */
+public class OnlineDiskSimulator {
+
+    private final DiskTimingModel timingModel;
+    private final DispatchPolicy policy;
+    // What the seeks of the policy are reported as, looked up once
+    private final String policyName;
+    private final PendingRequestIndex pending;
+    private final LatencyHistogram responseTimes;
+
+    // The request table, indexed by request id, with a stack of free ids
+    private double[] arrivalTimes;
+    private int[] sectors;
+    private boolean[] writes;
+    private int[] owners;
+    private int[] free;
+    private int freeCount;
+    private int capacity;
+
+    // The request being served (-1 if the disk is idle), and when it is done
+    private int inService;
+    private double completionTime;
+
+    private int headCylinder;
+    private double now;
+    private double lastArrival;
+    private double firstArrival;
+    private double busyTime;
+    private long totalMoves;
+    private long arrivalCount;
+    private long completedCount;
+    private int maxPendingCount;
+
+    // Per-owner statistics, and the response time which counts as starvation
+    private long[] ownerArrivalCounts;
+    private long[] ownerCompletedCounts;
+    private double[] ownerResponseTimes;
+    private double[] ownerMaxResponseTimes;
+    private double maxReadResponseTime;
+    private double maxWriteResponseTime;
+    private double starvationThreshold;
+    private long starvedCount;
+
+    /**
+     * @param timingModel the timing of the disk
+     * @param policy the dispatch policy, not shared with another simulator
+     * @param startCylinder the cylinder under the head at time 0
+     */
+    public OnlineDiskSimulator(DiskTimingModel timingModel, DispatchPolicy policy, int startCylinder) {
+        if (startCylinder < 0 || startCylinder >= timingModel.getCylinders())
+            throw new IllegalArgumentException("startCylinder out of range: " + startCylinder);
+
+        this.timingModel = timingModel;
+        this.policy = policy;
+        this.policyName = policy.getName();
+        this.pending = new PendingRequestIndex(timingModel.getCylinders());
+        this.responseTimes = new LatencyHistogram();
+
+        this.arrivalTimes = new double[16];
+        this.sectors = new int[16];
+        this.writes = new boolean[16];
+        this.owners = new int[16];
+        this.free = new int[16];
+        this.freeCount = 0;
+        this.capacity = 0;
+
+        this.inService = -1;
+        this.completionTime = 0;
+
+        this.headCylinder = startCylinder;
+        this.now = 0;
+        this.lastArrival = 0;
+        this.firstArrival = Double.NaN;
+        this.busyTime = 0;
+        this.totalMoves = 0;
+        this.arrivalCount = 0;
+        this.completedCount = 0;
+        this.maxPendingCount = 0;
+
+        this.ownerArrivalCounts = new long[1];
+        this.ownerCompletedCounts = new long[1];
+        this.ownerResponseTimes = new double[1];
+        this.ownerMaxResponseTimes = new double[1];
+        this.maxReadResponseTime = 0;
+        this.maxWriteResponseTime = 0;
+        this.starvationThreshold = Double.POSITIVE_INFINITY;
+        this.starvedCount = 0;
+    }
+
+    /**
+     * Feed a request whose sector is unknown
+     *
+     * @param arrivalTime the arrival time, not before the previous one
+     * @param cylinder the requested cylinder
+     */
+    public void accept(double arrivalTime, int cylinder) {
+        accept(arrivalTime, cylinder, -1);
+    }
+
+    /**
+     * Feed a request
+     *
+     * @param arrivalTime the arrival time, not before the previous one
+     * @param cylinder the requested cylinder
+     * @param sector the requested sector, or -1 if it is unknown
+     */
+    public void accept(double arrivalTime, int cylinder, int sector) {
+        accept(arrivalTime, cylinder, sector, false, 0);
+    }
+
+    /**
+     * Feed a read or write request of an owner
+     *
+     * @param arrivalTime the arrival time, not before the previous one
+     * @param cylinder the requested cylinder
+     * @param sector the requested sector, or -1 if it is unknown
+     * @param write whether the request is a write
+     * @param owner the owner of the request, a small non-negative number
+     */
+    public void accept(double arrivalTime, int cylinder, int sector, boolean write, int owner) {
+        if (owner < 0)
+            throw new IllegalArgumentException("owner must not be negative: " + owner);
+        if (arrivalTime < this.lastArrival)
+            throw new IllegalArgumentException("arrival times must not decrease: " + arrivalTime + " < "
+                    + this.lastArrival);
+        if (sector >= this.timingModel.getSectorsPerTrack())
+            throw new IllegalArgumentException("sector out of range: " + sector);
+
+        // Everything that happens before the arrival happens first
+        advanceTo(arrivalTime);
+
+        int id = allocate();
+        this.arrivalTimes[id] = arrivalTime;
+        this.sectors[id] = sector;
+        this.writes[id] = write;
+        this.owners[id] = owner;
+        this.pending.add(id, cylinder);
+        this.policy.arrived(id, cylinder, write, owner, arrivalTime);
+
+        if (owner >= this.ownerCompletedCounts.length) {
+            int length = Math.max(owner + 1, 2 * this.ownerCompletedCounts.length);
+            this.ownerArrivalCounts = Arrays.copyOf(this.ownerArrivalCounts, length);
+            this.ownerCompletedCounts = Arrays.copyOf(this.ownerCompletedCounts, length);
+            this.ownerResponseTimes = Arrays.copyOf(this.ownerResponseTimes, length);
+            this.ownerMaxResponseTimes = Arrays.copyOf(this.ownerMaxResponseTimes, length);
+        }
+
+        this.ownerArrivalCounts[owner]++;
+        if (this.arrivalCount++ == 0)
+            this.firstArrival = arrivalTime;
+        this.lastArrival = arrivalTime;
+        this.maxPendingCount = Math.max(this.maxPendingCount, this.pending.size());
+
+        // An idle disk starts on it right away
+        if (this.inService < 0)
+            dispatch(arrivalTime);
+    }
+
+    /**
+     * Feed a batch of requests whose sectors are unknown
+     *
+     * @param arrivalTimes the arrival times, not decreasing
+     * @param cylinders the requested cylinders
+     * @param off the index of the first request
+     * @param len the number of requests
+     */
+    public void accept(double[] arrivalTimes, int[] cylinders, int off, int len) {
+        if (off < 0 || len < 0 || off + len > arrivalTimes.length || off + len > cylinders.length)
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + cylinders.length);
+
+        for (int i = off; i < off + len; i++)
+            accept(arrivalTimes[i], cylinders[i], -1);
+    }
+
+    /**
+     * Let the disk work until the given time, completing the requests
+     * which are done by then
+     *
+     * @param time the time to advance to
+     */
+    public void advanceTo(double time) {
+        while (this.inService >= 0 && this.completionTime <= time) {
+            double done = this.completionTime;
+            complete();
+            if (!this.pending.isEmpty())
+                dispatch(done);
+        }
+
+        this.now = Math.max(this.now, time);
+    }
+
+    /**
+     * Serve every pending request
+     */
+    public void flush() {
+        advanceTo(Double.POSITIVE_INFINITY);
+        this.now = Math.max(this.lastArrival, this.completedCount == 0 ? 0 : this.completionTime);
+    }
+
+    /**
+     * @param threshold the response time above which a request counts as
+     *                  starved, in milliseconds
+     */
+    public void setStarvationThreshold(double threshold) {
+        if (!(threshold >= 0))
+            throw new IllegalArgumentException("threshold must not be negative: " + threshold);
+
+        this.starvationThreshold = threshold;
+    }
+
+    /**
+     * @return the number of completed requests whose response time was
+     *         above the starvation threshold
+     */
+    public long getStarvedCount() {
+        return this.starvedCount;
+    }
+
+    /**
+     * @return the longest response time of a read, in milliseconds
+     */
+    public double getMaxReadResponseTime() {
+        return this.maxReadResponseTime;
+    }
+
+    /**
+     * @return the longest response time of a write, in milliseconds
+     */
+    public double getMaxWriteResponseTime() {
+        return this.maxWriteResponseTime;
+    }
+
+    /**
+     * @param owner an owner
+     * @return the number of requests the owner sent
+     */
+    public long getOwnerArrivalCount(int owner) {
+        return owner < this.ownerArrivalCounts.length ? this.ownerArrivalCounts[owner] : 0;
+    }
+
+    /**
+     * @param owner an owner
+     * @return the number of completed requests of the owner
+     */
+    public long getOwnerCompletedCount(int owner) {
+        return owner < this.ownerCompletedCounts.length ? this.ownerCompletedCounts[owner] : 0;
+    }
+
+    /**
+     * @param owner an owner
+     * @return the mean response time of the owner, in milliseconds
+     */
+    public double getOwnerMeanResponseTime(int owner) {
+        long completed = getOwnerCompletedCount(owner);
+        return completed == 0 ? 0 : this.ownerResponseTimes[owner] / completed;
+    }
+
+    /**
+     * @param owner an owner
+     * @return the longest response time of the owner, in milliseconds
+     */
+    public double getOwnerMaxResponseTime(int owner) {
+        return owner < this.ownerMaxResponseTimes.length ? this.ownerMaxResponseTimes[owner] : 0;
+    }
+
+    /**
+     * Jain's fairness index of the completed requests of the owners which
+     * sent any, (sum x)^2 / (n * sum x^2). It is 1 when they all got the
+     * same number of requests through and 1/n when one got everything.
+     * It is meaningful when every owner has requests pending all the time.
+     *
+     * @return the fairness index, 1 if nothing was completed
+     */
+    public double getFairnessIndex() {
+        double sum = 0;
+        double sumOfSquares = 0;
+        int owners = 0;
+
+        for (int owner = 0; owner < this.ownerCompletedCounts.length; owner++) {
+            long completed = this.ownerCompletedCounts[owner];
+            if (this.ownerArrivalCounts[owner] > 0) {
+                sum += completed;
+                sumOfSquares += (double) completed * completed;
+                owners++;
+            }
+        }
+
+        return sum == 0 ? 1 : sum * sum / (owners * sumOfSquares);
+    }
+
+    /**
+     * @return the time up to which the simulation has run
+     */
+    public double getTime() {
+        return this.now;
+    }
+
+    public int getHeadCylinder() {
+        return this.headCylinder;
+    }
+
+    public long getArrivalCount() {
+        return this.arrivalCount;
+    }
+
+    public long getCompletedCount() {
+        return this.completedCount;
+    }
+
+    /**
+     * @return the number of requests waiting, the one in service excluded
+     */
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    public int getMaxPendingCount() {
+        return this.maxPendingCount;
+    }
+
+    public long getTotalMoves() {
+        return this.totalMoves;
+    }
+
+    /**
+     * @return the time the disk spent serving requests
+     */
+    public double getBusyTime() {
+        return this.busyTime;
+    }
+
+    /**
+     * @return the fraction of the time since the first arrival the disk was busy
+     */
+    public double getUtilization() {
+        double elapsed = this.now - this.firstArrival;
+        return this.arrivalCount == 0 || !(elapsed > 0) ? 0 : Math.min(1, this.busyTime / elapsed);
+    }
+
+    /**
+     * @return the completed requests per second since the first arrival
+     */
+    public double getThroughput() {
+        double elapsed = this.now - this.firstArrival;
+        return this.arrivalCount == 0 || !(elapsed > 0) ? 0 : this.completedCount / elapsed * 1000;
+    }
+
+    /**
+     * @return the response times of the completed requests, in nanoseconds
+     */
+    public LatencyHistogram getResponseTimeHistogram() {
+        return this.responseTimes;
+    }
+
+    /**
+     * @param percentile the percentile, within 0..100
+     * @return the response time at the percentile, in milliseconds
+     */
+    public double getResponseTimePercentile(double percentile) {
+        return this.responseTimes.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    /**
+     * @return the mean response time, in milliseconds
+     */
+    public double getMeanResponseTime() {
+        return this.responseTimes.getMean() / 1e6;
+    }
+
+    /**
+     * @return the longest response time, in milliseconds
+     */
+    public double getMaxResponseTime() {
+        return this.responseTimes.getMax() / 1e6;
+    }
+
+    // Start serving the request picked by the policy
+    private void dispatch(double time) {
+        int id = this.policy.select(this.pending, this.headCylinder, time);
+        int cylinder = this.pending.getCylinder(id);
+        this.pending.remove(id);
+
+        int distance = Math.abs(cylinder - this.headCylinder);
+        double serviceTime = this.timingModel.getPositioningTime(time, distance, this.sectors[id])
+                + this.timingModel.getTransferTime();
+
+        if (Instrumentation.ENABLED)
+            Instrumentation.seek(this.policyName, this.headCylinder, cylinder);
+
+        this.totalMoves += distance;
+        this.headCylinder = cylinder;
+        this.busyTime += serviceTime;
+        this.inService = id;
+        this.completionTime = time + serviceTime;
+    }
+
+    // Finish the request in service and free its slot
+    private void complete() {
+        int id = this.inService;
+        int owner = this.owners[id];
+        double responseTime = this.completionTime - this.arrivalTimes[id];
+
+        this.responseTimes.record(Math.round(responseTime * 1e6));
+        this.ownerCompletedCounts[owner]++;
+        this.ownerResponseTimes[owner] += responseTime;
+        this.ownerMaxResponseTimes[owner] = Math.max(this.ownerMaxResponseTimes[owner], responseTime);
+        if (this.writes[id])
+            this.maxWriteResponseTime = Math.max(this.maxWriteResponseTime, responseTime);
+        else
+            this.maxReadResponseTime = Math.max(this.maxReadResponseTime, responseTime);
+        if (responseTime > this.starvationThreshold)
+            this.starvedCount++;
+        this.completedCount++;
+        this.now = this.completionTime;
+        this.inService = -1;
+        this.free[this.freeCount++] = id;
+    }
+
+    // Take a free slot of the request table, growing it if needed
+    private int allocate() {
+        if (this.freeCount > 0)
+            return this.free[--this.freeCount];
+
+        if (this.capacity == this.arrivalTimes.length) {
+            int length = this.capacity + (this.capacity >> 1);
+            this.arrivalTimes = Arrays.copyOf(this.arrivalTimes, length);
+            this.sectors = Arrays.copyOf(this.sectors, length);
+            this.writes = Arrays.copyOf(this.writes, length);
+            this.owners = Arrays.copyOf(this.owners, length);
+            this.free = Arrays.copyOf(this.free, length);
+        }
+
+        return this.capacity++;
+    }
+
+}
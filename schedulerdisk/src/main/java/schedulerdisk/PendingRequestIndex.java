@@ -0,0 +1,247 @@
+/*
+ * File:   PendingRequestIndex.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The requests waiting for the disk, indexed by cylinder and by arrival,
+ * so that a dispatch policy can find the nearest pending cylinder on
+ * either side of the head in logarithmic time.
+ *
+ */
+
+package schedulerdisk;
+
+import java.util.Arrays;
+
+/**
+ * Pending request index
+ *
+ * Requests are identified by small non-negative ids (the slots of the
+ * simulator's request table). A CylinderBucketIndex counts the pending
+ * requests per cylinder, which gives the nearest pending cylinder above or
+ * below any cylinder in O(log64 C). The requests to every cylinder form a
+ * FIFO list, and all the pending requests form one more list in the order
+ * they were added, so the oldest request is always at hand.
+ */
+public class PendingRequestIndex {
+
+    private final int cylinders;
+
+    // The number of pending requests per cylinder
+    private final CylinderBucketIndex buckets;
+
+    // The oldest and the newest request to every cylinder
+    private final int[] first;
+    private final int[] last;
+
+    // For every request id: its cylinder, the order it was added in, its
+    // neighbours at the same cylinder and its neighbours in the order of
+    // addition (all -1 where there is none)
+    private int[] cylinderOf;
+    private long[] sequenceOf;
+    private int[] previousSame;
+    private int[] nextSame;
+    private int[] older;
+    private int[] newer;
+    private int oldest;
+    private int newest;
+
+    private long sequence;
+    private int size;
+
+    /**
+     * @param cylinders the number of cylinders
+     */
+    public PendingRequestIndex(int cylinders) {
+        if (cylinders < 1)
+            throw new IllegalArgumentException("cylinders must be positive: " + cylinders);
+
+        this.cylinders = cylinders;
+        this.buckets = new CylinderBucketIndex(cylinders);
+        this.first = new int[cylinders];
+        this.last = new int[cylinders];
+        Arrays.fill(this.first, -1);
+        Arrays.fill(this.last, -1);
+
+        this.cylinderOf = new int[16];
+        this.sequenceOf = new long[16];
+        this.previousSame = new int[16];
+        this.nextSame = new int[16];
+        this.older = new int[16];
+        this.newer = new int[16];
+        Arrays.fill(this.cylinderOf, -1);
+        this.oldest = -1;
+        this.newest = -1;
+
+        this.sequence = 0;
+        this.size = 0;
+    }
+
+    /**
+     * @param id the id of the request, not pending yet
+     * @param cylinder the requested cylinder
+     */
+    public void add(int id, int cylinder) {
+        if (cylinder < 0 || cylinder >= this.cylinders)
+            throw new IllegalArgumentException("cylinder out of range: " + cylinder);
+        if (id < 0)
+            throw new IllegalArgumentException("id must not be negative: " + id);
+
+        if (id >= this.cylinderOf.length)
+            grow(id);
+        if (this.cylinderOf[id] >= 0)
+            throw new IllegalArgumentException("request " + id + " is already pending");
+
+        this.cylinderOf[id] = cylinder;
+        this.sequenceOf[id] = this.sequence++;
+
+        // Append to the list of the cylinder
+        this.previousSame[id] = this.last[cylinder];
+        this.nextSame[id] = -1;
+        if (this.last[cylinder] < 0)
+            this.first[cylinder] = id;
+        else
+            this.nextSame[this.last[cylinder]] = id;
+        this.last[cylinder] = id;
+
+        // Append to the list of all the requests
+        this.older[id] = this.newest;
+        this.newer[id] = -1;
+        if (this.newest < 0)
+            this.oldest = id;
+        else
+            this.newer[this.newest] = id;
+        this.newest = id;
+
+        this.buckets.add(cylinder);
+        this.size++;
+    }
+
+    /**
+     * @param id the id of a pending request
+     */
+    public void remove(int id) {
+        if (!contains(id))
+            throw new IllegalArgumentException("request " + id + " is not pending");
+
+        int cylinder = this.cylinderOf[id];
+
+        if (this.previousSame[id] < 0)
+            this.first[cylinder] = this.nextSame[id];
+        else
+            this.nextSame[this.previousSame[id]] = this.nextSame[id];
+        if (this.nextSame[id] < 0)
+            this.last[cylinder] = this.previousSame[id];
+        else
+            this.previousSame[this.nextSame[id]] = this.previousSame[id];
+
+        if (this.older[id] < 0)
+            this.oldest = this.newer[id];
+        else
+            this.newer[this.older[id]] = this.newer[id];
+        if (this.newer[id] < 0)
+            this.newest = this.older[id];
+        else
+            this.older[this.newer[id]] = this.older[id];
+
+        this.cylinderOf[id] = -1;
+        this.buckets.remove(cylinder);
+        this.size--;
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < this.cylinderOf.length && this.cylinderOf[id] >= 0;
+    }
+
+    /**
+     * @param id the id of a pending request
+     * @return the requested cylinder
+     */
+    public int getCylinder(int id) {
+        if (!contains(id))
+            throw new IllegalArgumentException("request " + id + " is not pending");
+
+        return this.cylinderOf[id];
+    }
+
+    /**
+     * @param id the id of a pending request
+     * @return a number which grows with the order the requests were added in
+     */
+    public long getSequence(int id) {
+        if (!contains(id))
+            throw new IllegalArgumentException("request " + id + " is not pending");
+
+        return this.sequenceOf[id];
+    }
+
+    /**
+     * @return the pending request added first, or -1 if there is none
+     */
+    public int oldest() {
+        return this.oldest;
+    }
+
+    /**
+     * @param cylinder a cylinder
+     * @return the oldest pending request to the cylinder, or -1 if there is none
+     */
+    public int first(int cylinder) {
+        return this.first[cylinder];
+    }
+
+    /**
+     * @param cylinder a cylinder (it may be off the disk)
+     * @return the lowest cylinder at or above it with a pending request,
+     *         or -1 if there is none
+     */
+    public int ceiling(int cylinder) {
+        return this.buckets.ceiling(cylinder);
+    }
+
+    /**
+     * @param cylinder a cylinder (it may be off the disk)
+     * @return the highest cylinder at or below it with a pending request,
+     *         or -1 if there is none
+     */
+    public int floor(int cylinder) {
+        return this.buckets.floor(cylinder);
+    }
+
+    /**
+     * @param cylinder a cylinder
+     * @return the number of pending requests to the cylinder
+     */
+    public int count(int cylinder) {
+        return this.buckets.count(cylinder);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int getCylinders() {
+        return this.cylinders;
+    }
+
+    private void grow(int id) {
+        int length = Math.max(id + 1, this.cylinderOf.length + (this.cylinderOf.length >> 1));
+        int oldLength = this.cylinderOf.length;
+
+        this.cylinderOf = Arrays.copyOf(this.cylinderOf, length);
+        this.sequenceOf = Arrays.copyOf(this.sequenceOf, length);
+        this.previousSame = Arrays.copyOf(this.previousSame, length);
+        this.nextSame = Arrays.copyOf(this.nextSame, length);
+        this.older = Arrays.copyOf(this.older, length);
+        this.newer = Arrays.copyOf(this.newer, length);
+        Arrays.fill(this.cylinderOf, oldLength, length, -1);
+    }
+
+}
@@ -0,0 +1,400 @@
+/*
+ * File:   RaidArray.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * An array of disks under a RAID layout. A striping layer splits every
+ * logical request into operations on the member disks, each disk serves
+ * its queue with its own DiskScheduler in a ForkJoin task, and a request
+ * completes when the slowest of its operations does.
+ *
+ */
+
+package schedulerdisk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * RAID array
+ *
+ * The logical sectors are cut into chunks of stripeSectors sectors, and a
+ * row of chunks spans the disks. RAID-0 spreads the chunks over all the
+ * disks. RAID-1 writes every chunk to every disk and reads each from one
+ * of them, in turn. RAID-5 and RAID-6 keep one and two parity chunks per
+ * row, rotating over the disks (the left-symmetric layout of Linux md).
+ *
+ * A write to part of a parity row cannot just write the parity: it either
+ * reads the old data and the old parity first (read-modify-write), or
+ * reads the rest of the row (reconstruct-write), whichever reads less, as
+ * md does. Only a write of whole rows goes without reads. To keep these
+ * dependencies, a run has two rounds: first the reads and the writes which
+ * depend on nothing, then, once every disk is done with the first round,
+ * the writes which needed the reads.
+ *
+ * All the requests of a run are there from the start, and every disk keeps
+ * its head between the rounds and the runs. Its DiskScheduler times each
+ * round from the start of the round, with sector 0 under the head. Times
+ * are in milliseconds.
+ */
+public class RaidArray {
+
+    private final RaidLevel level;
+    private final int disks;
+    private final int stripeSectors;
+    private final DiskTimingModel timingModel;
+    private final ForkJoinPool pool;
+
+    private final int dataDisks;
+    private final long rows;
+    private final DiskScheduler[] schedulers;
+
+    // The results of the last run
+    private double[] completionTimes;
+    private double[] busyTimes;
+    private long physicalReadCount;
+    private long physicalWriteCount;
+    private long writeOperationCount;
+    private long logicalWriteCount;
+
+    public RaidArray(RaidLevel level, int disks, int stripeSectors, DiskTimingModel timingModel) {
+        this(level, disks, stripeSectors, timingModel, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param level the layout
+     * @param disks the number of disks
+     * @param stripeSectors the number of sectors of a chunk
+     * @param timingModel the timing of every disk
+     * @param pool the pool running the disks
+     */
+    public RaidArray(RaidLevel level, int disks, int stripeSectors, DiskTimingModel timingModel, ForkJoinPool pool) {
+        if (disks < level.getMinDisks())
+            throw new IllegalArgumentException(level + " needs at least " + level.getMinDisks() + " disks: " + disks);
+        if (stripeSectors < 1)
+            throw new IllegalArgumentException("stripeSectors must be positive: " + stripeSectors);
+
+        long diskSectors = (long) timingModel.getCylinders() * timingModel.getSectorsPerTrack();
+        if (stripeSectors > diskSectors)
+            throw new IllegalArgumentException("stripeSectors exceeds the disk: " + stripeSectors);
+
+        this.level = level;
+        this.disks = disks;
+        this.stripeSectors = stripeSectors;
+        this.timingModel = timingModel;
+        this.pool = pool;
+
+        this.dataDisks = level == RaidLevel.RAID1 ? 1 : disks - level.getParityDisks();
+        this.rows = diskSectors / stripeSectors;
+        this.schedulers = new DiskScheduler[disks];
+        for (int disk = 0; disk < disks; disk++)
+            this.schedulers[disk] = new DiskScheduler(timingModel.getCylinders(), 0, 0);
+
+        this.completionTimes = new double[0];
+        this.busyTimes = new double[disks];
+    }
+
+    /**
+     * @return the number of logical sectors
+     */
+    public long getCapacity() {
+        return this.rows * this.dataDisks * this.stripeSectors;
+    }
+
+    /**
+     * @return the number of chunks of data in a row
+     */
+    public int getDataDisks() {
+        return this.dataDisks;
+    }
+
+    /**
+     * Serve a batch of logical requests
+     *
+     * @param sectors the first logical sector of every request
+     * @param lengths the number of sectors of every request
+     * @param writes whether every request is a write
+     * @param policy the policy every disk serves its queue with
+     */
+    public void run(long[] sectors, int[] lengths, boolean[] writes, DiskPolicy policy) {
+        if (lengths.length != sectors.length || writes.length != sectors.length)
+            throw new IllegalArgumentException("sectors, lengths and writes differ in length: " + sectors.length + ", "
+                    + lengths.length + ", " + writes.length);
+
+        Operations[] first = new Operations[this.disks];
+        Operations[] second = new Operations[this.disks];
+        for (int disk = 0; disk < this.disks; disk++) {
+            first[disk] = new Operations();
+            second[disk] = new Operations();
+        }
+
+        this.physicalReadCount = 0;
+        this.physicalWriteCount = 0;
+        this.writeOperationCount = 0;
+        this.logicalWriteCount = 0;
+        this.busyTimes = new double[this.disks];
+
+        // Split every request into operations on the disks
+        for (int i = 0; i < sectors.length; i++) {
+            if (sectors[i] < 0 || lengths[i] < 1 || sectors[i] + lengths[i] > getCapacity())
+                throw new IllegalArgumentException("request out of range: " + sectors[i] + "+" + lengths[i]);
+
+            long before = this.physicalReadCount + this.physicalWriteCount;
+            split(i, sectors[i], lengths[i], writes[i], first, second);
+            if (writes[i]) {
+                this.logicalWriteCount++;
+                this.writeOperationCount += this.physicalReadCount + this.physicalWriteCount - before;
+            }
+        }
+
+        // Every disk serves the first round, then the slowest one decides
+        // when the second round starts
+        this.completionTimes = new double[sectors.length];
+        double barrier = serve(first, policy, 0);
+        serve(second, policy, barrier);
+    }
+
+    /**
+     * @return how long every request of the last run took to complete, in
+     *         the order of the requests
+     */
+    public double[] getCompletionTimes() {
+        return this.completionTimes.clone();
+    }
+
+    /**
+     * @return the time the last run took
+     */
+    public double getTotalTime() {
+        return Arrays.stream(this.completionTimes).max().orElse(0);
+    }
+
+    /**
+     * @return the mean completion time of the last run
+     */
+    public double getMeanCompletionTime() {
+        return Arrays.stream(this.completionTimes).average().orElse(0);
+    }
+
+    /**
+     * @return how long every disk was busy in the last run
+     */
+    public double[] getBusyTimes() {
+        return this.busyTimes.clone();
+    }
+
+    public long getPhysicalReadCount() {
+        return this.physicalReadCount;
+    }
+
+    public long getPhysicalWriteCount() {
+        return this.physicalWriteCount;
+    }
+
+    /**
+     * @return the number of operations on the disks per logical write of
+     *         the last run (4 for a small RAID-5 write, for example), or 0
+     *         if there were no writes
+     */
+    public double getWritePenalty() {
+        return this.logicalWriteCount == 0 ? 0 : (double) this.writeOperationCount / this.logicalWriteCount;
+    }
+
+    // Run one round on all the disks in parallel, and join the completion
+    // times of the requests. Returns the time the slowest disk is done.
+    private double serve(Operations[] operations, DiskPolicy policy, double start) {
+        double[][] responseTimes = new double[this.disks][];
+        List<RecursiveAction> tasks = new ArrayList<>();
+
+        for (int disk = 0; disk < this.disks; disk++) {
+            if (operations[disk].size == 0)
+                continue;
+
+            int d = disk;
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    Operations ops = operations[d];
+                    DiskScheduler scheduler = RaidArray.this.schedulers[d];
+                    scheduler.setTimingModel(RaidArray.this.timingModel, Arrays.copyOf(ops.sectors, ops.size));
+                    policy.run(scheduler, Arrays.copyOf(ops.cylinders, ops.size));
+                    responseTimes[d] = scheduler.getResponseTimes();
+                }
+            });
+        }
+
+        if (!tasks.isEmpty())
+            this.pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+
+        // A request is done when its slowest operation is
+        double end = start;
+        for (int disk = 0; disk < this.disks; disk++) {
+            if (responseTimes[disk] == null)
+                continue;
+
+            Operations ops = operations[disk];
+            double busy = this.schedulers[disk].getTotalServiceTime();
+            for (int i = 0; i < ops.size; i++) {
+                int request = ops.requests[i];
+                this.completionTimes[request] = Math.max(this.completionTimes[request], start + responseTimes[disk][i]);
+            }
+
+            this.busyTimes[disk] += busy;
+            end = Math.max(end, start + busy);
+        }
+
+        return end;
+    }
+
+    // Cut a request into the chunks it touches, row by row
+    private void split(int request, long sector, int length, boolean write, Operations[] first, Operations[] second) {
+        long end = sector + length;
+
+        // The touched chunks of the current row: offset and length within
+        // the chunk, or -1 if untouched
+        int[] offsets = new int[this.dataDisks];
+        int[] counts = new int[this.dataDisks];
+        Arrays.fill(offsets, -1);
+        long row = -1;
+
+        for (long s = sector; s < end; ) {
+            long chunk = s / this.stripeSectors;
+            int offset = (int) (s % this.stripeSectors);
+            int count = (int) Math.min(this.stripeSectors - offset, end - s);
+            s += count;
+
+            if (this.level == RaidLevel.RAID0) {
+                int disk = (int) (chunk % this.disks);
+                add(first[disk], request, chunk / this.disks, offset, write);
+            } else if (this.level == RaidLevel.RAID1) {
+                if (write) {
+                    for (int disk = 0; disk < this.disks; disk++)
+                        add(first[disk], request, chunk, offset, true);
+                } else {
+                    add(first[(int) (chunk % this.disks)], request, chunk, offset, false);
+                }
+            } else {
+                // Parity layouts go row by row
+                if (chunk / this.dataDisks != row) {
+                    if (row >= 0)
+                        splitRow(request, row, offsets, counts, write, first, second);
+                    row = chunk / this.dataDisks;
+                    Arrays.fill(offsets, -1);
+                }
+
+                int j = (int) (chunk % this.dataDisks);
+                offsets[j] = offset;
+                counts[j] = count;
+            }
+        }
+
+        if (row >= 0)
+            splitRow(request, row, offsets, counts, write, first, second);
+    }
+
+    // The operations of a request on one row of a parity layout
+    private void splitRow(int request, long row, int[] offsets, int[] counts, boolean write, Operations[] first,
+            Operations[] second) {
+        int parityDisk = this.disks - 1 - (int) (row % this.disks);
+        int parities = this.level.getParityDisks();
+
+        int touched = 0;
+        int full = 0;
+        int lowest = this.stripeSectors;
+        for (int j = 0; j < this.dataDisks; j++) {
+            if (offsets[j] >= 0) {
+                touched++;
+                if (counts[j] == this.stripeSectors)
+                    full++;
+                lowest = Math.min(lowest, offsets[j]);
+            }
+        }
+
+        if (!write) {
+            for (int j = 0; j < this.dataDisks; j++)
+                if (offsets[j] >= 0)
+                    add(first[dataDisk(parityDisk, j)], request, row, offsets[j], false);
+            return;
+        }
+
+        // A whole row: write the data and the new parity
+        if (full == this.dataDisks) {
+            for (int disk = 0; disk < this.disks; disk++)
+                add(first[disk], request, row, 0, true);
+            return;
+        }
+
+        // Read the old data and parity, or the untouched data, whichever
+        // is less
+        boolean readModifyWrite = touched + parities <= this.dataDisks - touched;
+        for (int j = 0; j < this.dataDisks; j++) {
+            boolean isTouched = offsets[j] >= 0;
+            if (isTouched == readModifyWrite)
+                add(first[dataDisk(parityDisk, j)], request, row, isTouched ? offsets[j] : lowest, false);
+        }
+        for (int p = 0; p < parities; p++) {
+            int disk = (parityDisk + p) % this.disks;
+            if (readModifyWrite)
+                add(first[disk], request, row, lowest, false);
+            add(second[disk], request, row, lowest, true);
+        }
+
+        // Then write the new data
+        for (int j = 0; j < this.dataDisks; j++)
+            if (offsets[j] >= 0)
+                add(second[dataDisk(parityDisk, j)], request, row, offsets[j], true);
+    }
+
+    // The disk of data chunk j of a row, the chunks following the parity
+    private int dataDisk(int parityDisk, int j) {
+        return (parityDisk + this.level.getParityDisks() + j) % this.disks;
+    }
+
+    // An operation at an offset of a row of a disk
+    private void add(Operations operations, int request, long row, int offset, boolean write) {
+        long physical = row * this.stripeSectors + offset;
+        int sectorsPerTrack = this.timingModel.getSectorsPerTrack();
+
+        operations.add(request, (int) (physical / sectorsPerTrack), (int) (physical % sectorsPerTrack));
+        if (write)
+            this.physicalWriteCount++;
+        else
+            this.physicalReadCount++;
+    }
+
+    // The operations of one disk in one round
+    private static class Operations {
+
+        private int[] requests = new int[16];
+        private int[] cylinders = new int[16];
+        private int[] sectors = new int[16];
+        private int size = 0;
+
+        private void add(int request, int cylinder, int sector) {
+            if (this.size == this.requests.length) {
+                int length = this.size << 1;
+                this.requests = Arrays.copyOf(this.requests, length);
+                this.cylinders = Arrays.copyOf(this.cylinders, length);
+                this.sectors = Arrays.copyOf(this.sectors, length);
+            }
+
+            this.requests[this.size] = request;
+            this.cylinders[this.size] = cylinder;
+            this.sectors[this.size] = sector;
+            this.size++;
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * File:   RaidLevel.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The layouts of a disk array.
+ *
+ */
+
+package schedulerdisk;
+
+/**
+ * RAID level
+ */
+public enum RaidLevel {
+
+    /**
+     * Striping without redundancy
+     */
+    RAID0(1, 0),
+
+    /**
+     * Every disk holds a copy of everything
+     */
+    RAID1(1, 0),
+
+    /**
+     * Striping with one parity chunk per row, rotating over the disks
+     */
+    RAID5(2, 1),
+
+    /**
+     * Striping with two parity chunks (P and Q) per row, rotating over
+     * the disks
+     */
+    RAID6(3, 2);
+
+    private final int minDisks;
+    private final int parityDisks;
+
+    private RaidLevel(int minDisks, int parityDisks) {
+        this.minDisks = minDisks;
+        this.parityDisks = parityDisks;
+    }
+
+    /**
+     * @return the smallest number of disks of the layout
+     */
+    public int getMinDisks() {
+        return this.minDisks;
+    }
+
+    /**
+     * @return the number of parity chunks in a row
+     */
+    public int getParityDisks() {
+        return this.parityDisks;
+    }
+
+}
@@ -0,0 +1,423 @@
+/*
+ * File:   RequestMerger.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A merging stage in front of the disk schedulers which coalesces
+ * duplicate and adjacent requests, the way block layers do before the
+ * elevator sees them.
+ *
+ */
+
+package schedulerdisk;
+
+import java.util.Arrays;
+
+import schedulercommon.LongIntHashMap;
+
+/**
+ * Request merger
+ *
+ * A request is a range of sectors, starting at a sector of a cylinder
+ * (numbered cylinder * sectorsPerTrack + sector), so ranges may run over
+ * into the next cylinder. The merger holds a window of the most recent
+ * requests. A new request which starts where a request of the window ends
+ * is appended to it (a back merge), one which ends where a request of the
+ * window starts is prepended to it (a front merge), and one equal to a
+ * request of the window is dropped. Otherwise it joins the window, and the
+ * oldest request leaves it for the output once the window is full.
+ *
+ * The requests are fed in one streaming pass. Two hash indices, from the
+ * first and from the end sector of the requests of the window to their
+ * slots, find the merge candidates, and neither holds more entries than
+ * the window. Overlapping requests may share a first or an end sector, so
+ * an index leads to a chain of all the slots sharing it, newest first. A
+ * merged request does not grow beyond maxSectors, and a merge does not
+ * chain into a further merge.
+ */
+public class RequestMerger {
+
+    private final int sectorsPerTrack;
+    private final int window;
+    private final int maxSectors;
+
+    // The window, a ring of slots holding the first sector and the length
+    // of every request, the oldest at head
+    private final long[] starts;
+    private final int[] lengths;
+    private int head;
+    private int count;
+
+    // The newest slot of the requests starting and of those ending at a
+    // sector, and the chains from every slot to the previous and the next
+    // slot with the same first and the same end sector, -1 for none
+    private final LongIntHashMap byStart;
+    private final LongIntHashMap byEnd;
+    private final int[] previousByStart;
+    private final int[] nextByStart;
+    private final int[] previousByEnd;
+    private final int[] nextByEnd;
+
+    // The requests which left the window, in the order they left it
+    private int[] outputCylinders;
+    private int[] outputSectors;
+    private int[] outputLengths;
+    private int outputCount;
+
+    private long inputCount;
+    private long backMergeCount;
+    private long frontMergeCount;
+    private long duplicateCount;
+
+    /**
+     * @param sectorsPerTrack the number of sectors of a cylinder
+     * @param window the number of requests which may still take a merge
+     * @param maxSectors the largest number of sectors of a merged request
+     */
+    public RequestMerger(int sectorsPerTrack, int window, int maxSectors) {
+        if (sectorsPerTrack < 1)
+            throw new IllegalArgumentException("sectorsPerTrack must be positive: " + sectorsPerTrack);
+        if (window < 1)
+            throw new IllegalArgumentException("window must be positive: " + window);
+        if (maxSectors < 1)
+            throw new IllegalArgumentException("maxSectors must be positive: " + maxSectors);
+
+        this.sectorsPerTrack = sectorsPerTrack;
+        this.window = window;
+        this.maxSectors = maxSectors;
+
+        this.starts = new long[window];
+        this.lengths = new int[window];
+        this.head = 0;
+        this.count = 0;
+
+        this.byStart = new LongIntHashMap(window, -1);
+        this.byEnd = new LongIntHashMap(window, -1);
+        this.previousByStart = new int[window];
+        this.nextByStart = new int[window];
+        this.previousByEnd = new int[window];
+        this.nextByEnd = new int[window];
+
+        this.outputCylinders = new int[16];
+        this.outputSectors = new int[16];
+        this.outputLengths = new int[16];
+        this.outputCount = 0;
+
+        this.inputCount = 0;
+        this.backMergeCount = 0;
+        this.frontMergeCount = 0;
+        this.duplicateCount = 0;
+    }
+
+    /**
+     * Feed a request for a whole cylinder. Requests for the same cylinder
+     * are duplicates, and requests for neighbouring cylinders are adjacent.
+     *
+     * @param cylinder the requested cylinder
+     */
+    public void accept(int cylinder) {
+        accept(cylinder, 0, this.sectorsPerTrack);
+    }
+
+    /**
+     * Feed a request
+     *
+     * @param cylinder the cylinder of the first sector
+     * @param sector the first sector within the cylinder
+     * @param length the number of sectors
+     */
+    public void accept(int cylinder, int sector, int length) {
+        if (cylinder < 0)
+            throw new IllegalArgumentException("cylinder must not be negative: " + cylinder);
+        if (sector < 0 || sector >= this.sectorsPerTrack)
+            throw new IllegalArgumentException("sector out of range: " + sector);
+        if (length < 1)
+            throw new IllegalArgumentException("length must be positive: " + length);
+
+        long start = (long) cylinder * this.sectorsPerTrack + sector;
+        long end = start + length;
+        this.inputCount++;
+
+        // The same range is pending already
+        for (int slot = this.byStart.get(start); slot >= 0; slot = this.nextByStart[slot]) {
+            if (this.lengths[slot] == length) {
+                this.duplicateCount++;
+                return;
+            }
+        }
+
+        // Append to a request ending where this one starts
+        for (int slot = this.byEnd.get(start); slot >= 0; slot = this.nextByEnd[slot]) {
+            if (this.lengths[slot] + length <= this.maxSectors) {
+                unindex(slot);
+                this.lengths[slot] += length;
+                index(slot);
+                this.backMergeCount++;
+                return;
+            }
+        }
+
+        // Prepend to a request starting where this one ends
+        for (int slot = this.byStart.get(end); slot >= 0; slot = this.nextByStart[slot]) {
+            if (this.lengths[slot] + length <= this.maxSectors) {
+                unindex(slot);
+                this.starts[slot] = start;
+                this.lengths[slot] += length;
+                index(slot);
+                this.frontMergeCount++;
+                return;
+            }
+        }
+
+        // No merge, make room in the window
+        if (this.count == this.window)
+            emitOldest();
+
+        int slot = (this.head + this.count) % this.window;
+        this.starts[slot] = start;
+        this.lengths[slot] = length;
+        this.count++;
+        index(slot);
+    }
+
+    /**
+     * Feed a batch of requests for whole cylinders
+     *
+     * @param cylinders the requested cylinders
+     * @param off the index of the first request
+     * @param len the number of requests
+     */
+    public void accept(int[] cylinders, int off, int len) {
+        if (off < 0 || len < 0 || off + len > cylinders.length)
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + cylinders.length);
+
+        for (int i = off; i < off + len; i++)
+            accept(cylinders[i]);
+    }
+
+    /**
+     * Send every request of the window to the output
+     */
+    public void flush() {
+        while (this.count > 0)
+            emitOldest();
+    }
+
+    /**
+     * @return the cylinders of the first sectors of the requests in the
+     *         output
+     */
+    public int[] getCylinders() {
+        return Arrays.copyOf(this.outputCylinders, this.outputCount);
+    }
+
+    /**
+     * @return the cylinders of the last sectors of the requests in the
+     *         output, past the first ones for the requests which run over
+     *         into further cylinders
+     */
+    public int[] getEndCylinders() {
+        int[] ends = new int[this.outputCount];
+
+        for (int i = 0; i < this.outputCount; i++)
+            ends[i] = endCylinder(i);
+
+        return ends;
+    }
+
+    /**
+     * @return the cylinders the head has to visit to serve the requests in
+     *         the output, ready for DiskScheduler: the first cylinder of
+     *         every request, followed by its last one if it runs over
+     */
+    public int[] getVisitedCylinders() {
+        int[] visited = new int[this.outputCount << 1];
+        int count = 0;
+
+        for (int i = 0; i < this.outputCount; i++) {
+            visited[count++] = this.outputCylinders[i];
+            if (endCylinder(i) != this.outputCylinders[i])
+                visited[count++] = endCylinder(i);
+        }
+
+        return Arrays.copyOf(visited, count);
+    }
+
+    /**
+     * @return the first sectors (within their cylinders) of the requests
+     *         in the output
+     */
+    public int[] getSectors() {
+        return Arrays.copyOf(this.outputSectors, this.outputCount);
+    }
+
+    /**
+     * @return the lengths of the requests in the output, in sectors
+     */
+    public int[] getLengths() {
+        return Arrays.copyOf(this.outputLengths, this.outputCount);
+    }
+
+    public long getInputCount() {
+        return this.inputCount;
+    }
+
+    /**
+     * @return the number of requests which left the window
+     */
+    public int getOutputCount() {
+        return this.outputCount;
+    }
+
+    /**
+     * @return the number of requests still in the window
+     */
+    public int getPendingCount() {
+        return this.count;
+    }
+
+    public long getBackMergeCount() {
+        return this.backMergeCount;
+    }
+
+    public long getFrontMergeCount() {
+        return this.frontMergeCount;
+    }
+
+    public long getDuplicateCount() {
+        return this.duplicateCount;
+    }
+
+    /**
+     * @return the fraction of the requests fed which were merged into
+     *         another one (or dropped as duplicates)
+     */
+    public double getMergeRatio() {
+        return this.inputCount == 0 ? 0
+                : (double) (this.backMergeCount + this.frontMergeCount + this.duplicateCount) / this.inputCount;
+    }
+
+    /**
+     * Compare the policies on the requests before and after merging. The
+     * policies which need a timing model are skipped without one.
+     *
+     * A merged request may span several cylinders, and the head has to
+     * reach the last of them as well, so the requests after merging are
+     * scored on getVisitedCylinders() of the merger.
+     *
+     * @param cylinders the number of cylinders
+     * @param currentCylinder the cylinder under the head
+     * @param previousCylinder the cylinder the head came from
+     * @param requests the requested cylinders before merging
+     * @param merger the merger the requests were fed to, flushed
+     * @param timingModel the timing model, or null for none
+     * @return for every policy (in the order of DiskPolicy.values()), the
+     *         total moves before and after merging, which may not fit
+     *         into an int for a large batch, or -1 for both if the policy
+     *         was skipped
+     */
+    public static long[][] compareMoves(int cylinders, int currentCylinder, int previousCylinder, int[] requests,
+            RequestMerger merger, DiskTimingModel timingModel) {
+        int[] merged = merger.getVisitedCylinders();
+        DiskPolicy[] policies = DiskPolicy.values();
+        long[][] moves = new long[policies.length][];
+
+        for (int i = 0; i < policies.length; i++) {
+            if (policies[i].needsTimingModel() && timingModel == null) {
+                moves[i] = new long[] {-1, -1};
+                continue;
+            }
+
+            DiskScheduler before = new DiskScheduler(cylinders, currentCylinder, previousCylinder);
+            DiskScheduler after = new DiskScheduler(cylinders, currentCylinder, previousCylinder);
+            before.setTimingModel(timingModel, null);
+            after.setTimingModel(timingModel, null);
+            policies[i].run(before, requests);
+            policies[i].run(after, merged);
+
+            moves[i] = new long[] {before.getTotalMovesLong(), after.getTotalMovesLong()};
+        }
+
+        return moves;
+    }
+
+    // The cylinder of the last sector of request i of the output
+    private int endCylinder(int i) {
+        long last = (long) this.outputCylinders[i] * this.sectorsPerTrack + this.outputSectors[i]
+                    + this.outputLengths[i] - 1;
+
+        return (int) (last / this.sectorsPerTrack);
+    }
+
+    // Send the oldest request of the window to the output
+    private void emitOldest() {
+        int slot = this.head;
+        unindex(slot);
+
+        if (this.outputCount == this.outputCylinders.length) {
+            int length = this.outputCount << 1;
+            this.outputCylinders = Arrays.copyOf(this.outputCylinders, length);
+            this.outputSectors = Arrays.copyOf(this.outputSectors, length);
+            this.outputLengths = Arrays.copyOf(this.outputLengths, length);
+        }
+
+        this.outputCylinders[this.outputCount] = (int) (this.starts[slot] / this.sectorsPerTrack);
+        this.outputSectors[this.outputCount] = (int) (this.starts[slot] % this.sectorsPerTrack);
+        this.outputLengths[this.outputCount] = this.lengths[slot];
+        this.outputCount++;
+
+        this.head = (this.head + 1) % this.window;
+        this.count--;
+    }
+
+    // Put a slot at the front of the chains of its first and end sectors
+    private void index(int slot) {
+        long start = this.starts[slot];
+        long end = start + this.lengths[slot];
+
+        int next = this.byStart.put(start, slot);
+        this.previousByStart[slot] = -1;
+        this.nextByStart[slot] = next;
+        if (next >= 0)
+            this.previousByStart[next] = slot;
+
+        next = this.byEnd.put(end, slot);
+        this.previousByEnd[slot] = -1;
+        this.nextByEnd[slot] = next;
+        if (next >= 0)
+            this.previousByEnd[next] = slot;
+    }
+
+    // Take a slot out of its chains, handing the index over to the next
+    // slot of a chain when the slot was at its front
+    private void unindex(int slot) {
+        long start = this.starts[slot];
+        long end = start + this.lengths[slot];
+
+        int previous = this.previousByStart[slot];
+        int next = this.nextByStart[slot];
+        if (previous >= 0)
+            this.nextByStart[previous] = next;
+        else if (next >= 0)
+            this.byStart.put(start, next);
+        else
+            this.byStart.remove(start);
+        if (next >= 0)
+            this.previousByStart[next] = previous;
+
+        previous = this.previousByEnd[slot];
+        next = this.nextByEnd[slot];
+        if (previous >= 0)
+            this.nextByEnd[previous] = next;
+        else if (next >= 0)
+            this.byEnd.put(end, next);
+        else
+            this.byEnd.remove(end);
+        if (next >= 0)
+            this.previousByEnd[next] = previous;
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * File:   SeekEvent.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The Flight Recorder event of the disk head moving.
+ *
+ */
+
+package schedulerdisk;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Seek event
+ *
+ * Committed for a sample of the seeks (see Instrumentation), without a
+ * stack trace, which would cost more than the seek itself.
+ */
+@Name("schedulerdisk.Seek")
+@Label("Disk Seek")
+@Category({"OS Scheduling", "Disk"})
+@Description("A move of the disk head, sampled")
+@StackTrace(false)
+final class SeekEvent extends jdk.jfr.Event {
+
+    @Label("Policy")
+    String policy;
+
+    @Label("From")
+    @Description("The cylinder the head moved from")
+    int from;
+
+    @Label("To")
+    @Description("The cylinder the head moved to")
+    int to;
+
+    @Label("Distance")
+    @Description("The number of cylinders the head moved over")
+    int distance;
+
+}
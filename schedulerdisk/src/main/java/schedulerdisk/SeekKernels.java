@@ -0,0 +1,264 @@
+/*
+ * File:   SeekKernels.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The two reductions brute-force disk policies spend their time in: the
+ * distance the head travels over requests served in order, and the
+ * request nearest to the head.
+ *
+ */
+
+package schedulerdisk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Seek kernels
+ *
+ * The kernels run on the JDK Vector API (see VectorSeekKernels) when the
+ * JVM was started with --add-modules jdk.incubator.vector, unless
+ * -Dschedulerdisk.vector=false turns it off. Otherwise they fall back to
+ * scalar loops over four independent lanes, so that the loads, differences
+ * and absolute values of consecutive requests do not wait for each other.
+ * The choice is made once, when the class is loaded (see isVectorized()).
+ *
+ * Neither kernel branches on the data: the absolute value compiles to a
+ * conditional move, and the nearest request is a minimum over the distance
+ * and the index packed into one long (the distance in the high bits, so
+ * ties go to the lowest index). Batches of at least PARALLEL_THRESHOLD
+ * requests are split into one chunk per worker of the common ForkJoin
+ * pool, and the chunk results are combined on the calling thread.
+ */
+public final class SeekKernels {
+
+    public static final String VECTOR_PROPERTY = "schedulerdisk.vector";
+
+    // The smallest batch which is split into chunks run in parallel
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    // Whether the kernels run on the Vector API
+    static final boolean VECTORIZED = isVectorAvailable();
+
+    private SeekKernels() {
+    }
+
+    /**
+     * The number of moves of serving requests in order, which is what FCFS
+     * does.
+     *
+     * @param head the cylinder the head starts at
+     * @param requests the requested cylinders
+     * @param from the index of the first request
+     * @param to the index after the last request
+     * @return the sum of the distances between consecutive cylinders
+     */
+    public static long sumDistances(int head, int[] requests, int from, int to) {
+        return sumDistances(head, requests, from, to, chunks(to - from));
+    }
+
+    // The same, split into the given number of chunks
+    static long sumDistances(int head, int[] requests, int from, int to, int chunks) {
+        return sumDistances(head, requests, from, to, chunks, VECTORIZED);
+    }
+
+    // The same, on the Vector API or not
+    static long sumDistances(int head, int[] requests, int from, int to, int chunks, boolean vectorized) {
+        checkRange(requests, from, to);
+        if (chunks <= 1 || to - from < 2)
+            return sumDistancesChunk(head, requests, from, to, vectorized);
+
+        // Every chunk starts from the request before it
+        List<RecursiveTask<Long>> tasks = new ArrayList<>();
+        long n = to - from;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int start = from + (int) (n * chunk / chunks);
+            int end = from + (int) (n * (chunk + 1) / chunks);
+            int previous = start == from ? head : requests[start - 1];
+            tasks.add(new RecursiveTask<Long>() {
+                @Override
+                protected Long compute() {
+                    return sumDistancesChunk(previous, requests, start, end, vectorized);
+                }
+            });
+        }
+
+        long sum = 0;
+        for (RecursiveTask<Long> task : runAll(tasks))
+            sum += task.join();
+
+        return sum;
+    }
+
+    /**
+     * The request nearest to the head, which is what SSTF serves next.
+     *
+     * @param head the cylinder of the head
+     * @param requests the requested cylinders
+     * @param from the index of the first request
+     * @param to the index after the last request
+     * @return the index of the nearest request, the lowest one on a tie,
+     *         or -1 if there is none
+     */
+    public static int nearest(int head, int[] requests, int from, int to) {
+        return nearest(head, requests, from, to, chunks(to - from));
+    }
+
+    // The same, split into the given number of chunks
+    static int nearest(int head, int[] requests, int from, int to, int chunks) {
+        return nearest(head, requests, from, to, chunks, VECTORIZED);
+    }
+
+    // The same, on the Vector API or not
+    static int nearest(int head, int[] requests, int from, int to, int chunks, boolean vectorized) {
+        checkRange(requests, from, to);
+        if (from == to)
+            return -1;
+        if (chunks <= 1)
+            return (int) (nearestChunk(head, requests, from, to, vectorized) & Integer.MAX_VALUE);
+
+        List<RecursiveTask<Long>> tasks = new ArrayList<>();
+        long n = to - from;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int start = from + (int) (n * chunk / chunks);
+            int end = from + (int) (n * (chunk + 1) / chunks);
+            tasks.add(new RecursiveTask<Long>() {
+                @Override
+                protected Long compute() {
+                    return nearestChunk(head, requests, start, end, vectorized);
+                }
+            });
+        }
+
+        long best = Long.MAX_VALUE;
+        for (RecursiveTask<Long> task : runAll(tasks))
+            best = Math.min(best, task.join());
+
+        return (int) (best & Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param head the cylinder of the head
+     * @param requests the requested cylinders
+     * @param from the index of the first request
+     * @param to the index after the last request
+     * @return the distance from the head to the nearest request, or -1 if
+     *         there is none
+     */
+    public static long minDistance(int head, int[] requests, int from, int to) {
+        int index = nearest(head, requests, from, to);
+
+        return index < 0 ? -1 : Math.abs((long) requests[index] - head);
+    }
+
+    /**
+     * @return whether the kernels run on the Vector API, rather than on
+     *         the scalar fallback
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    // VectorSeekKernels is only loaded once the branch is taken, so the
+    // scalar fallback works without the incubator module
+    private static long sumDistancesChunk(int head, int[] requests, int from, int to, boolean vectorized) {
+        return vectorized ? VectorSeekKernels.sumDistances(head, requests, from, to)
+                : sumDistancesScalar(head, requests, from, to);
+    }
+
+    private static long nearestChunk(int head, int[] requests, int from, int to, boolean vectorized) {
+        return vectorized ? VectorSeekKernels.nearest(head, requests, from, to)
+                : nearestScalar(head, requests, from, to);
+    }
+
+    private static long sumDistancesScalar(int head, int[] requests, int from, int to) {
+        if (from == to)
+            return 0;
+
+        long sum0 = Math.abs((long) requests[from] - head);
+        long sum1 = 0;
+        long sum2 = 0;
+        long sum3 = 0;
+
+        // Four lanes over the differences i-1..i, i..i+1, i+1..i+2 and
+        // i+2..i+3
+        int i = from + 1;
+        for (; i + 3 < to; i += 4) {
+            sum0 += Math.abs((long) requests[i] - requests[i - 1]);
+            sum1 += Math.abs((long) requests[i + 1] - requests[i]);
+            sum2 += Math.abs((long) requests[i + 2] - requests[i + 1]);
+            sum3 += Math.abs((long) requests[i + 3] - requests[i + 2]);
+        }
+        for (; i < to; i++)
+            sum0 += Math.abs((long) requests[i] - requests[i - 1]);
+
+        return sum0 + sum1 + sum2 + sum3;
+    }
+
+    // The distance of the nearest request in the high bits and its index
+    // in the low 31 bits
+    private static long nearestScalar(int head, int[] requests, int from, int to) {
+        long best0 = Long.MAX_VALUE;
+        long best1 = Long.MAX_VALUE;
+        long best2 = Long.MAX_VALUE;
+        long best3 = Long.MAX_VALUE;
+
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            best0 = Math.min(best0, Math.abs((long) requests[i] - head) << 31 | i);
+            best1 = Math.min(best1, Math.abs((long) requests[i + 1] - head) << 31 | (i + 1));
+            best2 = Math.min(best2, Math.abs((long) requests[i + 2] - head) << 31 | (i + 2));
+            best3 = Math.min(best3, Math.abs((long) requests[i + 3] - head) << 31 | (i + 3));
+        }
+        for (; i < to; i++)
+            best0 = Math.min(best0, Math.abs((long) requests[i] - head) << 31 | i);
+
+        return Math.min(Math.min(best0, best1), Math.min(best2, best3));
+    }
+
+    // The incubator module is only there when the JVM was started with it
+    private static boolean isVectorAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true")))
+            return false;
+        if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent())
+            return false;
+
+        try {
+            return VectorSeekKernels.isSupported();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    private static void checkRange(int[] requests, int from, int to) {
+        if (from < 0 || to > requests.length || from > to)
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + requests.length);
+    }
+
+    // One chunk per worker, as long as every chunk is large enough
+    private static int chunks(int n) {
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+
+        return Math.max(1, Math.min(parallelism, n / PARALLEL_THRESHOLD));
+    }
+
+    // Run the tasks in the common pool and return them once all are done
+    private static List<RecursiveTask<Long>> runAll(List<RecursiveTask<Long>> tasks) {
+        ForkJoinPool.commonPool().invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                invokeAll(tasks);
+                return null;
+            }
+        });
+
+        return tasks;
+    }
+
+}
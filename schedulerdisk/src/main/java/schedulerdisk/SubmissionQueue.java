@@ -0,0 +1,160 @@
+/*
+ * File:   SubmissionQueue.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A bounded lock-free queue of I/O requests, the per-CPU software queue
+ * of the multi-queue block layer model.
+ *
+ */
+
+package schedulerdisk;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Submission queue
+ *
+ * Dmitry Vyukov's bounded multi-producer queue: every cell carries a
+ * sequence number which says whether it is free for the producer of a
+ * given position or holds the request of the consumer of that position.
+ * Producers claim a position with one compare-and-set on the tail and then
+ * publish the cell by setting its sequence, so no producer ever waits for
+ * a lock. A request is an arrival time, a sector and a read/write flag,
+ * all written before the sequence is published and read after it is seen.
+ *
+ * Any number of threads may offer. There must be one consumer at a time
+ * (the simulator), which is what makes peeking safe.
+ */
+public class SubmissionQueue {
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final double[] times;
+    private final long[] sectors;
+    private final boolean[] writes;
+
+    private final AtomicLong tail;
+    private long head;
+
+    /**
+     * @param capacity the number of requests it holds, rounded up to a
+     *                 power of two
+     */
+    public SubmissionQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.times = new double[size];
+        this.sectors = new long[size];
+        this.writes = new boolean[size];
+
+        // Cell i is free for the producer of position i
+        for (int i = 0; i < size; i++)
+            this.sequences.set(i, i);
+
+        this.tail = new AtomicLong();
+        this.head = 0;
+    }
+
+    /**
+     * Add a request, from any thread
+     *
+     * @param time the arrival time
+     * @param sector the first sector
+     * @param write whether the request is a write
+     * @return false if the queue is full
+     */
+    public boolean offer(double time, long sector, boolean write) {
+        long position = this.tail.get();
+
+        while (true) {
+            int cell = (int) position & this.mask;
+            long difference = this.sequences.get(cell) - position;
+
+            if (difference == 0) {
+                // The cell is free for this position, try to claim it
+                if (this.tail.compareAndSet(position, position + 1))
+                    break;
+                position = this.tail.get();
+            } else if (difference < 0) {
+                // The consumer has not freed the cell yet, so it is full
+                return false;
+            } else {
+                // Another producer took the position
+                position = this.tail.get();
+            }
+        }
+
+        int cell = (int) position & this.mask;
+        this.times[cell] = time;
+        this.sectors[cell] = sector;
+        this.writes[cell] = write;
+        this.sequences.lazySet(cell, position + 1);
+
+        return true;
+    }
+
+    /**
+     * @return whether a request is ready to be taken (consumer only)
+     */
+    public boolean isReady() {
+        return this.sequences.get((int) this.head & this.mask) == this.head + 1;
+    }
+
+    /**
+     * @return the arrival time of the next request (consumer only, when
+     *         it is ready)
+     */
+    public double peekTime() {
+        return this.times[(int) this.head & this.mask];
+    }
+
+    /**
+     * @return the sector of the next request (consumer only, when it is
+     *         ready)
+     */
+    public long peekSector() {
+        return this.sectors[(int) this.head & this.mask];
+    }
+
+    /**
+     * @return whether the next request is a write (consumer only, when it
+     *         is ready)
+     */
+    public boolean peekWrite() {
+        return this.writes[(int) this.head & this.mask];
+    }
+
+    /**
+     * Drop the next request, after peeking at it (consumer only)
+     */
+    public void remove() {
+        if (!isReady())
+            throw new IllegalStateException("no request is ready");
+
+        // Free the cell for the producer one lap ahead
+        int cell = (int) this.head & this.mask;
+        this.sequences.lazySet(cell, this.head + this.mask + 1);
+        this.head++;
+    }
+
+    /**
+     * @return the number of requests, exact only when nobody is offering
+     */
+    public int size() {
+        return (int) Math.max(0, this.tail.get() - this.head);
+    }
+
+    public int getCapacity() {
+        return this.mask + 1;
+    }
+
+}
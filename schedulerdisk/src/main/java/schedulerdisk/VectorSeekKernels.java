@@ -0,0 +1,105 @@
+/*
+ * File:   VectorSeekKernels.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The seek kernels of SeekKernels on the incubating JDK Vector API.
+ *
+ */
+
+package schedulerdisk;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector seek kernels
+ *
+ * The requests are loaded as ints and widened to longs, as many at a time
+ * as the preferred long vector of the machine holds (four with AVX2, eight
+ * with AVX-512), so that the differences are exact for any cylinders. The
+ * requests which do not fill a vector are handled by a scalar tail.
+ *
+ * Only SeekKernels touches this class, and only once it has made sure
+ * that the jdk.incubator.vector module is there, since loading the class
+ * fails without it.
+ */
+final class VectorSeekKernels {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    // The ints which widen to exactly one long vector
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+
+    private VectorSeekKernels() {
+    }
+
+    /**
+     * @return whether the machine has long vectors of more than one lane,
+     *         without which the scalar kernels are faster
+     */
+    static boolean isSupported() {
+        return LONGS.length() > 1;
+    }
+
+    /**
+     * @see SeekKernels#sumDistances(int, int[], int, int)
+     */
+    static long sumDistances(int head, int[] requests, int from, int to) {
+        if (from == to)
+            return 0;
+
+        long sum = Math.abs((long) requests[from] - head);
+        LongVector sums = LongVector.zero(LONGS);
+
+        // The differences i-1..i up to i+length-2..i+length-1 at once
+        int i = from + 1;
+        for (int bound = i + INTS.loopBound(to - i); i < bound; i += INTS.length()) {
+            LongVector current = widen(requests, i);
+            LongVector previous = widen(requests, i - 1);
+            sums = sums.add(current.sub(previous).abs());
+        }
+        sum += sums.reduceLanes(VectorOperators.ADD);
+
+        for (; i < to; i++)
+            sum += Math.abs((long) requests[i] - requests[i - 1]);
+
+        return sum;
+    }
+
+    /**
+     * @return the distance of the nearest request in the high bits and its
+     *         index in the low 31 bits, or Long.MAX_VALUE if there is none
+     * @see SeekKernels#nearest(int, int[], int, int)
+     */
+    static long nearest(int head, int[] requests, int from, int to) {
+        LongVector heads = LongVector.broadcast(LONGS, head);
+        LongVector lanes = LongVector.zero(LONGS).addIndex(1);
+        LongVector best = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+
+        int i = from;
+        for (int bound = i + INTS.loopBound(to - i); i < bound; i += INTS.length()) {
+            LongVector distances = widen(requests, i).sub(heads).abs();
+            best = best.min(distances.lanewise(VectorOperators.LSHL, 31).or(lanes.add(i)));
+        }
+        long result = best.reduceLanes(VectorOperators.MIN);
+
+        for (; i < to; i++)
+            result = Math.min(result, Math.abs((long) requests[i] - head) << 31 | i);
+
+        return result;
+    }
+
+    // The requests from index i on, as longs
+    private static LongVector widen(int[] requests, int i) {
+        return (LongVector) IntVector.fromArray(INTS, requests, i).convertShape(VectorOperators.I2L, LONGS, 0);
+    }
+
+}
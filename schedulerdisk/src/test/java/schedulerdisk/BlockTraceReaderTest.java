@@ -0,0 +1,243 @@
+package schedulerdisk;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+public class BlockTraceReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path path;
+
+    public BlockTraceReaderTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        path = folder.newFile("trace.txt").toPath();
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    private void write(String text) throws IOException {
+        Files.write(path, text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Test of reading blkparse output.
+     */
+    @Test
+    public void testBlktrace() throws IOException {
+        System.out.println("blktrace");
+        write("  8,0    3        1     0.000000000   697  Q   W 223490 + 8 [kjournald]\n"
+              + "  8,0    3        2     0.000002000   697  G   W 223490 + 8 [kjournald]\n"
+              + "  8,0    3        3     0.000500000   697  D   W 223490 + 8 [kjournald]\n"
+              + "  8,0    1        4     0.001250000  1021  Q  RA 1000 + 256 [cat]\n"
+              + "  8,0    1        5     0.002000000  1021  Q  FN [sync]\n"
+              + "  8,0    0        6     1.5   0  Q   R 77 + 1 [swapper]\r\n"
+              + "CPU0 (8,0):\n"
+              + " Reads Queued:           1,        4KiB\n"
+              + "  8,0    0        7     2.000000000   0  Q   WS 12 + 24 [x]");
+
+        double[] times = new double[10];
+        long[] sectors = new long[10];
+        int[] lengths = new int[10];
+        boolean[] writes = new boolean[10];
+
+        try (BlockTraceReader reader = new BlockTraceReader(path, BlockTraceReader.Format.BLKTRACE, 128)) {
+            assertEquals(4, reader.read(times, sectors, lengths, writes));
+            assertArrayEquals(new double[] {0, 1.25, 1500, 2000}, Arrays.copyOf(times, 4), 1e-9);
+            assertArrayEquals(new long[] {223490, 1000, 77, 12}, Arrays.copyOf(sectors, 4));
+            assertArrayEquals(new int[] {8, 256, 1, 24}, Arrays.copyOf(lengths, 4));
+            assertTrue(writes[0]);
+            assertFalse(writes[1]);
+            assertFalse(writes[2]);
+            assertTrue(writes[3]);
+            assertEquals(-1, reader.read(times, sectors, lengths, writes));
+            assertEquals(9, reader.getLineCount());
+            assertEquals(5, reader.getSkippedCount());
+        }
+
+        // The issued requests instead
+        try (BlockTraceReader reader = new BlockTraceReader(path, BlockTraceReader.Format.BLKTRACE)) {
+            reader.setAction("D");
+            assertEquals(1, reader.read(times, sectors, lengths, writes));
+            assertEquals(0.5, times[0], 1e-9);
+        }
+    }
+
+    /**
+     * Test of reading SPC traces.
+     */
+    @Test
+    public void testSpc() throws IOException {
+        System.out.println("SPC");
+        write("ASU,LBA,Size,Opcode,Timestamp\n"
+              + "0,20941264,8192,W,0.551706\n"
+              + "1, 3436288, 15872, r, 0.554041\n"
+              + "0,20939840,8192,X,0.556\n"
+              + "\n"
+              + "2,100,0,R,1,extra\n");
+
+        double[] times = new double[2];
+        long[] sectors = new long[2];
+        int[] lengths = new int[2];
+        boolean[] writes = new boolean[2];
+
+        try (BlockTraceReader reader = new BlockTraceReader(path, BlockTraceReader.Format.SPC, 64)) {
+            assertEquals(2, reader.read(times, sectors, lengths, writes));
+            assertEquals(551.706, times[0], 1e-9);
+            assertEquals(20941264, sectors[0]);
+            assertEquals(16, lengths[0]);
+            assertTrue(writes[0]);
+            assertEquals(3436288, sectors[1]);
+            assertEquals(31, lengths[1]);
+            assertFalse(writes[1]);
+
+            assertEquals(1, reader.read(times, sectors, lengths, writes));
+            assertEquals(1000, times[0], 1e-9);
+            assertEquals(1, lengths[0]);
+            assertEquals(-1, reader.read(times, sectors, lengths, writes));
+            assertEquals(3, reader.getSkippedCount());
+        }
+    }
+
+    /**
+     * Test of a long trace read through a small window.
+     */
+    @Test
+    public void testLongTrace() throws IOException {
+        System.out.println("long trace");
+        Random random = new Random(2019);
+        int n = 100000;
+        long sum = 0;
+
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            for (int i = 0; i < n; i++) {
+                long sector = random.nextInt(1 << 30);
+                sum += sector;
+                writer.write(String.format("%d,%d,%d,%s,%.6f%n", i % 3, sector, 4096, i % 2 == 0 ? "R" : "W",
+                                           i / 1000.0));
+            }
+        }
+
+        double[] times = new double[777];
+        long[] sectors = new long[777];
+        int[] lengths = new int[777];
+        boolean[] writes = new boolean[777];
+        long count = 0;
+        long readSum = 0;
+        int writeCount = 0;
+        double last = -1;
+
+        try (BlockTraceReader reader = new BlockTraceReader(path, BlockTraceReader.Format.SPC, 4096)) {
+            for (int k = reader.read(times, sectors, lengths, writes); k >= 0;
+                    k = reader.read(times, sectors, lengths, writes)) {
+                for (int i = 0; i < k; i++) {
+                    readSum += sectors[i];
+                    writeCount += writes[i] ? 1 : 0;
+                    assertEquals(8, lengths[i]);
+                    assertTrue(times[i] > last);
+                    last = times[i];
+                }
+                count += k;
+            }
+        }
+
+        assertEquals(n, count);
+        assertEquals(sum, readSum);
+        assertEquals(n / 2, writeCount);
+    }
+
+    /**
+     * Test of replaying a trace through the schedulers.
+     */
+    @Test
+    public void testReplay() throws IOException {
+        System.out.println("replay");
+        DiskTimingModel geometry = new DiskTimingModel(200, 100, 7200, 1, 10, 8);
+        Random random = new Random(2019);
+        StringBuilder text = new StringBuilder();
+        int[] cylinders = new int[1000];
+        for (int i = 0; i < 1000; i++) {
+            long sector = random.nextInt(200 * 100 * 3);
+            cylinders[i] = (int) (sector / 100 % 200);
+            text.append(String.format("0,%d,4096,R,%.3f%n", sector, i * 0.005));
+        }
+        write(text.toString());
+
+        // Batches of 100 requests, the head moving on from one to the next
+        DiskScheduler expected = new DiskScheduler(200, 53, 52);
+        for (int i = 0; i < 1000; i += 100)
+            expected.useCLOOK(Arrays.copyOfRange(cylinders, i, i + 100));
+
+        DiskScheduler instance = new DiskScheduler(200, 53, 52);
+        try (BlockTraceReader reader = new BlockTraceReader(path, BlockTraceReader.Format.SPC)) {
+            assertEquals(1000, reader.replay(instance, DiskPolicy.CLOOK, geometry, 100));
+        }
+        assertEquals(expected.getTotalMoves(), instance.getTotalMoves());
+        assertTrue(instance.getTotalServiceTime() > 0);
+
+        // One request every 5 ms
+        OnlineDiskSimulator simulator = new OnlineDiskSimulator(geometry, DispatchPolicy.sstf(), 0);
+        try (BlockTraceReader reader = new BlockTraceReader(path, BlockTraceReader.Format.SPC)) {
+            assertEquals(1000, reader.replay(simulator, geometry));
+        }
+        simulator.flush();
+        assertEquals(1000, simulator.getCompletedCount());
+        assertTrue(simulator.getTime() >= 999 * 5);
+    }
+
+    /**
+     * Test of the mapping of sectors to cylinders.
+     */
+    @Test
+    public void testGeometry() {
+        System.out.println("geometry");
+        DiskTimingModel geometry = new DiskTimingModel(200, 100, 7200, 1, 10, 8);
+        assertEquals(0, BlockTraceReader.getCylinder(99, geometry));
+        assertEquals(1, BlockTraceReader.getCylinder(100, geometry));
+        assertEquals(199, BlockTraceReader.getCylinder(19999, geometry));
+        assertEquals(0, BlockTraceReader.getCylinder(20000, geometry));
+        assertEquals(42, BlockTraceReader.getTrackSector(1042, geometry));
+    }
+
+    @Test(expected = IOException.class)
+    public void testLineTooLong() throws IOException {
+        System.out.println("line too long");
+        StringBuilder text = new StringBuilder("0,1,2,R,");
+        for (int i = 0; i < 100; i++)
+            text.append('0');
+        write(text + "\n0,1,512,R,0\n");
+
+        try (BlockTraceReader reader = new BlockTraceReader(path, BlockTraceReader.Format.SPC, 64)) {
+            reader.read(new double[4], new long[4], new int[4], new boolean[4]);
+        }
+    }
+
+}
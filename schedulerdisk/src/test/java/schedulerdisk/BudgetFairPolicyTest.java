@@ -0,0 +1,188 @@
+package schedulerdisk;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BudgetFairPolicyTest {
+
+    private DiskTimingModel model;
+
+    public BudgetFairPolicyTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        // Every request takes 1.5 ms, wherever it goes
+        model = new DiskTimingModel(200, 1, 60000, 1, 1, 0);
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    // Two owners with 400 requests each, all there from the start (owner 0
+    // sending first), and the disk run for 300 ms
+    private OnlineDiskSimulator runTwoOwners(DispatchPolicy policy) {
+        OnlineDiskSimulator instance = new OnlineDiskSimulator(model, policy, 0);
+
+        for (int owner = 0; owner < 2; owner++)
+            for (int i = 0; i < 400; i++)
+                instance.accept(0, (i * 37 + owner * 11) % 200, -1, false, owner);
+        instance.advanceTo(300);
+
+        return instance;
+    }
+
+    /**
+     * Test of the shares of the owners.
+     */
+    @Test
+    public void testShares() {
+        System.out.println("shares");
+
+        // FCFS serves nothing of owner 1 while owner 0 is still at it
+        OnlineDiskSimulator fcfs = runTwoOwners(DispatchPolicy.fcfs());
+        assertTrue(fcfs.getCompletedCount() >= 200);
+        assertEquals(0, fcfs.getOwnerCompletedCount(1));
+        assertEquals(0.5, fcfs.getFairnessIndex(), 1e-9);
+
+        // Equal weights, equal shares (to within a budget). Requests to
+        // the cylinder under the head need no seek, so more than 200 are
+        // served.
+        OnlineDiskSimulator equal = runTwoOwners(new BudgetFairPolicy(200));
+        long completed = equal.getCompletedCount();
+        assertTrue(completed >= 200);
+        assertEquals(completed / 2.0, equal.getOwnerCompletedCount(0), 16);
+        assertEquals(completed / 2.0, equal.getOwnerCompletedCount(1), 16);
+        assertTrue(equal.getFairnessIndex() > 0.97);
+
+        // Twice the weight, twice the share
+        BudgetFairPolicy policy = new BudgetFairPolicy(200);
+        policy.setWeight(1, 2);
+        OnlineDiskSimulator weighted = runTwoOwners(policy);
+        completed = weighted.getCompletedCount();
+        assertEquals(completed / 3.0, weighted.getOwnerCompletedCount(0), 16);
+        assertEquals(2 * completed / 3.0, weighted.getOwnerCompletedCount(1), 16);
+
+        // The requests of a turn are still served in C-LOOK order
+        assertTrue(equal.getTotalMoves() < fcfs.getTotalMoves() / 2);
+
+        // And everything gets done in the end
+        equal.flush();
+        assertEquals(800, equal.getCompletedCount());
+        assertEquals(1, equal.getFairnessIndex(), 1e-9);
+    }
+
+    /**
+     * Test of a light owner next to one flooding the disk.
+     */
+    @Test
+    public void testLightOwner() {
+        System.out.println("light owner");
+        double[] maxResponseTimes = new double[2];
+        int k = 0;
+
+        for (DispatchPolicy policy : new DispatchPolicy[] {DispatchPolicy.fcfs(), new BudgetFairPolicy(200)}) {
+            OnlineDiskSimulator instance = new OnlineDiskSimulator(model, policy, 0);
+
+            // Owner 0 sends two requests every millisecond, owner 1 one
+            // every 20
+            for (int i = 0; i < 500; i++) {
+                instance.accept(i, (i * 37) % 200, -1, false, 0);
+                instance.accept(i + 0.5, (i * 53) % 200, -1, false, 0);
+                if (i % 20 == 0)
+                    instance.accept(i + 0.5, (i * 7) % 200, -1, false, 1);
+            }
+            instance.flush();
+
+            assertEquals(1025, instance.getCompletedCount());
+            assertEquals(25, instance.getOwnerCompletedCount(1));
+            maxResponseTimes[k++] = instance.getOwnerMaxResponseTime(1);
+        }
+
+        // Owner 1 waits behind the whole backlog with FCFS, and for at most
+        // a turn of owner 0 otherwise
+        assertTrue(maxResponseTimes[0] > 300);
+        assertTrue(maxResponseTimes[1] < 16 * 1.5 + 3);
+    }
+
+    /**
+     * Test of a single owner, which is served in C-LOOK order.
+     */
+    @Test
+    public void testSingleOwner() {
+        System.out.println("single owner");
+        OnlineDiskSimulator clook = new OnlineDiskSimulator(model, DispatchPolicy.clook(), 100);
+        OnlineDiskSimulator budget = new OnlineDiskSimulator(model, new BudgetFairPolicy(200, 3), 100);
+
+        for (int i = 0; i < 300; i++) {
+            clook.accept(i * 0.4, (i * 37) % 200, -1, false, 0);
+            budget.accept(i * 0.4, (i * 37) % 200, -1, false, 0);
+        }
+        clook.flush();
+        budget.flush();
+
+        assertEquals(300, budget.getCompletedCount());
+        assertEquals(clook.getTotalMoves(), budget.getTotalMoves());
+    }
+
+    /**
+     * Test of many owners on a huge disk, whose queues only take room
+     * for their own requests.
+     */
+    @Test(timeout=10000)
+    public void testManyOwners() {
+        System.out.println("many owners");
+        DiskTimingModel huge = new DiskTimingModel(1 << 22, 1, 60000, 1, 1, 0);
+        OnlineDiskSimulator instance = new OnlineDiskSimulator(huge, new BudgetFairPolicy(1 << 22), 0);
+
+        for (int owner = 0; owner < 20000; owner++)
+            instance.accept(owner * 0.01, (owner * 7919) % (1 << 22), -1, false, owner);
+        instance.flush();
+
+        assertEquals(20000, instance.getCompletedCount());
+        assertEquals(1, instance.getOwnerCompletedCount(19999));
+    }
+
+    /**
+     * Test of an owner with a deep backlog, which its queue adds to and
+     * takes from in logarithmic time.
+     */
+    @Test(timeout=10000)
+    public void testDeepBacklog() {
+        System.out.println("deep backlog");
+        DiskTimingModel huge = new DiskTimingModel(1 << 22, 1, 60000, 1, 1, 0);
+        OnlineDiskSimulator clook = new OnlineDiskSimulator(huge, DispatchPolicy.clook(), 0);
+        OnlineDiskSimulator budget = new OnlineDiskSimulator(huge, new BudgetFairPolicy(1 << 22), 0);
+
+        for (int i = 0; i < 300000; i++) {
+            int cylinder = (int) ((i * 7919L) % (1 << 22));
+            clook.accept(0, cylinder, -1, false, 0);
+            budget.accept(0, cylinder, -1, false, 0);
+        }
+        clook.flush();
+        budget.flush();
+
+        assertEquals(300000, budget.getCompletedCount());
+        assertEquals(clook.getTotalMoves(), budget.getTotalMoves());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadWeight() {
+        System.out.println("bad weight");
+        new BudgetFairPolicy(200).setWeight(0, 0);
+    }
+
+}
@@ -0,0 +1,194 @@
+package schedulerdisk;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CylinderBucketIndexTest {
+
+    public CylinderBucketIndexTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of ceiling, floor and count methods, of class CylinderBucketIndex.
+     */
+    @Test
+    public void testNearest() {
+        System.out.println("ceiling and floor");
+        CylinderBucketIndex instance = new CylinderBucketIndex(200);
+        instance.add(98);
+        instance.add(37);
+        instance.add(98);
+
+        assertEquals(37, instance.ceiling(-5));
+        assertEquals(37, instance.ceiling(37));
+        assertEquals(98, instance.ceiling(38));
+        assertEquals(-1, instance.ceiling(99));
+        assertEquals(-1, instance.floor(36));
+        assertEquals(37, instance.floor(97));
+        assertEquals(98, instance.floor(500));
+        assertEquals(2, instance.count(98));
+        assertEquals(3, instance.size());
+
+        // The cylinder stays until its last request goes
+        instance.remove(98);
+        assertEquals(98, instance.ceiling(38));
+        instance.remove(98);
+        assertEquals(-1, instance.ceiling(38));
+        assertEquals(37, instance.floor(199));
+        assertEquals(1, instance.size());
+    }
+
+    /**
+     * Test of add and remove methods, of class CylinderBucketIndex, against
+     * a TreeMap, over enough cylinders for three levels of bitmaps.
+     */
+    @Test
+    public void testAgainstTreeMap() {
+        System.out.println("add and remove");
+        int cylinders = 300000;
+        CylinderBucketIndex instance = new CylinderBucketIndex(cylinders);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(44);
+
+        for (int step = 0; step < 20000; step++) {
+            // Cluster the requests so that whole words empty out
+            int cylinder = random.nextBoolean() ? random.nextInt(cylinders) : 150000 + random.nextInt(300);
+            if (expected.containsKey(cylinder) && random.nextBoolean()) {
+                instance.remove(cylinder);
+                expected.merge(cylinder, -1, Integer::sum);
+                expected.remove(cylinder, 0);
+            } else {
+                instance.add(cylinder);
+                expected.merge(cylinder, 1, Integer::sum);
+            }
+
+            int probe = random.nextInt(cylinders + 100) - 50;
+            Integer ceiling = expected.ceilingKey(probe);
+            Integer floor = expected.floorKey(probe);
+            assertEquals(ceiling == null ? -1 : ceiling, instance.ceiling(probe));
+            assertEquals(floor == null ? -1 : floor, instance.floor(probe));
+        }
+
+        int size = expected.values().stream().mapToInt(Integer::intValue).sum();
+        assertEquals(size, instance.size());
+    }
+
+    /**
+     * Test of remove method, of class CylinderBucketIndex, for a cylinder
+     * without requests.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemoveMissing() {
+        System.out.println("remove");
+        CylinderBucketIndex instance = new CylinderBucketIndex(10);
+        instance.add(3);
+        instance.remove(4);
+    }
+
+    /**
+     * Test of addAll method, of class CylinderBucketIndex.
+     */
+    @Test
+    public void testAddAll() {
+        System.out.println("addAll");
+        int[] requests = {98, 183, 37, 122, 14, 124, 65, 67, 98};
+        CylinderBucketIndex instance = new CylinderBucketIndex(200);
+        instance.add(5);
+        instance.addAll(requests, 1, requests.length);
+
+        assertEquals(9, instance.size());
+        assertEquals(1, instance.count(98));
+        assertEquals(5, instance.ceiling(0));
+        assertEquals(183, instance.floor(199));
+        assertEquals(124, instance.ceiling(123));
+        assertEquals(67, instance.floor(97));
+        assertEquals(-1, instance.ceiling(184));
+
+        instance.clear();
+        assertTrue(instance.isEmpty());
+        assertEquals(-1, instance.ceiling(0));
+    }
+
+    /**
+     * Test of sortByCylinder method, of class CylinderBucketIndex, which
+     * must agree with sorting the packed requests, in one chunk or several.
+     */
+    @Test
+    public void testSortByCylinder() {
+        System.out.println("sortByCylinder");
+        Random random = new Random(7);
+        int[] requests = new int[50000];
+        for (int i = 0; i < requests.length; i++)
+            requests[i] = 1000 + random.nextInt(5000);
+
+        int from = 17;
+        int to = 49000;
+        long[] expected = new long[to - from];
+        for (int i = from; i < to; i++)
+            expected[i - from] = ((long) requests[i] << 32) | i;
+        Arrays.sort(expected);
+
+        assertArrayEquals(expected, CylinderBucketIndex.sortByCylinder(requests, from, to, 1000, 5999));
+        assertArrayEquals(expected, CylinderBucketIndex.sortByCylinder(requests, from, to, 1000, 5999, 4));
+        assertArrayEquals(expected, CylinderBucketIndex.sortByCylinder(requests, from, to, 0, 7000, 3));
+    }
+
+    /**
+     * Test of chunks method, of class CylinderBucketIndex, which keeps the
+     * histograms of the chunks within a few counts per request.
+     */
+    @Test
+    public void testChunks() {
+        System.out.println("chunks");
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+
+        assertEquals(1, CylinderBucketIndex.chunks(1000, 200));
+        assertEquals(Math.max(1, Math.min(parallelism, 64)), CylinderBucketIndex.chunks(1 << 22, 5000));
+
+        // A range of 8n, which isWorthCounting allows, is counted in one pass
+        assertEquals(1, CylinderBucketIndex.chunks(2000000, 16000000));
+
+        for (long range : new long[] {5000, 1 << 20, 1 << 22, 1 << 24}) {
+            int chunks = CylinderBucketIndex.chunks(1 << 22, range);
+            assertTrue(chunks == 1 || chunks * range <= CylinderBucketIndex.HISTOGRAM_BUDGET * (1L << 22));
+        }
+    }
+
+    /**
+     * Test of isWorthCounting method, of class CylinderBucketIndex.
+     */
+    @Test
+    public void testIsWorthCounting() {
+        System.out.println("isWorthCounting");
+        assertFalse(CylinderBucketIndex.isWorthCounting(8, 0, 199));
+        assertTrue(CylinderBucketIndex.isWorthCounting(100000, 0, 65535));
+        assertFalse(CylinderBucketIndex.isWorthCounting(1000, 0, 65535));
+        assertFalse(CylinderBucketIndex.isWorthCounting(1000, Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+}
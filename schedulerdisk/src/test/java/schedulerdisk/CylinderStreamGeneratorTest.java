@@ -0,0 +1,120 @@
+package schedulerdisk;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import schedulercommon.BinaryTraceReader;
+import schedulercommon.BinaryTraceWriter;
+import schedulerdisk.CylinderStreamGenerator.Pattern;
+
+public class CylinderStreamGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public CylinderStreamGeneratorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of generate and fill methods, of class CylinderStreamGenerator:
+     * the stream only depends on the seed, however it is cut.
+     */
+    @Test
+    public void testDeterministic() {
+        System.out.println("generate and fill");
+        for (Pattern pattern : Pattern.values()) {
+            CylinderStreamGenerator instance = new CylinderStreamGenerator(48, pattern, 5000);
+            int n = 2 * CylinderStreamGenerator.CHUNK_SIZE + 999;
+            int[] expected = instance.generate(n);
+
+            int[] pieces = new int[n];
+            for (int off = 0; off < n; off += 30000)
+                instance.fill(off, pieces, off, Math.min(30000, n - off));
+            assertArrayEquals(pattern.toString(), expected, pieces);
+            assertArrayEquals(pattern.toString(), expected, new CylinderStreamGenerator(48, pattern, 5000).generate(n));
+
+            for (int cylinder : expected)
+                assertTrue(cylinder >= 0 && cylinder < 5000);
+        }
+
+        CylinderStreamGenerator instance = new CylinderStreamGenerator(48, Pattern.UNIFORM, 5000);
+        CylinderStreamGenerator other = new CylinderStreamGenerator(49, Pattern.UNIFORM, 5000);
+        assertFalse(Arrays.equals(instance.generate(1000), other.generate(1000)));
+    }
+
+    /**
+     * Test of the CLUSTERED pattern, of class CylinderStreamGenerator: the
+     * requests gather around the hot spots.
+     */
+    @Test
+    public void testClustered() {
+        System.out.println("CLUSTERED");
+        CylinderStreamGenerator instance = new CylinderStreamGenerator(5, Pattern.CLUSTERED, 100000);
+        instance.setClusters(4, 100);
+        int[] centers = instance.getCenters();
+        assertEquals(4, centers.length);
+
+        // Within four standard deviations of a hot spot, save a handful
+        int far = 0;
+        int[] requests = instance.generate(100000);
+        for (int cylinder : requests) {
+            int distance = Integer.MAX_VALUE;
+            for (int center : centers)
+                distance = Math.min(distance, Math.abs(cylinder - center));
+            if (distance > 400)
+                far++;
+        }
+        assertTrue(far < 50);
+
+        // Uniform requests are spread all over
+        int[] uniform = new CylinderStreamGenerator(5, Pattern.UNIFORM, 100000).generate(100000);
+        assertTrue(Arrays.stream(uniform).distinct().count() > 50000);
+    }
+
+    /**
+     * Test of write method, of class CylinderStreamGenerator.
+     */
+    @Test
+    public void testWrite() throws IOException {
+        System.out.println("write");
+        Path path = folder.newFile("cylinders.bin").toPath();
+        CylinderStreamGenerator instance = new CylinderStreamGenerator(11, Pattern.CLUSTERED, 5000);
+        int n = CylinderStreamGenerator.CHUNK_SIZE + 17;
+
+        try (BinaryTraceWriter writer = new BinaryTraceWriter(path)) {
+            instance.write(writer, n);
+        }
+
+        try (BinaryTraceReader reader = new BinaryTraceReader(path)) {
+            assertEquals(n, reader.getCount());
+            assertArrayEquals(instance.generate(n), reader.readAll());
+        }
+    }
+
+}
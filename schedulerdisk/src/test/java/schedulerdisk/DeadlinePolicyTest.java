@@ -0,0 +1,144 @@
+package schedulerdisk;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DeadlinePolicyTest {
+
+    private DiskTimingModel model;
+
+    public DeadlinePolicyTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        // Every request takes 1.5 ms, wherever it goes
+        model = new DiskTimingModel(200, 1, 60000, 1, 1, 0);
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    // Two reads every millisecond near the start of the disk, more than
+    // the disk can keep up with, and one far write once there is a backlog
+    private OnlineDiskSimulator runReadsAndWrite(DispatchPolicy policy) {
+        OnlineDiskSimulator instance = new OnlineDiskSimulator(model, policy, 0);
+        instance.setStarvationThreshold(1000);
+
+        for (int i = 0; i < 2000; i++) {
+            if (i == 10)
+                instance.accept(5, 199, -1, true, 0);
+            instance.accept(i / 2.0, i % 21);
+        }
+        instance.flush();
+
+        return instance;
+    }
+
+    /**
+     * Test of the writes getting their turn after writesStarved read batches.
+     */
+    @Test
+    public void testWritesStarved() {
+        System.out.println("writes starved");
+
+        // SSTF leaves the write for the very end
+        OnlineDiskSimulator sstf = runReadsAndWrite(DispatchPolicy.sstf());
+        assertEquals(2001, sstf.getCompletedCount());
+        assertTrue(sstf.getMaxWriteResponseTime() > 1000);
+        assertEquals(1, sstf.getStarvedCount());
+
+        // The deadline policy serves it after at most three batches of 16 reads
+        OnlineDiskSimulator deadline = runReadsAndWrite(new DeadlinePolicy(200));
+        assertEquals(2001, deadline.getCompletedCount());
+        assertTrue(deadline.getMaxWriteResponseTime() <= 3 * 16 * 1.5 + 1.5);
+        assertEquals(0, deadline.getStarvedCount());
+
+        // Without any write the reads get the disk to themselves
+        OnlineDiskSimulator reads = new OnlineDiskSimulator(model, new DeadlinePolicy(200), 0);
+        for (int i = 0; i < 100; i++)
+            reads.accept(0, i);
+        reads.flush();
+        assertEquals(99, reads.getTotalMoves());
+        assertEquals(0, reads.getMaxWriteResponseTime(), 0);
+    }
+
+    /**
+     * Test of an expired read sending the head back.
+     */
+    @Test
+    public void testReadExpire() {
+        System.out.println("read expire");
+
+        // A read below the head while a stream of reads keeps arriving
+        // above it. It is served only once the stream is over, unless it
+        // expires first.
+        DeadlinePolicy patient = new DeadlinePolicy(200, 1e9, 1e9, 1, 2);
+        DeadlinePolicy expiring = new DeadlinePolicy(200, 10, 1e9, 1, 2);
+        double[] maxResponseTimes = new double[2];
+        int k = 0;
+
+        for (DeadlinePolicy policy : new DeadlinePolicy[] {patient, expiring}) {
+            OnlineDiskSimulator instance = new OnlineDiskSimulator(model, policy, 0);
+            instance.accept(0, 100);
+            instance.accept(0.1, 50);
+            for (int i = 1; i < 100; i++)
+                instance.accept(i, 100 + i);
+            instance.flush();
+
+            assertEquals(101, instance.getCompletedCount());
+            maxResponseTimes[k++] = instance.getMaxReadResponseTime();
+        }
+
+        assertTrue(maxResponseTimes[0] > 140);
+        assertTrue(maxResponseTimes[1] < 100);
+    }
+
+    /**
+     * Test of the batches going up in cylinder order.
+     */
+    @Test
+    public void testBatches() {
+        System.out.println("batches");
+        int[] requests = {98, 183, 37, 122, 14, 124, 65, 67};
+
+        // A batch goes up from the head, and the next one starts over at
+        // the oldest request: 98 (served as it arrives), 122, 124, 183,
+        // then 37, 65, 67 and 14
+        OnlineDiskSimulator deadline = new OnlineDiskSimulator(model, new DeadlinePolicy(200), 53);
+        deadline.accept(new double[requests.length], requests, 0, requests.length);
+        deadline.flush();
+        assertEquals(45 + 24 + 2 + 59 + 146 + 28 + 2 + 53, deadline.getTotalMoves());
+
+        // Writes get the next batch as soon as the reads are done with
+        // theirs, and it goes up from the head too
+        DeadlinePolicy policy = new DeadlinePolicy(200, 500, 5000, 2, 0);
+        OnlineDiskSimulator instance = new OnlineDiskSimulator(model, policy, 0);
+        instance.accept(0, 10);
+        instance.accept(0, 30, -1, true, 0);
+        instance.accept(0, 20);
+        instance.accept(0, 40, -1, true, 0);
+        instance.flush();
+        assertEquals(40, instance.getTotalMoves());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadBatch() {
+        System.out.println("bad batch");
+        new DeadlinePolicy(200, 500, 5000, 0, 2);
+    }
+
+}
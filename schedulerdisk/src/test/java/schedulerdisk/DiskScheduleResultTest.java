@@ -0,0 +1,123 @@
+package schedulerdisk;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DiskScheduleResultTest {
+
+    public DiskScheduleResultTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of getMoves method, of class DiskScheduleResult: the moves are
+     * those of one run, while the scheduler adds up all of them.
+     */
+    @Test
+    public void testMovesPerRun() {
+        System.out.println("getMoves");
+        DiskScheduler instance = new DiskScheduler(200, 53, 54);
+
+        DiskScheduleResult first = instance.useSSTF("98,183,37,122,14,124,65,67");
+        assertEquals(236, first.getMoves());
+        assertEquals(53, first.getStartCylinder());
+        assertEquals(183, first.getEndCylinder());
+
+        DiskScheduleResult second = instance.useFCFS("100,90");
+        assertEquals(93, second.getMoves());
+        assertEquals(183, second.getStartCylinder());
+        assertEquals(90, second.getEndCylinder());
+        assertEquals(329, instance.getTotalMoves());
+        assertSame(second, instance.getLastResult());
+
+        // The first result is not changed by the second run
+        assertEquals(8, first.getRequestCount());
+        assertArrayEquals(new int[] {6, 7, 2, 4, 0, 3, 5, 1}, first.getServiceOrder());
+        assertEquals(236, first.getMaxWait());
+    }
+
+    /**
+     * Test of the wait percentiles, of class DiskScheduleResult, on SSTF
+     * starving the requests at the edge of the disk.
+     */
+    @Test
+    public void testStarvation() {
+        System.out.println("getP99Wait");
+        Random random = new Random(45);
+        int[] requests = new int[10000];
+        for (int i = 0; i < requests.length; i++)
+            requests[i] = i % 100 == 0 ? 4999 : 2400 + random.nextInt(200);
+
+        DiskScheduleResult sstf = DiskPolicy.SSTF.run(new DiskScheduler(5000, 2500, 2500), requests);
+        DiskScheduleResult fcfs = DiskPolicy.FCFS.run(new DiskScheduler(5000, 2500, 2500), requests);
+
+        // SSTF serves the edge requests last, so a long tail shows above
+        // the 99th percentile, while the waits of FCFS just grow with the
+        // index of the request
+        assertEquals(sstf.getMoves(), sstf.getMaxWait());
+        assertTrue(sstf.getMaxWait() > 5 * sstf.getP99Wait());
+        assertTrue(fcfs.getP99Wait() > fcfs.getMaxWait() / 2);
+        assertTrue(sstf.getMeanWait() < fcfs.getMeanWait());
+        assertEquals(sstf.getMaxWait(), sstf.getWaitHistogram().getMax());
+        assertEquals(10000, sstf.getWaitHistogram().getCount());
+
+        long[] waits = sstf.getWaits();
+        assertEquals(waits[0], sstf.getWait(0));
+        assertEquals(sstf.getMaxWait(), waits[9900]);
+    }
+
+    /**
+     * Test of setRecordOrder method, of class DiskScheduler.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testWithoutOrder() {
+        System.out.println("setRecordOrder");
+        DiskScheduler instance = new DiskScheduler(200, 53, 54);
+        instance.setRecordOrder(false);
+
+        DiskScheduleResult result = instance.useLOOK("98,183,37,122,14,124,65,67");
+        assertFalse(result.hasServiceOrder());
+        assertEquals(208, result.getMoves());
+        assertEquals(8, result.getWaits().length);
+        result.getServiceOrder();
+    }
+
+    /**
+     * Test of the response times, of class DiskScheduleResult.
+     */
+    @Test
+    public void testResponseTimes() {
+        System.out.println("getResponseTimeAtPercentile");
+        DiskScheduler instance = new DiskScheduler(200, 53, 54);
+        instance.setTimingModel(new DiskTimingModel(200, 10, 6000, 1, 10, 1), new int[] {5, 0});
+
+        DiskScheduleResult result = instance.useFCFS("98,98");
+        assertEquals(21, result.getTotalServiceTime(), 1e-9);
+        assertEquals(21, result.getMaxResponseTime(), 1e-9);
+        assertEquals(16, result.getResponseTimes()[0], 1e-9);
+        assertEquals(16, result.getResponseTimeAtPercentile(50), 0.1);
+        assertEquals(2, result.getResponseHistogram().getCount());
+    }
+
+}
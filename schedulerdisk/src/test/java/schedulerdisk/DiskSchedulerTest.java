@@ -1,5 +1,8 @@
 package schedulerdisk;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -54,6 +57,33 @@ public class DiskSchedulerTest {
         assertEquals(0, instance5000.getTotalMoves());
     }
 
+    /**
+     * Test of getTotalMovesLong method, of class DiskScheduler, with more
+     * moves than an int holds over two runs.
+     */
+    @Test(timeout=5000)
+    public void testGetTotalMovesLong() {
+        System.out.println("getTotalMovesLong");
+        int[] requests = new int[300000];
+        for (int i = 0; i < requests.length; i++)
+            requests[i] = i % 2 == 0 ? 4999 : 0;
+
+        instance5000.setRecordOrder(false);
+        instance5000.useFCFS(requests);
+        instance5000.useFCFS(requests);
+
+        // The first run starts at 143, the second where the first left the head, at 0
+        long expected = 2L * requests.length * 4999 - 143;
+        assertEquals(expected, instance5000.getTotalMovesLong());
+        assertEquals(requests.length * 4999L, instance5000.getLastResult().getMoves());
+        try {
+            instance5000.getTotalMoves();
+            fail("the total moves do not fit into an int");
+        } catch (ArithmeticException expectedException) {
+            assertTrue(expected > Integer.MAX_VALUE);
+        }
+    }
+
     /**
      * Test of useFCFS method, of class DiskScheduler.
      */
@@ -82,6 +112,65 @@ public class DiskSchedulerTest {
         assertEquals(1745, instance5000.getTotalMoves());
     }
 
+    /**
+     * Test of useSSTF method, of class DiskScheduler, against the
+     * straightforward quadratic version with plenty of ties.
+     */
+    @Test(timeout=5000)
+    public void testUseSSTFAgainstQuadratic() {
+        System.out.println("useSSTF against the quadratic version");
+        Random random = new Random(2019);
+
+        for (int round = 0; round < 50; round++) {
+            int[] requests = new int[random.nextInt(300)];
+            for (int i = 0; i < requests.length; i++)
+                requests[i] = random.nextInt(random.nextBoolean() ? 20 : 200);
+            int head = random.nextInt(200);
+
+            DiskScheduler instance = new DiskScheduler(200, head, head);
+            instance.useSSTF(requests);
+            assertEquals(quadraticSSTF(requests, head), instance.getTotalMoves());
+        }
+    }
+
+    /**
+     * Test of useSSTF method, of class DiskScheduler, on a million requests.
+     */
+    @Test(timeout=5000)
+    public void testUseSSTFLarge() {
+        System.out.println("useSSTF on a million requests");
+        Random random = new Random(2019);
+        int[] requests = new int[1000000];
+        for (int i = 0; i < requests.length; i++)
+            requests[i] = random.nextInt(5000);
+
+        DiskScheduler instance = new DiskScheduler(5000, 0, 0);
+        instance.useSSTF(requests);
+
+        // Starting from cylinder 0 SSTF sweeps up to the highest request
+        assertEquals(Arrays.stream(requests).max().getAsInt(), instance.getTotalMoves());
+    }
+
+    // The shortest seek first, one linear scan per request
+    private static int quadraticSSTF(int[] requests, int head) {
+        boolean[] served = new boolean[requests.length];
+        int moves = 0;
+
+        for (int step = 0; step < requests.length; step++) {
+            int index = -1;
+            for (int k = 0; k < requests.length; k++) {
+                if (!served[k] && (index < 0 || Math.abs(requests[k] - head) < Math.abs(requests[index] - head)))
+                    index = k;
+            }
+
+            served[index] = true;
+            moves += Math.abs(requests[index] - head);
+            head = requests[index];
+        }
+
+        return moves;
+    }
+
     /**
      * Test of useLOOK method, of class DiskScheduler.
      */
@@ -110,4 +199,212 @@ public class DiskSchedulerTest {
         assertEquals(3363, instance5000.getTotalMoves());
     }
 
+    /**
+     * Test of useLOOK and useCLOOK methods, of class DiskScheduler, with
+     * no request above the head.
+     */
+    @Test(timeout=1000)
+    public void testUseLOOKNothingAbove() {
+        System.out.println("useLOOK and useCLOOK with no request above the head");
+        DiskScheduler look = new DiskScheduler(200, 150, 100);
+        DiskScheduler clook = new DiskScheduler(200, 150, 100);
+
+        look.useLOOK("10,20");
+        clook.useCLOOK("10,20");
+
+        assertEquals(140, look.getTotalMoves());
+        assertEquals(150, clook.getTotalMoves());
+    }
+
+    /**
+     * Test of useSCAN method, of class DiskScheduler.
+     */
+    @Test(timeout=1000)
+    public void testUseSCAN() {
+        System.out.println("useSCAN");
+
+        instance200.useSCAN(requestQueue1);
+        instance5000.useSCAN(requestQueue2);
+
+        assertEquals(236, instance200.getTotalMoves());
+        assertEquals(9769, instance5000.getTotalMoves());
+
+        // The head goes down to 37 and 14, then to cylinder 0 and back up
+        assertArrayEquals(new int[] {2, 4, 6, 7, 0, 3, 5, 1}, instance200.getServiceOrder());
+        assertArrayEquals(new long[] {151, 236, 16, 175, 39, 177, 118, 120}, instance200.getWaits());
+        assertEquals(236, instance200.getMaxWait());
+    }
+
+    /**
+     * Test of useCSCAN method, of class DiskScheduler.
+     */
+    @Test(timeout=1000)
+    public void testUseCSCAN() {
+        System.out.println("useCSCAN");
+
+        instance200.useCSCAN(requestQueue1);
+        instance5000.useCSCAN(requestQueue2);
+
+        assertEquals(382, instance200.getTotalMoves());
+        assertEquals(9985, instance5000.getTotalMoves());
+    }
+
+    /**
+     * Test of useSCAN method, of class DiskScheduler, with a request off the disk.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUseSCANOutOfRange() {
+        System.out.println("useSCAN with a request off the disk");
+        instance200.useSCAN("10,200");
+    }
+
+    /**
+     * Test of useNStepSCAN method, of class DiskScheduler.
+     */
+    @Test(timeout=1000)
+    public void testUseNStepSCAN() {
+        System.out.println("useNStepSCAN");
+
+        // Batches of 98,183,37 then 122,14,124 then 65,67
+        instance200.useNStepSCAN(requestQueue1, 3, 0);
+        assertEquals(518, instance200.getTotalMoves());
+        assertEquals(16, instance200.getWaits()[2]);
+        assertEquals(151, instance200.getWaits()[0]);
+        assertEquals(236, instance200.getWaits()[1]);
+
+        // A single batch is plain SCAN
+        instance5000.useNStepSCAN(requestQueue2, 100, 0);
+        assertEquals(9769, instance5000.getTotalMoves());
+    }
+
+    /**
+     * Test of useFSCAN method, of class DiskScheduler.
+     */
+    @Test(timeout=1000)
+    public void testUseFSCAN() {
+        System.out.println("useFSCAN");
+
+        // With everything there from the start, it is plain SCAN
+        instance200.useFSCAN(requestQueue1, 0);
+        assertEquals(236, instance200.getTotalMoves());
+
+        // With requests arriving far apart, every sweep serves one request
+        instance5000.useFSCAN(requestQueue2, 100000);
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8}, instance5000.getServiceOrder());
+
+        // Requests arriving during a sweep wait for the next one, which
+        // goes up to the edge first and then comes back down to them
+        DiskScheduler instance = new DiskScheduler(200, 100, 99);
+        instance.useFSCAN("150,101,102", 10);
+        assertArrayEquals(new int[] {0, 2, 1}, instance.getServiceOrder());
+        assertArrayEquals(new long[] {50, 197 - 10, 196 - 20}, instance.getWaits());
+    }
+
+    /**
+     * Test of the service times reported with a timing model.
+     */
+    @Test(timeout=1000)
+    public void testTimingModel() {
+        System.out.println("setTimingModel");
+        DiskTimingModel model = new DiskTimingModel(200, 10, 6000, 1, 10, 1);
+        instance200.setTimingModel(model, new int[] {5, 0});
+
+        // The seek to 98 ends past sector 5, so the head waits for it to
+        // come around again and reaches it at 15 ms, then transfers for 1 ms.
+        // The second request waits from sector 6 to sector 0.
+        instance200.useFCFS("98,98");
+        assertEquals(16, instance200.getResponseTimes()[0], 1e-9);
+        assertEquals(21, instance200.getResponseTimes()[1], 1e-9);
+        assertEquals(21, instance200.getTotalServiceTime(), 1e-9);
+        assertEquals(45, instance200.getTotalMoves());
+    }
+
+    /**
+     * Test of useSPTF method, of class DiskScheduler, against a version
+     * that looks at every request.
+     */
+    @Test(timeout=5000)
+    public void testUseSPTF() {
+        System.out.println("useSPTF");
+        DiskTimingModel model = new DiskTimingModel(5000, 100, 7200, 0.5, 12, 8);
+        Random random = new Random(2019);
+
+        for (int round = 0; round < 20; round++) {
+            int[] requests = new int[random.nextInt(200) + 1];
+            int[] sectors = new int[requests.length];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = random.nextInt(random.nextBoolean() ? 100 : 5000);
+                sectors[i] = random.nextInt(100);
+            }
+            int head = random.nextInt(5000);
+
+            DiskScheduler sptf = new DiskScheduler(5000, head, head);
+            DiskScheduler sstf = new DiskScheduler(5000, head, head);
+            sptf.setTimingModel(model, sectors);
+            sstf.setTimingModel(model, sectors);
+            sptf.useSPTF(requests);
+            sstf.useSSTF(requests);
+
+            assertArrayEquals(exhaustiveSPTF(model, requests, sectors, head), sptf.getServiceOrder());
+            assertTrue(sptf.getTotalServiceTime() <= sstf.getTotalServiceTime() * 1.5);
+        }
+    }
+
+    /**
+     * Test of countMoves method, of class DiskScheduler, against the moves
+     * of the runs.
+     */
+    @Test(timeout=1000)
+    public void testCountMoves() {
+        System.out.println("countMoves");
+        int[] requests = {98, 183, 37, 122, 14, 124, 65, 67};
+
+        assertEquals(640, instance200.countMoves(requests));
+        assertEquals(0, instance200.getTotalMoves());
+
+        // The cylinders in the service order of a run give its moves
+        DiskScheduleResult result = instance200.useSSTF(requests);
+        int[] served = new int[requests.length];
+        for (int i = 0; i < served.length; i++)
+            served[i] = requests[result.getServiceOrder()[i]];
+        assertEquals(result.getMoves(), new DiskScheduler(200, 53, 54).countMoves(served));
+    }
+
+    /**
+     * Test of useSPTF method, of class DiskScheduler, without a timing model.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testUseSPTFWithoutModel() {
+        System.out.println("useSPTF without a timing model");
+        instance200.useSPTF(requestQueue1);
+    }
+
+    // The shortest positioning time first, looking at every request
+    private static int[] exhaustiveSPTF(DiskTimingModel model, int[] requests, int[] sectors, int head) {
+        boolean[] served = new boolean[requests.length];
+        int[] order = new int[requests.length];
+        double time = 0;
+
+        for (int step = 0; step < requests.length; step++) {
+            int index = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < requests.length; k++) {
+                double positioningTime = model.getPositioningTime(time, requests[k] - head, sectors[k]);
+                if (!served[k] && positioningTime < best) {
+                    index = k;
+                    best = positioningTime;
+                }
+            }
+
+            served[index] = true;
+            order[step] = index;
+            time += model.getSeekTime(requests[index] - head);
+            time += model.getRotationalLatency(time, sectors[index]);
+            time += model.getTransferTime();
+            head = requests[index];
+        }
+
+        return order;
+    }
+
 }
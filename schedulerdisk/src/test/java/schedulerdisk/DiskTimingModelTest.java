@@ -0,0 +1,94 @@
+package schedulerdisk;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DiskTimingModelTest {
+
+    private DiskTimingModel instance;
+
+    public DiskTimingModelTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        // 10 ms per rotation, 1 ms per sector
+        instance = new DiskTimingModel(200, 10, 6000, 1, 10, 1);
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of getSeekTime method, of class DiskTimingModel.
+     */
+    @Test
+    public void testGetSeekTime() {
+        System.out.println("getSeekTime");
+        assertEquals(0, instance.getSeekTime(0), 1e-9);
+        assertEquals(10, instance.getSeekTime(199), 1e-9);
+        assertEquals(10, instance.getSeekTime(-199), 1e-9);
+        assertEquals(1 + 9 * Math.sqrt(45.0 / 199), instance.getSeekTime(45), 1e-9);
+
+        // Short seeks cost more per cylinder than long ones
+        assertTrue(instance.getSeekTime(10) / 10 > instance.getSeekTime(100) / 100);
+    }
+
+    /**
+     * Test of getRotationalLatency method, of class DiskTimingModel.
+     */
+    @Test
+    public void testGetRotationalLatency() {
+        System.out.println("getRotationalLatency");
+        assertEquals(10, instance.getRotationTime(), 1e-9);
+        assertEquals(1, instance.getSectorTime(), 1e-9);
+        assertEquals(3, instance.getRotationalLatency(0, 3), 1e-9);
+        assertEquals(0.5, instance.getRotationalLatency(2.5, 3), 1e-9);
+        assertEquals(9.5, instance.getRotationalLatency(3.5, 3), 1e-9);
+        assertEquals(7, instance.getRotationalLatency(26, 3), 1e-9);
+
+        // A sector that is just arriving is not a whole rotation away
+        assertEquals(0, instance.getRotationalLatency(0.1 + 0.2 + 2.7, 3), 1e-6);
+
+        // An unknown sector costs half a rotation
+        assertEquals(5, instance.getRotationalLatency(1.234, -1), 1e-9);
+    }
+
+    /**
+     * Test of getPositioningTime and getTransferTime methods, of class DiskTimingModel.
+     */
+    @Test
+    public void testGetPositioningTime() {
+        System.out.println("getPositioningTime");
+        double seekTime = instance.getSeekTime(45);
+
+        // The seek ends right at sector 5, or just past it
+        assertEquals(seekTime, instance.getPositioningTime(5 - seekTime, 45, 5), 1e-9);
+        assertEquals(15, instance.getPositioningTime(0, 45, 5), 1e-9);
+        assertEquals(1, instance.getTransferTime(), 1e-9);
+    }
+
+    /**
+     * Test of the constructor of class DiskTimingModel, with a settle time
+     * longer than the full stroke.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadSeekCurve() {
+        System.out.println("settle time longer than the full stroke");
+        new DiskTimingModel(200, 10, 6000, 11, 10, 1);
+    }
+
+}
@@ -0,0 +1,68 @@
+package schedulerdisk;
+
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class FlashDeviceModelTest {
+
+    public FlashDeviceModelTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of the channels of the sectors.
+     */
+    @Test
+    public void testGetChannel() {
+        System.out.println("getChannel");
+        FlashDeviceModel instance = new FlashDeviceModel(1 << 20, 8, 4);
+
+        assertEquals(0, instance.getChannel(0));
+        assertEquals(0, instance.getChannel(7));
+        assertEquals(1, instance.getChannel(8));
+        assertEquals(3, instance.getChannel(31));
+        assertEquals(0, instance.getChannel(32));
+    }
+
+    /**
+     * Test of the service times of reads and writes.
+     */
+    @Test
+    public void testGetServiceTime() {
+        System.out.println("getServiceTime");
+        FlashDeviceModel instance = new FlashDeviceModel(1 << 20, 8, 4);
+        assertEquals(0.04, instance.getServiceTime(false), 1e-12);
+        assertEquals(0.215, instance.getServiceTime(true), 1e-12);
+
+        instance = new FlashDeviceModel(1 << 20, 8, 4, 1, 2, 3, 4);
+        assertEquals(7, instance.getServiceTime(false), 0);
+        assertEquals(8, instance.getServiceTime(true), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSectorOutOfRange() {
+        System.out.println("sector out of range");
+        new FlashDeviceModel(64, 8, 4).getChannel(64);
+    }
+
+}
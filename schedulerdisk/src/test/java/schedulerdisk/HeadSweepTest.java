@@ -0,0 +1,105 @@
+package schedulerdisk;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import schedulercommon.SweepRunner;
+
+public class HeadSweepTest {
+
+    public HeadSweepTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of create, of class HeadSweep.
+     */
+    @Test
+    public void testCreate() throws IOException {
+        System.out.println("create");
+        int[] requests = {98, 183, 37, 122, 14, 124, 65, 67};
+        int[] starts = {0, 53, 199};
+        HeadSweep.Policy[] policies = HeadSweep.Policy.values();
+        HeadSweep.Direction[] directions = HeadSweep.Direction.values();
+
+        SweepRunner sweep = HeadSweep.create(200, requests, policies, starts, directions);
+        assertEquals(policies.length * starts.length * directions.length, sweep.getCellCount());
+
+        List<Object[]> rows = sweep.run();
+        assertEquals(sweep.getCellCount(), rows.size());
+
+        // Every row against the same run on a scheduler of its own
+        for (Object[] row : rows) {
+            HeadSweep.Policy policy = (HeadSweep.Policy) row[0];
+            int start = (Integer) row[1];
+            int previous = row[2] == HeadSweep.Direction.UP ? start - 1 : start + 1;
+            DiskScheduler scheduler = new DiskScheduler(200, start, previous);
+            DiskScheduleResult result;
+
+            switch (policy) {
+                case FCFS:
+                    result = scheduler.useFCFS(requests);
+                    break;
+                case SSTF:
+                    result = scheduler.useSSTF(requests);
+                    break;
+                case LOOK:
+                    result = scheduler.useLOOK(requests);
+                    break;
+                case CLOOK:
+                    result = scheduler.useCLOOK(requests);
+                    break;
+                case SCAN:
+                    result = scheduler.useSCAN(requests);
+                    break;
+                default:
+                    result = scheduler.useCSCAN(requests);
+            }
+
+            assertEquals(8, row[3]);
+            assertEquals(result.getMoves(), row[4]);
+            assertEquals(result.getMeanWait(), (Double) row[5], 0);
+            assertEquals(result.getP99Wait(), row[6]);
+            assertEquals(result.getMaxWait(), row[7]);
+        }
+
+        // The textbook LOOK from 53 moving down
+        boolean found = false;
+        for (Object[] row : rows)
+            if (row[0] == HeadSweep.Policy.LOOK && (Integer) row[1] == 53 && row[2] == HeadSweep.Direction.DOWN) {
+                assertEquals(208L, row[4]);
+                found = true;
+            }
+        assertTrue(found);
+
+        try {
+            HeadSweep.create(200, requests, policies, new int[] {200}, directions);
+            fail("a start cylinder off the disk");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package schedulerdisk;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import schedulercommon.MetricsRegistry;
+
+public class InstrumentationTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private int samplePeriod;
+
+    public InstrumentationTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        samplePeriod = Instrumentation.getSamplePeriod();
+    }
+
+    @After
+    public void tearDown() {
+        Instrumentation.setSamplePeriod(samplePeriod);
+    }
+
+    /**
+     * Test of the seek events, of class Instrumentation.
+     */
+    @Test
+    public void testEvents() throws IOException {
+        System.out.println("SeekEvent");
+        MetricsRegistry registry = Instrumentation.getRegistry();
+        long seeks = registry.getCount("seeks");
+        long moves = registry.getCount("head_moves");
+        Path path = folder.newFile("seeks.jfr").toPath();
+
+        try (Recording recording = new Recording()) {
+            recording.enable("schedulerdisk.Seek");
+            recording.start();
+
+            Instrumentation.setSamplePeriod(1);
+            for (int i = 0; i < 100; i++)
+                Instrumentation.seek("SSTF", 50, i);
+
+            recording.stop();
+            recording.dump(path);
+        }
+
+        assertEquals(seeks + 100, registry.getCount("seeks"));
+        assertEquals(moves + 50 * 51 / 2 + 49 * 50 / 2, registry.getCount("head_moves"));
+
+        int found = 0;
+        List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+        for (RecordedEvent event : events) {
+            if (!event.getEventType().getName().equals("schedulerdisk.Seek"))
+                continue;
+
+            assertEquals("SSTF", event.getString("policy"));
+            assertEquals(50, event.getInt("from"));
+            assertEquals(Math.abs(event.getInt("to") - 50), event.getInt("distance"));
+            found++;
+        }
+        assertEquals(100, found);
+    }
+
+    /**
+     * Test of the counters of DiskScheduler and OnlineDiskSimulator, with the instrumentation on.
+     */
+    @Test
+    public void testDiskScheduler() {
+        System.out.println("DiskScheduler counters");
+        assumeTrue(Instrumentation.ENABLED);
+
+        int[] requests = {98, 183, 37, 122, 14, 124, 65, 67};
+        MetricsRegistry registry = Instrumentation.getRegistry();
+
+        long seeks = registry.getCount("seeks");
+        long moves = registry.getCount("head_moves");
+        DiskScheduler scheduler = new DiskScheduler(200, 53, 54);
+        assertEquals(208, scheduler.useLOOK(requests).getMoves());
+        assertEquals(8, registry.getCount("seeks") - seeks);
+        assertEquals(208, registry.getCount("head_moves") - moves);
+
+        // SCAN goes to the edge of the disk on the way
+        moves = registry.getCount("head_moves");
+        long scanMoves = scheduler.useSCAN(requests).getMoves();
+        assertEquals(scanMoves, registry.getCount("head_moves") - moves);
+
+        moves = registry.getCount("head_moves");
+        OnlineDiskSimulator online = new OnlineDiskSimulator(new DiskTimingModel(200, 1, 60000, 1, 1, 0),
+                DispatchPolicy.fcfs(), 53);
+        online.accept(new double[requests.length], requests, 0, requests.length);
+        online.flush();
+        assertEquals(640, online.getTotalMoves());
+        assertEquals(640, registry.getCount("head_moves") - moves);
+    }
+
+}
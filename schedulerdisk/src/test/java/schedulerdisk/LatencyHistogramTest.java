@@ -0,0 +1,94 @@
+package schedulerdisk;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    public LatencyHistogramTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of getValueAtPercentile method, of class LatencyHistogram, with exact small values.
+     */
+    @Test
+    public void testSmallValues() {
+        System.out.println("getValueAtPercentile with small values");
+        LatencyHistogram instance = new LatencyHistogram();
+        for (int value = 1; value <= 100; value++)
+            instance.record(value);
+
+        assertEquals(50, instance.getValueAtPercentile(50));
+        assertEquals(99, instance.getValueAtPercentile(99));
+        assertEquals(100, instance.getValueAtPercentile(100));
+        assertEquals(1, instance.getValueAtPercentile(0));
+        assertEquals(50.5, instance.getMean(), 1e-9);
+        assertEquals(100, instance.getCount());
+    }
+
+    /**
+     * Test of getValueAtPercentile method, of class LatencyHistogram, against sorting.
+     */
+    @Test
+    public void testAgainstSorting() {
+        System.out.println("getValueAtPercentile against sorting");
+        Random random = new Random(2019);
+        long[] values = new long[100000];
+        LatencyHistogram instance = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 30);
+            instance.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[] {1, 10, 50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            assertEquals(exact, instance.getValueAtPercentile(percentile), exact / 128.0 + 1);
+        }
+        assertEquals(values[values.length - 1], instance.getMax());
+        assertEquals(values[0], instance.getMin());
+    }
+
+    /**
+     * Test of add method, of class LatencyHistogram.
+     */
+    @Test
+    public void testAdd() {
+        System.out.println("add");
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(10);
+        b.record(1000000);
+        b.record(Long.MAX_VALUE);
+        a.add(b);
+
+        assertEquals(3, a.getCount());
+        assertEquals(10, a.getMin());
+        assertEquals(Long.MAX_VALUE, a.getMax());
+        assertEquals(Long.MAX_VALUE, a.getValueAtPercentile(100));
+    }
+
+}
@@ -0,0 +1,150 @@
+package schedulerdisk;
+
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MultiQueueSimulatorTest {
+
+    public MultiQueueSimulatorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    // 8 channels of pages of 8 sectors, reads taking 0.04 ms
+    private final FlashDeviceModel device = new FlashDeviceModel(1L << 24, 8, 8);
+
+    /**
+     * Test of a single request and of the channels working in parallel.
+     */
+    @Test
+    public void testChannels() {
+        System.out.println("channels");
+        MultiQueueSimulator instance = new MultiQueueSimulator(device, 1, 64, 1, 32, buckets -> DispatchPolicy.fcfs());
+
+        assertTrue(instance.submit(0, 0, 0, false));
+        instance.flush();
+        assertEquals(1, instance.getCompletedCount());
+        assertEquals(0.04, instance.getTime(), 1e-12);
+        assertEquals(0.04, instance.getMeanLatency(), 1e-6);
+
+        // One page on every channel, all done at once
+        instance = new MultiQueueSimulator(device, 1, 64, 1, 32, buckets -> DispatchPolicy.fcfs());
+        for (int page = 0; page < 8; page++)
+            instance.submit(0, 0, 8 * page, false);
+        instance.flush();
+        assertEquals(0.04, instance.getTime(), 1e-12);
+        assertEquals(0.04, instance.getMeanLatency(), 1e-6);
+        assertEquals(1, instance.getChannelUtilization(3), 1e-9);
+
+        // Eight pages on one channel, one after the other
+        instance = new MultiQueueSimulator(device, 1, 64, 1, 32, buckets -> DispatchPolicy.fcfs());
+        for (int page = 0; page < 8; page++)
+            instance.submit(0, 0, 64 * page, false);
+        instance.flush();
+        assertEquals(0.32, instance.getTime(), 1e-12);
+        assertEquals(0.18, instance.getMeanLatency(), 1e-6);
+        assertEquals(0.04, instance.getMeanDeviceLatencyAtDepth(1), 1e-12);
+        assertEquals(0.32, instance.getMeanDeviceLatencyAtDepth(8), 1e-12);
+        assertEquals(0, instance.getChannelUtilization(3), 0);
+    }
+
+    // Random reads, all there from the start
+    private MultiQueueSimulator runRandomReads(int hardwareQueues, int queueDepth, IntFunction<DispatchPolicy> policy) {
+        MultiQueueSimulator instance = new MultiQueueSimulator(device, 4, 1 << 12, hardwareQueues, queueDepth, policy);
+        Random random = new Random(2019);
+
+        for (int i = 0; i < 10000; i++)
+            assertTrue(instance.submit(i % 4, 0, random.nextInt(1 << 24), false));
+        instance.flush();
+
+        assertEquals(10000, instance.getSubmittedCount());
+        assertEquals(10000, instance.getCompletedCount());
+        return instance;
+    }
+
+    /**
+     * Test of the throughput and the latency as the queue depth grows.
+     */
+    @Test
+    public void testQueueDepth() {
+        System.out.println("queue depth");
+        MultiQueueSimulator shallow = runRandomReads(1, 1, buckets -> DispatchPolicy.fcfs());
+        MultiQueueSimulator deep = runRandomReads(4, 8, buckets -> DispatchPolicy.fcfs());
+
+        // One request at a time leaves seven channels idle
+        assertEquals(0.04, shallow.getMeanDeviceLatencyAtDepth(1), 1e-9);
+        assertEquals(0, shallow.getMeanDeviceLatencyAtDepth(2), 0);
+
+        // Many at a time keep the channels busy, but each one takes longer
+        assertTrue(deep.getThroughput() > 4 * shallow.getThroughput());
+        assertTrue(deep.getMeanDeviceLatencyAtDepth(32) > 2 * deep.getMeanDeviceLatencyAtDepth(1));
+        assertTrue(deep.getMaxPendingCount() > 0);
+    }
+
+    /**
+     * Test of the schedulers of the hardware queues.
+     */
+    @Test
+    public void testSchedulers() {
+        System.out.println("schedulers");
+        MultiQueueSimulator none = runRandomReads(2, 16, buckets -> DispatchPolicy.fcfs());
+        MultiQueueSimulator deadline = runRandomReads(2, 16, DeadlinePolicy::new);
+        MultiQueueSimulator clook = runRandomReads(2, 16, buckets -> DispatchPolicy.clook());
+        MultiQueueSimulator fair = runRandomReads(2, 16, BudgetFairPolicy::new);
+
+        // Without a head to move, sorting gains little on flash
+        for (MultiQueueSimulator instance : new MultiQueueSimulator[] {deadline, clook, fair})
+            assertEquals(none.getThroughput(), instance.getThroughput(), 0.2 * none.getThroughput());
+    }
+
+    /**
+     * Test of many threads submitting at once.
+     */
+    @Test
+    public void testThreads() throws InterruptedException {
+        System.out.println("threads");
+        MultiQueueSimulator instance = new MultiQueueSimulator(device, 4, 1 << 16, 2, 32, DeadlinePolicy::new);
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int cpu = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(cpu);
+                for (int i = 0; i < 50000; i++)
+                    assertTrue(instance.submit(cpu, i * 0.05, random.nextInt(1 << 24), false));
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        instance.flush();
+        assertEquals(200000, instance.getCompletedCount());
+
+        // 80 requests per millisecond, well within the 200 the channels serve
+        assertTrue(instance.getLatencyPercentile(50) < 0.1);
+        assertEquals(2500, instance.getTime(), 1);
+    }
+
+}
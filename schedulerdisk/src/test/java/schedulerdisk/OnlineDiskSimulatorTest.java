@@ -0,0 +1,195 @@
+package schedulerdisk;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class OnlineDiskSimulatorTest {
+
+    private DiskTimingModel model;
+    private int[] requests1;
+
+    public OnlineDiskSimulatorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        // Every seek takes 1 ms and every request waits half a rotation
+        // (0.5 ms) for its unknown sector, with nothing to transfer
+        model = new DiskTimingModel(200, 1, 60000, 1, 1, 0);
+        requests1 = new int[] {98, 183, 37, 122, 14, 124, 65, 67};
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    // Feed all the requests at time 0 and serve them
+    private OnlineDiskSimulator runAtOnce(DispatchPolicy policy, int[] requests) {
+        OnlineDiskSimulator instance = new OnlineDiskSimulator(model, policy, 53);
+        instance.accept(new double[requests.length], requests, 0, requests.length);
+        instance.flush();
+        return instance;
+    }
+
+    /**
+     * Test of the policies with every request there from the start, against DiskScheduler.
+     */
+    @Test
+    public void testAgainstDiskScheduler() {
+        System.out.println("policies against DiskScheduler");
+
+        // The first request is dispatched as soon as it arrives, while the
+        // others are still on their way
+        assertEquals(640, runAtOnce(DispatchPolicy.fcfs(), requests1).getTotalMoves());
+
+        // With the head starting at the first request, the rest are all
+        // pending when the next one is picked
+        DiskScheduler look = new DiskScheduler(200, 98, 99);
+        look.useLOOK(requests1);
+        OnlineDiskSimulator onlineLOOK = new OnlineDiskSimulator(model, DispatchPolicy.look(false), 98);
+        onlineLOOK.accept(new double[requests1.length], requests1, 0, requests1.length);
+        onlineLOOK.flush();
+        assertEquals(look.getTotalMoves(), onlineLOOK.getTotalMoves());
+
+        Random random = new Random(2019);
+        for (int round = 0; round < 20; round++) {
+            int[] requests = new int[random.nextInt(300) + 1];
+            for (int i = 0; i < requests.length; i++)
+                requests[i] = random.nextInt(random.nextBoolean() ? 20 : 200);
+
+            // Make the head start at the first request, so it is served
+            // first and the rest are all pending by the time it is done
+            DiskScheduler sstf = new DiskScheduler(200, requests[0], requests[0]);
+            sstf.useSSTF(requests);
+            OnlineDiskSimulator online = new OnlineDiskSimulator(model, DispatchPolicy.sstf(), requests[0]);
+            online.accept(new double[requests.length], requests, 0, requests.length);
+            online.flush();
+            assertEquals(sstf.getTotalMoves(), online.getTotalMoves());
+            assertEquals(requests.length, online.getCompletedCount());
+        }
+    }
+
+    /**
+     * Test of the response times and the throughput, with requests arriving over time.
+     */
+    @Test
+    public void testResponseTimes() {
+        System.out.println("response times");
+        OnlineDiskSimulator instance = new OnlineDiskSimulator(model, DispatchPolicy.fcfs(), 0);
+
+        // One request every millisecond, each taking 1.5 ms, so the queue
+        // grows and request i completes at 1.5 (i + 1)
+        for (int i = 0; i < 10; i++)
+            instance.accept(i, i % 2 == 0 ? 100 : 50);
+        instance.flush();
+
+        assertEquals(10, instance.getCompletedCount());
+        assertEquals(15, instance.getTime(), 1e-9);
+        assertEquals(1.5, instance.getResponseTimeHistogram().getMin() / 1e6, 1e-9);
+        assertEquals(6, instance.getMaxResponseTime(), 0.01);
+        assertEquals(3.75, instance.getMeanResponseTime(), 1e-6);
+        assertEquals(3.5, instance.getResponseTimePercentile(50), 0.02);
+        assertEquals(10 / 15.0 * 1000, instance.getThroughput(), 1e-6);
+        assertEquals(1, instance.getUtilization(), 1e-9);
+        assertEquals(100 + 9 * 50, instance.getTotalMoves());
+        assertTrue(instance.getMaxPendingCount() >= 3);
+    }
+
+    /**
+     * Test of the policies changing their minds as requests arrive.
+     */
+    @Test
+    public void testArrivalsChangeTheOrder() {
+        System.out.println("arrivals during a seek");
+        OnlineDiskSimulator instance = new OnlineDiskSimulator(model, DispatchPolicy.sstf(), 0);
+
+        // While the head goes to 100, a far request and then a near one
+        // arrive. SSTF would have taken 150 first if the near one had been there.
+        instance.accept(0, 100);
+        instance.accept(0.5, 199);
+        instance.accept(1.2, 110);
+        instance.flush();
+        assertEquals(100 + 10 + 89, instance.getTotalMoves());
+
+        instance = new OnlineDiskSimulator(model, DispatchPolicy.sstf(), 0);
+        instance.accept(0, 100);
+        instance.accept(0.5, 199);
+        instance.accept(1.6, 110);
+        instance.flush();
+        assertEquals(100 + 99 + 89, instance.getTotalMoves());
+    }
+
+    /**
+     * Test of a sustained stream of a million requests.
+     */
+    @Test(timeout=10000)
+    public void testSustainedStream() {
+        System.out.println("a million requests");
+        // A fast device: 0.1 microseconds to settle, 0.5 to cross the disk,
+        // serving a few million requests per second
+        DiskTimingModel fast = new DiskTimingModel(10000, 64, 1e9, 0.0001, 0.0005, 1);
+        OnlineDiskSimulator instance = new OnlineDiskSimulator(fast, DispatchPolicy.clook(), 0);
+        Random random = new Random(2019);
+
+        double time = 0;
+        for (int i = 0; i < 1000000; i++) {
+            time += random.nextDouble() * 0.0008;
+            instance.accept(time, random.nextInt(10000), random.nextInt(64));
+        }
+        instance.flush();
+
+        assertEquals(1000000, instance.getCompletedCount());
+        assertEquals(0, instance.getPendingCount());
+        assertTrue(instance.getThroughput() > 2e6);
+        assertTrue(instance.getResponseTimePercentile(99) >= instance.getResponseTimePercentile(50));
+    }
+
+    /**
+     * Test of getName method, of interface DispatchPolicy, whose names
+     * label the seeks and must not change from run to run.
+     */
+    @Test
+    public void testPolicyNames() {
+        System.out.println("policy names");
+        assertEquals("FCFS", DispatchPolicy.fcfs().getName());
+        assertEquals("SSTF", DispatchPolicy.sstf().getName());
+        assertEquals("LOOK", DispatchPolicy.look(true).getName());
+        assertEquals("CLOOK", DispatchPolicy.clook().getName());
+        assertEquals("Deadline", new DeadlinePolicy(200).getName());
+        assertEquals("BFQ", new BudgetFairPolicy(200).getName());
+
+        DispatchPolicy named = DispatchPolicy.named("oldest", (pending, head, time) -> pending.oldest());
+        assertEquals("oldest", named.getName());
+        OnlineDiskSimulator instance = new OnlineDiskSimulator(model, named, 0);
+        instance.accept(0, 10);
+        instance.accept(0, 5);
+        instance.flush();
+        assertEquals(15, instance.getTotalMoves());
+    }
+
+    /**
+     * Test of accept method, of class OnlineDiskSimulator, with an arrival from the past.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testArrivalFromThePast() {
+        System.out.println("arrival from the past");
+        OnlineDiskSimulator instance = new OnlineDiskSimulator(model, DispatchPolicy.fcfs(), 0);
+        instance.accept(5, 10);
+        instance.accept(4, 10);
+    }
+
+}
@@ -0,0 +1,117 @@
+package schedulerdisk;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PendingRequestIndexTest {
+
+    public PendingRequestIndexTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of ceiling, floor and first methods, of class PendingRequestIndex.
+     */
+    @Test
+    public void testNearest() {
+        System.out.println("ceiling and floor");
+        PendingRequestIndex instance = new PendingRequestIndex(200);
+        instance.add(0, 98);
+        instance.add(1, 37);
+        instance.add(2, 98);
+
+        assertEquals(37, instance.ceiling(0));
+        assertEquals(37, instance.ceiling(37));
+        assertEquals(98, instance.ceiling(38));
+        assertEquals(-1, instance.ceiling(99));
+        assertEquals(-1, instance.floor(36));
+        assertEquals(37, instance.floor(97));
+        assertEquals(98, instance.floor(500));
+        assertEquals(0, instance.first(98));
+        assertEquals(2, instance.count(98));
+        assertEquals(0, instance.oldest());
+
+        instance.remove(0);
+        assertEquals(2, instance.first(98));
+        assertEquals(1, instance.oldest());
+        assertEquals(2, instance.size());
+    }
+
+    /**
+     * Test of the index against a TreeMap of FIFO queues.
+     */
+    @Test
+    public void testAgainstTreeMap() {
+        System.out.println("PendingRequestIndex against a TreeMap");
+        Random random = new Random(2019);
+        PendingRequestIndex instance = new PendingRequestIndex(1000);
+        TreeMap<Integer, ArrayDeque<Integer>> expected = new TreeMap<>();
+        List<Integer> ids = new ArrayList<>();
+        ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+        int nextId = 0;
+
+        for (int step = 0; step < 100000; step++) {
+            if (ids.isEmpty() || random.nextInt(3) > 0) {
+                int id = freeIds.isEmpty() ? nextId++ : freeIds.pop();
+                int cylinder = random.nextInt(1000);
+                instance.add(id, cylinder);
+                expected.computeIfAbsent(cylinder, c -> new ArrayDeque<>()).add(id);
+                ids.add(id);
+            } else {
+                int id = ids.remove(random.nextInt(ids.size()));
+                int cylinder = instance.getCylinder(id);
+                instance.remove(id);
+                expected.get(cylinder).remove(id);
+                if (expected.get(cylinder).isEmpty())
+                    expected.remove(cylinder);
+                freeIds.push(id);
+            }
+
+            int cylinder = random.nextInt(1002) - 1;
+            Integer ceiling = expected.ceilingKey(cylinder);
+            Integer floor = expected.floorKey(cylinder);
+            assertEquals(ceiling == null ? -1 : (int) ceiling, instance.ceiling(cylinder));
+            assertEquals(floor == null ? -1 : (int) floor, instance.floor(cylinder));
+            if (ceiling != null)
+                assertEquals((int) expected.get(ceiling).peek(), instance.first(ceiling));
+            assertEquals(ids.size(), instance.size());
+        }
+    }
+
+    /**
+     * Test of add method, of class PendingRequestIndex, with a request which is already pending.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddTwice() {
+        System.out.println("add twice");
+        PendingRequestIndex instance = new PendingRequestIndex(10);
+        instance.add(3, 1);
+        instance.add(3, 2);
+    }
+
+}
@@ -0,0 +1,210 @@
+package schedulerdisk;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RaidArrayTest {
+
+    private DiskTimingModel model;
+
+    public RaidArrayTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        // Requests of 8 sectors, on disks of 1000 cylinders of 100 sectors
+        model = new DiskTimingModel(1000, 100, 7200, 1, 10, 8);
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    private static long[] sectors(long... sectors) {
+        return sectors;
+    }
+
+    /**
+     * Test of striping without redundancy.
+     */
+    @Test
+    public void testRaid0() {
+        System.out.println("RAID-0");
+        RaidArray instance = new RaidArray(RaidLevel.RAID0, 4, 8, model);
+        assertEquals(4 * 1000 * 100, instance.getCapacity());
+
+        // One chunk on every disk, all at the start, so they all take
+        // just the transfer
+        instance.run(sectors(0), new int[] {32}, new boolean[] {false}, DiskPolicy.FCFS);
+        assertEquals(4, instance.getPhysicalReadCount());
+        assertEquals(model.getTransferTime(), instance.getCompletionTimes()[0], 1e-9);
+        for (double busy : instance.getBusyTimes())
+            assertEquals(model.getTransferTime(), busy, 1e-9);
+
+        // A request within a chunk touches one disk
+        instance.run(sectors(8), new int[] {4}, new boolean[] {true}, DiskPolicy.FCFS);
+        assertEquals(0, instance.getPhysicalReadCount());
+        assertEquals(1, instance.getPhysicalWriteCount());
+        assertEquals(1, instance.getWritePenalty(), 0);
+        assertEquals(0, instance.getBusyTimes()[0], 0);
+    }
+
+    /**
+     * Test of mirroring.
+     */
+    @Test
+    public void testRaid1() {
+        System.out.println("RAID-1");
+        RaidArray instance = new RaidArray(RaidLevel.RAID1, 3, 8, model);
+        assertEquals(1000 * 100, instance.getCapacity());
+
+        instance.run(sectors(0, 0, 8, 16), new int[] {8, 8, 8, 8}, new boolean[] {true, false, false, false},
+                DiskPolicy.FCFS);
+        assertEquals(3, instance.getPhysicalWriteCount());
+        assertEquals(3, instance.getPhysicalReadCount());
+        assertEquals(3, instance.getWritePenalty(), 0);
+
+        // The reads of the three chunks go to the three disks, each after
+        // its copy of the write
+        for (double busy : instance.getBusyTimes())
+            assertTrue(busy >= 2 * model.getTransferTime());
+    }
+
+    /**
+     * Test of the read-modify-write penalty of the parity layouts.
+     */
+    @Test
+    public void testParity() {
+        System.out.println("parity");
+
+        // A small RAID-5 write reads and writes the data and the parity
+        RaidArray instance = new RaidArray(RaidLevel.RAID5, 4, 8, model);
+        assertEquals(3 * 1000 * 100, instance.getCapacity());
+        instance.run(sectors(0), new int[] {8}, new boolean[] {true}, DiskPolicy.FCFS);
+        assertEquals(2, instance.getPhysicalReadCount());
+        assertEquals(2, instance.getPhysicalWriteCount());
+        assertEquals(4, instance.getWritePenalty(), 0);
+
+        // The writes wait for the reads
+        assertEquals(2 * model.getTransferTime(), instance.getCompletionTimes()[0], 1e-9);
+
+        // A whole row needs no reads
+        instance.run(sectors(0), new int[] {24}, new boolean[] {true}, DiskPolicy.FCFS);
+        assertEquals(0, instance.getPhysicalReadCount());
+        assertEquals(4, instance.getPhysicalWriteCount());
+        assertEquals(model.getTransferTime(), instance.getCompletionTimes()[0], 1e-9);
+
+        // Most of a row is cheaper to write by reading the rest of it
+        instance = new RaidArray(RaidLevel.RAID5, 6, 8, model);
+        instance.run(sectors(0), new int[] {32}, new boolean[] {true}, DiskPolicy.FCFS);
+        assertEquals(1, instance.getPhysicalReadCount());
+        assertEquals(5, instance.getPhysicalWriteCount());
+
+        // A small RAID-6 write updates both P and Q
+        instance = new RaidArray(RaidLevel.RAID6, 6, 8, model);
+        assertEquals(4 * 1000 * 100, instance.getCapacity());
+        instance.run(sectors(0), new int[] {8}, new boolean[] {true}, DiskPolicy.FCFS);
+        assertEquals(3, instance.getPhysicalReadCount());
+        assertEquals(3, instance.getPhysicalWriteCount());
+        assertEquals(6, instance.getWritePenalty(), 0);
+
+        // Reads are not penalized, and 64 sectors from sector 100 touch
+        // 9 chunks
+        instance.run(sectors(0, 100), new int[] {8, 64}, new boolean[] {false, false}, DiskPolicy.FCFS);
+        assertEquals(0, instance.getWritePenalty(), 0);
+        assertEquals(1 + 9, instance.getPhysicalReadCount());
+    }
+
+    // Random requests of 8 sectors
+    private static long[] randomSectors(int n, long capacity, long seed) {
+        Random random = new Random(seed);
+        long[] sectors = new long[n];
+        for (int i = 0; i < n; i++)
+            sectors[i] = (long) (random.nextDouble() * (capacity - 8));
+        return sectors;
+    }
+
+    /**
+     * Test of the disks working in parallel.
+     */
+    @Test
+    public void testParallel() {
+        System.out.println("parallel");
+        int[] lengths = new int[400];
+        java.util.Arrays.fill(lengths, 8);
+        boolean[] writes = new boolean[400];
+
+        // The same requests on one disk and striped over four
+        RaidArray single = new RaidArray(RaidLevel.RAID0, 1, 8, model);
+        RaidArray striped = new RaidArray(RaidLevel.RAID0, 4, 8, model);
+        long[] sectors = randomSectors(400, single.getCapacity(), 2019);
+        single.run(sectors, lengths, writes, DiskPolicy.SSTF);
+        striped.run(sectors, lengths, writes, DiskPolicy.SSTF);
+        assertTrue(striped.getTotalTime() < single.getTotalTime() / 2);
+
+        // The pool does not change the results
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            RaidArray serial = new RaidArray(RaidLevel.RAID5, 5, 16, model, pool);
+            RaidArray parallel = new RaidArray(RaidLevel.RAID5, 5, 16, model);
+            sectors = randomSectors(400, serial.getCapacity(), 2020);
+            for (int i = 0; i < writes.length; i++)
+                writes[i] = i % 3 == 0;
+            serial.run(sectors, lengths, writes, DiskPolicy.CLOOK);
+            parallel.run(sectors, lengths, writes, DiskPolicy.CLOOK);
+            assertArrayEquals(serial.getCompletionTimes(), parallel.getCompletionTimes(), 0);
+            assertArrayEquals(serial.getBusyTimes(), parallel.getBusyTimes(), 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test of the choice of a stripe size for sequential writes.
+     */
+    @Test
+    public void testStripeSize() {
+        System.out.println("stripe size");
+        long[] sectors = new long[100];
+        int[] lengths = new int[100];
+        boolean[] writes = new boolean[100];
+        for (int i = 0; i < 100; i++) {
+            sectors[i] = 96L * i;
+            lengths[i] = 96;
+            writes[i] = true;
+        }
+
+        // Writes of 96 sectors fill rows of 3 chunks of 32, but only half
+        // rows of chunks of 64
+        RaidArray small = new RaidArray(RaidLevel.RAID5, 4, 32, model);
+        RaidArray large = new RaidArray(RaidLevel.RAID5, 4, 64, model);
+        small.run(sectors, lengths, writes, DiskPolicy.LOOK);
+        large.run(sectors, lengths, writes, DiskPolicy.LOOK);
+
+        assertEquals(0, small.getPhysicalReadCount());
+        assertEquals(100, large.getPhysicalReadCount());
+        assertTrue(small.getTotalTime() < large.getTotalTime());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooFewDisks() {
+        System.out.println("too few disks");
+        new RaidArray(RaidLevel.RAID6, 2, 8, model);
+    }
+
+}
@@ -0,0 +1,265 @@
+package schedulerdisk;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RequestMergerTest {
+
+    public RequestMergerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of back, front and duplicate merges.
+     */
+    @Test
+    public void testMerges() {
+        System.out.println("merges");
+        RequestMerger instance = new RequestMerger(10, 4, 100);
+
+        // Back merge, then a front merge, then a merge into the next cylinder
+        instance.accept(0, 0, 2);
+        instance.accept(0, 2, 3);
+        instance.accept(1, 5, 5);
+        instance.accept(1, 0, 5);
+        instance.accept(2, 8, 2);
+        instance.accept(3, 0, 2);
+
+        // A duplicate, and a request overlapping another one, which is kept
+        instance.accept(0, 0, 5);
+        instance.accept(1, 2, 3);
+        instance.flush();
+
+        assertArrayEquals(new int[] {0, 1, 2, 1}, instance.getCylinders());
+        assertArrayEquals(new int[] {0, 1, 3, 1}, instance.getEndCylinders());
+        assertArrayEquals(new int[] {0, 1, 2, 3, 1}, instance.getVisitedCylinders());
+        assertArrayEquals(new int[] {0, 0, 8, 2}, instance.getSectors());
+        assertArrayEquals(new int[] {5, 10, 4, 3}, instance.getLengths());
+        assertEquals(8, instance.getInputCount());
+        assertEquals(4, instance.getOutputCount());
+        assertEquals(2, instance.getBackMergeCount());
+        assertEquals(1, instance.getFrontMergeCount());
+        assertEquals(1, instance.getDuplicateCount());
+        assertEquals(0.5, instance.getMergeRatio(), 1e-9);
+    }
+
+    /**
+     * Test of the limits on merging: the window and the size of a request.
+     */
+    @Test
+    public void testLimits() {
+        System.out.println("limits");
+
+        // The first request has left the window when its neighbour comes
+        RequestMerger instance = new RequestMerger(10, 2, 100);
+        instance.accept(0, 0, 1);
+        instance.accept(5, 0, 1);
+        instance.accept(7, 0, 1);
+        assertEquals(1, instance.getOutputCount());
+        assertEquals(2, instance.getPendingCount());
+        instance.accept(0, 1, 1);
+        instance.flush();
+        assertArrayEquals(new int[] {0, 5, 7, 0}, instance.getCylinders());
+        assertEquals(0, instance.getMergeRatio(), 0);
+
+        // A request stops growing at maxSectors
+        instance = new RequestMerger(10, 8, 16);
+        for (int sector = 0; sector < 40; sector += 4)
+            instance.accept(sector / 10, sector % 10, 4);
+        instance.flush();
+        assertArrayEquals(new int[] {0, 1, 3}, instance.getCylinders());
+        assertArrayEquals(new int[] {0, 6, 2}, instance.getSectors());
+        assertArrayEquals(new int[] {16, 16, 8}, instance.getLengths());
+    }
+
+    /**
+     * Test of overlapping requests in the window, which share a first or an
+     * end sector.
+     */
+    @Test
+    public void testOverlapping() {
+        System.out.println("overlapping");
+        RequestMerger instance = new RequestMerger(64, 4, 64);
+
+        // A duplicate of the second of two requests with the same start
+        instance.accept(5, 0, 8);
+        instance.accept(5, 0, 16);
+        instance.accept(5, 0, 16);
+        assertEquals(1, instance.getDuplicateCount());
+        assertEquals(2, instance.getPendingCount());
+
+        // The second one still takes merges and duplicates once the first
+        // one has left the window
+        instance.accept(5, 16, 8);
+        instance.accept(5, 0, 8);
+        instance.accept(10, 0, 8);
+        instance.accept(20, 0, 8);
+        instance.accept(30, 0, 8);
+        assertEquals(1, instance.getOutputCount());
+        instance.accept(5, 0, 24);
+        instance.accept(5, 24, 8);
+        instance.flush();
+
+        assertArrayEquals(new int[] {5, 5, 10, 20, 30}, instance.getCylinders());
+        assertArrayEquals(new int[] {8, 32, 8, 8, 8}, instance.getLengths());
+        assertEquals(10, instance.getInputCount());
+        assertEquals(2, instance.getBackMergeCount());
+        assertEquals(0, instance.getFrontMergeCount());
+        assertEquals(3, instance.getDuplicateCount());
+
+        // Requests with the same end, the newest of which is full: the
+        // back merge goes to the other one
+        instance = new RequestMerger(64, 4, 16);
+        instance.accept(0, 8, 8);
+        instance.accept(0, 0, 16);
+        instance.accept(0, 16, 8);
+        instance.flush();
+        assertArrayEquals(new int[] {8, 0}, instance.getSectors());
+        assertArrayEquals(new int[] {16, 16}, instance.getLengths());
+        assertEquals(1, instance.getBackMergeCount());
+    }
+
+    /**
+     * Test of requests for whole cylinders.
+     */
+    @Test
+    public void testCylinders() {
+        System.out.println("cylinders");
+        RequestMerger instance = new RequestMerger(4, 8, 1024);
+
+        int[] requests = {10, 11, 12, 50, 50, 9};
+        instance.accept(requests, 0, requests.length);
+        instance.flush();
+
+        assertArrayEquals(new int[] {9, 50}, instance.getCylinders());
+        assertArrayEquals(new int[] {12, 50}, instance.getEndCylinders());
+        assertArrayEquals(new int[] {9, 12, 50}, instance.getVisitedCylinders());
+        assertArrayEquals(new int[] {16, 4}, instance.getLengths());
+        assertEquals(4 / 6.0, instance.getMergeRatio(), 1e-9);
+    }
+
+    /**
+     * Test of a long stream, which the window keeps bounded.
+     */
+    @Test
+    public void testStream() {
+        System.out.println("stream");
+        RequestMerger instance = new RequestMerger(64, 32, 256);
+        Random random = new Random(2019);
+
+        // Sequential runs interleaved with random requests
+        int sequential = 0;
+        for (int i = 0; i < 1000000; i++) {
+            if (random.nextBoolean()) {
+                instance.accept(sequential / 64, sequential % 64, 8);
+                sequential += 8;
+            } else {
+                instance.accept(random.nextInt(10000), random.nextInt(64), 8);
+            }
+            assertTrue(instance.getPendingCount() <= 32);
+        }
+
+        long merged = instance.getBackMergeCount() + instance.getFrontMergeCount() + instance.getDuplicateCount();
+        assertEquals(1000000, instance.getOutputCount() + instance.getPendingCount() + merged);
+        assertTrue(instance.getMergeRatio() > 0.4);
+
+        instance.flush();
+        long sectors = 0;
+        for (int length : instance.getLengths())
+            sectors += length;
+        assertEquals(8 * (1000000 - instance.getDuplicateCount()), sectors);
+    }
+
+    /**
+     * Test of the comparison of the policies.
+     */
+    @Test
+    public void testCompareMoves() {
+        System.out.println("compare moves");
+        Random random = new Random(2019);
+        int[] requests = new int[1000];
+        for (int i = 0; i < requests.length; i++)
+            requests[i] = random.nextInt(200);
+
+        RequestMerger merger = new RequestMerger(1, 64, 1024);
+        merger.accept(requests, 0, requests.length);
+        merger.flush();
+        int[] merged = merger.getVisitedCylinders();
+        assertTrue(merged.length < requests.length);
+
+        long[][] moves = RequestMerger.compareMoves(200, 53, 52, requests, merger, null);
+        assertEquals(DiskPolicy.values().length, moves.length);
+        assertArrayEquals(new long[] {-1, -1}, moves[DiskPolicy.SPTF.ordinal()]);
+
+        // Merged requests start and end at cylinders which were requested
+        // already, so the sweeps cannot get longer
+        for (DiskPolicy policy
+                : new DiskPolicy[] {DiskPolicy.LOOK, DiskPolicy.CLOOK, DiskPolicy.SCAN, DiskPolicy.CSCAN})
+            assertTrue(moves[policy.ordinal()][1] <= moves[policy.ordinal()][0]);
+        assertTrue(moves[DiskPolicy.FCFS.ordinal()][1] < moves[DiskPolicy.FCFS.ordinal()][0]);
+
+        DiskScheduler instance = new DiskScheduler(200, 53, 52);
+        DiskPolicy.SSTF.run(instance, merged);
+        assertEquals(instance.getTotalMovesLong(), moves[DiskPolicy.SSTF.ordinal()][1]);
+
+        // With a timing model, SPTF takes part as well
+        moves = RequestMerger.compareMoves(200, 53, 52, requests, merger, new DiskTimingModel(200, 1, 7200, 1, 10, 0));
+        assertTrue(moves[DiskPolicy.SPTF.ordinal()][1] >= 0);
+
+        // Adjacent whole cylinders merge into one request, but the head
+        // still has to travel to the second of them
+        merger = new RequestMerger(1, 4, 2);
+        merger.accept(new int[] {5, 6}, 0, 2);
+        merger.flush();
+        assertArrayEquals(new int[] {5}, merger.getCylinders());
+        moves = RequestMerger.compareMoves(200, 0, 0, new int[] {5, 6}, merger, null);
+        assertArrayEquals(new long[] {6, 6}, moves[DiskPolicy.FCFS.ordinal()]);
+        assertArrayEquals(new long[] {6, 6}, moves[DiskPolicy.SSTF.ordinal()]);
+    }
+
+    /**
+     * Test of the comparison of the policies, on a batch whose moves do not
+     * fit into an int.
+     */
+    @Test
+    public void testCompareMovesLarge() {
+        System.out.println("compare moves, large");
+        int[] requests = new int[3000000];
+        for (int i = 0; i < requests.length; i++)
+            requests[i] = i % 2 == 0 ? 0 : 999;
+
+        // The window holds both cylinders, so every further request is a
+        // duplicate
+        RequestMerger merger = new RequestMerger(1, 4, 1);
+        merger.accept(requests, 0, requests.length);
+        merger.flush();
+        assertArrayEquals(new int[] {0, 999}, merger.getVisitedCylinders());
+
+        long[][] moves = RequestMerger.compareMoves(1000, 0, 0, requests, merger, null);
+        assertEquals((long) (requests.length - 1) * 999, moves[DiskPolicy.FCFS.ordinal()][0]);
+        assertTrue(moves[DiskPolicy.FCFS.ordinal()][0] > Integer.MAX_VALUE);
+        assertEquals(999, moves[DiskPolicy.FCFS.ordinal()][1]);
+    }
+
+}
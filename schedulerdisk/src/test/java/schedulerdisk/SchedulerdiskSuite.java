@@ -12,7 +12,17 @@ import org.junit.runners.Suite;
  * @author yasiro01
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({schedulerdisk.DiskSchedulerTest.class, schedulerdisk.SimpleRequestTest.class})
+@Suite.SuiteClasses({schedulerdisk.DiskSchedulerTest.class, schedulerdisk.SimpleRequestTest.class,
+    schedulerdisk.DiskTimingModelTest.class,
+    schedulerdisk.PendingRequestIndexTest.class, schedulerdisk.LatencyHistogramTest.class,
+    schedulerdisk.OnlineDiskSimulatorTest.class, schedulerdisk.DeadlinePolicyTest.class,
+    schedulerdisk.BudgetFairPolicyTest.class, schedulerdisk.RequestMergerTest.class,
+    schedulerdisk.FlashDeviceModelTest.class, schedulerdisk.SubmissionQueueTest.class,
+    schedulerdisk.MultiQueueSimulatorTest.class, schedulerdisk.RaidArrayTest.class,
+    schedulerdisk.BlockTraceReaderTest.class, schedulerdisk.CylinderBucketIndexTest.class,
+    schedulerdisk.DiskScheduleResultTest.class, schedulerdisk.SeekKernelsTest.class,
+    schedulerdisk.CylinderStreamGeneratorTest.class, schedulerdisk.HeadSweepTest.class,
+    schedulerdisk.InstrumentationTest.class})
 public class SchedulerdiskSuite {
 
     @BeforeClass
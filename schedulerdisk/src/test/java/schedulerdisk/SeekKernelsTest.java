@@ -0,0 +1,165 @@
+package schedulerdisk;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class SeekKernelsTest {
+
+    public SeekKernelsTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of sumDistances method, of class SeekKernels.
+     */
+    @Test
+    public void testSumDistances() {
+        System.out.println("sumDistances");
+        int[] requests = {98, 183, 37, 122, 14, 124, 65, 67};
+
+        assertEquals(640, SeekKernels.sumDistances(53, requests, 0, requests.length));
+        assertEquals(0, SeekKernels.sumDistances(53, requests, 3, 3));
+        assertEquals(85 + 146, SeekKernels.sumDistances(98, requests, 1, 3));
+
+        // Every lane and the tail, in one chunk or several, against FCFS
+        Random random = new Random(46);
+        int[] large = new int[100003];
+        for (int i = 0; i < large.length; i++)
+            large[i] = random.nextInt(5000);
+
+        DiskScheduler scheduler = new DiskScheduler(5000, 143, 125);
+        long expected = scheduler.useFCFS(large).getMoves();
+        assertEquals(expected, SeekKernels.sumDistances(143, large, 0, large.length));
+        assertEquals(expected, SeekKernels.sumDistances(143, large, 0, large.length, 7));
+    }
+
+    /**
+     * Test of sumDistances method, of class SeekKernels, with distances
+     * which overflow an int.
+     */
+    @Test
+    public void testSumDistancesOverflow() {
+        System.out.println("sumDistances overflow");
+        int[] requests = {Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+        assertEquals(2 * (1L << 32) - 2 + Integer.MAX_VALUE, SeekKernels.sumDistances(0, requests, 0, 3));
+    }
+
+    /**
+     * Test of nearest and minDistance methods, of class SeekKernels.
+     */
+    @Test
+    public void testNearest() {
+        System.out.println("nearest");
+        int[] requests = {98, 183, 37, 122, 14, 124, 65, 67, 41};
+
+        assertEquals(6, SeekKernels.nearest(53, requests, 0, requests.length));
+        assertEquals(12, SeekKernels.minDistance(53, requests, 0, requests.length));
+        assertEquals(8, SeekKernels.nearest(40, requests, 0, requests.length));
+        assertEquals(-1, SeekKernels.nearest(40, requests, 4, 4));
+        assertEquals(-1, SeekKernels.minDistance(40, requests, 4, 4));
+
+        // Ties go to the lowest index: 37 and 41 are both 2 away from 39,
+        // and so are 122 and 124 from 123
+        assertEquals(2, SeekKernels.nearest(39, requests, 0, requests.length));
+        assertEquals(3, SeekKernels.nearest(123, requests, 0, requests.length));
+        assertEquals(8, SeekKernels.nearest(39, requests, 3, requests.length));
+    }
+
+    /**
+     * Test of nearest method, of class SeekKernels, against a plain loop,
+     * in one chunk or several.
+     */
+    @Test
+    public void testNearestAgainstLoop() {
+        System.out.println("nearest against a loop");
+        Random random = new Random(47);
+        int[] requests = new int[50001];
+        for (int i = 0; i < requests.length; i++)
+            requests[i] = random.nextInt(random.nextBoolean() ? 100 : 5000);
+
+        for (int round = 0; round < 20; round++) {
+            int head = random.nextInt(5200) - 100;
+            int from = random.nextInt(100);
+            int to = requests.length - random.nextInt(100);
+
+            int expected = from;
+            for (int i = from; i < to; i++)
+                if (Math.abs(requests[i] - head) < Math.abs(requests[expected] - head))
+                    expected = i;
+
+            assertEquals(expected, SeekKernels.nearest(head, requests, from, to));
+            assertEquals(expected, SeekKernels.nearest(head, requests, from, to, 5));
+        }
+    }
+
+    /**
+     * Test of the Vector API kernels against the scalar ones, when the JVM
+     * runs with the incubator module.
+     */
+    @Test
+    public void testVectorized() {
+        System.out.println("vectorized kernels");
+        assumeTrue(SeekKernels.isVectorized());
+        Random random = new Random(48);
+
+        // Every length up to a few vectors, then the tail of a large batch
+        for (int length = 0; length < 70; length++) {
+            int[] requests = new int[length];
+            for (int i = 0; i < length; i++)
+                requests[i] = random.nextInt(40) - 20;
+
+            assertEquals(SeekKernels.sumDistances(3, requests, 0, length, 1, false),
+                         SeekKernels.sumDistances(3, requests, 0, length, 1, true));
+            assertEquals(SeekKernels.nearest(3, requests, 0, length, 1, false),
+                         SeekKernels.nearest(3, requests, 0, length, 1, true));
+        }
+
+        int[] large = new int[100003];
+        for (int i = 0; i < large.length; i++)
+            large[i] = random.nextInt(5000);
+        assertEquals(SeekKernels.sumDistances(143, large, 5, large.length, 7, false),
+                     SeekKernels.sumDistances(143, large, 5, large.length, 7, true));
+        assertEquals(SeekKernels.nearest(2500, large, 5, large.length, 7, false),
+                     SeekKernels.nearest(2500, large, 5, large.length, 7, true));
+
+        // Differences which overflow an int, in the vector loop
+        int[] extremes = new int[64];
+        for (int i = 0; i < extremes.length; i++)
+            extremes[i] = i % 2 == 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+        assertEquals(SeekKernels.sumDistances(0, extremes, 0, 64, 1, false),
+                     SeekKernels.sumDistances(0, extremes, 0, 64, 1, true));
+    }
+
+    /**
+     * Test of sumDistances method, of class SeekKernels, with a bad range.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testBadRange() {
+        System.out.println("sumDistances bad range");
+        SeekKernels.sumDistances(0, new int[4], 2, 5);
+    }
+
+}
@@ -0,0 +1,113 @@
+package schedulerdisk;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SubmissionQueueTest {
+
+    public SubmissionQueueTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of offering and taking in a single thread.
+     */
+    @Test
+    public void testFifo() {
+        System.out.println("fifo");
+        SubmissionQueue instance = new SubmissionQueue(3);
+        assertEquals(4, instance.getCapacity());
+        assertFalse(instance.isReady());
+
+        for (int i = 0; i < 4; i++)
+            assertTrue(instance.offer(i, 10 * i, i % 2 == 1));
+        assertFalse(instance.offer(4, 40, false));
+        assertEquals(4, instance.size());
+
+        // Around the ring a few times
+        for (int i = 0; i < 20; i++) {
+            assertTrue(instance.isReady());
+            assertEquals(i, instance.peekTime(), 0);
+            assertEquals(10 * i, instance.peekSector());
+            assertEquals(i % 2 == 1, instance.peekWrite());
+            instance.remove();
+            assertTrue(instance.offer(i + 4, 10 * (i + 4), (i + 4) % 2 == 1));
+        }
+        assertEquals(4, instance.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRemoveEmpty() {
+        System.out.println("remove empty");
+        new SubmissionQueue(4).remove();
+    }
+
+    /**
+     * Test of producers and a consumer racing each other.
+     */
+    @Test
+    public void testConcurrent() throws InterruptedException {
+        System.out.println("concurrent");
+        SubmissionQueue instance = new SubmissionQueue(64);
+        int producers = 4;
+        int requests = 200000;
+        AtomicLong failures = new AtomicLong();
+
+        // Every producer offers its own numbers in order, the sector saying
+        // which producer it is and the time which number
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < requests; i++) {
+                    while (!instance.offer(i, producer, false)) {
+                        failures.incrementAndGet();
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        // Every producer's numbers must come out in order and none twice
+        long[] next = new long[producers];
+        for (int taken = 0; taken < producers * requests; ) {
+            if (!instance.isReady()) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) instance.peekSector();
+            assertEquals(next[producer]++, (long) instance.peekTime());
+            instance.remove();
+            taken++;
+        }
+
+        for (Thread thread : threads)
+            thread.join();
+        assertFalse(instance.isReady());
+        for (long n : next)
+            assertEquals(requests, n);
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * File:   AbstractCache.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The part shared by the caches: the capacity, the hit, miss and eviction
+ * counters and the miss path of get(key, loader).
+ *
+ */
+
+package schedulermem;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Abstract cache
+ *
+ * Subclasses implement lookup(), which records the access of a hit, and
+ * insert(), which makes room for a new entry and reports every victim
+ * through recordEviction(). The counters are LongAdders, so threads hitting
+ * the cache at the same time do not fight over a single counter.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public abstract class AbstractCache<K, V> implements Cache<K, V> {
+
+    protected final int capacity;
+
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+    private final LongAdder evictionCount;
+
+    protected AbstractCache(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+
+        this.capacity = capacity;
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+        this.evictionCount = new LongAdder();
+    }
+
+    /**
+     * Find the value of the key and record the access
+     *
+     * @param key the key
+     * @return the value, or null if the key is not cached
+     */
+    protected abstract V lookup(K key);
+
+    /**
+     * Cache a value, evicting an entry if the cache is full
+     *
+     * @param key the key
+     * @param value the value
+     * @param replace whether to replace the value of a cached key
+     * @return the value cached for the key afterwards
+     */
+    protected abstract V insert(K key, V value, boolean replace);
+
+    @Override
+    public V get(K key) {
+        V value = lookup(Objects.requireNonNull(key));
+
+        if (value == null)
+            this.missCount.increment();
+        else
+            this.hitCount.increment();
+
+        return value;
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+
+        if (value != null)
+            return value;
+
+        return insert(key, Objects.requireNonNull(loader.apply(key)), false);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        insert(Objects.requireNonNull(key), Objects.requireNonNull(value), true);
+    }
+
+    @Override
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return this.evictionCount.sum();
+    }
+
+    protected void recordEviction() {
+        this.evictionCount.increment();
+    }
+
+}
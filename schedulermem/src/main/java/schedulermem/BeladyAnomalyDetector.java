@@ -0,0 +1,200 @@
+/*
+ * File:   BeladyAnomalyDetector.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The class runs a page replacement policy for every frame count in a
+ * range, in parallel, and reports the frame counts for which adding a
+ * frame increases the number of page faults (Belady's anomaly).
+ *
+ */
+
+package schedulermem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Belady's anomaly detector
+ *
+ * Every frame count is an independent run over the same trace array, which
+ * the workers only read, so the runs are spread over the cores of a fork/join
+ * pool without any coordination. Stack algorithms such as LRU and OPT never
+ * show the anomaly; FIFO and CLOCK may.
+ */
+public class BeladyAnomalyDetector {
+
+    /**
+     * A frame count with more faults than the one just below it
+     *
+     * frames - the frame count
+     * pageFaultCount - the faults with that many frames
+     * previousPageFaultCount - the faults with one frame less
+     * windows - [start, end) reference index ranges of the trace over
+     *           which the run with more frames was behind
+     */
+    public static class Anomaly {
+        private final int frames;
+        private final long pageFaultCount;
+        private final long previousPageFaultCount;
+        private final List<int[]> windows;
+
+        Anomaly(int frames, long pageFaultCount, long previousPageFaultCount, List<int[]> windows) {
+            this.frames = frames;
+            this.pageFaultCount = pageFaultCount;
+            this.previousPageFaultCount = previousPageFaultCount;
+            this.windows = Collections.unmodifiableList(windows);
+        }
+
+        public int getFrames() {
+            return this.frames;
+        }
+
+        public long getPageFaultCount() {
+            return this.pageFaultCount;
+        }
+
+        public long getPreviousPageFaultCount() {
+            return this.previousPageFaultCount;
+        }
+
+        public List<int[]> getWindows() {
+            return this.windows;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[%d frames: %d > %d faults, %d windows]", this.frames, this.pageFaultCount,
+                                 this.previousPageFaultCount, this.windows.size());
+        }
+    }
+
+    private final IntFunction<OnlineMemoryScheduler> policy;
+    private final ForkJoinPool pool;
+    private long[] pageFaultCounts;
+    private int minFrames;
+
+    /**
+     * @param policy creates a fresh policy for the given number of frames,
+     *               for example OnlineFIFO::new
+     */
+    public BeladyAnomalyDetector(IntFunction<OnlineMemoryScheduler> policy) {
+        this(policy, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param policy creates a fresh policy for the given number of frames
+     * @param pool the pool the runs are spread over
+     */
+    public BeladyAnomalyDetector(IntFunction<OnlineMemoryScheduler> policy, ForkJoinPool pool) {
+        this.policy = policy;
+        this.pool = pool;
+        this.pageFaultCounts = new long[0];
+        this.minFrames = 0;
+    }
+
+    /**
+     * Run the policy for every frame count from minFrames to maxFrames
+     *
+     * @param references the page references, shared by all the runs
+     * @param minFrames the smallest frame count
+     * @param maxFrames the largest frame count
+     * @return the anomalies, in the order of the frame counts
+     */
+    public List<Anomaly> detect(int[] references, int minFrames, int maxFrames) {
+        if (minFrames < 1 || maxFrames < minFrames)
+            throw new IllegalArgumentException("bad frame range [" + minFrames + ", " + maxFrames + "]");
+
+        long[] faults = new long[maxFrames - minFrames + 1];
+
+        // One run per frame count, every run writes its own slot
+        invoke(() -> IntStream.rangeClosed(minFrames, maxFrames).parallel()
+                              .forEach(frames -> faults[frames - minFrames] = run(references, frames)));
+
+        this.pageFaultCounts = faults;
+        this.minFrames = minFrames;
+
+        // Only the anomalous frame counts are run again to find the windows
+        return invoke(() -> IntStream.rangeClosed(minFrames + 1, maxFrames).parallel()
+                                     .filter(frames -> faults[frames - minFrames] > faults[frames - 1 - minFrames])
+                                     .mapToObj(frames -> new Anomaly(frames, faults[frames - minFrames],
+                                                                     faults[frames - 1 - minFrames],
+                                                                     windows(references, frames)))
+                                     .collect(Collectors.toList()));
+    }
+
+    /**
+     * @param frames a frame count of the last detect() range
+     * @return the page faults of the policy with that many frames
+     */
+    public long getPageFaultCount(int frames) {
+        if (frames < this.minFrames || frames - this.minFrames >= this.pageFaultCounts.length)
+            throw new IllegalArgumentException("frames outside of the last range: " + frames);
+
+        return this.pageFaultCounts[frames - this.minFrames];
+    }
+
+    private long run(int[] references, int frames) {
+        OnlineMemoryScheduler scheduler = this.policy.apply(frames);
+        scheduler.accept(references, 0, references.length);
+        scheduler.flush();
+        return scheduler.getPageFaultCount();
+    }
+
+    // Replay the trace with frames - 1 and frames side by side and collect
+    // the ranges over which the larger memory had more faults so far.
+    private List<int[]> windows(int[] references, int frames) {
+        OnlineMemoryScheduler smaller = this.policy.apply(frames - 1);
+        OnlineMemoryScheduler larger = this.policy.apply(frames);
+        List<int[]> windows = new ArrayList<>();
+        int start = -1;
+
+        for (int i = 0; i < references.length; i++) {
+            smaller.accept(references[i]);
+            larger.accept(references[i]);
+
+            boolean behind = larger.getPageFaultCount() > smaller.getPageFaultCount();
+
+            if (behind && start < 0) {
+                start = i;
+            } else if (!behind && start >= 0) {
+                windows.add(new int[] {start, i});
+                start = -1;
+            }
+        }
+
+        if (start >= 0)
+            windows.add(new int[] {start, references.length});
+
+        return windows;
+    }
+
+    private <T> T invoke(Callable<T> task) {
+        try {
+            return this.pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while detecting anomalies", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("a run failed", e.getCause());
+        }
+    }
+
+    private void invoke(Runnable task) {
+        invoke(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+}
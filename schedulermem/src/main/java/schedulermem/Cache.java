@@ -0,0 +1,79 @@
+/*
+ * File:   Cache.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A bounded, thread-safe in-process cache whose entries are replaced by one
+ * of the page replacement policies.
+ *
+ */
+
+package schedulermem;
+
+import java.util.function.Function;
+
+/**
+ * Cache
+ *
+ * Every lookup is either a hit or a miss, and every entry pushed out to
+ * make room is an eviction. Replaying a page reference trace through
+ * get(key, loader) from a single thread gives as many misses as the
+ * matching online policy has page faults. Keys and values must not be null.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public interface Cache<K, V> {
+
+    /**
+     * @param key the key
+     * @return the cached value, or null on a miss
+     */
+    V get(K key);
+
+    /**
+     * Look the key up and load the value on a miss. The loader runs
+     * outside of the cache's locks; if two threads load the same key at
+     * the same time, the value cached first wins.
+     *
+     * @param key the key
+     * @param loader computes the value of a missing key
+     * @return the cached value
+     */
+    V get(K key, Function<? super K, ? extends V> loader);
+
+    /**
+     * Cache a value, replacing the value of the key if it is present. This
+     * is neither a hit nor a miss, but it may evict another entry.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    void put(K key, V value);
+
+    /**
+     * @param key the key
+     * @return the removed value, or null if the key was not cached
+     */
+    V remove(K key);
+
+    /**
+     * @return the number of cached entries
+     */
+    int size();
+
+    /**
+     * @return the maximum number of cached entries
+     */
+    int getCapacity();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    long getEvictionCount();
+
+}
@@ -0,0 +1,141 @@
+/*
+ * File:   ClockCache.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A thread-safe cache with CLOCK (second-chance) replacement.
+ *
+ */
+
+package schedulermem;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * CLOCK cache
+ *
+ * The replacement is the same as in OnlineCLOCK. A hit only sets the
+ * reference bit of the entry, which is a plain volatile write, so hits
+ * never take a lock. Misses that insert an entry move the hand under a
+ * lock, one at a time.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class ClockCache<K, V> extends AbstractCache<K, V> {
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        volatile boolean referenced;
+        // The frame of the entry, only used under the lock
+        int frame;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ReentrantLock lock;
+
+    // The frames, null where there is none, and the hand (guarded by the lock)
+    private final Node<K, V>[] frames;
+    private int hand;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public ClockCache(int capacity) {
+        super(capacity);
+        this.map = new ConcurrentHashMap<>(capacity);
+        this.lock = new ReentrantLock();
+        this.frames = (Node<K, V>[]) new Node<?, ?>[capacity];
+        this.hand = 0;
+        this.size = 0;
+    }
+
+    @Override
+    protected V lookup(K key) {
+        Node<K, V> node = this.map.get(key);
+
+        if (node == null)
+            return null;
+
+        node.referenced = true;
+        return node.value;
+    }
+
+    @Override
+    protected V insert(K key, V value, boolean replace) {
+        this.lock.lock();
+        try {
+            // Another thread may have cached the key in the meantime
+            Node<K, V> node = this.map.get(key);
+            if (node != null) {
+                if (replace)
+                    node.value = value;
+                node.referenced = true;
+                return node.value;
+            }
+
+            // While there are free frames the hand simply moves on to the
+            // next one, afterwards it gives every referenced entry a second
+            // chance. Removed entries leave free frames behind, which are
+            // taken before anything is evicted.
+            while (this.frames[this.hand] != null) {
+                Node<K, V> current = this.frames[this.hand];
+
+                if (this.size == this.capacity && !current.referenced) {
+                    this.map.remove(current.key);
+                    this.frames[this.hand] = null;
+                    this.size--;
+                    recordEviction();
+                    break;
+                }
+
+                if (this.size == this.capacity)
+                    current.referenced = false;
+                this.hand = (this.hand + 1) % this.capacity;
+            }
+
+            node = new Node<>(key, value);
+            node.referenced = true;
+            node.frame = this.hand;
+            this.frames[this.hand] = node;
+            this.map.put(key, node);
+            this.size++;
+            this.hand = (this.hand + 1) % this.capacity;
+
+            return value;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        this.lock.lock();
+        try {
+            Node<K, V> node = this.map.remove(key);
+            if (node == null)
+                return null;
+
+            this.frames[node.frame] = null;
+            this.size--;
+            return node.value;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.map.size();
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * File:   EvictionEvent.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The Flight Recorder event of a page leaving memory.
+ *
+ */
+
+package schedulermem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eviction event
+ *
+ * Committed for a sample of the evictions (see Instrumentation), without a
+ * stack trace, which would cost more than the eviction itself.
+ */
+@Name("schedulermem.Eviction")
+@Label("Page Eviction")
+@Category({"OS Scheduling", "Memory"})
+@Description("A page which left memory, sampled")
+@StackTrace(false)
+final class EvictionEvent extends jdk.jfr.Event {
+
+    @Label("Policy")
+    String policy;
+
+    @Label("Page")
+    long page;
+
+    @Label("Dirty")
+    @Description("Whether the page had to be written back")
+    boolean dirty;
+
+}
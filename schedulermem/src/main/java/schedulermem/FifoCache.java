@@ -0,0 +1,126 @@
+/*
+ * File:   FifoCache.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A thread-safe cache with first-in, first-out (FIFO) replacement.
+ *
+ */
+
+package schedulermem;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * FIFO cache
+ *
+ * The replacement is the same as in OnlineFIFO. The order of the entries
+ * never changes after they are cached, so a hit is nothing but a lookup
+ * in the concurrent map. Insertions and evictions take a lock.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class FifoCache<K, V> extends AbstractCache<K, V> {
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        // Whether the entry was removed, only used under the lock
+        boolean removed;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ReentrantLock lock;
+
+    // The entries in the order they were cached, removed ones included
+    // until they reach the head (guarded by the lock)
+    private final ArrayDeque<Node<K, V>> queue;
+    private int size;
+
+    public FifoCache(int capacity) {
+        super(capacity);
+        this.map = new ConcurrentHashMap<>(capacity);
+        this.lock = new ReentrantLock();
+        this.queue = new ArrayDeque<>(capacity);
+        this.size = 0;
+    }
+
+    @Override
+    protected V lookup(K key) {
+        Node<K, V> node = this.map.get(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    protected V insert(K key, V value, boolean replace) {
+        this.lock.lock();
+        try {
+            // Another thread may have cached the key in the meantime
+            Node<K, V> node = this.map.get(key);
+            if (node != null) {
+                if (replace)
+                    node.value = value;
+                return node.value;
+            }
+
+            // Once the cache is full, the oldest entry goes away
+            if (this.size == this.capacity) {
+                Node<K, V> victim = this.queue.poll();
+                while (victim.removed)
+                    victim = this.queue.poll();
+
+                this.map.remove(victim.key);
+                this.size--;
+                recordEviction();
+            }
+
+            node = new Node<>(key, value);
+            this.queue.add(node);
+            this.map.put(key, node);
+            this.size++;
+
+            return value;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        this.lock.lock();
+        try {
+            Node<K, V> node = this.map.remove(key);
+            if (node == null)
+                return null;
+
+            // The node is skipped when it reaches the head of the queue
+            node.removed = true;
+            this.size--;
+
+            // Keep the queue bounded when entries keep being removed
+            if (this.queue.size() > 2 * this.capacity)
+                this.queue.removeIf(n -> n.removed);
+
+            return node.value;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.map.size();
+    }
+
+}
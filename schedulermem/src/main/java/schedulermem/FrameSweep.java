@@ -0,0 +1,114 @@
+/*
+ * File:   FrameSweep.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The sweep of the fixed-allocation page replacement policies over the
+ * number of frames.
+ *
+ */
+
+package schedulermem;
+
+import schedulercommon.ColumnarWriter;
+import schedulercommon.SweepRunner;
+
+/**
+ * Frame sweep
+ *
+ * One cell per policy and number of frames, every one of them running on a
+ * MemoryScheduler of its own over the same references, which gives the
+ * fault curve of every policy in one go. With a ReferenceTrace the rows
+ * also split the victims into clean evictions and write-backs, without one
+ * they are all clean. The working-set and PFF policies do not use a fixed
+ * number of frames, so they are not part of the sweep.
+ */
+public final class FrameSweep {
+
+    public enum Policy {
+        FIFO, OPT, LRU
+    }
+
+    public static final String[] COLUMNS = {
+        "policy", "frames", "references", "faults", "clean_evictions", "write_backs", "nanos"
+    };
+
+    public static final ColumnarWriter.Type[] TYPES = {
+        ColumnarWriter.Type.STRING, ColumnarWriter.Type.LONG, ColumnarWriter.Type.LONG,
+        ColumnarWriter.Type.LONG, ColumnarWriter.Type.LONG, ColumnarWriter.Type.LONG,
+        ColumnarWriter.Type.LONG
+    };
+
+    private FrameSweep() {
+    }
+
+    /**
+     * @param references the page references, shared by all the cells
+     * @param policies the policies to run
+     * @param frames the numbers of frames
+     * @return the sweep, not started yet
+     */
+    public static SweepRunner create(int[] references, Policy[] policies, int[] frames) {
+        return create(references, null, policies, frames);
+    }
+
+    /**
+     * @param trace the page references with their read/write bits, shared
+     *              by all the cells
+     * @param policies the policies to run
+     * @param frames the numbers of frames
+     * @return the sweep, not started yet
+     */
+    public static SweepRunner create(ReferenceTrace trace, Policy[] policies, int[] frames) {
+        return create(trace.getPages(), trace, policies, frames);
+    }
+
+    private static SweepRunner create(int[] references, ReferenceTrace trace, Policy[] policies, int[] frames) {
+        for (int count : frames)
+            if (count < 1)
+                throw new IllegalArgumentException("frames must be positive: " + count);
+
+        SweepRunner sweep = new SweepRunner(COLUMNS, TYPES);
+
+        for (Policy policy : policies)
+            for (int count : frames)
+                sweep.add(() -> run(references, trace, policy, count));
+
+        return sweep;
+    }
+
+    private static Object[] run(int[] references, ReferenceTrace trace, Policy policy, int frames) {
+        MemoryScheduler scheduler = new MemoryScheduler(frames);
+
+        long begin = System.nanoTime();
+        switch (policy) {
+            case FIFO:
+                if (trace == null)
+                    scheduler.useFIFO(references);
+                else
+                    scheduler.useFIFO(trace);
+                break;
+            case OPT:
+                if (trace == null)
+                    scheduler.useOPT(references);
+                else
+                    scheduler.useOPT(trace);
+                break;
+            default:
+                if (trace == null)
+                    scheduler.useLRU(references);
+                else
+                    scheduler.useLRU(trace);
+        }
+        long nanos = System.nanoTime() - begin;
+
+        return new Object[] {
+            policy, frames, references.length, scheduler.getPageFaultCount(),
+            scheduler.getCleanEvictionCount(), scheduler.getWriteBackCount(), nanos
+        };
+    }
+
+}
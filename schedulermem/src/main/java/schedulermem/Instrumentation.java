@@ -0,0 +1,104 @@
+/*
+ * File:   Instrumentation.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Optional instrumentation of the page replacement policies: counters of
+ * the faults, hits and evictions, and sampled Flight Recorder events of
+ * the evictions.
+ *
+ */
+
+package schedulermem;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import schedulercommon.CounterRegistry;
+import schedulercommon.EventSampler;
+import schedulercommon.MetricsRegistry;
+
+/**
+ * Instrumentation
+ *
+ * Off unless the JVM is started with -Dschedulermem.instrumentation=true.
+ * ENABLED is a static final constant, and every call from a simulation is
+ * guarded by it, so when it is false the JIT compiler drops the calls
+ * altogether and the simulations run exactly as without them.
+ *
+ * When it is on, every fault, hit and eviction of MemoryScheduler goes to
+ * the counters of getRegistry(), and one eviction out of every samplePeriod
+ * (1000 by default, or -Dschedulermem.instrumentation.samplePeriod) is
+ * committed as an EvictionEvent, which a Flight Recorder recording picks up
+ * if it has the event enabled. Page numbers in the events are those of the
+ * references.
+ */
+public final class Instrumentation {
+
+    public static final String PROPERTY = "schedulermem.instrumentation";
+    public static final String SAMPLE_PERIOD_PROPERTY = "schedulermem.instrumentation.samplePeriod";
+
+    /**
+     * Whether the simulations report to the instrumentation, fixed when
+     * the class is loaded
+     */
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final CounterRegistry REGISTRY = new CounterRegistry();
+    private static final LongAdder FAULTS = REGISTRY.counter("faults");
+    private static final LongAdder HITS = REGISTRY.counter("hits");
+    private static final LongAdder EVICTIONS = REGISTRY.counter("evictions");
+    private static final LongAdder WRITE_BACKS = REGISTRY.counter("write_backs");
+
+    private static final EventSampler SAMPLER = new EventSampler(SAMPLE_PERIOD_PROPERTY);
+
+    private Instrumentation() {
+    }
+
+    /**
+     * @return the counters "faults", "hits", "evictions" and "write_backs"
+     */
+    public static MetricsRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    public static int getSamplePeriod() {
+        return SAMPLER.getPeriod();
+    }
+
+    /**
+     * @param period commit one eviction event out of every period, 1 for
+     *               all of them
+     */
+    public static void setSamplePeriod(int period) {
+        SAMPLER.setPeriod(period);
+    }
+
+    // The calls below are made by the simulations behind ENABLED, and
+    // count whether it is set or not
+
+    static void fault() {
+        FAULTS.increment();
+    }
+
+    static void hit() {
+        HITS.increment();
+    }
+
+    static void evict(String policy, long page, boolean dirty) {
+        EVICTIONS.increment();
+        if (dirty)
+            WRITE_BACKS.increment();
+
+        if (SAMPLER.isSampled()) {
+            EvictionEvent event = new EvictionEvent();
+            event.policy = policy;
+            event.page = page;
+            event.dirty = dirty;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * File:   LruCache.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A thread-safe cache with least recently used (LRU) replacement, which
+ * records the hits in buffers instead of reordering the entries right away.
+ *
+ */
+
+package schedulermem;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LRU cache
+ *
+ * The entries form a doubly linked list in the order of their last use,
+ * which can only be changed under a lock. To keep the lock off the path of
+ * a hit, hits are recorded in one of several small ring buffers (the
+ * buffer is picked by the thread) and applied to the list later, in one
+ * go, by whichever thread gets the lock. A full buffer is drained right
+ * away if the lock is free. If it is not, the hit is dropped, which only
+ * makes the order slightly less accurate under contention.
+ *
+ * Before an entry is evicted all the buffers are drained, so a single
+ * thread always sees exact LRU order, the same as OnlineLRU.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class LruCache<K, V> extends AbstractCache<K, V> {
+
+    private static final int BUFFER_SIZE = 16;
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        // The list neighbours and whether the entry is in the list,
+        // only used under the lock
+        Node<K, V> previous;
+        Node<K, V> next;
+        boolean linked;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    // A bounded ring of hits. Any thread may add to it, only the lock
+    // holder takes from it.
+    private static final class ReadBuffer<K, V> {
+        final AtomicReferenceArray<Node<K, V>> slots = new AtomicReferenceArray<>(BUFFER_SIZE);
+        final AtomicLong writeCount = new AtomicLong();
+        volatile long readCount;
+
+        boolean offer(Node<K, V> node) {
+            long write = this.writeCount.get();
+
+            // Full, or another thread got the slot first
+            if (write - this.readCount >= BUFFER_SIZE || !this.writeCount.compareAndSet(write, write + 1))
+                return false;
+
+            this.slots.lazySet((int) (write & BUFFER_MASK), node);
+            return true;
+        }
+    }
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ReentrantLock lock;
+    private final ReadBuffer<K, V>[] buffers;
+
+    // The least and the most recently used entries (guarded by the lock)
+    private Node<K, V> head;
+    private Node<K, V> tail;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public LruCache(int capacity) {
+        super(capacity);
+        this.map = new ConcurrentHashMap<>(capacity);
+        this.lock = new ReentrantLock();
+
+        // One buffer per processor, rounded up to a power of two
+        int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        this.buffers = (ReadBuffer<K, V>[]) new ReadBuffer<?, ?>[stripes];
+        for (int i = 0; i < stripes; i++)
+            this.buffers[i] = new ReadBuffer<>();
+
+        this.head = null;
+        this.tail = null;
+        this.size = 0;
+    }
+
+    @Override
+    protected V lookup(K key) {
+        Node<K, V> node = this.map.get(key);
+
+        if (node == null)
+            return null;
+
+        ReadBuffer<K, V> buffer = this.buffers[bufferIndex()];
+
+        // Drain a full buffer if nobody else is at it. The hit itself is
+        // then applied directly, so a single thread never loses one.
+        if (!buffer.offer(node) && this.lock.tryLock()) {
+            try {
+                drainBuffers();
+                touch(node);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        return node.value;
+    }
+
+    @Override
+    protected V insert(K key, V value, boolean replace) {
+        this.lock.lock();
+        try {
+            // Apply the recorded hits first, so the victim is really the
+            // least recently used entry
+            drainBuffers();
+
+            // Another thread may have cached the key in the meantime
+            Node<K, V> node = this.map.get(key);
+            if (node != null) {
+                if (replace)
+                    node.value = value;
+                touch(node);
+                return node.value;
+            }
+
+            if (this.size == this.capacity) {
+                Node<K, V> victim = this.head;
+                unlink(victim);
+                this.map.remove(victim.key);
+                recordEviction();
+            }
+
+            node = new Node<>(key, value);
+            link(node);
+            this.map.put(key, node);
+
+            return value;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        this.lock.lock();
+        try {
+            Node<K, V> node = this.map.remove(key);
+            if (node == null)
+                return null;
+
+            // The node may still be in a buffer, where it is skipped
+            unlink(node);
+            return node.value;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.map.size();
+    }
+
+    // Pick the buffer of the current thread
+    private int bufferIndex() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (this.buffers.length - 1);
+    }
+
+    // Apply the recorded hits in the order they were recorded (lock held)
+    private void drainBuffers() {
+        for (ReadBuffer<K, V> buffer : this.buffers) {
+            long read = buffer.readCount;
+            long write = buffer.writeCount.get();
+
+            for (; read < write; read++) {
+                int slot = (int) (read & BUFFER_MASK);
+                Node<K, V> node = buffer.slots.get(slot);
+
+                // The writer got the slot but did not fill it in yet
+                if (node == null)
+                    break;
+
+                buffer.slots.lazySet(slot, null);
+                touch(node);
+            }
+
+            buffer.readCount = read;
+        }
+    }
+
+    // Make a cached entry the most recently used one (lock held)
+    private void touch(Node<K, V> node) {
+        if (!node.linked || node == this.tail)
+            return;
+
+        unlink(node);
+        link(node);
+    }
+
+    private void link(Node<K, V> node) {
+        node.previous = this.tail;
+        node.next = null;
+        if (this.tail == null)
+            this.head = node;
+        else
+            this.tail.next = node;
+        this.tail = node;
+        node.linked = true;
+        this.size++;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.previous == null)
+            this.head = node.next;
+        else
+            node.previous.next = node.next;
+        if (node.next == null)
+            this.tail = node.previous;
+        else
+            node.next.previous = node.previous;
+        node.previous = null;
+        node.next = null;
+        node.linked = false;
+        this.size--;
+    }
+
+}
@@ -10,18 +10,23 @@
  *
  * Description:
  * The package simulates three memory scheduling algorithms.
- * These algorithms include FIFO, OPT, LRU.
+ * These algorithms include FIFO, OPT, LRU. It also simulates two
+ * variable-allocation policies, the working-set model and the
+ * page-fault-frequency (PFF) policy, which grow and shrink the
+ * resident set instead of using a fixed number of frames.
+ * The pages are mapped to dense ids first (see PageIdInterner),
+ * so the per-page state of every policy lives in flat arrays.
+ * Traces with read/write bits (see ReferenceTrace) also get the
+ * victims split into clean evictions and dirty write-backs.
+ * The faults, hits and evictions can be reported to counters and
+ * Flight Recorder events (see Instrumentation).
  *
  */
 
 package schedulermem;
 
-import java.util.Queue;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.HashMap;
-import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.BitSet;
 
 /**
  * @author oniani
@@ -30,202 +35,658 @@ public class MemoryScheduler {
 
     private int pageFaultCount;
     private int frames;
+    private int peakResidentSetSize;
+    private double averageResidentSetSize;
+    private int cleanEvictionCount;
+    private int writeBackCount;
+    private int writeBackFlushCount;
+    private int writeBackBufferCapacity;
+    private int writeBackBuffered;
+
+    // The policy of the current run and its page ids, for the
+    // instrumentation
+    private String runPolicy;
+    private PageIdInterner runInterner;
 
     public MemoryScheduler(int frames) {
         this.pageFaultCount = 0;
         this.frames = frames;
+        this.peakResidentSetSize = 0;
+        this.averageResidentSetSize = 0;
+        this.cleanEvictionCount = 0;
+        this.writeBackCount = 0;
+        this.writeBackFlushCount = 0;
+        this.writeBackBufferCapacity = 1;
+        this.writeBackBuffered = 0;
     }
 
     public int getPageFaultCount() {
         return this.pageFaultCount;
     }
 
+    /**
+     * Largest resident set seen by the last variable-allocation run
+     * (useWorkingSet or usePFF). The fixed-allocation policies leave it at 0.
+     *
+     * @return the peak number of resident pages
+     */
+    public int getPeakResidentSetSize() {
+        return this.peakResidentSetSize;
+    }
+
+    /**
+     * Resident set size averaged over all references of the last
+     * variable-allocation run (useWorkingSet or usePFF).
+     *
+     * @return the average number of resident pages
+     */
+    public double getAverageResidentSetSize() {
+        return this.averageResidentSetSize;
+    }
+
+    /**
+     * @return the number of victims which were not modified
+     */
+    public int getCleanEvictionCount() {
+        return this.cleanEvictionCount;
+    }
+
+    /**
+     * @return the number of dirty victims which had to be written back
+     */
+    public int getWriteBackCount() {
+        return this.writeBackCount;
+    }
+
+    /**
+     * @return the number of flushes of the write-back buffer, which is
+     *         the number of write-backs when there is no batching
+     */
+    public int getWriteBackFlushCount() {
+        return this.writeBackFlushCount;
+    }
+
+    /**
+     * Batch the write-backs of dirty victims. Every time the given number
+     * of victims have been collected, they are written back in one flush.
+     * Whatever is left in the buffer is flushed at the end of every run.
+     *
+     * @param capacity the number of victims per flush, 1 for no batching
+     */
+    public void setWriteBackBufferCapacity(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+
+        this.writeBackBufferCapacity = capacity;
+    }
+
     public void useFIFO(String referenceString) {
         // Convert a reference string to the array of integers
-        int[] intReferenceList = Arrays.stream(referenceString.split(",")).mapToInt(Integer::parseInt).toArray();
+        useFIFO(Arrays.stream(referenceString.split(",")).mapToInt(Integer::parseInt).toArray());
+    }
 
-        // A set to look up the current pages
-        HashSet<Integer> currentPages = new HashSet<>(this.frames);
+    /**
+     * Same as the String version, for references which are already decoded
+     * (for example by BinaryTraceReader).
+     *
+     * @param intReferenceList the page references
+     */
+    public void useFIFO(int[] intReferenceList) {
+        useFIFO(intReferenceList, null);
+    }
 
-        // The queue to store the pages
-        Queue<Integer> queue = new LinkedList<>();
+    /**
+     * Same as the int[] version, counting the write-backs of dirty victims.
+     *
+     * @param trace the page references with their read/write bits
+     */
+    public void useFIFO(ReferenceTrace trace) {
+        useFIFO(trace.getPages(), trace.getWriteBits());
+    }
 
-        for (int i = 0; i < intReferenceList.length; i++) {
-            // Check if the size of the set is less than the number
-            // of the frames. If it is not, then there is no place.
-            // Besides, we also check if the set contains the page
-            // that has to be added. If it does not, we proceed
-            // with the algorithm and otherwise, we don't do anything.
-            if (currentPages.size() < this.frames && !currentPages.contains(intReferenceList[i])) {
-                    // Since the page is not present in the set
-                    // we insert it in the set.
-                    currentPages.add(intReferenceList[i]);
-                    
-                    // We automatically have a page fault and
-                    // therefore, we increment page faults' count.
-                    this.pageFaultCount++;
-
-                    // Push the current page into the queue
-                    queue.add(intReferenceList[i]);
+    private void useFIFO(int[] intReferenceList, long[] writeBits) {
+        // Map the pages to dense ids, so flat arrays can be indexed by page
+        PageIdInterner interner = new PageIdInterner();
+        int[] pages = interner.intern(intReferenceList);
+        startRun("FIFO", interner);
+
+        // Whether a page is in one of the frames, and whether it was
+        // written to since it was brought in
+        BitSet currentPages = new BitSet(interner.size());
+        BitSet dirtyPages = new BitSet(interner.size());
+
+        // The frames form a ring, the oldest page is the next victim
+        int[] queue = new int[Math.min(this.frames, interner.size())];
+        int oldest = 0;
+        int used = 0;
+
+        for (int i = 0; i < pages.length; i++) {
+            if (isWrite(writeBits, i))
+                dirtyPages.set(pages[i]);
+
+            // Nothing to do if the page is already in a frame
+            if (currentPages.get(pages[i])) {
+                if (Instrumentation.ENABLED)
+                    Instrumentation.hit();
+                continue;
             }
 
-            else {
-                // If the size of the set is not less than the number
-                // of the frames, we proceed with the algorithm if
-                // and only if the set does not contain the current
-                // page.
-                if (!currentPages.contains(intReferenceList[i])) {
-                    // Get the first page of the queue.
-                    int page = queue.peek();
-
-                    // Pop the first page from the queue.
-                    queue.poll();
-
-                    // Remove the previous first page from the queue.
-                    currentPages.remove(page);
-
-                    // Add the current page to the set.
-                    currentPages.add(intReferenceList[i]);
-
-                    // Push the current page onto the queue.
-                    queue.add(intReferenceList[i]);
-
-                    // Increment page faults' count.
-                    this.pageFaultCount++;
-                } 
-            } 
+            // If all the frames are taken, the first page of the
+            // queue is removed to make room for the current one.
+            if (used == queue.length) {
+                currentPages.clear(queue[oldest]);
+                evict(dirtyPages, queue[oldest]);
+            } else {
+                used++;
+            }
+
+            // Put the current page in place of the oldest one
+            currentPages.set(pages[i]);
+            queue[oldest] = pages[i];
+            oldest = (oldest + 1) % queue.length;
+
+            // Increment page faults' count
+            this.pageFaultCount++;
+            if (Instrumentation.ENABLED)
+                Instrumentation.fault();
         }
+
+        flushWriteBacks();
     }
 
     public void useOPT(String referenceString) {
         // Convert a reference string to the array of integers
-        int[] intReferenceList = Arrays.stream(referenceString.split(",")).mapToInt(Integer::parseInt).toArray();
-
-	    // An array of frames
-        ArrayList<Integer> framesArray = new ArrayList<Integer>();
+        useOPT(Arrays.stream(referenceString.split(",")).mapToInt(Integer::parseInt).toArray());
+    }
 
-        // Count the number of hits
-        // If the page is found in the frame, we have a hit
-        int hitsNum = 0;
+    /**
+     * Same as the String version, for references which are already decoded
+     * (for example by BinaryTraceReader).
+     *
+     * @param intReferenceList the page references
+     */
+    public void useOPT(int[] intReferenceList) {
+        useOPT(intReferenceList, null);
+    }
 
-        // Go through the reference list
-	    for (int i = 0; i < intReferenceList.length; i++) {
-            // If the page is in the array
-            if (framesArray.contains(intReferenceList[i]))
-                // We have a hit and therefore, we increment the counter
-                hitsNum++;
+    /**
+     * Same as the int[] version, counting the write-backs of dirty victims.
+     *
+     * @param trace the page references with their read/write bits
+     */
+    public void useOPT(ReferenceTrace trace) {
+        useOPT(trace.getPages(), trace.getWriteBits());
+    }
 
-            else {
-                // Check if the size of the array is less than the number
-                // of the frames.
-                if (framesArray.size() < this.frames)
-                    framesArray.add(intReferenceList[i]);
-
-                // If the size of the array is less than the number of the frames,
-                // we predict the page to be replaced.
-                else {
-                    // Predicted index
-                    int predictedIndex = -1;
-                    // Farthest index for the given position
-                    int farthest = i + 1;
-
-                    // Go through the framesArray
-                    for (int k = 0; k < framesArray.size(); k++) {
-                        int j;
-
-                        // We start at i + 1 position
-                        for (j = i + 1; j < intReferenceList.length; j++) {
-                            if (framesArray.get(k) == intReferenceList[j]) {
-                                if (j > farthest) {
-                                    farthest = j;
-                                    predictedIndex = k;
-                                }
-                                break;
-                            }
-                        }
+    private void useOPT(int[] intReferenceList, long[] writeBits) {
+        // Map the pages to dense ids, so flat arrays can be indexed by page
+        PageIdInterner interner = new PageIdInterner();
+        int[] pages = interner.intern(intReferenceList);
+        startRun("OPT", interner);
+
+        // For every position, the position of the next reference to the
+        // same page (or the length of the list if there is none). It is
+        // computed with a single pass from the back.
+        int[] nextUse = new int[pages.length];
+        int[] seenAt = new int[interner.size()];
+        Arrays.fill(seenAt, pages.length);
+
+        for (int i = pages.length - 1; i >= 0; i--) {
+            nextUse[i] = seenAt[pages[i]];
+            seenAt[pages[i]] = i;
+        }
 
-                        // If we reached the end of the loop, set
-                        // the predictedIndex equal to k
-                        if (j == intReferenceList.length) {
-                            predictedIndex = k;
+        // The next use of every page in the frames, -1 if it is not in one
+        int[] residentNextUse = new int[interner.size()];
+        Arrays.fill(residentNextUse, -1);
+        BitSet dirtyPages = new BitSet(interner.size());
+        int used = 0;
+
+        // Max-heap of (next use, page) pairs. Pages are not removed from it
+        // when their next use changes, stale pairs are skipped instead.
+        long[] heap = new long[Math.max(16, Math.min(this.frames, interner.size()) * 2)];
+        int heapSize = 0;
+
+        for (int i = 0; i < pages.length; i++) {
+            int page = pages[i];
+
+            // If the page is in a frame, we only update its next use
+            if (residentNextUse[page] < 0) {
+                // If there is no free frame, replace the page whose
+                // next use is the farthest away.
+                if (used == this.frames) {
+                    while (true) {
+                        long top = heap[0];
+                        heap[0] = heap[--heapSize];
+                        siftDown(heap, heapSize);
+
+                        int victim = (int) top;
+                        if (residentNextUse[victim] == (int) (top >>> 32)) {
+                            residentNextUse[victim] = -1;
+                            evict(dirtyPages, victim);
                             break;
                         }
                     }
+                } else {
+                    used++;
+                }
 
-                    // If the predicted index is still -1, set it to 0
-                    if (predictedIndex == -1)
-                        predictedIndex = 0;
+                // Increment page faults' count
+                this.pageFaultCount++;
+                if (Instrumentation.ENABLED)
+                    Instrumentation.fault();
+            } else if (Instrumentation.ENABLED) {
+                Instrumentation.hit();
+            }
 
-                    // Put a page in the predictedIndex index.
-                    framesArray.set(predictedIndex, intReferenceList[i]);
+            residentNextUse[page] = nextUse[i];
+            if (isWrite(writeBits, i))
+                dirtyPages.set(page);
+
+            // Throw the stale pairs away once they outnumber the live ones
+            if (heapSize == heap.length) {
+                heapSize = 0;
+                for (int k = 0; k < heap.length; k++) {
+                    int p = (int) heap[k];
+                    if (residentNextUse[p] == (int) (heap[k] >>> 32))
+                        heap[heapSize++] = heap[k];
                 }
+                for (int k = heapSize / 2 - 1; k >= 0; k--)
+                    siftDown(heap, heapSize, k);
             }
+
+            heap[heapSize] = ((long) nextUse[i] << 32) | page;
+            siftUp(heap, heapSize++);
         }
 
-        // Change the count of page faults
-        this.pageFaultCount = intReferenceList.length - hitsNum;
+        flushWriteBacks();
     }
 
     public void useLRU(String referenceString) {
         // Convert a reference string to the array of integers
-        int[] intReferenceList = Arrays.stream(referenceString.split(",")).mapToInt(Integer::parseInt).toArray();
+        useLRU(Arrays.stream(referenceString.split(",")).mapToInt(Integer::parseInt).toArray());
+    }
 
-        // A set for the current pages
-        HashSet<Integer> currentPages = new HashSet<>(this.frames);
+    /**
+     * Same as the String version, for references which are already decoded
+     * (for example by BinaryTraceReader).
+     *
+     * @param intReferenceList the page references
+     */
+    public void useLRU(int[] intReferenceList) {
+        useLRU(intReferenceList, null);
+    }
 
-        // To store least recently used indexes
-        // of pages. It is a page, index pair.
-        HashMap<Integer, Integer> page_index_map = new HashMap<>();
+    /**
+     * Same as the int[] version, counting the write-backs of dirty victims.
+     *
+     * @param trace the page references with their read/write bits
+     */
+    public void useLRU(ReferenceTrace trace) {
+        useLRU(trace.getPages(), trace.getWriteBits());
+    }
 
-        for (int i = 0; i < intReferenceList.length; i++) {
-            // Check if the set can hold more pages
-            if (currentPages.size() < this.frames) {
-                // Insert the page if it is not present in the set
-                if (!currentPages.contains(intReferenceList[i])) {
-                    currentPages.add(intReferenceList[i]);
-
-                    // Increment page faults' count
-                    this.pageFaultCount++;
+    private void useLRU(int[] intReferenceList, long[] writeBits) {
+        // Map the pages to dense ids, so flat arrays can be indexed by page
+        PageIdInterner interner = new PageIdInterner();
+        int[] pages = interner.intern(intReferenceList);
+        startRun("LRU", interner);
+
+        // The pages in the frames form a doubly linked list, from the
+        // least recently used one (head) to the most recently used one
+        // (tail). A page which is not in a frame has no list neighbours.
+        int[] previous = new int[interner.size()];
+        int[] next = new int[interner.size()];
+        BitSet currentPages = new BitSet(interner.size());
+        BitSet dirtyPages = new BitSet(interner.size());
+        int head = -1;
+        int tail = -1;
+        int used = 0;
+
+        for (int i = 0; i < pages.length; i++) {
+            int page = pages[i];
+
+            if (isWrite(writeBits, i))
+                dirtyPages.set(page);
+
+            if (currentPages.get(page)) {
+                if (Instrumentation.ENABLED)
+                    Instrumentation.hit();
+
+                // Unlink the page, it becomes the most recently used one
+                if (page == tail)
+                    continue;
+                if (page == head)
+                    head = next[page];
+                else
+                    next[previous[page]] = next[page];
+                previous[next[page]] = previous[page];
+            }
+
+            else {
+                // Replace the least recently used page if there
+                // is no free frame.
+                if (used == this.frames) {
+                    currentPages.clear(head);
+                    evict(dirtyPages, head);
+                    head = next[head];
+                    if (head < 0)
+                        tail = -1;
+                    else
+                        previous[head] = -1;
+                } else {
+                    used++;
                 }
 
-                // For every page, we need to store
-                // the recently used index.
-                page_index_map.put(intReferenceList[i], i);
+                currentPages.set(page);
+
+                // Increment page faults' count
+                this.pageFaultCount++;
+                if (Instrumentation.ENABLED)
+                    Instrumentation.fault();
+            }
+
+            // Append the page at the most recently used end
+            previous[page] = tail;
+            next[page] = -1;
+            if (tail < 0)
+                head = page;
+            else
+                next[tail] = page;
+            tail = page;
+        }
+
+        flushWriteBacks();
+    }
+
+    /**
+     * Working-set model
+     *
+     * The resident set is exactly the working set W(t, delta), the pages
+     * referenced within the last delta references. The frames given to the
+     * constructor are not used, the allocation follows the working set.
+     *
+     * @param referenceString comma-separated page references
+     * @param delta the working-set window, in references
+     */
+    public void useWorkingSet(String referenceString, int delta) {
+        // Convert a reference string to the array of integers
+        useWorkingSet(Arrays.stream(referenceString.split(",")).mapToInt(Integer::parseInt).toArray(), delta);
+    }
+
+    /**
+     * Same as the String version, for references which are already decoded
+     * (for example by BinaryTraceReader).
+     *
+     * @param intReferenceList the page references
+     * @param delta the working-set window, in references
+     */
+    public void useWorkingSet(int[] intReferenceList, int delta) {
+        useWorkingSet(intReferenceList, null, delta);
+    }
+
+    /**
+     * Same as the int[] version, counting the write-backs of the dirty
+     * pages leaving the working set.
+     *
+     * @param trace the page references with their read/write bits
+     * @param delta the working-set window, in references
+     */
+    public void useWorkingSet(ReferenceTrace trace, int delta) {
+        useWorkingSet(trace.getPages(), trace.getWriteBits(), delta);
+    }
+
+    private void useWorkingSet(int[] intReferenceList, long[] writeBits, int delta) {
+        if (delta < 1)
+            throw new IllegalArgumentException("delta must be positive: " + delta);
+
+        // Map the pages to dense ids, so flat arrays can be indexed by page
+        PageIdInterner interner = new PageIdInterner();
+        int[] pages = interner.intern(intReferenceList);
+        startRun("WorkingSet", interner);
+
+        // The window keeps the working-set size up to date in O(1)
+        // (a window longer than the trace behaves like the whole trace)
+        WorkingSetWindow window = new WorkingSetWindow(Math.min(delta, Math.max(1, pages.length)), interner.size());
+        BitSet dirtyPages = new BitSet(interner.size());
+
+        // Sum of the resident set sizes, used for the average
+        long residentSum = 0;
+
+        this.peakResidentSetSize = 0;
+
+        for (int i = 0; i < intReferenceList.length; i++) {
+            // A page outside of the working set is not resident
+            // and therefore, referencing it is a page fault.
+            if (window.reference(pages[i])) {
+                this.pageFaultCount++;
+                if (Instrumentation.ENABLED)
+                    Instrumentation.fault();
+            } else if (Instrumentation.ENABLED) {
+                Instrumentation.hit();
+            }
+
+            // A page leaving the working set is released
+            if (window.getLeaving() >= 0)
+                evict(dirtyPages, window.getLeaving());
+            if (isWrite(writeBits, i))
+                dirtyPages.set(pages[i]);
+
+            // Keep track of the resident set size
+            residentSum += window.size();
+            this.peakResidentSetSize = Math.max(this.peakResidentSetSize, window.size());
+        }
+
+        this.averageResidentSetSize = intReferenceList.length == 0 ? 0 : (double) residentSum / intReferenceList.length;
+
+        flushWriteBacks();
+    }
+
+    /**
+     * Page-fault-frequency policy
+     *
+     * On every page fault the time since the previous fault is compared to
+     * delta. If faults come more often than that, the process gets another
+     * frame. Otherwise, the pages not referenced since the previous fault
+     * are released before the faulting page is brought in. The frames given
+     * to the constructor are not used.
+     *
+     * @param referenceString comma-separated page references
+     * @param delta the critical inter-fault interval, in references
+     */
+    public void usePFF(String referenceString, int delta) {
+        // Convert a reference string to the array of integers
+        usePFF(Arrays.stream(referenceString.split(",")).mapToInt(Integer::parseInt).toArray(), delta);
+    }
+
+    /**
+     * Same as the String version, for references which are already decoded
+     * (for example by BinaryTraceReader).
+     *
+     * @param intReferenceList the page references
+     * @param delta the critical inter-fault interval, in references
+     */
+    public void usePFF(int[] intReferenceList, int delta) {
+        usePFF(intReferenceList, null, delta);
+    }
+
+    /**
+     * Same as the int[] version, counting the write-backs of the dirty
+     * pages released when the resident set shrinks.
+     *
+     * @param trace the page references with their read/write bits
+     * @param delta the critical inter-fault interval, in references
+     */
+    public void usePFF(ReferenceTrace trace, int delta) {
+        usePFF(trace.getPages(), trace.getWriteBits(), delta);
+    }
+
+    private void usePFF(int[] intReferenceList, long[] writeBits, int delta) {
+        if (delta < 1)
+            throw new IllegalArgumentException("delta must be positive: " + delta);
+
+        // Map the pages to dense ids, so flat arrays can be indexed by page
+        PageIdInterner interner = new PageIdInterner();
+        int[] pages = interner.intern(intReferenceList);
+        startRun("PFF", interner);
+
+        // The resident pages form a doubly linked list in the order of their
+        // last use, so the pages that were not referenced since the previous
+        // fault are always at the head of the list.
+        int[] lastUse = new int[interner.size()];
+        int[] previous = new int[interner.size()];
+        int[] next = new int[interner.size()];
+        BitSet residentPages = new BitSet(interner.size());
+        BitSet dirtyPages = new BitSet(interner.size());
+        int head = -1;
+        int tail = -1;
+        int resident = 0;
+
+        // Time of the previous page fault
+        int lastFault = 0;
+
+        // Sum of the resident set sizes, used for the average
+        long residentSum = 0;
+
+        this.peakResidentSetSize = 0;
+
+        for (int i = 0; i < pages.length; i++) {
+            int page = pages[i];
+
+            if (residentPages.get(page)) {
+                if (Instrumentation.ENABLED)
+                    Instrumentation.hit();
+
+                // Unlink the page, it is appended again below
+                if (page == head)
+                    head = next[page];
+                else
+                    next[previous[page]] = next[page];
+                if (page == tail)
+                    tail = previous[page];
+                else
+                    previous[next[page]] = previous[page];
             }
 
-            // If the size of the set is greater than or
-            // equal to the number of frames, we do
-            // proceed with the LRU algorithm and replace
-            // the least recently used page with the
-            // current page.
             else {
-                // Check whether the current page is already
-                // in the set or not.
-                if (!currentPages.contains(intReferenceList[i])) {
-                    int leastRecentlyUsed = Integer.MAX_VALUE;
-                    int page = Integer.MIN_VALUE;
-
-                    for (Integer temp : currentPages) {
-                        if (page_index_map.get(temp) < leastRecentlyUsed) {
-                            leastRecentlyUsed = page_index_map.get(temp);
-                            page = temp;
-                        }
+                // Faults are rare enough, so we shrink the resident set
+                // down to the pages used since the previous fault.
+                if (i - lastFault > delta) {
+                    while (head >= 0 && lastUse[head] < lastFault) {
+                        residentPages.clear(head);
+                        evict(dirtyPages, head);
+                        resident--;
+                        head = next[head];
                     }
 
-                    // Remove the page
-                    currentPages.remove(page);
+                    if (head < 0)
+                        tail = -1;
+                    else
+                        previous[head] = -1;
+                }
 
-                    // Add the current page to the set
-                    currentPages.add(intReferenceList[i]);
+                residentPages.set(page);
+                resident++;
 
-                    // Increment page faults' count
-                    this.pageFaultCount++;
-                }
+                // Increment page faults' count
+                this.pageFaultCount++;
+                if (Instrumentation.ENABLED)
+                    Instrumentation.fault();
+                lastFault = i;
+            }
+
+            if (isWrite(writeBits, i))
+                dirtyPages.set(page);
+
+            // Append the page with its last use
+            lastUse[page] = i;
+            previous[page] = tail;
+            next[page] = -1;
+            if (tail < 0)
+                head = page;
+            else
+                next[tail] = page;
+            tail = page;
+
+            // Keep track of the resident set size
+            residentSum += resident;
+            this.peakResidentSetSize = Math.max(this.peakResidentSetSize, resident);
+        }
+
+        this.averageResidentSetSize = pages.length == 0 ? 0 : (double) residentSum / pages.length;
+
+        flushWriteBacks();
+    }
+
+    // Remember what the evictions of the run are reported as
+    private void startRun(String policy, PageIdInterner interner) {
+        this.runPolicy = policy;
+        this.runInterner = interner;
+    }
+
+    // Whether reference i of a trace is a write (no bits means all reads)
+    private static boolean isWrite(long[] writeBits, int i) {
+        return writeBits != null && (writeBits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    // Count a victim as a clean eviction or as a write-back
+    private void evict(BitSet dirtyPages, int page) {
+        if (Instrumentation.ENABLED)
+            Instrumentation.evict(this.runPolicy, this.runInterner.getOriginalId(page), dirtyPages.get(page));
+
+        if (!dirtyPages.get(page)) {
+            this.cleanEvictionCount++;
+            return;
+        }
+
+        dirtyPages.clear(page);
+        this.writeBackCount++;
+
+        if (++this.writeBackBuffered == this.writeBackBufferCapacity) {
+            this.writeBackFlushCount++;
+            this.writeBackBuffered = 0;
+        }
+    }
+
+    // Write back whatever is left in the write-back buffer
+    private void flushWriteBacks() {
+        if (this.writeBackBuffered > 0) {
+            this.writeBackFlushCount++;
+            this.writeBackBuffered = 0;
+        }
+    }
+
+    // Restore the max-heap order of (next use, page) pairs upwards from k
+    private static void siftUp(long[] heap, int k) {
+        long pair = heap[k];
+
+        while (k > 0 && heap[(k - 1) / 2] < pair) {
+            heap[k] = heap[(k - 1) / 2];
+            k = (k - 1) / 2;
+        }
+
+        heap[k] = pair;
+    }
+
+    // Restore the max-heap order of (next use, page) pairs downwards from the root
+    private static void siftDown(long[] heap, int size) {
+        siftDown(heap, size, 0);
+    }
+
+    private static void siftDown(long[] heap, int size, int k) {
+        long pair = heap[k];
+
+        while (2 * k + 1 < size) {
+            int child = 2 * k + 1;
+            if (child + 1 < size && heap[child + 1] > heap[child])
+                child++;
+            if (heap[child] <= pair)
+                break;
+            heap[k] = heap[child];
+            k = child;
+        }
 
-                // Update the current page index
-                page_index_map.put(intReferenceList[i], i);
-            } 
-        } 
+        heap[k] = pair;
     }
 
 }
@@ -0,0 +1,433 @@
+/*
+ * File:   MultiProcessMemoryScheduler.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The class simulates several processes competing for one shared pool
+ * of frames, with either local (per-process quota) or global replacement.
+ *
+ */
+
+package schedulermem;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import schedulercommon.LongIntHashMap;
+
+/**
+ * Multi-process memory scheduler
+ *
+ * References are tagged with a process id and a page number. The page
+ * tables of all the processes live in a single primitive hash map keyed
+ * by (pid, page), and every frame sits in two intrusive lists, the global
+ * one and the one of its owner. The lists are ordered by load time (FIFO)
+ * or by the time of the last use (LRU), so the victim for either scope is
+ * always the head of a list.
+ *
+ * References are reads or writes. A frame written to since its page was
+ * loaded is dirty, and evicting it counts as a write-back for the owner of
+ * the page instead of a clean eviction.
+ */
+public class MultiProcessMemoryScheduler {
+
+    /**
+     * Replacement scope
+     *
+     * LOCAL - a faulting process only replaces its own pages and never
+     *         holds more frames than its quota
+     * GLOBAL - a faulting process may replace the page of any process
+     */
+    public enum Scope {
+        LOCAL, GLOBAL
+    }
+
+    /**
+     * Replacement policy used within the scope
+     */
+    public enum Replacement {
+        FIFO, LRU
+    }
+
+    private static final int NONE = -1;
+
+    private final int frames;
+    private final int processes;
+    private final Scope scope;
+    private final Replacement replacement;
+
+    // (pid, page) -> frame
+    private final LongIntHashMap pageTable;
+
+    // Frame table
+    private final int[] framePid;
+    private final int[] framePage;
+    private final int[] freeFrames;
+    private int freeCount;
+    private final BitSet dirtyFrames;
+
+    // Global list of the frames
+    private final int[] globalPrev;
+    private final int[] globalNext;
+    private int globalHead;
+    private int globalTail;
+
+    // Per-process lists of the frames
+    private final int[] localPrev;
+    private final int[] localNext;
+    private final int[] localHead;
+    private final int[] localTail;
+
+    // Per-process accounting
+    private final int[] quota;
+    private final int[] residentCount;
+    private final long[] pageFaultCount;
+    private final long[] writeBackCount;
+    private long referenceCount;
+    private long writeCount;
+    private long evictionCount;
+
+    public MultiProcessMemoryScheduler(int frames, int processes, Scope scope, Replacement replacement) {
+        if (frames < 1)
+            throw new IllegalArgumentException("frames must be positive: " + frames);
+        if (processes < 1)
+            throw new IllegalArgumentException("processes must be positive: " + processes);
+
+        // Every process needs a quota of at least one frame of its own
+        if (scope == Scope.LOCAL && processes > frames)
+            throw new IllegalArgumentException("local replacement needs a frame per process: "
+                                               + processes + " processes, " + frames + " frames");
+
+        this.frames = frames;
+        this.processes = processes;
+        this.scope = scope;
+        this.replacement = replacement;
+
+        this.pageTable = new LongIntHashMap(frames, NONE);
+
+        this.framePid = new int[frames];
+        this.framePage = new int[frames];
+        this.freeFrames = new int[frames];
+        for (int i = 0; i < frames; i++)
+            this.freeFrames[i] = frames - 1 - i;
+        this.freeCount = frames;
+        this.dirtyFrames = new BitSet(frames);
+
+        this.globalPrev = new int[frames];
+        this.globalNext = new int[frames];
+        this.globalHead = NONE;
+        this.globalTail = NONE;
+
+        this.localPrev = new int[frames];
+        this.localNext = new int[frames];
+        this.localHead = new int[processes];
+        this.localTail = new int[processes];
+        Arrays.fill(this.localHead, NONE);
+        Arrays.fill(this.localTail, NONE);
+
+        // By default, the frames are split equally among the processes
+        this.quota = new int[processes];
+        for (int pid = 0; pid < processes; pid++)
+            this.quota[pid] = frames / processes + (pid < frames % processes ? 1 : 0);
+
+        this.residentCount = new int[processes];
+        this.pageFaultCount = new long[processes];
+        this.writeBackCount = new long[processes];
+        this.referenceCount = 0;
+        this.writeCount = 0;
+        this.evictionCount = 0;
+    }
+
+    /**
+     * Change the frame quota of a process. Only the LOCAL scope uses quotas.
+     * The quotas may not add up to more than the number of frames.
+     *
+     * @param pid the process id
+     * @param frames the number of frames the process may hold
+     */
+    public void setQuota(int pid, int frames) {
+        checkPid(pid);
+
+        if (frames < 1)
+            throw new IllegalArgumentException("quota must be positive: " + frames);
+
+        long total = (long) Arrays.stream(this.quota).sum() - this.quota[pid] + frames;
+        if (total > this.frames)
+            throw new IllegalArgumentException("quotas exceed " + this.frames + " frames: " + total);
+
+        // Shrinking a quota below the resident set takes effect lazily,
+        // on the next fault of the process or of a process short of frames.
+        this.quota[pid] = frames;
+    }
+
+    public int getQuota(int pid) {
+        checkPid(pid);
+        return this.quota[pid];
+    }
+
+    /**
+     * Read a page of a process
+     *
+     * @param pid the process id, between 0 and processes - 1
+     * @param page the page number within the address space of the process
+     */
+    public void reference(int pid, int page) {
+        reference(pid, page, false);
+    }
+
+    /**
+     * Reference a page of a process
+     *
+     * @param pid the process id, between 0 and processes - 1
+     * @param page the page number within the address space of the process
+     * @param write whether the reference writes to the page
+     */
+    public void reference(int pid, int page, boolean write) {
+        checkPid(pid);
+
+        long key = key(pid, page);
+        int frame = this.pageTable.get(key);
+
+        this.referenceCount++;
+        if (write)
+            this.writeCount++;
+
+        if (frame != NONE) {
+            // LRU keeps the lists in the order of the last use
+            if (this.replacement == Replacement.LRU) {
+                unlink(frame);
+                link(frame);
+            }
+            if (write)
+                this.dirtyFrames.set(frame);
+            return;
+        }
+
+        this.pageFaultCount[pid]++;
+
+        if (this.scope == Scope.LOCAL) {
+            // Replace one of our own pages once the quota is used up. A quota
+            // which was shrunk in the meantime is enforced here as well.
+            if (this.residentCount[pid] >= this.quota[pid]) {
+                while (this.residentCount[pid] >= this.quota[pid] && this.localHead[pid] != NONE)
+                    evict(this.localHead[pid]);
+            }
+
+            // Another process with a shrunk quota may still hold on to
+            // the frames we are entitled to, so we take one back.
+            else if (this.freeCount == 0) {
+                evict(overQuotaVictim());
+            }
+        }
+
+        else if (this.freeCount == 0) {
+            evict(this.globalHead);
+        }
+
+        frame = this.freeFrames[--this.freeCount];
+
+        this.framePid[frame] = pid;
+        this.framePage[frame] = page;
+        this.residentCount[pid]++;
+        this.pageTable.put(key, frame);
+        link(frame);
+        if (write)
+            this.dirtyFrames.set(frame);
+    }
+
+    /**
+     * Read the pages of a trace of (pid, page) pairs
+     *
+     * @param pids the process ids
+     * @param pages the page numbers, one for every process id
+     */
+    public void reference(int[] pids, int[] pages) {
+        reference(pids, pages, new long[0]);
+    }
+
+    /**
+     * Reference the pages of a trace of (pid, page) pairs with their
+     * read/write bits
+     *
+     * @param pids the process ids
+     * @param pages the page numbers, one for every process id
+     * @param writeBits packed write bits, bit i (in BitSet.toLongArray()
+     *                  order) tells whether reference i is a write
+     */
+    public void reference(int[] pids, int[] pages, long[] writeBits) {
+        if (pids.length != pages.length)
+            throw new IllegalArgumentException("pids and pages differ in length");
+
+        for (int i = 0; i < pids.length; i++) {
+            int word = i >>> 6;
+            reference(pids[i], pages[i], word < writeBits.length && (writeBits[word] & (1L << i)) != 0);
+        }
+    }
+
+    /**
+     * Reference the pages of a reference string such as "0:7w,1:3,0:1r",
+     * where every reference is a process id and a page number, which may
+     * be followed by 'r' (read, the default) or 'w' (write).
+     *
+     * @param referenceString comma-separated pid:page pairs
+     */
+    public void use(String referenceString) {
+        for (String reference : referenceString.split(",")) {
+            int colon = reference.indexOf(':');
+            if (colon < 0)
+                throw new IllegalArgumentException("expected pid:page, got " + reference);
+
+            String page = reference.substring(colon + 1).trim();
+            char last = page.isEmpty() ? ' ' : page.charAt(page.length() - 1);
+            boolean write = last == 'w' || last == 'W';
+            if (write || last == 'r' || last == 'R')
+                page = page.substring(0, page.length() - 1);
+
+            reference(Integer.parseInt(reference.substring(0, colon).trim()), Integer.parseInt(page), write);
+        }
+    }
+
+    public long getPageFaultCount() {
+        return Arrays.stream(this.pageFaultCount).sum();
+    }
+
+    public long getPageFaultCount(int pid) {
+        checkPid(pid);
+        return this.pageFaultCount[pid];
+    }
+
+    public int getResidentSetSize(int pid) {
+        checkPid(pid);
+        return this.residentCount[pid];
+    }
+
+    public long getReferenceCount() {
+        return this.referenceCount;
+    }
+
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    public long getWriteCount() {
+        return this.writeCount;
+    }
+
+    /**
+     * @return the number of victims which were not modified
+     */
+    public long getCleanEvictionCount() {
+        return this.evictionCount - getWriteBackCount();
+    }
+
+    /**
+     * @return the number of dirty victims which had to be written back
+     */
+    public long getWriteBackCount() {
+        return Arrays.stream(this.writeBackCount).sum();
+    }
+
+    /**
+     * @param pid the process id
+     * @return the number of dirty pages of the process which had to be
+     *         written back
+     */
+    public long getWriteBackCount(int pid) {
+        checkPid(pid);
+        return this.writeBackCount[pid];
+    }
+
+    /**
+     * @return the number of resident pages which are dirty
+     */
+    public int getDirtyPageCount() {
+        return this.dirtyFrames.cardinality();
+    }
+
+    public Scope getScope() {
+        return this.scope;
+    }
+
+    private int overQuotaVictim() {
+        for (int frame = this.globalHead; frame != NONE; frame = this.globalNext[frame]) {
+            int owner = this.framePid[frame];
+            if (this.residentCount[owner] > this.quota[owner])
+                return this.localHead[owner];
+        }
+
+        throw new IllegalStateException("no free frame and no process over its quota");
+    }
+
+    private void evict(int frame) {
+        int pid = this.framePid[frame];
+
+        unlink(frame);
+        this.pageTable.remove(key(pid, this.framePage[frame]));
+        this.residentCount[pid]--;
+        this.freeFrames[this.freeCount++] = frame;
+        this.evictionCount++;
+
+        // A dirty victim has to be written back before its frame is reused
+        if (this.dirtyFrames.get(frame)) {
+            this.dirtyFrames.clear(frame);
+            this.writeBackCount[pid]++;
+        }
+    }
+
+    // Append the frame to the tail of both of its lists
+    private void link(int frame) {
+        int pid = this.framePid[frame];
+
+        this.globalPrev[frame] = this.globalTail;
+        this.globalNext[frame] = NONE;
+        if (this.globalTail == NONE)
+            this.globalHead = frame;
+        else
+            this.globalNext[this.globalTail] = frame;
+        this.globalTail = frame;
+
+        this.localPrev[frame] = this.localTail[pid];
+        this.localNext[frame] = NONE;
+        if (this.localTail[pid] == NONE)
+            this.localHead[pid] = frame;
+        else
+            this.localNext[this.localTail[pid]] = frame;
+        this.localTail[pid] = frame;
+    }
+
+    // Remove the frame from both of its lists
+    private void unlink(int frame) {
+        int pid = this.framePid[frame];
+
+        if (this.globalPrev[frame] == NONE)
+            this.globalHead = this.globalNext[frame];
+        else
+            this.globalNext[this.globalPrev[frame]] = this.globalNext[frame];
+        if (this.globalNext[frame] == NONE)
+            this.globalTail = this.globalPrev[frame];
+        else
+            this.globalPrev[this.globalNext[frame]] = this.globalPrev[frame];
+
+        if (this.localPrev[frame] == NONE)
+            this.localHead[pid] = this.localNext[frame];
+        else
+            this.localNext[this.localPrev[frame]] = this.localNext[frame];
+        if (this.localNext[frame] == NONE)
+            this.localTail[pid] = this.localPrev[frame];
+        else
+            this.localPrev[this.localNext[frame]] = this.localPrev[frame];
+    }
+
+    private void checkPid(int pid) {
+        if (pid < 0 || pid >= this.processes)
+            throw new IllegalArgumentException("pid out of range [0, " + this.processes + "): " + pid);
+    }
+
+    private static long key(int pid, int page) {
+        return ((long) pid << 32) | (page & 0xffffffffL);
+    }
+
+}
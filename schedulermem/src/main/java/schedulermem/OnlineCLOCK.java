@@ -0,0 +1,78 @@
+/*
+ * File:   OnlineCLOCK.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Online CLOCK (second-chance) page replacement.
+ *
+ */
+
+package schedulermem;
+
+import java.util.Arrays;
+
+/**
+ * Online CLOCK
+ *
+ * Every frame has a reference bit which is set whenever its page is
+ * loaded or referenced. On a fault the hand sweeps over the frames,
+ * clearing the bits, and evicts the first page whose bit is already clear.
+ */
+public class OnlineCLOCK extends OnlineMemoryScheduler {
+
+    // Dense ids of the pages in the frames, and their reference bits
+    private final int[] pages;
+    private final boolean[] referenced;
+    // The frame of every page, -1 for the pages which are not resident
+    private int[] frameOf;
+    private int used;
+    private int hand;
+
+    public OnlineCLOCK(int frames) {
+        super(frames);
+        this.pages = new int[frames];
+        this.referenced = new boolean[frames];
+        this.frameOf = new int[16];
+        Arrays.fill(this.frameOf, -1);
+        this.used = 0;
+        this.hand = 0;
+    }
+
+    @Override
+    protected void reference(int id, boolean write) {
+        this.frameOf = ensureCapacity(this.frameOf, id, -1);
+        int frame = this.frameOf[id];
+
+        // A hit only sets the reference bit
+        if (frame >= 0) {
+            this.referenced[frame] = true;
+            recordHit(id, write);
+            return;
+        }
+
+        // While there are free frames the hand simply moves over them,
+        // afterwards it gives every referenced page a second chance.
+        if (this.used == this.frames) {
+            while (this.referenced[this.hand]) {
+                this.referenced[this.hand] = false;
+                this.hand = (this.hand + 1) % this.frames;
+            }
+
+            this.frameOf[this.pages[this.hand]] = -1;
+            recordEviction(this.pages[this.hand]);
+        } else {
+            this.used++;
+        }
+
+        this.pages[this.hand] = id;
+        this.referenced[this.hand] = true;
+        this.frameOf[id] = this.hand;
+        this.hand = (this.hand + 1) % this.frames;
+
+        recordFault(id, write);
+    }
+
+}
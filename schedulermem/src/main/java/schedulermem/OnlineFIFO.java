@@ -0,0 +1,64 @@
+/*
+ * File:   OnlineFIFO.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Online FIFO page replacement.
+ *
+ */
+
+package schedulermem;
+
+import java.util.BitSet;
+
+/**
+ * Online FIFO
+ *
+ * The frames form a ring and the next victim is always the page that
+ * was loaded first, so the ring position of the oldest page is all the
+ * state we need besides the set of resident pages.
+ */
+public class OnlineFIFO extends OnlineMemoryScheduler {
+
+    // Dense ids of the pages in the frames, in the order they were loaded
+    private final int[] ring;
+    private final BitSet currentPages;
+    private int used;
+    private int oldest;
+
+    public OnlineFIFO(int frames) {
+        super(frames);
+        this.ring = new int[frames];
+        this.currentPages = new BitSet();
+        this.used = 0;
+        this.oldest = 0;
+    }
+
+    @Override
+    protected void reference(int id, boolean write) {
+        if (this.currentPages.get(id)) {
+            recordHit(id, write);
+            return;
+        }
+
+        // Once all the frames are taken, the oldest page goes away
+        if (this.used == this.frames) {
+            this.currentPages.clear(this.ring[this.oldest]);
+            recordEviction(this.ring[this.oldest]);
+        } else {
+            this.used++;
+        }
+
+        // The new page takes the place of the oldest one (or the next free
+        // frame, which is the same slot while the ring is filling up)
+        this.ring[this.oldest] = id;
+        this.oldest = (this.oldest + 1) % this.frames;
+        this.currentPages.set(id);
+
+        recordFault(id, write);
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * File:   OnlineLRU.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Online LRU page replacement.
+ *
+ */
+
+package schedulermem;
+
+import java.util.BitSet;
+
+/**
+ * Online LRU
+ *
+ * The resident pages form a doubly linked list over their dense ids, from
+ * the least recently used one (head) to the most recently used one (tail),
+ * like in MemoryScheduler.useLRU. The list arrays grow as new pages arrive.
+ */
+public class OnlineLRU extends OnlineMemoryScheduler {
+
+    private int[] previous;
+    private int[] next;
+    private final BitSet currentPages;
+    private int head;
+    private int tail;
+    private int used;
+
+    public OnlineLRU(int frames) {
+        super(frames);
+        this.previous = new int[16];
+        this.next = new int[16];
+        this.currentPages = new BitSet();
+        this.head = -1;
+        this.tail = -1;
+        this.used = 0;
+    }
+
+    @Override
+    protected void reference(int id, boolean write) {
+        if (this.currentPages.get(id)) {
+            recordHit(id, write);
+
+            // Unlink the page, it becomes the most recently used one
+            if (id == this.tail)
+                return;
+            if (id == this.head)
+                this.head = this.next[id];
+            else
+                this.next[this.previous[id]] = this.next[id];
+            this.previous[this.next[id]] = this.previous[id];
+        } else {
+            // Evict the least recently used page if there is no free frame
+            if (this.used == this.frames) {
+                int victim = this.head;
+                this.currentPages.clear(victim);
+                this.head = this.next[victim];
+                if (this.head < 0)
+                    this.tail = -1;
+                else
+                    this.previous[this.head] = -1;
+                recordEviction(victim);
+            } else {
+                this.used++;
+            }
+
+            this.previous = ensureCapacity(this.previous, id, -1);
+            this.next = ensureCapacity(this.next, id, -1);
+            this.currentPages.set(id);
+            recordFault(id, write);
+        }
+
+        // Append the page at the most recently used end
+        this.previous[id] = this.tail;
+        this.next[id] = -1;
+        if (this.tail < 0)
+            this.head = id;
+        else
+            this.next[this.tail] = id;
+        this.tail = id;
+    }
+
+}
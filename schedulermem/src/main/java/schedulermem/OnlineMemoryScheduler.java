@@ -0,0 +1,287 @@
+/*
+ * File:   OnlineMemoryScheduler.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The base class of the push-based (online) page replacement policies.
+ * Instead of taking the whole reference string up front, the policies
+ * accept references one at a time or in batches, and their counters
+ * are always up to date.
+ *
+ */
+
+package schedulermem;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Online memory scheduler
+ *
+ * Every page is mapped to a dense id (see PageIdInterner) as its first
+ * reference arrives, so the policies keep their per-page state in flat
+ * arrays indexed by id instead of boxing every reference into a map.
+ * Subclasses implement reference(int, boolean) on the dense ids and report
+ * every processed reference through recordHit() or recordFault(), and every
+ * evicted page through recordEviction(). Policies that delay their decisions
+ * (such as the bounded-lookahead OPT) process the buffered references in
+ * flush().
+ *
+ * References are reads or writes. The base class keeps the dirty bits of
+ * the resident pages in a bitset indexed by dense id, like MemoryScheduler
+ * does, and counts the clean evictions and the write-backs of dirty victims
+ * separately. Write-backs can be batched through a write-back buffer, which
+ * is flushed whenever it fills up.
+ */
+public abstract class OnlineMemoryScheduler {
+
+    protected final int frames;
+
+    private final PageIdInterner interner;
+
+    private long referenceCount;
+    private long pageFaultCount;
+    private long evictionCount;
+
+    private final BitSet dirtyPages;
+    private long writeCount;
+    private long writeBackCount;
+    private int writeBackBufferCapacity;
+    private int writeBackBuffered;
+    private long writeBackFlushCount;
+
+    protected OnlineMemoryScheduler(int frames) {
+        if (frames < 1)
+            throw new IllegalArgumentException("frames must be positive: " + frames);
+
+        this.frames = frames;
+        this.interner = new PageIdInterner();
+        this.referenceCount = 0;
+        this.pageFaultCount = 0;
+        this.evictionCount = 0;
+
+        this.dirtyPages = new BitSet();
+        this.writeCount = 0;
+        this.writeBackCount = 0;
+        this.writeBackBufferCapacity = 1;
+        this.writeBackBuffered = 0;
+        this.writeBackFlushCount = 0;
+    }
+
+    /**
+     * Feed a single read reference
+     *
+     * @param page the page number
+     */
+    public final void accept(int page) {
+        accept(page, false);
+    }
+
+    /**
+     * Feed a single page reference
+     *
+     * @param page the page number
+     * @param write whether the reference writes to the page
+     */
+    public final void accept(int page, boolean write) {
+        reference(this.interner.intern(page), write);
+    }
+
+    /**
+     * Process a single page reference
+     *
+     * @param id the dense id of the page
+     * @param write whether the reference writes to the page
+     */
+    protected abstract void reference(int id, boolean write);
+
+    /**
+     * Feed a batch of read references
+     *
+     * @param batch the array holding the references
+     * @param off the index of the first reference
+     * @param len the number of references
+     */
+    public void accept(int[] batch, int off, int len) {
+        if (off < 0 || len < 0 || off + len > batch.length)
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + batch.length);
+
+        for (int i = off; i < off + len; i++)
+            accept(batch[i], false);
+    }
+
+    /**
+     * Feed a batch of references with their read/write bits
+     *
+     * @param batch the array holding the references
+     * @param writeBits packed write bits, bit i (in BitSet.toLongArray()
+     *                  order) tells whether batch[i] is a write
+     * @param off the index of the first reference
+     * @param len the number of references
+     */
+    public void accept(int[] batch, long[] writeBits, int off, int len) {
+        if (off < 0 || len < 0 || off + len > batch.length)
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + batch.length);
+
+        for (int i = off; i < off + len; i++) {
+            int word = i >>> 6;
+            accept(batch[i], word < writeBits.length && (writeBits[word] & (1L << i)) != 0);
+        }
+    }
+
+    /**
+     * Feed a whole trace with its read/write bits
+     *
+     * @param trace the trace
+     */
+    public void accept(ReferenceTrace trace) {
+        accept(trace.getPages(), trace.getWriteBits(), 0, trace.length());
+    }
+
+    /**
+     * Process any references the policy is still holding back and write
+     * back whatever is left in the write-back buffer. Subclasses which
+     * hold references back must call this one after processing them.
+     */
+    public void flush() {
+        if (this.writeBackBuffered > 0) {
+            this.writeBackFlushCount++;
+            this.writeBackBuffered = 0;
+        }
+    }
+
+    /**
+     * Batch the write-backs of dirty victims. Every time the given number
+     * of victims have been collected, they are written back in one flush.
+     *
+     * @param capacity the number of victims per flush, 1 for no batching
+     */
+    public void setWriteBackBufferCapacity(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+
+        this.writeBackBufferCapacity = capacity;
+    }
+
+    public int getFrames() {
+        return this.frames;
+    }
+
+    /**
+     * @return the number of references processed so far
+     */
+    public long getReferenceCount() {
+        return this.referenceCount;
+    }
+
+    public long getPageFaultCount() {
+        return this.pageFaultCount;
+    }
+
+    public long getHitCount() {
+        return this.referenceCount - this.pageFaultCount;
+    }
+
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * @return the fraction of processed references that were hits
+     */
+    public double getHitRatio() {
+        return this.referenceCount == 0 ? 0 : (double) getHitCount() / this.referenceCount;
+    }
+
+    public long getWriteCount() {
+        return this.writeCount;
+    }
+
+    /**
+     * @return the number of victims which were not modified
+     */
+    public long getCleanEvictionCount() {
+        return this.evictionCount - this.writeBackCount;
+    }
+
+    /**
+     * @return the number of dirty victims which had to be written back
+     */
+    public long getWriteBackCount() {
+        return this.writeBackCount;
+    }
+
+    /**
+     * @return the number of flushes of the write-back buffer, which is
+     *         the number of write-backs when there is no batching
+     */
+    public long getWriteBackFlushCount() {
+        return this.writeBackFlushCount;
+    }
+
+    /**
+     * @return the number of resident pages which are dirty
+     */
+    public int getDirtyPageCount() {
+        return this.dirtyPages.cardinality();
+    }
+
+    protected void recordHit(int id, boolean write) {
+        this.referenceCount++;
+        if (write)
+            markDirty(id);
+    }
+
+    protected void recordFault(int id, boolean write) {
+        this.referenceCount++;
+        this.pageFaultCount++;
+        if (write)
+            markDirty(id);
+    }
+
+    protected void recordEviction(int id) {
+        this.evictionCount++;
+
+        // A dirty victim has to be written back before its frame is reused
+        if (this.dirtyPages.get(id)) {
+            this.dirtyPages.clear(id);
+            this.writeBackCount++;
+
+            if (++this.writeBackBuffered == this.writeBackBufferCapacity) {
+                this.writeBackFlushCount++;
+                this.writeBackBuffered = 0;
+            }
+        }
+    }
+
+    private void markDirty(int id) {
+        this.writeCount++;
+        this.dirtyPages.set(id);
+    }
+
+    // Grow a per-page array so that it has an entry for the given dense id,
+    // the new entries being set to fill
+    protected static int[] ensureCapacity(int[] array, int id, int fill) {
+        if (id < array.length)
+            return array;
+
+        int length = array.length;
+        array = Arrays.copyOf(array, Math.max(id + 1, length + (length >> 1)));
+        Arrays.fill(array, length, array.length, fill);
+        return array;
+    }
+
+    protected static long[] ensureCapacity(long[] array, int id, long fill) {
+        if (id < array.length)
+            return array;
+
+        int length = array.length;
+        array = Arrays.copyOf(array, Math.max(id + 1, length + (length >> 1)));
+        Arrays.fill(array, length, array.length, fill);
+        return array;
+    }
+
+}
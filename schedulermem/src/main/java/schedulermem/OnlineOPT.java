@@ -0,0 +1,158 @@
+/*
+ * File:   OnlineOPT.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Online approximation of the optimal (OPT) page replacement algorithm
+ * with a bounded lookahead window.
+ *
+ */
+
+package schedulermem;
+
+import java.util.Arrays;
+
+/**
+ * Online OPT
+ *
+ * OPT needs to know the future, so this policy holds back the last
+ * `lookahead` references and decides about a reference only once that many
+ * later references are known. The victim is the resident page whose next
+ * use within the window is the farthest away, pages which are not used
+ * within the window at all being preferred. With a window at least as long
+ * as the trace the result is the same as that of MemoryScheduler.useOPT.
+ *
+ * The pages are kept by their dense ids, so the latest reference to every
+ * page and the frame of every resident page are flat arrays which grow as
+ * new pages arrive.
+ *
+ * Call flush() at the end of the trace to process the held back references.
+ */
+public class OnlineOPT extends OnlineMemoryScheduler {
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    // Dense ids of the pending references, the oldest one being processed next
+    private final int[] buffer;
+    // and whether they are writes
+    private final boolean[] writes;
+    // For every pending reference, the sequence number of the next
+    // pending reference to the same page (or -1)
+    private final long[] nextSame;
+    // Sequence number of the latest reference to every page seen so far
+    private long[] lastSeen;
+    private long head;
+    private long tail;
+
+    // Resident pages, the sequence number of their next use, and the frame
+    // of every page (-1 for the pages which are not resident)
+    private final int[] pages;
+    private final long[] nextUse;
+    private int[] frameOf;
+    private int used;
+
+    public OnlineOPT(int frames, int lookahead) {
+        super(frames);
+
+        if (lookahead < 0)
+            throw new IllegalArgumentException("lookahead must not be negative: " + lookahead);
+
+        this.buffer = new int[lookahead + 1];
+        this.writes = new boolean[lookahead + 1];
+        this.nextSame = new long[lookahead + 1];
+        this.lastSeen = new long[16];
+        Arrays.fill(this.lastSeen, -1);
+        this.head = 0;
+        this.tail = 0;
+
+        this.pages = new int[frames];
+        this.nextUse = new long[frames];
+        this.frameOf = new int[16];
+        Arrays.fill(this.frameOf, -1);
+        this.used = 0;
+    }
+
+    public int getLookahead() {
+        return this.buffer.length - 1;
+    }
+
+    @Override
+    protected void reference(int id, boolean write) {
+        // Make room in the window by processing the oldest reference
+        if (this.tail - this.head == this.buffer.length)
+            process();
+
+        long seq = this.tail++;
+        int slot = (int) (seq % this.buffer.length);
+
+        this.buffer[slot] = id;
+        this.writes[slot] = write;
+        this.nextSame[slot] = -1;
+
+        // Link the new reference to the previous one to the same page. If
+        // that one was already processed, the page might be resident and
+        // waiting for its next use to become known.
+        this.lastSeen = ensureCapacity(this.lastSeen, id, -1);
+        this.frameOf = ensureCapacity(this.frameOf, id, -1);
+
+        long previous = this.lastSeen[id];
+        this.lastSeen[id] = seq;
+        if (previous >= this.head) {
+            this.nextSame[(int) (previous % this.buffer.length)] = seq;
+        } else if (this.frameOf[id] >= 0) {
+            this.nextUse[this.frameOf[id]] = seq;
+        }
+    }
+
+    @Override
+    public void flush() {
+        while (this.head < this.tail)
+            process();
+
+        super.flush();
+    }
+
+    private void process() {
+        int slot = (int) (this.head % this.buffer.length);
+        int id = this.buffer[slot];
+        boolean write = this.writes[slot];
+        long next = this.nextSame[slot] < 0 ? NEVER : this.nextSame[slot];
+
+        this.head++;
+
+        int frame = this.frameOf[id];
+
+        if (frame >= 0) {
+            this.nextUse[frame] = next;
+            recordHit(id, write);
+            return;
+        }
+
+        // Take a free frame if there is one
+        int victim = this.used;
+
+        // Otherwise, predict the page to be replaced
+        if (victim == this.frames) {
+            victim = 0;
+            for (int k = 1; k < this.frames && this.nextUse[victim] != NEVER; k++) {
+                if (this.nextUse[k] > this.nextUse[victim])
+                    victim = k;
+            }
+
+            this.frameOf[this.pages[victim]] = -1;
+            recordEviction(this.pages[victim]);
+        } else {
+            this.used++;
+        }
+
+        this.pages[victim] = id;
+        this.nextUse[victim] = next;
+        this.frameOf[id] = victim;
+
+        recordFault(id, write);
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * File:   PageIdInterner.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A preprocessing stage which maps sparse page ids (such as 64-bit virtual
+ * page numbers) to dense ids 0..k-1, so the replacement policies can keep
+ * their per-page state in flat arrays.
+ *
+ */
+
+package schedulermem;
+
+import java.util.Arrays;
+
+import schedulercommon.LongIntHashMap;
+
+/**
+ * Page id interner
+ *
+ * Every distinct page id gets the next free dense id, in the order of the
+ * first reference. The forward mapping is a primitive long-to-int hash map
+ * and the reverse mapping is a plain array, so the original ids are still
+ * available for reporting.
+ */
+public class PageIdInterner {
+
+    private final LongIntHashMap denseIds;
+    private long[] originalIds;
+    private int size;
+
+    public PageIdInterner() {
+        this(16);
+    }
+
+    /**
+     * @param expectedPages the number of distinct pages to make room for
+     */
+    public PageIdInterner(int expectedPages) {
+        this.denseIds = new LongIntHashMap(expectedPages, -1);
+        this.originalIds = new long[Math.max(expectedPages, 16)];
+        this.size = 0;
+    }
+
+    /**
+     * @param pageId the original page id
+     * @return the dense id of the page, assigned on the first call
+     */
+    public int intern(long pageId) {
+        int denseId = this.denseIds.get(pageId);
+
+        if (denseId < 0) {
+            denseId = this.size++;
+            this.denseIds.put(pageId, denseId);
+
+            if (denseId == this.originalIds.length)
+                this.originalIds = Arrays.copyOf(this.originalIds, denseId + (denseId >> 1));
+            this.originalIds[denseId] = pageId;
+        }
+
+        return denseId;
+    }
+
+    /**
+     * Intern a batch of page ids in one pass
+     *
+     * @param pageIds the original page ids
+     * @param off the index of the first page id
+     * @param dense the array receiving the dense ids
+     * @param denseOff the index of the first dense id
+     * @param len the number of page ids
+     */
+    public void intern(long[] pageIds, int off, int[] dense, int denseOff, int len) {
+        if (off < 0 || len < 0 || off + len > pageIds.length || denseOff < 0 || denseOff + len > dense.length)
+            throw new IndexOutOfBoundsException("off=" + off + ", denseOff=" + denseOff + ", len=" + len);
+
+        for (int i = 0; i < len; i++)
+            dense[denseOff + i] = intern(pageIds[off + i]);
+    }
+
+    /**
+     * @param pageIds the original page ids
+     * @return the dense ids, one for every page id
+     */
+    public int[] intern(long[] pageIds) {
+        int[] dense = new int[pageIds.length];
+        intern(pageIds, 0, dense, 0, pageIds.length);
+        return dense;
+    }
+
+    /**
+     * @param pageIds the original page ids
+     * @return the dense ids, one for every page id
+     */
+    public int[] intern(int[] pageIds) {
+        int[] dense = new int[pageIds.length];
+
+        for (int i = 0; i < pageIds.length; i++)
+            dense[i] = intern(pageIds[i]);
+
+        return dense;
+    }
+
+    /**
+     * @param pageId the original page id
+     * @return the dense id of the page, or -1 if it was never interned
+     */
+    public int lookup(long pageId) {
+        return this.denseIds.get(pageId);
+    }
+
+    /**
+     * @param denseId a dense id
+     * @return the original page id
+     */
+    public long getOriginalId(int denseId) {
+        if (denseId < 0 || denseId >= this.size)
+            throw new IllegalArgumentException("unknown dense id: " + denseId);
+
+        return this.originalIds[denseId];
+    }
+
+    /**
+     * @return the number of distinct pages, all dense ids are below it
+     */
+    public int size() {
+        return this.size;
+    }
+
+}
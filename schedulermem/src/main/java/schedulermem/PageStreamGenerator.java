@@ -0,0 +1,258 @@
+/*
+ * File:   PageStreamGenerator.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Synthetic page reference streams (uniform, Zipf, looping, sequential
+ * scan and phase change), reproducible from a seed and generated in
+ * parallel chunks.
+ *
+ */
+
+package schedulermem;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import schedulercommon.BinaryTraceWriter;
+import schedulercommon.ChunkedRandom;
+
+/**
+ * Page stream generator
+ *
+ * The stream is drawn in chunks of CHUNK_SIZE references by ChunkedRandom,
+ * so any part of it is the same however it is generated: in one go, in
+ * pieces, or by many threads at once.
+ *
+ * - UNIFORM references every page equally often.
+ * - ZIPF references page k (from 0) with a probability proportional to
+ *   1 / (k + 1)^s, drawn by rejection-inversion (Hormann and Derflinger),
+ *   which takes constant time whatever the number of pages.
+ * - LOOP cycles over the first loopLength pages, the worst case of LRU
+ *   when the loop does not fit into the frames.
+ * - SCAN reads all the pages in order, none of them being reused before
+ *   the whole range has gone by.
+ * - PHASE_CHANGE moves between working sets: every phase of phaseLength
+ *   references picks workingSetSize consecutive pages at random and
+ *   references them with the Zipf distribution.
+ */
+public class PageStreamGenerator {
+
+    public enum Pattern {
+        UNIFORM, ZIPF, LOOP, SCAN, PHASE_CHANGE
+    }
+
+    /**
+     * The number of references drawn from one SplittableRandom
+     */
+    public static final int CHUNK_SIZE = ChunkedRandom.CHUNK_SIZE;
+
+    // The chunks written to a trace at a time
+    private static final int CHUNKS_PER_BATCH = 64;
+
+    private final long seed;
+    private final Pattern pattern;
+    private final int pages;
+
+    private double exponent;
+    private int loopLength;
+    private int workingSetSize;
+    private int phaseLength;
+
+    // The constants of the rejection-inversion sampler, over the ranks
+    // 1..zipfRanks
+    private int zipfRanks;
+    private double hIntegralX1;
+    private double hIntegralN;
+    private double squeeze;
+
+    /**
+     * @param seed the seed of the stream
+     * @param pattern the pattern of the references
+     * @param pages the number of pages, numbered from 0
+     */
+    public PageStreamGenerator(long seed, Pattern pattern, int pages) {
+        if (pages < 1)
+            throw new IllegalArgumentException("pages must be positive: " + pages);
+
+        this.seed = seed;
+        this.pattern = pattern;
+        this.pages = pages;
+        this.exponent = 1;
+        this.loopLength = Math.max(1, pages / 4);
+        this.workingSetSize = Math.max(1, pages / 16);
+        this.phaseLength = 100000;
+        prepareZipf();
+    }
+
+    /**
+     * @param exponent the exponent s of the Zipf distribution, 1 by default
+     */
+    public void setZipfExponent(double exponent) {
+        if (!(exponent > 0))
+            throw new IllegalArgumentException("exponent must be positive: " + exponent);
+
+        this.exponent = exponent;
+        prepareZipf();
+    }
+
+    /**
+     * @param loopLength the number of pages of a LOOP, a quarter of the
+     *                   pages by default
+     */
+    public void setLoopLength(int loopLength) {
+        if (loopLength < 1 || loopLength > this.pages)
+            throw new IllegalArgumentException("loopLength out of range: " + loopLength);
+
+        this.loopLength = loopLength;
+    }
+
+    /**
+     * @param workingSetSize the number of pages of a phase, a sixteenth of
+     *                       the pages by default
+     * @param phaseLength the number of references of a phase, 100000 by
+     *                    default
+     */
+    public void setPhases(int workingSetSize, int phaseLength) {
+        if (workingSetSize < 1 || workingSetSize > this.pages)
+            throw new IllegalArgumentException("workingSetSize out of range: " + workingSetSize);
+        if (phaseLength < 1)
+            throw new IllegalArgumentException("phaseLength must be positive: " + phaseLength);
+
+        this.workingSetSize = workingSetSize;
+        this.phaseLength = phaseLength;
+        prepareZipf();
+    }
+
+    public Pattern getPattern() {
+        return this.pattern;
+    }
+
+    public int getPages() {
+        return this.pages;
+    }
+
+    /**
+     * Generate a part of the stream
+     *
+     * @param start the index of the first reference in the stream
+     * @param out where to put the references
+     * @param off the index in out of the first one
+     * @param len the number of references
+     */
+    public void fill(long start, int[] out, int off, int len) {
+        ChunkedRandom.fill(this.seed, 0, this::next, start, out, off, len);
+    }
+
+    /**
+     * Generate the first n references, one chunk per task on the common
+     * ForkJoin pool
+     *
+     * @param n the number of references
+     * @return the references
+     */
+    public int[] generate(int n) {
+        if (n < 0)
+            throw new IllegalArgumentException("n must not be negative: " + n);
+
+        int[] references = new int[n];
+        ChunkedRandom.fillParallel(this.seed, 0, this::next, 0, references, n);
+
+        return references;
+    }
+
+    /**
+     * Write the first n references to a trace, in batches of chunks which
+     * are generated in parallel and written in order
+     *
+     * @param writer the trace to write to
+     * @param n the number of references
+     * @throws IOException if the trace cannot be written
+     */
+    public void write(BinaryTraceWriter writer, long n) throws IOException {
+        if (n < 0)
+            throw new IllegalArgumentException("n must not be negative: " + n);
+
+        int[] batch = new int[(int) Math.min(n, (long) CHUNK_SIZE * CHUNKS_PER_BATCH)];
+
+        for (long start = 0; start < n; start += batch.length) {
+            int len = (int) Math.min(batch.length, n - start);
+            ChunkedRandom.fillParallel(this.seed, 0, this::next, start, batch, len);
+            writer.write(batch, 0, len);
+        }
+    }
+
+    // The reference at index i of the stream
+    private int next(SplittableRandom random, long i) {
+        switch (this.pattern) {
+            case UNIFORM:
+                return random.nextInt(this.pages);
+            case ZIPF:
+                return zipf(random) - 1;
+            case LOOP:
+                return (int) (i % this.loopLength);
+            case SCAN:
+                return (int) (i % this.pages);
+            default:
+                // The first page of the working set only depends on the
+                // phase
+                long phase = i / this.phaseLength;
+                long base = Math.floorMod(ChunkedRandom.mix(~this.seed + phase * ChunkedRandom.GOLDEN_GAMMA),
+                        this.pages);
+                return (int) ((base + zipf(random) - 1) % this.pages);
+        }
+    }
+
+    private void prepareZipf() {
+        this.zipfRanks = this.pattern == Pattern.PHASE_CHANGE ? this.workingSetSize : this.pages;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(this.zipfRanks + 0.5);
+        this.squeeze = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    // A rank within 1..zipfRanks, by rejection-inversion: invert the
+    // integral of the continuous hat function h, and keep the rank if it
+    // falls under the histogram of the discrete distribution
+    private int zipf(SplittableRandom random) {
+        while (true) {
+            double u = this.hIntegralN + random.nextDouble() * (this.hIntegralX1 - this.hIntegralN);
+            double x = hIntegralInverse(u);
+            int k = (int) Math.max(1, Math.min(this.zipfRanks, (long) (x + 0.5)));
+
+            if (k - x <= this.squeeze || u >= hIntegral(k + 0.5) - h(k))
+                return k;
+        }
+    }
+
+    private double h(double x) {
+        return Math.exp(-this.exponent * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1 - this.exponent) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = Math.max(-1, x * (1 - this.exponent));
+        return Math.exp(helper1(t) * x);
+    }
+
+    // log(1 + x) / x, which tends to 1 at 0
+    private static double helper1(double x) {
+        if (Math.abs(x) > 1e-8)
+            return Math.log1p(x) / x;
+        return 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    // (exp(x) - 1) / x, which tends to 1 at 0
+    private static double helper2(double x) {
+        if (Math.abs(x) > 1e-8)
+            return Math.expm1(x) / x;
+        return 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * File:   ReferenceTrace.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A page reference trace in which every reference is either a read or a
+ * write. The read/write bits are packed 64 to a long.
+ *
+ */
+
+package schedulermem;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Reference trace
+ *
+ * The text form is the usual comma-separated reference string in which
+ * every page may be followed by 'r' (read, the default) or 'w' (write),
+ * for example "7w,0,1r,2w". Bit i of the packed write bits (in the order
+ * of BitSet.toLongArray()) is set when reference i is a write.
+ */
+public class ReferenceTrace {
+
+    private final int[] pages;
+    private final long[] writeBits;
+
+    /**
+     * @param pages the page references
+     * @param writes the indices of the references which are writes
+     */
+    public ReferenceTrace(int[] pages, BitSet writes) {
+        if (writes.length() > pages.length)
+            throw new IllegalArgumentException("write bit " + (writes.length() - 1) + " is past the end of the trace");
+
+        this.pages = pages.clone();
+        this.writeBits = Arrays.copyOf(writes.toLongArray(), (pages.length + 63) >>> 6);
+    }
+
+    /**
+     * Parse a reference string such as "7w,0,1r,2w"
+     *
+     * @param referenceString comma-separated page references
+     * @return the trace
+     */
+    public static ReferenceTrace parse(String referenceString) {
+        String[] tokens = referenceString.split(",");
+        int[] pages = new int[tokens.length];
+        BitSet writes = new BitSet(tokens.length);
+
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i].trim();
+            char last = token.isEmpty() ? ' ' : token.charAt(token.length() - 1);
+
+            // The access type is optional and defaults to a read
+            if (last == 'w' || last == 'W') {
+                writes.set(i);
+                token = token.substring(0, token.length() - 1);
+            } else if (last == 'r' || last == 'R') {
+                token = token.substring(0, token.length() - 1);
+            }
+
+            pages[i] = Integer.parseInt(token);
+        }
+
+        return new ReferenceTrace(pages, writes);
+    }
+
+    /**
+     * @return the page references, not to be modified
+     */
+    public int[] getPages() {
+        return this.pages;
+    }
+
+    /**
+     * @return the packed write bits, one long for every 64 references
+     */
+    public long[] getWriteBits() {
+        return this.writeBits;
+    }
+
+    /**
+     * @param i the index of a reference
+     * @return true if the reference is a write
+     */
+    public boolean isWrite(int i) {
+        if (i < 0 || i >= this.pages.length)
+            throw new IndexOutOfBoundsException("index=" + i + ", length=" + this.pages.length);
+
+        return (this.writeBits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * @return the number of references which are writes
+     */
+    public int getWriteCount() {
+        int count = 0;
+
+        for (long word : this.writeBits)
+            count += Long.bitCount(word);
+
+        return count;
+    }
+
+    /**
+     * @return the number of references
+     */
+    public int length() {
+        return this.pages.length;
+    }
+
+}
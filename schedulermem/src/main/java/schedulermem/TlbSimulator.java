@@ -0,0 +1,359 @@
+/*
+ * File:   TlbSimulator.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The class simulates address translation in front of a page replacement
+ * policy: a set-associative TLB, an optional page-walk cache and a 4- or
+ * 5-level page-table walk, with an estimate of the cycles spent.
+ *
+ */
+
+package schedulermem;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * TLB simulator
+ *
+ * Every reference is a virtual page number. It is looked up in the TLB,
+ * and a miss walks the page table. The walk starts below the deepest
+ * upper-level entry found in the page-walk cache (PWC), and every level
+ * it has to read costs one memory access. Every reference is also passed
+ * on to the replacement policy behind the TLB, if there is one, which
+ * counts the page faults.
+ *
+ * The simulator keeps all of its state in preallocated primitive arrays,
+ * so a trace of any length is processed in a single streaming pass.
+ */
+public class TlbSimulator {
+
+    /**
+     * TLB replacement policy within a set
+     */
+    public enum Replacement {
+        LRU, FIFO, RANDOM
+    }
+
+    // Every page-table level translates 9 bits of the page number
+    private static final int BITS_PER_LEVEL = 9;
+    private static final long INVALID = -1;
+
+    private final int sets;
+    private final int ways;
+    private final int setMask;
+    private final int setBits;
+    private final Replacement replacement;
+    private final long[] tlbTags;
+    private final long[] tlbStamps;
+    private final SplittableRandom random;
+
+    private final int levels;
+    private final int pwcEntries;
+    // One fully associative cache per upper level of the page table
+    private final long[][] pwcTags;
+    private final long[][] pwcStamps;
+
+    private final OnlineMemoryScheduler memory;
+
+    private int tlbHitCycles;
+    private int pwcHitCycles;
+    private int memoryAccessCycles;
+    private int pageFaultCycles;
+
+    private long time;
+    private long referenceCount;
+    private long tlbHitCount;
+    private long pageWalkCount;
+    private long pwcHitCount;
+    private long walkMemoryAccessCount;
+    private long cycles;
+
+    /**
+     * @param sets the number of TLB sets, a power of two
+     * @param ways the associativity of the TLB
+     * @param replacement the replacement policy within a TLB set
+     * @param levels the number of page-table levels, 4 or 5
+     * @param pwcEntries the entries of the page-walk cache per upper level, 0 for none
+     * @param memory the page replacement policy behind the TLB, or null
+     */
+    public TlbSimulator(int sets, int ways, Replacement replacement, int levels, int pwcEntries,
+            OnlineMemoryScheduler memory) {
+        if (sets < 1 || Integer.bitCount(sets) != 1)
+            throw new IllegalArgumentException("sets must be a power of two: " + sets);
+        if (ways < 1)
+            throw new IllegalArgumentException("ways must be positive: " + ways);
+        if (levels != 4 && levels != 5)
+            throw new IllegalArgumentException("levels must be 4 or 5: " + levels);
+        if (pwcEntries < 0)
+            throw new IllegalArgumentException("pwcEntries must not be negative: " + pwcEntries);
+
+        this.sets = sets;
+        this.ways = ways;
+        this.setMask = sets - 1;
+        this.setBits = Integer.numberOfTrailingZeros(sets);
+        this.replacement = replacement;
+        this.tlbTags = new long[sets * ways];
+        this.tlbStamps = new long[sets * ways];
+        this.random = new SplittableRandom(0);
+        Arrays.fill(this.tlbTags, INVALID);
+
+        this.levels = levels;
+        this.pwcEntries = pwcEntries;
+        this.pwcTags = new long[levels - 1][pwcEntries];
+        this.pwcStamps = new long[levels - 1][pwcEntries];
+        for (long[] tags : this.pwcTags)
+            Arrays.fill(tags, INVALID);
+
+        this.memory = memory;
+
+        // Rough costs of a modern x86 core
+        this.tlbHitCycles = 1;
+        this.pwcHitCycles = 2;
+        this.memoryAccessCycles = 30;
+        this.pageFaultCycles = 100000;
+    }
+
+    public void setTlbHitCycles(int cycles) {
+        this.tlbHitCycles = cycles;
+    }
+
+    public void setPageWalkCacheHitCycles(int cycles) {
+        this.pwcHitCycles = cycles;
+    }
+
+    public void setMemoryAccessCycles(int cycles) {
+        this.memoryAccessCycles = cycles;
+    }
+
+    public void setPageFaultCycles(int cycles) {
+        this.pageFaultCycles = cycles;
+    }
+
+    /**
+     * Translate a virtual page number
+     *
+     * @param vpn the virtual page number, at most 9 bits per page-table level
+     */
+    public void accept(long vpn) {
+        if (vpn < 0 || vpn >>> (BITS_PER_LEVEL * this.levels) != 0)
+            throw new IllegalArgumentException("vpn out of range for " + this.levels + " levels: " + vpn);
+
+        this.time++;
+        this.referenceCount++;
+        this.cycles += this.tlbHitCycles;
+
+        if (lookupTlb(vpn)) {
+            this.tlbHitCount++;
+        } else {
+            walk(vpn);
+            fillTlb(vpn);
+        }
+
+        // The replacement policy sees every reference, so its fault
+        // count is the same as without a TLB in front of it.
+        if (this.memory != null) {
+            if (vpn > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("vpn too large for the replacement policy: " + vpn);
+
+            long faults = this.memory.getPageFaultCount();
+            this.memory.accept((int) vpn);
+            this.cycles += (this.memory.getPageFaultCount() - faults) * this.pageFaultCycles;
+        }
+    }
+
+    /**
+     * Translate a batch of virtual page numbers
+     *
+     * @param batch the array holding the page numbers
+     * @param off the index of the first page number
+     * @param len the number of page numbers
+     */
+    public void accept(long[] batch, int off, int len) {
+        if (off < 0 || len < 0 || off + len > batch.length)
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + batch.length);
+
+        for (int i = off; i < off + len; i++)
+            accept(batch[i]);
+    }
+
+    /**
+     * Let the replacement policy behind the TLB decide about the references
+     * it is still holding back (see OnlineMemoryScheduler.flush) and charge
+     * the resulting page faults.
+     */
+    public void flush() {
+        if (this.memory != null) {
+            long faults = this.memory.getPageFaultCount();
+            this.memory.flush();
+            this.cycles += (this.memory.getPageFaultCount() - faults) * this.pageFaultCycles;
+        }
+    }
+
+    private boolean lookupTlb(long vpn) {
+        int base = (int) (vpn & this.setMask) * this.ways;
+        long tag = vpn >>> this.setBits;
+
+        for (int i = base; i < base + this.ways; i++) {
+            if (this.tlbTags[i] == tag) {
+                if (this.replacement == Replacement.LRU)
+                    this.tlbStamps[i] = this.time;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void fillTlb(long vpn) {
+        int base = (int) (vpn & this.setMask) * this.ways;
+        int victim = -1;
+
+        // An empty way is used first
+        for (int i = base; i < base + this.ways && victim < 0; i++) {
+            if (this.tlbTags[i] == INVALID)
+                victim = i;
+        }
+
+        if (victim < 0) {
+            if (this.replacement == Replacement.RANDOM) {
+                victim = base + this.random.nextInt(this.ways);
+            } else {
+                // LRU and FIFO both evict the smallest stamp, they only
+                // differ in whether a hit refreshes it.
+                victim = base;
+                for (int i = base + 1; i < base + this.ways; i++) {
+                    if (this.tlbStamps[i] < this.tlbStamps[victim])
+                        victim = i;
+                }
+            }
+        }
+
+        this.tlbTags[victim] = vpn >>> this.setBits;
+        this.tlbStamps[victim] = this.time;
+    }
+
+    private void walk(long vpn) {
+        this.pageWalkCount++;
+
+        // Find the deepest upper level whose entry is cached. Level 0 is
+        // the root, level (levels - 2) is the one above the leaf tables.
+        int start = 0;
+
+        if (this.pwcEntries > 0) {
+            this.cycles += this.pwcHitCycles;
+
+            for (int level = this.levels - 2; level >= 0; level--) {
+                if (lookupPwc(level, prefix(vpn, level))) {
+                    this.pwcHitCount++;
+                    start = level + 1;
+                    break;
+                }
+            }
+
+            // The levels we are about to read get cached on the way down
+            for (int level = start; level < this.levels - 1; level++)
+                fillPwc(level, prefix(vpn, level));
+        }
+
+        int accesses = this.levels - start;
+        this.walkMemoryAccessCount += accesses;
+        this.cycles += (long) accesses * this.memoryAccessCycles;
+    }
+
+    // The page-table indices from the root down to the given level
+    private long prefix(long vpn, int level) {
+        return vpn >>> (BITS_PER_LEVEL * (this.levels - 1 - level));
+    }
+
+    private boolean lookupPwc(int level, long prefix) {
+        long[] tags = this.pwcTags[level];
+
+        for (int i = 0; i < tags.length; i++) {
+            if (tags[i] == prefix) {
+                this.pwcStamps[level][i] = this.time;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void fillPwc(int level, long prefix) {
+        long[] tags = this.pwcTags[level];
+        long[] stamps = this.pwcStamps[level];
+        int victim = 0;
+
+        // The cache is small, so a scan for the least recently used
+        // (or an empty) entry is cheaper than any bookkeeping.
+        for (int i = 0; i < tags.length; i++) {
+            if (tags[i] == INVALID) {
+                victim = i;
+                break;
+            }
+            if (stamps[i] < stamps[victim])
+                victim = i;
+        }
+
+        tags[victim] = prefix;
+        stamps[victim] = this.time;
+    }
+
+    public long getReferenceCount() {
+        return this.referenceCount;
+    }
+
+    public long getTlbHitCount() {
+        return this.tlbHitCount;
+    }
+
+    public double getTlbHitRate() {
+        return this.referenceCount == 0 ? 0 : (double) this.tlbHitCount / this.referenceCount;
+    }
+
+    public long getPageWalkCount() {
+        return this.pageWalkCount;
+    }
+
+    public long getPageWalkCacheHitCount() {
+        return this.pwcHitCount;
+    }
+
+    public double getPageWalkCacheHitRate() {
+        return this.pageWalkCount == 0 ? 0 : (double) this.pwcHitCount / this.pageWalkCount;
+    }
+
+    public long getWalkMemoryAccessCount() {
+        return this.walkMemoryAccessCount;
+    }
+
+    /**
+     * @return the page faults of the policy behind the TLB, 0 without one
+     */
+    public long getPageFaultCount() {
+        return this.memory == null ? 0 : this.memory.getPageFaultCount();
+    }
+
+    /**
+     * @return the estimated cycles spent on translation and page faults
+     */
+    public long getCycles() {
+        return this.cycles;
+    }
+
+    public double getCyclesPerReference() {
+        return this.referenceCount == 0 ? 0 : (double) this.cycles / this.referenceCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[TLB %dx%d %s, %d levels, PWC %d: hit rate %.4f, walks %d, cycles/ref %.2f]",
+                             this.sets, this.ways, this.replacement, this.levels, this.pwcEntries,
+                             getTlbHitRate(), this.pageWalkCount, getCyclesPerReference());
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * File:   WorkingSetWindow.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in this
+ * distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * A sliding window over the last delta page references which keeps the
+ * size of the working set W(t, delta) up to date in constant time per
+ * reference.
+ *
+ */
+
+package schedulermem;
+
+import java.util.Arrays;
+
+/**
+ * Sliding working-set window
+ *
+ * The window remembers the last delta references in a ring buffer and the
+ * time of the last use of every page. A page is in the working set if and
+ * only if it was last used within the window, so only the reference that
+ * falls out of the window on each step has to be examined.
+ */
+class WorkingSetWindow {
+
+    private final int[] ring;
+    private final long[] lastUse;
+    private long time;
+    private int size;
+    private int leaving;
+
+    /**
+     * @param delta the window length, in references
+     * @param pages the number of pages, which are dense ids 0..pages-1
+     */
+    WorkingSetWindow(int delta, int pages) {
+        if (delta < 1)
+            throw new IllegalArgumentException("delta must be positive: " + delta);
+
+        this.ring = new int[delta];
+        this.lastUse = new long[pages];
+        Arrays.fill(this.lastUse, Long.MIN_VALUE);
+        this.time = 0;
+        this.size = 0;
+        this.leaving = -1;
+    }
+
+    /**
+     * Check whether the page is in the current working set
+     *
+     * @param page the dense page id
+     * @return true if the page was referenced within the last delta references
+     */
+    boolean contains(int page) {
+        return this.lastUse[page] >= this.time - this.ring.length;
+    }
+
+    /**
+     * Slide the window by one reference
+     *
+     * @param page the dense id of the page being referenced
+     * @return true if the page was not in the working set (a page fault)
+     */
+    boolean reference(int page) {
+        boolean fault = !contains(page);
+
+        // The slot we are about to overwrite holds the reference made
+        // exactly delta steps ago. If that was the last use of its page
+        // (and it is not being referenced again right now), the page
+        // leaves the working set.
+        int slot = (int) (this.time % this.ring.length);
+        this.leaving = -1;
+        if (this.time >= this.ring.length) {
+            int oldest = this.ring[slot];
+            if (oldest != page && this.lastUse[oldest] == this.time - this.ring.length) {
+                this.leaving = oldest;
+                this.size--;
+            }
+        }
+
+        // A faulting page enters the working set
+        if (fault)
+            this.size++;
+
+        this.ring[slot] = page;
+        this.lastUse[page] = this.time;
+        this.time++;
+
+        return fault;
+    }
+
+    /**
+     * @return the page which left the working set on the last reference,
+     *         or -1 if none did
+     */
+    int getLeaving() {
+        return this.leaving;
+    }
+
+    /**
+     * @return the number of distinct pages referenced within the window
+     */
+    int size() {
+        return this.size;
+    }
+
+}
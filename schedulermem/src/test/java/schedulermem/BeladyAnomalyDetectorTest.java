@@ -0,0 +1,93 @@
+package schedulermem;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BeladyAnomalyDetectorTest {
+
+    private int[] references1;
+    private int[] references2;
+
+    public BeladyAnomalyDetectorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        references1 = new int[] {1, 2, 3, 4, 1, 2, 5, 1, 2, 3, 4, 5};
+        references2 = new int[] {3, 4, 1, 2, 3, 4, 0, 3, 4, 1, 2, 0, 4, 3, 4, 1, 2, 0};
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of detect method, of class BeladyAnomalyDetector, with FIFO.
+     */
+    @Test
+    public void testDetectFIFO() {
+        System.out.println("detect with FIFO");
+        BeladyAnomalyDetector instance = new BeladyAnomalyDetector(OnlineFIFO::new);
+
+        List<BeladyAnomalyDetector.Anomaly> anomalies = instance.detect(references1, 1, 6);
+
+        assertEquals(1, anomalies.size());
+        assertEquals(4, anomalies.get(0).getFrames());
+        assertEquals(10, anomalies.get(0).getPageFaultCount());
+        assertEquals(9, anomalies.get(0).getPreviousPageFaultCount());
+        assertEquals(12, instance.getPageFaultCount(1));
+        assertEquals(5, instance.getPageFaultCount(6));
+    }
+
+    /**
+     * Test of the windows reported for an anomaly.
+     */
+    @Test
+    public void testWindows() {
+        System.out.println("detect reports the windows");
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            BeladyAnomalyDetector instance = new BeladyAnomalyDetector(OnlineFIFO::new, pool);
+
+            List<BeladyAnomalyDetector.Anomaly> anomalies = instance.detect(references2, 3, 5);
+
+            assertEquals(1, anomalies.size());
+            assertEquals(4, anomalies.get(0).getFrames());
+
+            List<int[]> windows = anomalies.get(0).getWindows();
+            assertEquals(2, windows.size());
+            assertArrayEquals(new int[] {11, 12}, windows.get(0));
+            assertArrayEquals(new int[] {14, 18}, windows.get(1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test of detect method, of class BeladyAnomalyDetector, with a stack algorithm.
+     */
+    @Test
+    public void testDetectLRU() {
+        System.out.println("detect with LRU");
+        BeladyAnomalyDetector instance = new BeladyAnomalyDetector(OnlineLRU::new);
+
+        assertTrue(instance.detect(references1, 1, 6).isEmpty());
+        assertTrue(instance.detect(references2, 1, 6).isEmpty());
+    }
+
+}
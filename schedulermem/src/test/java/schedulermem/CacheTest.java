@@ -0,0 +1,170 @@
+package schedulermem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CacheTest {
+
+    private int[] references1;
+
+    public CacheTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        references1 = new int[] {7, 0, 1, 2, 0, 3, 0, 4, 2, 3, 0, 3, 0, 3, 2, 1, 2, 0, 1, 7, 0, 1};
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    // Replay a trace through a cache and through the matching online policy
+    private void assertSameAsOnline(IntFunction<Cache<Integer, String>> cacheFactory,
+            IntFunction<OnlineMemoryScheduler> onlineFactory, int capacity, int[] references) {
+        Cache<Integer, String> cache = cacheFactory.apply(capacity);
+        OnlineMemoryScheduler online = onlineFactory.apply(capacity);
+
+        for (int page : references) {
+            assertEquals(String.valueOf(page), cache.get(page, String::valueOf));
+            online.accept(page);
+        }
+
+        assertEquals(online.getPageFaultCount(), cache.getMissCount());
+        assertEquals(online.getHitCount(), cache.getHitCount());
+        assertEquals(online.getEvictionCount(), cache.getEvictionCount());
+        assertTrue(cache.size() <= capacity);
+    }
+
+    /**
+     * Test of the miss counts of FifoCache, LruCache and ClockCache.
+     */
+    @Test
+    public void testAgainstOnline() {
+        System.out.println("FifoCache, LruCache and ClockCache against the online policies");
+        Random random = new Random(2019);
+        int[] references = new int[20000];
+        for (int i = 0; i < references.length; i++)
+            references[i] = random.nextInt(random.nextBoolean() ? 16 : 200);
+
+        for (int capacity : new int[] {1, 3, 4, 17, 64}) {
+            assertSameAsOnline(c -> new FifoCache<>(c), OnlineFIFO::new, capacity, references1);
+            assertSameAsOnline(c -> new LruCache<>(c), OnlineLRU::new, capacity, references1);
+            assertSameAsOnline(c -> new ClockCache<>(c), OnlineCLOCK::new, capacity, references1);
+            assertSameAsOnline(c -> new FifoCache<>(c), OnlineFIFO::new, capacity, references);
+            assertSameAsOnline(c -> new LruCache<>(c), OnlineLRU::new, capacity, references);
+            assertSameAsOnline(c -> new ClockCache<>(c), OnlineCLOCK::new, capacity, references);
+        }
+
+        Cache<Integer, String> lru = new LruCache<>(3);
+        for (int page : references1)
+            lru.get(page, String::valueOf);
+        assertEquals(12, lru.getMissCount());
+    }
+
+    /**
+     * Test of put, get and remove methods, of the caches.
+     */
+    @Test
+    public void testPutRemove() {
+        System.out.println("put, get and remove");
+        List<Cache<String, Integer>> caches = new ArrayList<>();
+        caches.add(new FifoCache<>(2));
+        caches.add(new LruCache<>(2));
+        caches.add(new ClockCache<>(2));
+
+        for (Cache<String, Integer> cache : caches) {
+            cache.put("a", 1);
+            cache.put("b", 2);
+            cache.put("a", 3);
+            assertEquals(Integer.valueOf(3), cache.get("a"));
+            assertEquals(2, cache.size());
+            assertEquals(0, cache.getEvictionCount());
+
+            // A removed entry leaves room, so nothing is evicted
+            assertEquals(Integer.valueOf(2), cache.remove("b"));
+            assertNull(cache.remove("b"));
+            cache.put("c", 4);
+            assertEquals(0, cache.getEvictionCount());
+
+            // The cache is full again
+            cache.put("d", 5);
+            assertEquals(1, cache.getEvictionCount());
+            assertEquals(2, cache.size());
+            assertEquals(Integer.valueOf(5), cache.get("d"));
+            assertNull(cache.get("b"));
+            assertEquals(2, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+        }
+    }
+
+    /**
+     * Test of the caches used by several threads at once.
+     */
+    @Test
+    public void testConcurrent() throws Exception {
+        System.out.println("concurrent get");
+        List<Cache<Integer, Integer>> caches = new ArrayList<>();
+        caches.add(new FifoCache<>(100));
+        caches.add(new LruCache<>(100));
+        caches.add(new ClockCache<>(100));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Cache<Integer, Integer> cache : caches) {
+                List<Future<?>> futures = new ArrayList<>();
+
+                for (int t = 0; t < 8; t++) {
+                    long seed = t;
+                    futures.add(executor.submit(() -> {
+                        Random random = new Random(seed);
+                        for (int i = 0; i < 50000; i++) {
+                            int key = random.nextInt(random.nextBoolean() ? 50 : 1000);
+                            assertEquals(Integer.valueOf(key * 2), cache.get(key, k -> k * 2));
+                        }
+                    }));
+                }
+
+                for (Future<?> future : futures)
+                    future.get();
+
+                assertEquals(8 * 50000, cache.getHitCount() + cache.getMissCount());
+                assertTrue(cache.size() <= 100);
+                assertTrue(cache.getHitCount() > 0);
+                assertTrue(cache.getEvictionCount() <= cache.getMissCount());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test of the constructor of class LruCache, with no room at all.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroCapacity() {
+        System.out.println("zero capacity");
+        new LruCache<Integer, Integer>(0);
+    }
+
+}
@@ -0,0 +1,116 @@
+package schedulermem;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import schedulercommon.SweepRunner;
+
+public class FrameSweepTest {
+
+    public FrameSweepTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of create, of class FrameSweep.
+     */
+    @Test
+    public void testCreate() throws IOException {
+        System.out.println("create");
+        int[] references = {7, 0, 1, 2, 0, 3, 0, 4, 2, 3, 0, 3, 2, 1, 2, 0, 1, 7, 0, 1};
+        int[] frames = {1, 2, 3, 4, 5};
+
+        SweepRunner sweep = FrameSweep.create(references, FrameSweep.Policy.values(), frames);
+        assertEquals(3 * frames.length, sweep.getCellCount());
+
+        List<Object[]> rows = sweep.run();
+        assertEquals(sweep.getCellCount(), rows.size());
+
+        // Every row against the same run on a scheduler of its own
+        for (Object[] row : rows) {
+            MemoryScheduler scheduler = new MemoryScheduler((Integer) row[1]);
+            switch ((FrameSweep.Policy) row[0]) {
+                case FIFO:
+                    scheduler.useFIFO(references);
+                    break;
+                case OPT:
+                    scheduler.useOPT(references);
+                    break;
+                default:
+                    scheduler.useLRU(references);
+            }
+
+            assertEquals(20, row[2]);
+            assertEquals(scheduler.getPageFaultCount(), row[3]);
+            assertEquals(0, row[5]);
+        }
+
+        // The textbook counts with three frames
+        for (Object[] row : rows)
+            if ((Integer) row[1] == 3)
+                assertEquals(row[0] == FrameSweep.Policy.FIFO ? 15 : row[0] == FrameSweep.Policy.OPT ? 9 : 12, row[3]);
+
+        try {
+            FrameSweep.create(references, FrameSweep.Policy.values(), new int[] {0});
+            fail("no frames");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test of create with read/write bits, of class FrameSweep.
+     */
+    @Test
+    public void testCreateTrace() throws IOException {
+        System.out.println("create trace");
+        Random random = new Random(49);
+        int[] pages = new int[5000];
+        BitSet writes = new BitSet();
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = random.nextInt(64);
+            if (random.nextInt(4) == 0)
+                writes.set(i);
+        }
+        ReferenceTrace trace = new ReferenceTrace(pages, writes);
+
+        List<Object[]> rows = FrameSweep.create(trace, new FrameSweep.Policy[] {FrameSweep.Policy.LRU},
+                new int[] {8, 32}).run();
+        assertEquals(2, rows.size());
+
+        for (Object[] row : rows) {
+            MemoryScheduler scheduler = new MemoryScheduler((Integer) row[1]);
+            scheduler.useLRU(trace);
+
+            assertEquals(scheduler.getPageFaultCount(), row[3]);
+            assertEquals(scheduler.getCleanEvictionCount(), row[4]);
+            assertEquals(scheduler.getWriteBackCount(), row[5]);
+            assertTrue(scheduler.getWriteBackCount() > 0);
+        }
+    }
+
+}
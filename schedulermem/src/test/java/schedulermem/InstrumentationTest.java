@@ -0,0 +1,165 @@
+package schedulermem;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import schedulercommon.MetricsRegistry;
+
+public class InstrumentationTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private int samplePeriod;
+
+    public InstrumentationTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        samplePeriod = Instrumentation.getSamplePeriod();
+    }
+
+    @After
+    public void tearDown() {
+        Instrumentation.setSamplePeriod(samplePeriod);
+    }
+
+    /**
+     * Test of the eviction events, of class Instrumentation.
+     */
+    @Test
+    public void testEvents() throws IOException {
+        System.out.println("EvictionEvent");
+        MetricsRegistry registry = Instrumentation.getRegistry();
+        long evictions = registry.getCount("evictions");
+        long writeBacks = registry.getCount("write_backs");
+        Path path = folder.newFile("evictions.jfr").toPath();
+
+        try (Recording recording = new Recording()) {
+            recording.enable("schedulermem.Eviction");
+            recording.start();
+
+            // Every one of them
+            Instrumentation.setSamplePeriod(1);
+            for (int i = 0; i < 100; i++)
+                Instrumentation.evict("LRU", 1000 + i, i % 4 == 0);
+
+            // About one out of ten
+            Instrumentation.setSamplePeriod(10);
+            for (int i = 0; i < 10000; i++)
+                Instrumentation.evict("FIFO", i, false);
+
+            recording.stop();
+            recording.dump(path);
+        }
+
+        assertEquals(evictions + 10100, registry.getCount("evictions"));
+        assertEquals(writeBacks + 25, registry.getCount("write_backs"));
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+        int lru = 0;
+        int fifo = 0;
+        for (RecordedEvent event : events) {
+            if (!event.getEventType().getName().equals("schedulermem.Eviction"))
+                continue;
+
+            if (event.getString("policy").equals("LRU")) {
+                long page = event.getLong("page");
+                assertTrue(page >= 1000 && page < 1100);
+                assertEquals(page % 4 == 0, event.getBoolean("dirty"));
+                lru++;
+            } else {
+                fifo++;
+            }
+        }
+
+        assertEquals(100, lru);
+        assertTrue(fifo > 700 && fifo < 1300);
+
+        try {
+            Instrumentation.setSamplePeriod(0);
+            fail("a sample period of 0");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test of the counters of MemoryScheduler, with the instrumentation on.
+     */
+    @Test
+    public void testMemoryScheduler() {
+        System.out.println("MemoryScheduler counters");
+        assumeTrue(Instrumentation.ENABLED);
+
+        Random random = new Random(50);
+        int[] pages = new int[20000];
+        BitSet writes = new BitSet();
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = random.nextInt(100);
+            if (random.nextInt(3) == 0)
+                writes.set(i);
+        }
+        ReferenceTrace trace = new ReferenceTrace(pages, writes);
+
+        MetricsRegistry registry = Instrumentation.getRegistry();
+        for (int policy = 0; policy < 5; policy++) {
+            long faults = registry.getCount("faults");
+            long hits = registry.getCount("hits");
+            long evictions = registry.getCount("evictions");
+            long writeBacks = registry.getCount("write_backs");
+
+            MemoryScheduler scheduler = new MemoryScheduler(30);
+            switch (policy) {
+                case 0:
+                    scheduler.useFIFO(trace);
+                    break;
+                case 1:
+                    scheduler.useOPT(trace);
+                    break;
+                case 2:
+                    scheduler.useLRU(trace);
+                    break;
+                case 3:
+                    scheduler.useWorkingSet(trace, 50);
+                    break;
+                default:
+                    scheduler.usePFF(trace, 50);
+            }
+
+            assertEquals(scheduler.getPageFaultCount(), registry.getCount("faults") - faults);
+            assertEquals(pages.length - scheduler.getPageFaultCount(), registry.getCount("hits") - hits);
+            assertEquals(scheduler.getCleanEvictionCount() + scheduler.getWriteBackCount(),
+                         registry.getCount("evictions") - evictions);
+            assertEquals(scheduler.getWriteBackCount(), registry.getCount("write_backs") - writeBacks);
+        }
+    }
+
+}
@@ -1,5 +1,8 @@
 package schedulermem;
 
+import java.util.BitSet;
+import java.util.Random;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -169,6 +172,147 @@ public class MemorySchedulerTest {
          assertEquals(hw10q9, instance4.getPageFaultCount());
     }
 
+    /**
+     * Test of useWorkingSet method, of class MemoryScheduler.
+     */
+    @Test
+    public void testUseWorkingSet() {
+        System.out.println("useWorkingSet");
+        String referenceString = "7,0,1,2,0,3,0,4,2,3,0,3,0,3,2,1,2,0,1,7,0,1";
+
+        instance3.useWorkingSet(referenceString, 3);
+        instance4.useWorkingSet(referenceString, 4);
+
+        assertEquals(13, instance3.getPageFaultCount());
+        assertEquals(11, instance4.getPageFaultCount());
+        assertEquals(3, instance3.getPeakResidentSetSize());
+        assertEquals(4, instance4.getPeakResidentSetSize());
+        assertEquals(2.636, instance3.getAverageResidentSetSize(), 0.01);
+        assertEquals(3.090, instance4.getAverageResidentSetSize(), 0.01);
+    }
+
+    /**
+     * Test of usePFF method, of class MemoryScheduler.
+     */
+    @Test
+    public void testUsePFF() {
+        System.out.println("usePFF");
+        String referenceString = "7,0,6,2,0,3,1,4,2,3,0,3,2,1,2,1,1,7,5,1";
+
+        instance3.usePFF(referenceString, 1);
+        instance4.usePFF(referenceString, 2);
+
+        assertEquals(9, instance3.getPageFaultCount());
+        assertEquals(8, instance4.getPageFaultCount());
+        assertEquals(7, instance3.getPeakResidentSetSize());
+        assertEquals(4.55, instance3.getAverageResidentSetSize(), 0.01);
+        assertEquals(5.8, instance4.getAverageResidentSetSize(), 0.01);
+    }
+
+    /**
+     * Test of useFIFO, useLRU and useOPT methods, of class MemoryScheduler,
+     * against the online policies on sparse page numbers.
+     */
+    @Test
+    public void testAgainstOnline() {
+        System.out.println("useFIFO, useLRU and useOPT against the online policies");
+        Random random = new Random(2019);
+        int[] references = new int[20000];
+        for (int i = 0; i < references.length; i++)
+            references[i] = (random.nextInt(random.nextBoolean() ? 16 : 200) * 7919) ^ 0x5bd1e995;
+
+        for (int frames : new int[] {1, 3, 17, 64, 500}) {
+            MemoryScheduler fifo = new MemoryScheduler(frames);
+            MemoryScheduler lru = new MemoryScheduler(frames);
+            MemoryScheduler opt = new MemoryScheduler(frames);
+            OnlineMemoryScheduler onlineFIFO = new OnlineFIFO(frames);
+            OnlineMemoryScheduler onlineLRU = new OnlineLRU(frames);
+            OnlineMemoryScheduler onlineOPT = new OnlineOPT(frames, references.length);
+
+            fifo.useFIFO(references);
+            lru.useLRU(references);
+            opt.useOPT(references);
+            onlineFIFO.accept(references, 0, references.length);
+            onlineLRU.accept(references, 0, references.length);
+            onlineOPT.accept(references, 0, references.length);
+            onlineOPT.flush();
+
+            assertEquals(onlineFIFO.getPageFaultCount(), fifo.getPageFaultCount());
+            assertEquals(onlineLRU.getPageFaultCount(), lru.getPageFaultCount());
+            assertEquals(onlineOPT.getPageFaultCount(), opt.getPageFaultCount());
+        }
+    }
+
+    /**
+     * Test of the write-back counts of useFIFO and useLRU, of class MemoryScheduler.
+     */
+    @Test
+    public void testWriteBack() {
+        System.out.println("useFIFO and useLRU with a read/write trace");
+        ReferenceTrace trace = ReferenceTrace.parse("7w,0,1,2w,0,3,0w,4,2,3,0,3,0,3,2,1w,2,0,1,7,0,1");
+
+        instance3.useFIFO(trace);
+        assertEquals(15, instance3.getPageFaultCount());
+        assertEquals(8, instance3.getCleanEvictionCount());
+        assertEquals(4, instance3.getWriteBackCount());
+        assertEquals(4, instance3.getWriteBackFlushCount());
+
+        // Two victims per flush, the odd one is flushed at the end
+        MemoryScheduler batched = new MemoryScheduler(3);
+        batched.setWriteBackBufferCapacity(2);
+        batched.useLRU(trace);
+        assertEquals(12, batched.getPageFaultCount());
+        assertEquals(6, batched.getCleanEvictionCount());
+        assertEquals(3, batched.getWriteBackCount());
+        assertEquals(2, batched.getWriteBackFlushCount());
+    }
+
+    /**
+     * Test of the write-back counts against the online policies.
+     */
+    @Test
+    public void testWriteBackAgainstOnline() {
+        System.out.println("write-backs against the online policies");
+        Random random = new Random(2019);
+        int[] pages = new int[20000];
+        BitSet writes = new BitSet();
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = random.nextInt(random.nextBoolean() ? 16 : 200);
+            if (random.nextInt(4) == 0)
+                writes.set(i);
+        }
+        ReferenceTrace trace = new ReferenceTrace(pages, writes);
+
+        for (int frames : new int[] {1, 3, 17, 64}) {
+            MemoryScheduler fifo = new MemoryScheduler(frames);
+            MemoryScheduler lru = new MemoryScheduler(frames);
+            OnlineMemoryScheduler onlineFIFO = new OnlineFIFO(frames);
+            OnlineMemoryScheduler onlineLRU = new OnlineLRU(frames);
+
+            fifo.useFIFO(trace);
+            lru.useLRU(trace);
+            onlineFIFO.accept(trace);
+            onlineLRU.accept(trace);
+
+            assertEquals(onlineFIFO.getWriteBackCount(), fifo.getWriteBackCount());
+            assertEquals(onlineFIFO.getCleanEvictionCount(), fifo.getCleanEvictionCount());
+            assertEquals(onlineLRU.getWriteBackCount(), lru.getWriteBackCount());
+            assertEquals(onlineLRU.getCleanEvictionCount(), lru.getCleanEvictionCount());
+        }
+
+        // The variable-allocation policies release pages without a fixed
+        // number of frames, but every release is still either clean or dirty
+        MemoryScheduler ws = new MemoryScheduler(0);
+        ws.useWorkingSet(trace, 50);
+        assertTrue(ws.getWriteBackCount() > 0);
+        assertTrue(ws.getCleanEvictionCount() + ws.getWriteBackCount() <= ws.getPageFaultCount());
+
+        MemoryScheduler pff = new MemoryScheduler(0);
+        pff.usePFF(trace, 10);
+        assertTrue(pff.getWriteBackCount() > 0);
+        assertTrue(pff.getCleanEvictionCount() + pff.getWriteBackCount() <= pff.getPageFaultCount());
+    }
+
     /**
      * Test of getPageFaultCount method, of class MemoryScheduler.
      */
@@ -0,0 +1,206 @@
+package schedulermem;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import schedulermem.MultiProcessMemoryScheduler.Replacement;
+import schedulermem.MultiProcessMemoryScheduler.Scope;
+
+public class MultiProcessMemorySchedulerTest {
+
+    private int[] references;
+
+    public MultiProcessMemorySchedulerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        references = new int[] {7, 0, 1, 2, 0, 3, 0, 4, 2, 3, 0, 3, 0, 3, 2, 1, 2, 0, 1, 7, 0, 1};
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of a single process, which behaves like the single address space
+     * policies of MemoryScheduler.
+     */
+    @Test
+    public void testSingleProcess() {
+        System.out.println("reference with a single process");
+        MultiProcessMemoryScheduler fifo = new MultiProcessMemoryScheduler(3, 1, Scope.GLOBAL, Replacement.FIFO);
+        MultiProcessMemoryScheduler lru = new MultiProcessMemoryScheduler(3, 1, Scope.LOCAL, Replacement.LRU);
+
+        for (int page : references) {
+            fifo.reference(0, page);
+            lru.reference(0, page);
+        }
+
+        assertEquals(15, fifo.getPageFaultCount());
+        assertEquals(12, lru.getPageFaultCount());
+        assertEquals(3, lru.getResidentSetSize(0));
+        assertEquals(22, lru.getReferenceCount());
+    }
+
+    /**
+     * Test of the LOCAL scope, where processes do not disturb each other.
+     */
+    @Test
+    public void testLocalIsolation() {
+        System.out.println("reference with local replacement");
+        MultiProcessMemoryScheduler instance = new MultiProcessMemoryScheduler(7, 2, Scope.LOCAL, Replacement.LRU);
+        instance.setQuota(0, 3);
+        instance.setQuota(1, 4);
+
+        // Both processes run the same trace, interleaved
+        for (int page : references) {
+            instance.reference(0, page);
+            instance.reference(1, page);
+        }
+
+        assertEquals(12, instance.getPageFaultCount(0));
+        assertEquals(8, instance.getPageFaultCount(1));
+        assertEquals(3, instance.getResidentSetSize(0));
+        assertEquals(4, instance.getResidentSetSize(1));
+    }
+
+    /**
+     * Test of LOCAL versus GLOBAL scope on the same trace.
+     */
+    @Test
+    public void testLocalVersusGlobal() {
+        System.out.println("use with local and global replacement");
+        String referenceString = "0:1,0:2,0:1,1:5,0:2";
+        MultiProcessMemoryScheduler local = new MultiProcessMemoryScheduler(2, 2, Scope.LOCAL, Replacement.LRU);
+        MultiProcessMemoryScheduler global = new MultiProcessMemoryScheduler(2, 2, Scope.GLOBAL, Replacement.LRU);
+
+        local.use(referenceString);
+        global.use(referenceString);
+
+        assertEquals(5, local.getPageFaultCount());
+        assertEquals(4, local.getPageFaultCount(0));
+        assertEquals(4, global.getPageFaultCount());
+        assertEquals(3, global.getPageFaultCount(0));
+        assertEquals(2, global.getEvictionCount());
+    }
+
+    /**
+     * Test of shrinking a quota, which is enforced on the next faults.
+     */
+    @Test
+    public void testShrinkQuota() {
+        System.out.println("setQuota");
+        MultiProcessMemoryScheduler instance = new MultiProcessMemoryScheduler(4, 2, Scope.LOCAL, Replacement.FIFO);
+        instance.setQuota(1, 1);
+        instance.setQuota(0, 3);
+
+        instance.reference(new int[] {0, 0, 0}, new int[] {1, 2, 3});
+        assertEquals(3, instance.getResidentSetSize(0));
+
+        instance.setQuota(0, 1);
+        instance.setQuota(1, 3);
+
+        // Process 1 takes back the frames process 0 no longer deserves
+        instance.reference(new int[] {1, 1, 1}, new int[] {1, 2, 3});
+        assertEquals(1, instance.getResidentSetSize(0));
+        assertEquals(3, instance.getResidentSetSize(1));
+    }
+
+    /**
+     * Test of quotas adding up to more than the number of frames.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testQuotaTooLarge() {
+        System.out.println("setQuota too large");
+        MultiProcessMemoryScheduler instance = new MultiProcessMemoryScheduler(4, 2, Scope.LOCAL, Replacement.FIFO);
+        instance.setQuota(0, 3);
+    }
+
+    /**
+     * Test of the write-backs of dirty victims, which are charged to the
+     * owner of the page.
+     */
+    @Test
+    public void testWriteBacks() {
+        System.out.println("use with writes");
+        MultiProcessMemoryScheduler instance = new MultiProcessMemoryScheduler(2, 2, Scope.GLOBAL, Replacement.FIFO);
+
+        // 0:1 is written on a hit and 1:2 when loaded, 1:3 stays clean
+        instance.use("0:1,0:1w,1:2w,1:3r,0:4,1:5");
+        assertEquals(6, instance.getReferenceCount());
+        assertEquals(2, instance.getWriteCount());
+        assertEquals(3, instance.getEvictionCount());
+        assertEquals(2, instance.getWriteBackCount());
+        assertEquals(1, instance.getWriteBackCount(0));
+        assertEquals(1, instance.getWriteBackCount(1));
+        assertEquals(1, instance.getCleanEvictionCount());
+        assertEquals(0, instance.getDirtyPageCount());
+
+        // The same trace as arrays with packed write bits
+        MultiProcessMemoryScheduler arrays = new MultiProcessMemoryScheduler(2, 2, Scope.GLOBAL, Replacement.FIFO);
+        arrays.reference(new int[] {0, 0, 1, 1, 0, 1}, new int[] {1, 1, 2, 3, 4, 5}, new long[] {0b110});
+        assertEquals(2, arrays.getWriteBackCount());
+        assertEquals(1, arrays.getCleanEvictionCount());
+
+        // A dirty page still resident is not written back
+        MultiProcessMemoryScheduler local = new MultiProcessMemoryScheduler(2, 2, Scope.LOCAL, Replacement.LRU);
+        local.use("0:1w,1:1w,0:2");
+        assertEquals(1, local.getWriteBackCount(0));
+        assertEquals(0, local.getWriteBackCount(1));
+        assertEquals(1, local.getDirtyPageCount());
+    }
+
+    /**
+     * Test of more processes than frames, which leaves no frame for some
+     * of the processes under LOCAL replacement.
+     */
+    @Test
+    public void testMoreProcessesThanFrames() {
+        System.out.println("more processes than frames");
+        try {
+            new MultiProcessMemoryScheduler(2, 5, Scope.LOCAL, Replacement.FIFO);
+            fail("a process without a frame");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        // Under GLOBAL replacement, the processes simply share the frames
+        MultiProcessMemoryScheduler instance = new MultiProcessMemoryScheduler(2, 5, Scope.GLOBAL, Replacement.FIFO);
+        instance.use("3:1,4:1,0:1,3:1");
+        assertEquals(4, instance.getPageFaultCount());
+        assertEquals(2, instance.getEvictionCount());
+        assertEquals(1, instance.getResidentSetSize(3));
+    }
+
+    /**
+     * Test of a page table with many distinct (pid, page) pairs.
+     */
+    @Test
+    public void testManyPages() {
+        System.out.println("reference with many distinct pages");
+        MultiProcessMemoryScheduler instance = new MultiProcessMemoryScheduler(1 << 16, 64, Scope.GLOBAL,
+                Replacement.LRU);
+
+        // Every page is referenced twice, far enough apart to be evicted
+        for (int round = 0; round < 2; round++)
+            for (int page = 0; page < 1 << 17; page++)
+                instance.reference(page & 63, page >>> 6);
+
+        assertEquals(2 << 17, instance.getPageFaultCount());
+        assertEquals((2 << 17) - (1 << 16), instance.getEvictionCount());
+    }
+
+}
@@ -0,0 +1,257 @@
+package schedulermem;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class OnlineMemorySchedulerTest {
+
+    private int[] references1;
+    private int[] references2;
+
+    public OnlineMemorySchedulerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        references1 = new int[] {7, 0, 1, 2, 0, 3, 0, 4, 2, 3, 0, 3, 0, 3, 2, 1, 2, 0, 1, 7, 0, 1};
+        references2 = new int[] {7, 0, 6, 2, 0, 3, 1, 4, 2, 3, 0, 3, 2, 1, 2, 1, 1, 7, 5, 1};
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of OnlineFIFO, one reference at a time.
+     */
+    @Test
+    public void testFIFO() {
+        System.out.println("OnlineFIFO");
+        OnlineMemoryScheduler instance3 = new OnlineFIFO(3);
+        OnlineMemoryScheduler instance4 = new OnlineFIFO(4);
+
+        for (int page : references1) {
+            instance3.accept(page);
+            instance4.accept(page);
+        }
+
+        assertEquals(15, instance3.getPageFaultCount());
+        assertEquals(10, instance4.getPageFaultCount());
+        assertEquals(12, instance3.getEvictionCount());
+        assertEquals(22, instance3.getReferenceCount());
+        assertEquals(7.0 / 22, instance3.getHitRatio(), 0.0001);
+    }
+
+    /**
+     * Test of OnlineFIFO on a trace running into Belady's anomaly.
+     */
+    @Test
+    public void testFIFOBA() {
+        System.out.println("OnlineFIFO runs into Belady's anomaly");
+        int[] references = {1, 2, 3, 4, 1, 2, 5, 1, 2, 3, 4, 5};
+        OnlineMemoryScheduler instance3 = new OnlineFIFO(3);
+        OnlineMemoryScheduler instance4 = new OnlineFIFO(4);
+
+        instance3.accept(references, 0, references.length);
+        instance4.accept(references, 0, references.length);
+
+        assertEquals(9, instance3.getPageFaultCount());
+        assertEquals(10, instance4.getPageFaultCount());
+    }
+
+    /**
+     * Test of OnlineLRU, in batches.
+     */
+    @Test
+    public void testLRU() {
+        System.out.println("OnlineLRU");
+        OnlineMemoryScheduler instance3 = new OnlineLRU(3);
+        OnlineMemoryScheduler instance4 = new OnlineLRU(4);
+
+        instance3.accept(references2, 0, 7);
+        instance3.accept(references2, 7, references2.length - 7);
+        instance4.accept(references2, 0, references2.length);
+
+        assertEquals(13, instance3.getPageFaultCount());
+        assertEquals(12, instance4.getPageFaultCount());
+    }
+
+    /**
+     * Test of OnlineCLOCK.
+     */
+    @Test
+    public void testCLOCK() {
+        System.out.println("OnlineCLOCK");
+        OnlineMemoryScheduler instance3 = new OnlineCLOCK(3);
+        OnlineMemoryScheduler instance4 = new OnlineCLOCK(4);
+
+        instance3.accept(references1, 0, references1.length);
+        instance4.accept(references1, 0, references1.length);
+
+        assertEquals(14, instance3.getPageFaultCount());
+        assertEquals(9, instance4.getPageFaultCount());
+    }
+
+    /**
+     * Test of OnlineOPT with a window covering the whole trace.
+     */
+    @Test
+    public void testOPT() {
+        System.out.println("OnlineOPT");
+        OnlineMemoryScheduler instance3 = new OnlineOPT(3, references2.length);
+        OnlineMemoryScheduler instance4 = new OnlineOPT(4, references2.length);
+
+        instance3.accept(references2, 0, references2.length);
+        instance4.accept(references2, 0, references2.length);
+
+        // Nothing is decided until the window fills up or is flushed
+        assertEquals(0, instance3.getReferenceCount());
+
+        instance3.flush();
+        instance4.flush();
+
+        assertEquals(11, instance3.getPageFaultCount());
+        assertEquals(10, instance4.getPageFaultCount());
+    }
+
+    /**
+     * Test of the online policies on sparse and negative page numbers, of
+     * which there are more than the initial per-page arrays hold.
+     */
+    @Test
+    public void testSparsePages() {
+        System.out.println("online policies with sparse pages");
+        Random random = new Random(2019);
+        int[] references = new int[5000];
+        for (int i = 0; i < references.length; i++)
+            references[i] = (random.nextInt(200) - 100) * 0x10001;
+
+        OnlineMemoryScheduler fifo = new OnlineFIFO(32);
+        OnlineMemoryScheduler lru = new OnlineLRU(32);
+        OnlineMemoryScheduler opt = new OnlineOPT(32, references.length);
+        fifo.accept(references, 0, references.length);
+        lru.accept(references, 0, references.length);
+        opt.accept(references, 0, references.length);
+        opt.flush();
+
+        MemoryScheduler batchFIFO = new MemoryScheduler(32);
+        MemoryScheduler batchLRU = new MemoryScheduler(32);
+        MemoryScheduler batchOPT = new MemoryScheduler(32);
+        batchFIFO.useFIFO(references);
+        batchLRU.useLRU(references);
+        batchOPT.useOPT(references);
+
+        assertEquals(batchFIFO.getPageFaultCount(), fifo.getPageFaultCount());
+        assertEquals(batchLRU.getPageFaultCount(), lru.getPageFaultCount());
+        assertEquals(batchOPT.getPageFaultCount(), opt.getPageFaultCount());
+    }
+
+    /**
+     * Test of OnlineOPT with a short window.
+     */
+    @Test
+    public void testOPTBoundedLookahead() {
+        System.out.println("OnlineOPT with a bounded lookahead");
+        OnlineMemoryScheduler full = new OnlineOPT(3, references1.length);
+        OnlineMemoryScheduler bounded = new OnlineOPT(3, 2);
+
+        full.accept(references1, 0, references1.length);
+        bounded.accept(references1, 0, references1.length);
+
+        // The oldest undecided reference and its two-reference lookahead are still pending
+        assertEquals(references1.length - 3, bounded.getReferenceCount());
+
+        full.flush();
+        bounded.flush();
+
+        assertEquals(9, full.getPageFaultCount());
+        assertEquals(references1.length, bounded.getReferenceCount());
+        assertTrue(bounded.getPageFaultCount() >= full.getPageFaultCount());
+    }
+
+    /**
+     * Test of the dirty-page counts, of class OnlineMemoryScheduler.
+     */
+    @Test
+    public void testWriteBack() {
+        System.out.println("OnlineMemoryScheduler write-backs");
+        ReferenceTrace trace = ReferenceTrace.parse("7w,0,1,2w,0,3,0w,4,2,3,0,3,0,3,2,1w,2,0,1,7,0,1");
+        OnlineMemoryScheduler fifo = new OnlineFIFO(3);
+        OnlineMemoryScheduler lru = new OnlineLRU(3);
+        lru.setWriteBackBufferCapacity(2);
+
+        fifo.accept(trace);
+        for (int i = 0; i < trace.length(); i++)
+            lru.accept(trace.getPages()[i], trace.isWrite(i));
+
+        assertEquals(4, fifo.getWriteCount());
+        assertEquals(8, fifo.getCleanEvictionCount());
+        assertEquals(4, fifo.getWriteBackCount());
+        assertEquals(4, fifo.getWriteBackFlushCount());
+        assertEquals(0, fifo.getDirtyPageCount());
+
+        assertEquals(6, lru.getCleanEvictionCount());
+        assertEquals(3, lru.getWriteBackCount());
+        assertEquals(1, lru.getDirtyPageCount());
+
+        // The third write-back waits in the buffer until the flush
+        assertEquals(1, lru.getWriteBackFlushCount());
+        lru.flush();
+        assertEquals(2, lru.getWriteBackFlushCount());
+    }
+
+    /**
+     * Test of the dirty-page counts on negative and sparse page numbers.
+     */
+    @Test
+    public void testWriteBackSparse() {
+        System.out.println("OnlineMemoryScheduler write-backs of sparse pages");
+        ReferenceTrace trace = ReferenceTrace.parse("-7w,0,2147418112w,-2w,0,3,0w,4,-2,3,0,3,2147418112w,1,-7");
+        OnlineMemoryScheduler online = new OnlineLRU(3);
+        MemoryScheduler batch = new MemoryScheduler(3);
+
+        online.accept(trace);
+        online.flush();
+        batch.useLRU(trace);
+
+        assertEquals(5, online.getWriteCount());
+        assertEquals(batch.getWriteBackCount(), online.getWriteBackCount());
+        assertEquals(batch.getCleanEvictionCount(), online.getCleanEvictionCount());
+        assertEquals(batch.getWriteBackFlushCount(), online.getWriteBackFlushCount());
+        assertTrue(online.getWriteBackCount() > 0);
+    }
+
+    /**
+     * Test of the dirty-page counts of OnlineOPT, whose references are held back.
+     */
+    @Test
+    public void testOPTWriteBack() {
+        System.out.println("OnlineOPT write-backs");
+        ReferenceTrace trace = ReferenceTrace.parse("1w,2w,3w,4w,1,2,3,4");
+        OnlineMemoryScheduler instance = new OnlineOPT(2, 3);
+
+        instance.accept(trace);
+        instance.flush();
+
+        // Pages 2, 3 and 1 leave dirty, page 2 is read again and leaves clean
+        assertEquals(4, instance.getWriteCount());
+        assertEquals(4, instance.getEvictionCount());
+        assertEquals(3, instance.getWriteBackCount());
+        assertEquals(1, instance.getCleanEvictionCount());
+    }
+
+}
@@ -0,0 +1,76 @@
+package schedulermem;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PageIdInternerTest {
+
+    private PageIdInterner instance;
+
+    public PageIdInternerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        instance = new PageIdInterner();
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of intern method, of class PageIdInterner.
+     */
+    @Test
+    public void testIntern() {
+        System.out.println("intern");
+        long[] pageIds = {0x7fff_ffff_f000L, 42L, 0x7fff_ffff_f000L, -1L, 42L};
+
+        assertArrayEquals(new int[] {0, 1, 0, 2, 1}, instance.intern(pageIds));
+        assertEquals(3, instance.size());
+        assertEquals(2, instance.lookup(-1L));
+        assertEquals(-1, instance.lookup(7L));
+    }
+
+    /**
+     * Test of getOriginalId method, of class PageIdInterner.
+     */
+    @Test
+    public void testGetOriginalId() {
+        System.out.println("getOriginalId");
+        int[] dense = new int[100000];
+        long[] pageIds = new long[dense.length];
+        for (int i = 0; i < pageIds.length; i++)
+            pageIds[i] = (long) (i % 40000) << 21;
+
+        instance.intern(pageIds, 0, dense, 0, pageIds.length);
+
+        assertEquals(40000, instance.size());
+        for (int i = 0; i < pageIds.length; i++)
+            assertEquals(pageIds[i], instance.getOriginalId(dense[i]));
+    }
+
+    /**
+     * Test of getOriginalId method, of class PageIdInterner, with an unknown id.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetOriginalIdUnknown() {
+        System.out.println("getOriginalId with an unknown id");
+        instance.intern(5L);
+        instance.getOriginalId(1);
+    }
+
+}
@@ -0,0 +1,169 @@
+package schedulermem;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import schedulercommon.BinaryTraceReader;
+import schedulercommon.BinaryTraceWriter;
+
+public class PageStreamGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public PageStreamGeneratorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of generate and fill methods, of class PageStreamGenerator: the
+     * stream only depends on the seed, however it is cut.
+     */
+    @Test
+    public void testDeterministic() {
+        System.out.println("generate and fill");
+        for (PageStreamGenerator.Pattern pattern : PageStreamGenerator.Pattern.values()) {
+            PageStreamGenerator instance = new PageStreamGenerator(48, pattern, 5000);
+            instance.setPhases(300, 50000);
+            int n = 3 * PageStreamGenerator.CHUNK_SIZE + 1234;
+            int[] expected = instance.generate(n);
+
+            // In odd pieces, across the chunk boundaries
+            int[] pieces = new int[n];
+            for (int off = 0; off < n; off += 40000)
+                instance.fill(off, pieces, off, Math.min(40000, n - off));
+            assertArrayEquals(pattern.toString(), expected, pieces);
+
+            // Another generator with the same seed gives the same stream
+            PageStreamGenerator same = new PageStreamGenerator(48, pattern, 5000);
+            same.setPhases(300, 50000);
+            assertArrayEquals(pattern.toString(), expected, same.generate(n));
+
+            for (int page : expected)
+                assertTrue(page >= 0 && page < 5000);
+        }
+
+        PageStreamGenerator other = new PageStreamGenerator(49, PageStreamGenerator.Pattern.UNIFORM, 5000);
+        PageStreamGenerator instance = new PageStreamGenerator(48, PageStreamGenerator.Pattern.UNIFORM, 5000);
+        assertFalse(Arrays.equals(instance.generate(1000), other.generate(1000)));
+    }
+
+    /**
+     * Test of the ZIPF pattern, of class PageStreamGenerator, against the
+     * probabilities of the distribution.
+     */
+    @Test
+    public void testZipf() {
+        System.out.println("ZIPF");
+        for (double exponent : new double[] {0.8, 1, 2}) {
+            PageStreamGenerator instance = new PageStreamGenerator(7, PageStreamGenerator.Pattern.ZIPF, 1000);
+            instance.setZipfExponent(exponent);
+            int n = 1000000;
+            int[] counts = new int[1000];
+            for (int page : instance.generate(n))
+                counts[page]++;
+
+            double normalization = 0;
+            for (int k = 1; k <= 1000; k++)
+                normalization += Math.pow(k, -exponent);
+
+            for (int k : new int[] {1, 2, 10, 100}) {
+                double expected = n * Math.pow(k, -exponent) / normalization;
+                assertEquals("s=" + exponent + ", k=" + k, expected, counts[k - 1], 5 * Math.sqrt(expected) + 1);
+            }
+        }
+    }
+
+    /**
+     * Test of the LOOP and SCAN patterns, of class PageStreamGenerator.
+     */
+    @Test
+    public void testLoopAndScan() {
+        System.out.println("LOOP and SCAN");
+        PageStreamGenerator loop = new PageStreamGenerator(1, PageStreamGenerator.Pattern.LOOP, 100);
+        loop.setLoopLength(3);
+        assertArrayEquals(new int[] {0, 1, 2, 0, 1, 2, 0}, loop.generate(7));
+
+        PageStreamGenerator scan = new PageStreamGenerator(1, PageStreamGenerator.Pattern.SCAN, 4);
+        int[] part = new int[3];
+        scan.fill(PageStreamGenerator.CHUNK_SIZE + 2, part, 0, 3);
+        assertArrayEquals(new int[] {2, 3, 0}, part);
+    }
+
+    /**
+     * Test of the PHASE_CHANGE pattern, of class PageStreamGenerator: every
+     * phase stays within its working set.
+     */
+    @Test
+    public void testPhaseChange() {
+        System.out.println("PHASE_CHANGE");
+        PageStreamGenerator instance = new PageStreamGenerator(3, PageStreamGenerator.Pattern.PHASE_CHANGE, 100000);
+        instance.setPhases(50, 1000);
+        int[] references = instance.generate(10000);
+
+        int distinctBases = 0;
+        int previousBase = -1;
+        for (int phase = 0; phase < 10; phase++) {
+            // The most referenced page of a Zipf phase is its first one
+            int[] counts = new int[100000];
+            int base = 0;
+            for (int i = phase * 1000; i < (phase + 1) * 1000; i++)
+                if (++counts[references[i]] > counts[base])
+                    base = references[i];
+
+            for (int i = phase * 1000; i < (phase + 1) * 1000; i++)
+                assertTrue(Math.floorMod(references[i] - base, 100000) < 50);
+
+            if (base != previousBase)
+                distinctBases++;
+            previousBase = base;
+        }
+        assertEquals(10, distinctBases);
+    }
+
+    /**
+     * Test of write method, of class PageStreamGenerator.
+     */
+    @Test
+    public void testWrite() throws IOException {
+        System.out.println("write");
+        Path path = folder.newFile("zipf.bin").toPath();
+        PageStreamGenerator instance = new PageStreamGenerator(11, PageStreamGenerator.Pattern.ZIPF, 1 << 20);
+        int n = 2 * PageStreamGenerator.CHUNK_SIZE + 17;
+
+        try (BinaryTraceWriter writer = new BinaryTraceWriter(path)) {
+            instance.write(writer, n);
+        }
+
+        try (BinaryTraceReader reader = new BinaryTraceReader(path)) {
+            assertEquals(n, reader.getCount());
+            assertArrayEquals(instance.generate(n), reader.readAll());
+        }
+    }
+
+}
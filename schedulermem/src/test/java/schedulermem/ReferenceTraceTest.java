@@ -0,0 +1,79 @@
+package schedulermem;
+
+import java.util.BitSet;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ReferenceTraceTest {
+
+    public ReferenceTraceTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of parse method, of class ReferenceTrace.
+     */
+    @Test
+    public void testParse() {
+        System.out.println("parse");
+        ReferenceTrace trace = ReferenceTrace.parse("7w, 0,1r ,2W,-3");
+
+        assertArrayEquals(new int[] {7, 0, 1, 2, -3}, trace.getPages());
+        assertEquals(5, trace.length());
+        assertEquals(2, trace.getWriteCount());
+        assertTrue(trace.isWrite(0));
+        assertFalse(trace.isWrite(1));
+        assertFalse(trace.isWrite(2));
+        assertTrue(trace.isWrite(3));
+        assertFalse(trace.isWrite(4));
+    }
+
+    /**
+     * Test of getWriteBits method, of class ReferenceTrace.
+     */
+    @Test
+    public void testGetWriteBits() {
+        System.out.println("getWriteBits");
+        BitSet writes = new BitSet();
+        writes.set(1);
+        writes.set(64);
+        ReferenceTrace trace = new ReferenceTrace(new int[130], writes);
+
+        // One word for every 64 references, trailing reads included
+        assertArrayEquals(new long[] {2L, 1L, 0L}, trace.getWriteBits());
+        assertTrue(trace.isWrite(64));
+        assertFalse(trace.isWrite(129));
+    }
+
+    /**
+     * Test of the constructor of class ReferenceTrace, with a write past the end.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testWritePastEnd() {
+        System.out.println("write past the end");
+        BitSet writes = new BitSet();
+        writes.set(3);
+        new ReferenceTrace(new int[3], writes);
+    }
+
+}
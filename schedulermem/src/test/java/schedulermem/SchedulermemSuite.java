@@ -12,7 +12,13 @@ import org.junit.runners.Suite;
  * @author yasiro01
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({schedulermem.SimplePageTest.class, schedulermem.MemorySchedulerTest.class})
+@Suite.SuiteClasses({schedulermem.SimplePageTest.class, schedulermem.MemorySchedulerTest.class,
+    schedulermem.OnlineMemorySchedulerTest.class, schedulermem.MultiProcessMemorySchedulerTest.class,
+    schedulermem.TlbSimulatorTest.class, schedulermem.BeladyAnomalyDetectorTest.class,
+    schedulermem.PageIdInternerTest.class,
+    schedulermem.ReferenceTraceTest.class, schedulermem.CacheTest.class,
+    schedulermem.PageStreamGeneratorTest.class, schedulermem.FrameSweepTest.class,
+    schedulermem.InstrumentationTest.class})
 public class SchedulermemSuite {
 
     @BeforeClass
@@ -0,0 +1,118 @@
+package schedulermem;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import schedulermem.TlbSimulator.Replacement;
+
+public class TlbSimulatorTest {
+
+    public TlbSimulatorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of a loop which fits in the TLB.
+     */
+    @Test
+    public void testLoopFits() {
+        System.out.println("accept with a fitting loop");
+        TlbSimulator instance = new TlbSimulator(2, 4, Replacement.LRU, 4, 0, null);
+
+        for (int round = 0; round < 10; round++)
+            for (long vpn = 0; vpn < 8; vpn++)
+                instance.accept(vpn);
+
+        assertEquals(80, instance.getReferenceCount());
+        assertEquals(72, instance.getTlbHitCount());
+        assertEquals(8, instance.getPageWalkCount());
+        assertEquals(0.9, instance.getTlbHitRate(), 0.0001);
+    }
+
+    /**
+     * Test of LRU and FIFO on a loop one page larger than a set.
+     */
+    @Test
+    public void testLoopTooLarge() {
+        System.out.println("accept with a loop larger than the TLB");
+        long[] trace = {0, 1, 2, 3, 0, 4, 0, 1, 2, 3, 4};
+        TlbSimulator lru = new TlbSimulator(1, 4, Replacement.LRU, 4, 0, null);
+        TlbSimulator fifo = new TlbSimulator(1, 4, Replacement.FIFO, 4, 0, null);
+
+        lru.accept(trace, 0, trace.length);
+        fifo.accept(trace, 0, trace.length);
+
+        // LRU keeps 0 when 4 comes in, FIFO throws it out
+        assertEquals(2, lru.getTlbHitCount());
+        assertEquals(1, fifo.getTlbHitCount());
+    }
+
+    /**
+     * Test of the page walk cost with and without a page-walk cache.
+     */
+    @Test
+    public void testPageWalkCache() {
+        System.out.println("accept with a page-walk cache");
+        TlbSimulator plain = new TlbSimulator(1, 1, Replacement.LRU, 5, 0, null);
+        TlbSimulator cached = new TlbSimulator(1, 1, Replacement.LRU, 5, 4, null);
+
+        // Neighbouring pages share all of the upper levels
+        for (long vpn = 0; vpn < 4; vpn++) {
+            plain.accept(vpn);
+            cached.accept(vpn);
+        }
+
+        assertEquals(20, plain.getWalkMemoryAccessCount());
+        assertEquals(5 + 3 * 1, cached.getWalkMemoryAccessCount());
+        assertEquals(3, cached.getPageWalkCacheHitCount());
+        assertEquals(4 * 1 + 20 * 30, plain.getCycles());
+    }
+
+    /**
+     * Test of the replacement policy behind the TLB.
+     */
+    @Test
+    public void testPageFaults() {
+        System.out.println("accept with a replacement policy");
+        int[] references = {7, 0, 1, 2, 0, 3, 0, 4, 2, 3, 0, 3, 0, 3, 2, 1, 2, 0, 1, 7, 0, 1};
+        TlbSimulator instance = new TlbSimulator(1, 2, Replacement.LRU, 4, 0, new OnlineLRU(3));
+        instance.setPageFaultCycles(1000);
+
+        for (int page : references)
+            instance.accept(page);
+        instance.flush();
+
+        assertEquals(12, instance.getPageFaultCount());
+        assertTrue(instance.getCycles() >= 12 * 1000);
+    }
+
+    /**
+     * Test of a page number the page table cannot translate.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testVpnOutOfRange() {
+        System.out.println("accept with a page number out of range");
+        TlbSimulator instance = new TlbSimulator(1, 1, Replacement.LRU, 4, 0, null);
+        instance.accept(1L << 36);
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * File:   DispatchEvent.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in
+ * this distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The Flight Recorder event of a process being given the CPU.
+ *
+ */
+
+package schedulerproc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Dispatch event
+ *
+ * Committed for a sample of the dispatches (see Instrumentation), without
+ * a stack trace, which would cost more than the dispatch itself. The times
+ * are those of the simulation, not of the JVM.
+ */
+@Name("schedulerproc.Dispatch")
+@Label("Process Dispatch")
+@Category({"OS Scheduling", "Processes"})
+@Description("A process given the CPU, sampled")
+@StackTrace(false)
+final class DispatchEvent extends jdk.jfr.Event {
+
+    @Label("Policy")
+    String policy;
+
+    @Label("Start")
+    @Description("The simulated time the process got the CPU at")
+    long start;
+
+    @Label("Length")
+    @Description("The simulated time it kept the CPU for")
+    long length;
+
+    @Label("Context Switch")
+    @Description("Whether another process had the CPU before")
+    boolean contextSwitch;
+
+}
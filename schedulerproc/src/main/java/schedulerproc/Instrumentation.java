@@ -0,0 +1,97 @@
+/*
+ * File:   Instrumentation.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in
+ * this distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Optional instrumentation of the process scheduling algorithms: counters
+ * of the dispatches and context switches, and sampled Flight Recorder
+ * events of the dispatches.
+ *
+ */
+
+package schedulerproc;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import schedulercommon.CounterRegistry;
+import schedulercommon.EventSampler;
+import schedulercommon.MetricsRegistry;
+
+/**
+ * Instrumentation
+ *
+ * Off unless the JVM is started with -Dschedulerproc.instrumentation=true.
+ * ENABLED is a static final constant, and every call from a simulation is
+ * guarded by it, so when it is false the JIT compiler drops the calls
+ * altogether and the simulations run exactly as without them.
+ *
+ * When it is on, every dispatch of ProcessScheduler goes to the counters
+ * of getRegistry(): a process running to the end under FCFS, SJF or
+ * priority scheduling, or for one quantum under round-robin. A dispatch of
+ * another process than the one which had the CPU is a context switch. One
+ * dispatch out of every samplePeriod (1000 by default, or
+ * -Dschedulerproc.instrumentation.samplePeriod) is committed as a
+ * DispatchEvent, which a Flight Recorder recording picks up if it has the
+ * event enabled.
+ */
+public final class Instrumentation {
+
+    public static final String PROPERTY = "schedulerproc.instrumentation";
+    public static final String SAMPLE_PERIOD_PROPERTY = "schedulerproc.instrumentation.samplePeriod";
+
+    /**
+     * Whether the simulations report to the instrumentation, fixed when
+     * the class is loaded
+     */
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final CounterRegistry REGISTRY = new CounterRegistry();
+    private static final LongAdder DISPATCHES = REGISTRY.counter("dispatches");
+    private static final LongAdder CONTEXT_SWITCHES = REGISTRY.counter("context_switches");
+
+    private static final EventSampler SAMPLER = new EventSampler(SAMPLE_PERIOD_PROPERTY);
+
+    private Instrumentation() {
+    }
+
+    /**
+     * @return the counters "dispatches" and "context_switches"
+     */
+    public static MetricsRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    public static int getSamplePeriod() {
+        return SAMPLER.getPeriod();
+    }
+
+    /**
+     * @param period commit one dispatch event out of every period, 1 for
+     *               all of them
+     */
+    public static void setSamplePeriod(int period) {
+        SAMPLER.setPeriod(period);
+    }
+
+    // The call below is made by the simulations behind ENABLED, and
+    // counts whether it is set or not
+
+    static void dispatch(String policy, long start, long length, boolean contextSwitch) {
+        DISPATCHES.increment();
+        if (contextSwitch)
+            CONTEXT_SWITCHES.increment();
+
+        if (SAMPLER.isSampled()) {
+            DispatchEvent event = new DispatchEvent();
+            event.policy = policy;
+            event.start = start;
+            event.length = length;
+            event.contextSwitch = contextSwitch;
+            event.commit();
+        }
+    }
+
+}
@@ -11,6 +11,8 @@
  * Description:
  * The package simulates four process scheduling algorithms.
  * These algorithms include FCFS, SJF, Priority, and Round-Robin.
+ * The dispatches and context switches can be reported to counters and
+ * Flight Recorder events (see Instrumentation).
  *
  */
 
@@ -38,8 +40,22 @@ public class ProcessScheduler {
     private final int rrQuantum;
 
     public ProcessScheduler() {
+        this(4);
+    }
+
+    /**
+     * @param rrQuantum the time quantum of round-robin
+     */
+    public ProcessScheduler(int rrQuantum) {
+        if (rrQuantum < 1)
+            throw new IllegalArgumentException("rrQuantum must be positive: " + rrQuantum);
+
         this.readyQueue = new ArrayList<>();
-        this.rrQuantum = 4;
+        this.rrQuantum = rrQuantum;
+    }
+
+    public int getRoundRobinQuantum() {
+        return this.rrQuantum;
     }
 
     public void add(SimpleProcess newProcess) {
@@ -63,6 +79,9 @@ public class ProcessScheduler {
         for (int i = 1; i < this.readyQueue.size(); i++)
             waitlist[i] = waitlist[i - 1] + this.readyQueue.get(i - 1).getNextBurst();
 
+        if (Instrumentation.ENABLED)
+            reportDispatches("FCFS", waitlist, queueBursts());
+
         // Return the average waiting time
         return (double) IntStream.of(waitlist).sum() / waitlist.length;
     }
@@ -88,6 +107,9 @@ public class ProcessScheduler {
         for (int i = 1; i < this.readyQueue.size(); i++)
             waitlist[i] = waitlist[i - 1] + sorted[i - 1];
 
+        if (Instrumentation.ENABLED)
+            reportDispatches("SJF", waitlist, sorted);
+
         // Return the average waiting time
         return (double) IntStream.of(waitlist).sum() / waitlist.length;
     }
@@ -109,6 +131,9 @@ public class ProcessScheduler {
         for (int i = 1; i < this.readyQueue.size(); i++)
             waitlist[i] = waitlist[i - 1] + this.readyQueue.get(i - 1).getNextBurst();
 
+        if (Instrumentation.ENABLED)
+            reportDispatches("Priority", waitlist, queueBursts());
+
         // Return the average waiting time
         return (double) IntStream.of(waitlist).sum() / waitlist.length;
     }
@@ -140,6 +165,9 @@ public class ProcessScheduler {
         // Boolean value that determines whether to run the loop
         boolean runRoundRobinLoop = true;
 
+        // The process which had the CPU last, for the instrumentation
+        int lastDispatched = -1;
+
         // Round-robin loop
         while (runRoundRobinLoop) {
             // This is a promise that if no burst times are greater than 0,
@@ -155,6 +183,12 @@ public class ProcessScheduler {
                     // All good, we still loop
                     runRoundRobinLoop = true;
 
+                    if (Instrumentation.ENABLED) {
+                        Instrumentation.dispatch("RoundRobin", time, Math.min(burstsCopy[i], this.rrQuantum),
+                                                 lastDispatched >= 0 && lastDispatched != i);
+                        lastDispatched = i;
+                    }
+
                     // If the burst time is greater than the quantum
                     if (burstsCopy[i] > this.rrQuantum) {
 
@@ -190,4 +224,20 @@ public class ProcessScheduler {
         // Return the average waiting time
         return (double) IntStream.of(waitlist).sum() / waitlist.length;
     }
+
+    // The bursts of the processes, in the order of the ready queue
+    private int[] queueBursts() {
+        int[] bursts = new int[this.readyQueue.size()];
+        for (int i = 0; i < bursts.length; i++)
+            bursts[i] = this.readyQueue.get(i).getNextBurst();
+
+        return bursts;
+    }
+
+    // Report the dispatches of a run in which the processes run to the
+    // end one after the other, every one from its waiting time on
+    private static void reportDispatches(String policy, int[] waitlist, int[] bursts) {
+        for (int i = 0; i < waitlist.length; i++)
+            Instrumentation.dispatch(policy, waitlist[i], bursts[i], i > 0);
+    }
 }
@@ -0,0 +1,248 @@
+/*
+ * File:   ProcessWorkloadGenerator.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in
+ * this distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * Synthetic process workloads: CPU bursts and arrival times drawn from an
+ * exponential or a heavy-tailed Pareto distribution, reproducible from a
+ * seed and generated in parallel chunks.
+ *
+ */
+
+package schedulerproc;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import schedulercommon.ChunkedRandom;
+
+/**
+ * Process workload generator
+ *
+ * The bursts, the gaps between arrivals and the priorities are three
+ * streams, each drawn in chunks of CHUNK_SIZE values by ChunkedRandom, so
+ * any part of a stream is the same however it is generated: in one go, in
+ * pieces, or by many threads at once.
+ *
+ * EXPONENTIAL bursts are the memoryless textbook case. PARETO bursts have
+ * the same mean but a heavy tail: most processes are short and a few are
+ * very long, which is what measured CPU bursts look like, and arrivals
+ * drawn from it come in bursts. Both are rounded to whole time units, the
+ * bursts being at least 1.
+ */
+public class ProcessWorkloadGenerator {
+
+    public enum Distribution {
+        EXPONENTIAL, PARETO
+    }
+
+    /**
+     * The number of values drawn from one SplittableRandom
+     */
+    public static final int CHUNK_SIZE = ChunkedRandom.CHUNK_SIZE;
+
+    // The streams of the workload
+    private static final int BURSTS = 0;
+    private static final int GAPS = 1;
+    private static final int PRIORITIES = 2;
+
+    private final long seed;
+    private final Distribution distribution;
+    private final double meanBurst;
+    private final double meanInterarrival;
+    private double paretoShape;
+    private int priorities;
+
+    /**
+     * @param seed the seed of the workload
+     * @param distribution the distribution of the bursts and of the gaps
+     *                     between arrivals
+     * @param meanBurst the mean burst
+     * @param meanInterarrival the mean gap between two arrivals
+     */
+    public ProcessWorkloadGenerator(long seed, Distribution distribution, double meanBurst, double meanInterarrival) {
+        if (!(meanBurst > 0))
+            throw new IllegalArgumentException("meanBurst must be positive: " + meanBurst);
+        if (!(meanInterarrival >= 0))
+            throw new IllegalArgumentException("meanInterarrival must not be negative: " + meanInterarrival);
+
+        this.seed = seed;
+        this.distribution = distribution;
+        this.meanBurst = meanBurst;
+        this.meanInterarrival = meanInterarrival;
+        this.paretoShape = 1.5;
+        this.priorities = 128;
+    }
+
+    /**
+     * @param paretoShape the shape of the Pareto distribution, above 1 so
+     *                    that the mean exists, 1.5 by default (the smaller
+     *                    it is, the heavier the tail)
+     */
+    public void setParetoShape(double paretoShape) {
+        if (!(paretoShape > 1))
+            throw new IllegalArgumentException("paretoShape must be above 1: " + paretoShape);
+
+        this.paretoShape = paretoShape;
+    }
+
+    /**
+     * @param priorities the number of priorities, drawn uniformly from 0,
+     *                   128 by default
+     */
+    public void setPriorities(int priorities) {
+        if (priorities < 1)
+            throw new IllegalArgumentException("priorities must be positive: " + priorities);
+
+        this.priorities = priorities;
+    }
+
+    /**
+     * @param start the index of the first process
+     * @param out where to put the bursts
+     * @param off the index in out of the first one
+     * @param len the number of processes
+     */
+    public void fillBursts(long start, int[] out, int off, int len) {
+        fill(BURSTS, start, out, off, len);
+    }
+
+    /**
+     * @param start the index of the first process
+     * @param out where to put the gaps between the arrival of every process
+     *            and that of the one before it
+     * @param off the index in out of the first one
+     * @param len the number of processes
+     */
+    public void fillInterarrivals(long start, int[] out, int off, int len) {
+        fill(GAPS, start, out, off, len);
+    }
+
+    /**
+     * @param start the index of the first process
+     * @param out where to put the priorities
+     * @param off the index in out of the first one
+     * @param len the number of processes
+     */
+    public void fillPriorities(long start, int[] out, int off, int len) {
+        fill(PRIORITIES, start, out, off, len);
+    }
+
+    /**
+     * @param n the number of processes
+     * @return the bursts of the first n processes
+     */
+    public int[] generateBursts(int n) {
+        return generate(BURSTS, n);
+    }
+
+    /**
+     * @param n the number of processes
+     * @return the priorities of the first n processes
+     */
+    public int[] generatePriorities(int n) {
+        return generate(PRIORITIES, n);
+    }
+
+    /**
+     * The arrival time of a process is the sum of the gaps up to it, so
+     * the chunks are summed in parallel first, and then shifted by the
+     * total of the chunks before them, in parallel again.
+     *
+     * @param n the number of processes
+     * @return the arrival times of the first n processes, which do not go
+     *         above Integer.MAX_VALUE
+     */
+    public int[] generateArrivals(int n) {
+        int[] arrivals = generate(GAPS, n);
+        int chunks = ChunkedRandom.chunks(n);
+
+        // The sums within every chunk
+        long[] totals = new long[chunks + 1];
+        ChunkedRandom.forEachChunk(n, k -> {
+            long sum = 0;
+            for (int i = k * CHUNK_SIZE; i < Math.min(n, (k + 1L) * CHUNK_SIZE); i++) {
+                sum += arrivals[i];
+                arrivals[i] = (int) Math.min(Integer.MAX_VALUE, sum);
+            }
+            totals[k + 1] = sum;
+        });
+
+        // The sums of the chunks before every chunk
+        for (int k = 1; k <= chunks; k++)
+            totals[k] += totals[k - 1];
+
+        // Shift every chunk but the first, which has nothing before it
+        ChunkedRandom.forEachChunk(n, k -> {
+            if (k == 0)
+                return;
+            for (int i = k * CHUNK_SIZE; i < Math.min(n, (k + 1L) * CHUNK_SIZE); i++)
+                arrivals[i] = (int) Math.min(Integer.MAX_VALUE, arrivals[i] + totals[k]);
+        });
+
+        return arrivals;
+    }
+
+    /**
+     * @param n the number of processes
+     * @return the first n processes, with their bursts, priorities and
+     *         arrival times
+     */
+    public SimpleProcess[] generateProcesses(int n) {
+        int[] bursts = generateBursts(n);
+        int[] priorities = generatePriorities(n);
+        int[] arrivals = generateArrivals(n);
+
+        SimpleProcess[] processes = new SimpleProcess[n];
+        IntStream.range(0, n).parallel()
+                .forEach(i -> processes[i] = new SimpleProcess(bursts[i], priorities[i], arrivals[i]));
+
+        return processes;
+    }
+
+    private void fill(int stream, long start, int[] out, int off, int len) {
+        ChunkedRandom.fill(this.seed, stream, source(stream), start, out, off, len);
+    }
+
+    // The first n values of a stream, one chunk per task on the common
+    // ForkJoin pool
+    private int[] generate(int stream, int n) {
+        if (n < 0)
+            throw new IllegalArgumentException("n must not be negative: " + n);
+
+        int[] values = new int[n];
+        ChunkedRandom.fillParallel(this.seed, stream, source(stream), 0, values, n);
+
+        return values;
+    }
+
+    // How the values of a stream are drawn
+    private ChunkedRandom.Source source(int stream) {
+        switch (stream) {
+            case BURSTS:
+                return (random, i) -> (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                        Math.round(draw(random, this.meanBurst))));
+            case GAPS:
+                return (random, i) -> (int) Math.min(Integer.MAX_VALUE,
+                        Math.round(draw(random, this.meanInterarrival)));
+            default:
+                return (random, i) -> random.nextInt(this.priorities);
+        }
+    }
+
+    // A value of the distribution with the given mean, by inversion
+    private double draw(SplittableRandom random, double mean) {
+        double u = 1 - random.nextDouble();
+
+        if (this.distribution == Distribution.EXPONENTIAL)
+            return -mean * Math.log(u);
+
+        // The scale which gives the mean for the shape
+        double scale = mean * (this.paretoShape - 1) / this.paretoShape;
+        return scale / Math.pow(u, 1 / this.paretoShape);
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * File:   QuantumSweep.java
+ *
+ * License:
+ * The code is licensed under MIT License. Please read the LICENSE file in
+ * this distribution for details regarding the licensing of this code.
+ *
+ * Description:
+ * The sweep of round-robin over its time quantum, next to the policies
+ * which do not have one.
+ *
+ */
+
+package schedulerproc;
+
+import schedulercommon.ColumnarWriter;
+import schedulercommon.SweepRunner;
+
+/**
+ * Quantum sweep
+ *
+ * One round-robin cell per quantum, plus one cell for each of FCFS, SJF
+ * and priority scheduling, whose rows have a quantum of 0 as they do not
+ * use one. Every cell runs on a ProcessScheduler of its own, filled with
+ * the same processes (which never change, so they are shared).
+ */
+public final class QuantumSweep {
+
+    public enum Policy {
+        FCFS, SJF, PRIORITY, ROUND_ROBIN
+    }
+
+    public static final String[] COLUMNS = {
+        "policy", "quantum", "processes", "average_wait", "nanos"
+    };
+
+    public static final ColumnarWriter.Type[] TYPES = {
+        ColumnarWriter.Type.STRING, ColumnarWriter.Type.LONG, ColumnarWriter.Type.LONG,
+        ColumnarWriter.Type.DOUBLE, ColumnarWriter.Type.LONG
+    };
+
+    private QuantumSweep() {
+    }
+
+    /**
+     * @param processes the processes, in the order they are added to the
+     *                  ready queue, shared by all the cells
+     * @param policies the policies to run
+     * @param quanta the time quanta of round-robin
+     * @return the sweep, not started yet
+     */
+    public static SweepRunner create(SimpleProcess[] processes, Policy[] policies, int[] quanta) {
+        for (int quantum : quanta)
+            if (quantum < 1)
+                throw new IllegalArgumentException("quantum must be positive: " + quantum);
+
+        SweepRunner sweep = new SweepRunner(COLUMNS, TYPES);
+
+        for (Policy policy : policies) {
+            if (policy != Policy.ROUND_ROBIN) {
+                sweep.add(() -> run(processes, policy, 0));
+                continue;
+            }
+
+            for (int quantum : quanta)
+                sweep.add(() -> run(processes, policy, quantum));
+        }
+
+        return sweep;
+    }
+
+    private static Object[] run(SimpleProcess[] processes, Policy policy, int quantum) {
+        // The quantum is only looked at by round-robin
+        ProcessScheduler scheduler = new ProcessScheduler(Math.max(1, quantum));
+        for (SimpleProcess process : processes)
+            scheduler.add(process);
+
+        long begin = System.nanoTime();
+        double averageWait;
+        switch (policy) {
+            case FCFS:
+                averageWait = scheduler.useFirstComeFirstServe();
+                break;
+            case SJF:
+                averageWait = scheduler.useShortestJobFirst();
+                break;
+            case PRIORITY:
+                averageWait = scheduler.usePriorityScheduling();
+                break;
+            default:
+                averageWait = scheduler.useRoundRobin();
+        }
+        long nanos = System.nanoTime() - begin;
+
+        return new Object[] {policy, quantum, processes.length, averageWait, nanos};
+    }
+
+}
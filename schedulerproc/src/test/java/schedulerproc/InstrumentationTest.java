@@ -0,0 +1,119 @@
+package schedulerproc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import schedulercommon.MetricsRegistry;
+
+public class InstrumentationTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private int samplePeriod;
+
+    public InstrumentationTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        samplePeriod = Instrumentation.getSamplePeriod();
+    }
+
+    @After
+    public void tearDown() {
+        Instrumentation.setSamplePeriod(samplePeriod);
+    }
+
+    /**
+     * Test of the dispatch events, of class Instrumentation.
+     */
+    @Test
+    public void testEvents() throws IOException {
+        System.out.println("DispatchEvent");
+        MetricsRegistry registry = Instrumentation.getRegistry();
+        long dispatches = registry.getCount("dispatches");
+        long switches = registry.getCount("context_switches");
+        Path path = folder.newFile("dispatches.jfr").toPath();
+
+        try (Recording recording = new Recording()) {
+            recording.enable("schedulerproc.Dispatch");
+            recording.start();
+
+            Instrumentation.setSamplePeriod(1);
+            for (int i = 0; i < 100; i++)
+                Instrumentation.dispatch("RoundRobin", 4 * i, 4, i % 2 == 0);
+
+            recording.stop();
+            recording.dump(path);
+        }
+
+        assertEquals(dispatches + 100, registry.getCount("dispatches"));
+        assertEquals(switches + 50, registry.getCount("context_switches"));
+
+        int found = 0;
+        List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+        for (RecordedEvent event : events) {
+            if (!event.getEventType().getName().equals("schedulerproc.Dispatch"))
+                continue;
+
+            assertEquals("RoundRobin", event.getString("policy"));
+            assertEquals(4, event.getLong("length"));
+            assertEquals(event.getLong("start") % 8 == 0, event.getBoolean("contextSwitch"));
+            found++;
+        }
+        assertEquals(100, found);
+    }
+
+    /**
+     * Test of the counters of ProcessScheduler, with the instrumentation on.
+     */
+    @Test
+    public void testProcessScheduler() {
+        System.out.println("ProcessScheduler counters");
+        assumeTrue(Instrumentation.ENABLED);
+
+        MetricsRegistry registry = Instrumentation.getRegistry();
+        ProcessScheduler instance = new ProcessScheduler();
+        instance.add(new SimpleProcess(24, 0, 1));
+        instance.add(new SimpleProcess(3, 0, 2));
+        instance.add(new SimpleProcess(3, 0, 3));
+
+        long dispatches = registry.getCount("dispatches");
+        long switches = registry.getCount("context_switches");
+        instance.useFirstComeFirstServe();
+        assertEquals(3, registry.getCount("dispatches") - dispatches);
+        assertEquals(2, registry.getCount("context_switches") - switches);
+
+        // 24 takes six quanta, the last five of them without a switch
+        dispatches = registry.getCount("dispatches");
+        switches = registry.getCount("context_switches");
+        instance.useRoundRobin();
+        assertEquals(8, registry.getCount("dispatches") - dispatches);
+        assertEquals(3, registry.getCount("context_switches") - switches);
+    }
+
+}
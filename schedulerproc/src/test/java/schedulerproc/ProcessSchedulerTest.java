@@ -176,4 +176,27 @@ public class ProcessSchedulerTest {
 
         assertEquals(expResult, result, 0.01);
     }
+
+    /**
+     * Test of useRoundRobin method with a given quantum, of class ProcessScheduler.
+     */
+    @Test
+    public void testUseRoundRobinQuantum() {
+        System.out.println("useRoundRobin quantum");
+        ProcessScheduler instance = new ProcessScheduler(2);
+        instance.add(new SimpleProcess(24, 0, 1));
+        instance.add(new SimpleProcess(3, 0, 2));
+        instance.add(new SimpleProcess(3, 0, 3));
+
+        assertEquals(2, instance.getRoundRobinQuantum());
+        assertEquals(19.0 / 3, instance.useRoundRobin(), 0.01);
+
+        // A quantum longer than every burst is FCFS
+        instance = new ProcessScheduler(30);
+        instance.add(new SimpleProcess(24, 0, 1));
+        instance.add(new SimpleProcess(3, 0, 2));
+        instance.add(new SimpleProcess(3, 0, 3));
+
+        assertEquals(instance.useFirstComeFirstServe(), instance.useRoundRobin(), 0.01);
+    }
 }
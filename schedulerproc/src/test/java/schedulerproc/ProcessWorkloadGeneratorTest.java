@@ -0,0 +1,126 @@
+package schedulerproc;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import schedulerproc.ProcessWorkloadGenerator.Distribution;
+
+public class ProcessWorkloadGeneratorTest {
+
+    public ProcessWorkloadGeneratorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of generateBursts and fillBursts methods, of class
+     * ProcessWorkloadGenerator: the bursts only depend on the seed, however
+     * they are cut.
+     */
+    @Test
+    public void testDeterministic() {
+        System.out.println("generateBursts and fillBursts");
+        ProcessWorkloadGenerator instance = new ProcessWorkloadGenerator(48, Distribution.PARETO, 10, 5);
+        int n = 2 * ProcessWorkloadGenerator.CHUNK_SIZE + 321;
+        int[] expected = instance.generateBursts(n);
+
+        int[] pieces = new int[n];
+        for (int off = 0; off < n; off += 50000)
+            instance.fillBursts(off, pieces, off, Math.min(50000, n - off));
+        assertArrayEquals(expected, pieces);
+
+        ProcessWorkloadGenerator same = new ProcessWorkloadGenerator(48, Distribution.PARETO, 10, 5);
+        assertArrayEquals(expected, same.generateBursts(n));
+
+        ProcessWorkloadGenerator other = new ProcessWorkloadGenerator(49, Distribution.PARETO, 10, 5);
+        assertFalse(Arrays.equals(expected, other.generateBursts(n)));
+
+        // The streams are independent of each other
+        assertFalse(Arrays.equals(instance.generateBursts(1000), instance.generatePriorities(1000)));
+    }
+
+    /**
+     * Test of generateBursts method, of class ProcessWorkloadGenerator: both
+     * distributions have the requested mean, the Pareto one a heavier tail.
+     */
+    @Test
+    public void testDistributions() {
+        System.out.println("generateBursts");
+        int n = 1000000;
+        int[] exponential = new ProcessWorkloadGenerator(1, Distribution.EXPONENTIAL, 100, 1).generateBursts(n);
+        ProcessWorkloadGenerator paretoGenerator = new ProcessWorkloadGenerator(1, Distribution.PARETO, 100, 1);
+        paretoGenerator.setParetoShape(3);
+        int[] pareto = paretoGenerator.generateBursts(n);
+
+        assertEquals(100, Arrays.stream(exponential).average().getAsDouble(), 1);
+        assertEquals(100, Arrays.stream(pareto).average().getAsDouble(), 2);
+        assertTrue(Arrays.stream(exponential).min().getAsInt() >= 1);
+
+        // The exponential tail beyond 10 means is e^-10, the Pareto one
+        // (2/3 / 10)^3, a hundred times more
+        long exponentialTail = Arrays.stream(exponential).filter(burst -> burst > 1000).count();
+        long paretoTail = Arrays.stream(pareto).filter(burst -> burst > 1000).count();
+        assertTrue(exponentialTail < 150);
+        assertTrue(paretoTail > 150);
+    }
+
+    /**
+     * Test of generateArrivals method, of class ProcessWorkloadGenerator.
+     */
+    @Test
+    public void testArrivals() {
+        System.out.println("generateArrivals");
+        ProcessWorkloadGenerator instance = new ProcessWorkloadGenerator(3, Distribution.EXPONENTIAL, 10, 4);
+        int n = 3 * ProcessWorkloadGenerator.CHUNK_SIZE + 5;
+        int[] gaps = new int[n];
+        instance.fillInterarrivals(0, gaps, 0, n);
+        int[] arrivals = instance.generateArrivals(n);
+
+        long time = 0;
+        for (int i = 0; i < n; i++) {
+            time += gaps[i];
+            assertEquals(time, arrivals[i]);
+        }
+        assertEquals(4, (double) time / n, 0.05);
+    }
+
+    /**
+     * Test of generateProcesses method, of class ProcessWorkloadGenerator.
+     */
+    @Test
+    public void testGenerateProcesses() {
+        System.out.println("generateProcesses");
+        ProcessWorkloadGenerator instance = new ProcessWorkloadGenerator(9, Distribution.EXPONENTIAL, 10, 4);
+        instance.setPriorities(4);
+        SimpleProcess[] processes = instance.generateProcesses(1000);
+        int[] bursts = instance.generateBursts(1000);
+        int[] arrivals = instance.generateArrivals(1000);
+
+        for (int i = 0; i < processes.length; i++) {
+            assertEquals(bursts[i], processes[i].getNextBurst());
+            assertEquals(arrivals[i], processes[i].getArrivalTime());
+            assertTrue(processes[i].getPriority() >= 0 && processes[i].getPriority() < 4);
+        }
+    }
+
+}
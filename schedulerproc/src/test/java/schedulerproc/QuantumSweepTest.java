@@ -0,0 +1,96 @@
+package schedulerproc;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import schedulercommon.SweepRunner;
+
+public class QuantumSweepTest {
+
+    public QuantumSweepTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of create, of class QuantumSweep.
+     */
+    @Test
+    public void testCreate() throws IOException {
+        System.out.println("create");
+        SimpleProcess[] processes = new ProcessWorkloadGenerator(49, ProcessWorkloadGenerator.Distribution.PARETO,
+                10, 5).generateProcesses(500);
+        int[] quanta = {1, 2, 4, 8, 16, 1000000};
+
+        SweepRunner sweep = QuantumSweep.create(processes, QuantumSweep.Policy.values(), quanta);
+        assertEquals(3 + quanta.length, sweep.getCellCount());
+
+        List<Object[]> rows = sweep.run();
+        assertEquals(sweep.getCellCount(), rows.size());
+
+        // Every row against the same run on a scheduler of its own
+        double fcfs = Double.NaN;
+        double longest = Double.NaN;
+        for (Object[] row : rows) {
+            QuantumSweep.Policy policy = (QuantumSweep.Policy) row[0];
+            int quantum = (Integer) row[1];
+            ProcessScheduler scheduler = new ProcessScheduler(Math.max(1, quantum));
+            for (SimpleProcess process : processes)
+                scheduler.add(process);
+
+            double expected;
+            switch (policy) {
+                case FCFS:
+                    expected = scheduler.useFirstComeFirstServe();
+                    fcfs = expected;
+                    break;
+                case SJF:
+                    expected = scheduler.useShortestJobFirst();
+                    break;
+                case PRIORITY:
+                    expected = scheduler.usePriorityScheduling();
+                    break;
+                default:
+                    expected = scheduler.useRoundRobin();
+                    if (quantum == 1000000)
+                        longest = expected;
+            }
+
+            assertEquals(policy == QuantumSweep.Policy.ROUND_ROBIN, quantum > 0);
+            assertEquals(500, row[2]);
+            assertEquals(expected, (Double) row[3], 0);
+        }
+
+        // A quantum longer than every burst is FCFS
+        assertEquals(fcfs, longest, 0);
+
+        try {
+            QuantumSweep.create(processes, QuantumSweep.Policy.values(), new int[] {0});
+            fail("a quantum of 0");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+}